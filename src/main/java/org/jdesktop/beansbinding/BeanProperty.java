@@ -47,23 +47,19 @@ package org.jdesktop.beansbinding;
 import java.util.IdentityHashMap;
 import java.util.Map;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-import java.beans.BeanInfo;
-import java.beans.EventSetDescriptor;
-import java.beans.IndexedPropertyDescriptor;
 import java.beans.IntrospectionException;
-import java.beans.Introspector;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
-import java.beans.PropertyDescriptor;
 import static org.jdesktop.beansbinding.PropertyStateEvent.UNREADABLE;
 import org.jdesktop.beansbinding.util.logging.Logger;
 import org.jdesktop.beansbinding.ext.BeanAdapterFactory;
+import org.jdesktop.el.impl.util.BeanAccessors;
 import org.jdesktop.observablecollections.ObservableMap;
-import org.jdesktop.observablecollections.ObservableMapListener;
+import org.jdesktop.observablecollections.MapChangeSet;
+import org.jdesktop.observablecollections.ObservableMapBatchListener;
 import org.jdesktop.xbindings.XBinding;
 import org.jdesktop.xbindings.XBindingOptions;
+import org.jdesktop.xbindings.XNotifyPropertyChanged;
 import org.jdesktop.xbindings.properties.XProperty;
 import org.jdesktop.xbindings.properties.XPropertyAdapterProvider;
 import org.jdesktop.xbindings.properties.XReadOnlyProperty;
@@ -168,6 +164,14 @@ import org.jdesktop.xbindings.properties.XReadOnlyPropertyAdapterProvider;
  * A {@code BeanProperty} should not be used again for that same source object
  * after such an exception without first removing all listeners associated with
  * the {@code BeanProperty} for that source object.
+ * <p>
+ * A {@code BeanProperty} created with {@link #createLazy(String)} doesn't
+ * re-read the path when an object along it changes. Instead, it notifies its
+ * listeners once with a new value of {@link PropertyStateEvent#UNKNOWN} and
+ * resolves the path again on the next call to one of its methods for that
+ * source object. Further changes before that call are not reported. If the
+ * writeability has changed, that call notifies the listeners of it with a
+ * second event.
  *
  * @param <S> the type of source object that this {@code BeanProperty} operates on
  * @param <V> the type of value that this {@code BeanProperty} represents
@@ -180,16 +184,23 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
     private static final String CLASS = ELProperty.class.getName();
     private static final Logger logger = Logger.getLogger(CLASS);
     private static final Object NOREAD = new Object();
+    private static final int CLEAN = Integer.MAX_VALUE;
     private Property<S, ?> baseProperty;
     private final PropertyPath path;
+    private final boolean lazy;
     private IdentityHashMap<S, SourceEntry> map = new IdentityHashMap<S, SourceEntry>();
 
+    // the entry found by the last lookup, since consecutive calls are
+    // usually made for the same source
+    private SourceEntry lastEntry;
+
     /**
      * @throws IllegalArgumentException for empty or {@code null} path.
      */
-    private BeanProperty(Property<S, ?> baseProperty, String path) {
+    private BeanProperty(Property<S, ?> baseProperty, String path, boolean lazy) {
         this.path = PropertyPath.createPropertyPath(path);
         this.baseProperty = baseProperty;               
+        this.lazy = lazy;
     }
 
     /**
@@ -201,7 +212,7 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
      *         no property names
      */
     public static final <S, V> BeanProperty<S, V> create(String path) {
-        return new BeanProperty<S, V>(null, path);
+        return new BeanProperty<S, V>(null, path, false);
     }
 
     /**
@@ -216,7 +227,57 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
      */
     public static final <S, V> BeanProperty<S, V> create(
         Property<S, ?> baseProperty, String path) {
-        return new BeanProperty<S, V>(baseProperty, path);
+        return new BeanProperty<S, V>(baseProperty, path, false);
+    }
+
+    /**
+     * Creates an instance of {@code BeanProperty} for the given path, which
+     * resolves the path lazily while listeners are installed.
+     * <p>
+     * The events of a lazy property may carry {@link PropertyStateEvent#UNKNOWN}
+     * as their new value. Bindings which read the source or target through
+     * {@code getValue} ({@code AutoBinding}, {@code JTableBinding},
+     * {@code JListBinding}, {@code JComboBoxBinding}, the column and detail
+     * bindings and the {@code XBinding}s) handle this. Don't pass a lazy
+     * property to a {@code Binding} subclass, {@code BindingListener} or
+     * {@code PropertyStateListener} which uses {@code getNewValue()} of the
+     * events without checking for {@code UNKNOWN}; such code should use
+     * {@link PropertyStateEvent#getResolvedNewValue()} instead.
+     *
+     * @param path the path
+     * @return a lazy instance of {@code BeanProperty} for the given path
+     * @throws IllegalArgumentException if the path is null, or contains
+     *         no property names
+     */
+    public static final <S, V> BeanProperty<S, V> createLazy(String path) {
+        return new BeanProperty<S, V>(null, path, true);
+    }
+
+    /**
+     * Creates an instance of {@code BeanProperty} for the given base property
+     * and path, which resolves the path lazily while listeners are installed.
+     * The path is relative to the value of the base property. See
+     * {@link #createLazy(String)} for the bindings a lazy property can be
+     * used with.
+     *
+     * @param baseProperty the base property
+     * @param path the path
+     * @return a lazy instance of {@code BeanProperty} for the given base property and path
+     * @throws IllegalArgumentException if the path is null, or contains
+     *         no property names
+     */
+    public static final <S, V> BeanProperty<S, V> createLazy(
+        Property<S, ?> baseProperty, String path) {
+        return new BeanProperty<S, V>(baseProperty, path, true);
+    }
+
+    /**
+     * Returns whether this property resolves its path lazily.
+     *
+     * @return whether this property was created with {@code createLazy}
+     */
+    public boolean isLazy() {
+        return lazy;
     }
 
     private Object getLastSource(S source) {
@@ -256,9 +317,10 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
      * @see #isWriteable
      */
     public Class<?extends V> getWriteType(S source) {
-        SourceEntry entry = map.get(source);
+        SourceEntry entry = getSourceEntry(source);
 
         if (entry != null) {
+            entry.refresh();
             entry.validateCache(-1);
 
             if (entry.cachedWriter == null) {
@@ -282,9 +344,10 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
      * @see #isReadable
      */
     public V getValue(S source) {
-        SourceEntry entry = map.get(source);
+        SourceEntry entry = getSourceEntry(source);
 
         if (entry != null) {
+            entry.refresh();
             entry.validateCache(-1);
 
             if (entry.cachedValue == NOREAD) {
@@ -321,9 +384,10 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
      * @see #getWriteType
      */
     public void setValue(S source, V value) {
-        SourceEntry entry = map.get(source);
+        SourceEntry entry = getSourceEntry(source);
 
         if (entry != null) {
+            entry.refresh();
             entry.validateCache(-1);
 
             if (entry.cachedWriter == null) {
@@ -364,9 +428,10 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
      * @see #isWriteable
      */
     public boolean isReadable(S source) {
-        SourceEntry entry = map.get(source);
+        SourceEntry entry = getSourceEntry(source);
 
         if (entry != null) {
+            entry.refresh();
             entry.validateCache(-1);
 
             return entry.cachedIsReadable();
@@ -399,9 +464,10 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
      * @see #isReadable
      */
     public boolean isWriteable(S source) {
-        SourceEntry entry = map.get(source);
+        SourceEntry entry = getSourceEntry(source);
 
         if (entry != null) {
+            entry.refresh();
             entry.validateCache(-1);
 
             return entry.cachedIsWriteable();
@@ -452,7 +518,7 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
 
     @Override
     protected final void listeningStarted(S source) {
-        SourceEntry entry = map.get(source);
+        SourceEntry entry = getSourceEntry(source);
 
         if (entry == null) {
             entry = new SourceEntry(source);
@@ -465,10 +531,34 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
         SourceEntry entry = map.remove(source);
 
         if (entry != null) {
+            if (entry == lastEntry) {
+                lastEntry = null;
+            }
+
             entry.cleanup();
         }
     }
 
+    private SourceEntry getSourceEntry(S source) {
+        SourceEntry entry = lastEntry;
+
+        if ((entry != null) && (entry.source == source)) {
+            return entry;
+        }
+
+        if (map.isEmpty()) {
+            return null;
+        }
+
+        entry = map.get(source);
+
+        if (entry != null) {
+            lastEntry = entry;
+        }
+
+        return entry;
+    }
+
     private static boolean didValueChange(Object oldValue, Object newValue) {
         return (oldValue == null) || (newValue == null) ||
         !oldValue.equals(newValue);
@@ -499,6 +589,26 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
         this.firePropertyStateChange(pse);
     }
 
+    private void notifyListenersOfUnknownValue(SourceEntry entry) {
+        PropertyStateEvent pse = new PropertyStateEvent(this, entry.source,
+                true, toUNREADABLE(entry.cachedValue), PropertyStateEvent.UNKNOWN,
+                false, entry.cachedIsWriteable());
+
+        this.firePropertyStateChange(pse);
+    }
+
+    /**
+     * Reports a change of the writeability found when a lazy entry is
+     * refreshed, since the {@code UNKNOWN} event couldn't report it.
+     */
+    private void notifyListenersOfWriteableChange(SourceEntry entry) {
+        Object value = toUNREADABLE(entry.cachedValue);
+        PropertyStateEvent pse = new PropertyStateEvent(this, entry.source,
+                false, value, value, true, entry.cachedIsWriteable());
+
+        this.firePropertyStateChange(pse);
+    }
+
     /**
      * Returns a string representation of the {@code BeanProperty}. This
      * method is intended to be used for debugging purposes only, and
@@ -516,11 +626,11 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
     /**
      * @throws PropertyResolutionException
      */
-    private static BeanInfo getBeanInfo(Object object) {
+    private static BeanAccessors getBeanAccessors(Object object) {
         assert object != null;
 
         try {
-            return Introspector.getBeanInfo(object.getClass());
+            return BeanAccessors.forClass(object.getClass());
         } catch (IntrospectionException ie) {
             throw new PropertyResolutionException(
                 "Exception while introspecting " + object.getClass().getName(),
@@ -528,65 +638,10 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
         }
     }
 
-    /**
-     * Returns a public form of the given method for the given class.
-     * <p>
-     * If a {@code PropertyDescriptor} is obtained for a non-public class that
-     * implements a public interface, the read/write methods will be for the
-     * class, and therefore inaccessible. To correct this, a version of the
-     * same method must be found in a superclass or interface.
-     *
-     * @param cl the class on which to search for the method
-     * @param method the method
-     * @return a public form of the given method for the given class,
-     *         or {@code null} if one can't be found
-     */
-    static private Method getPublicForm(Class cl, Method method) {
-        if (method == null) {
-            return null;
-        }
-
-        if (Modifier.isPublic(cl.getModifiers())) {
-            return method;
-        }
-
-        for (Class c : cl.getInterfaces()) {
-            Method m = null;
-
-            try {
-                m = c.getMethod(method.getName(), method.getParameterTypes());
-                c = m.getDeclaringClass();
-
-                if ((m = getPublicForm(c, m)) != null) {
-                    return m;
-                }
-            } catch (NoSuchMethodException ex) {
-            }
-        }
-
-        Class c = cl.getSuperclass();
-
-        if (c != null) {
-            Method m = null;
-
-            try {
-                m = c.getMethod(method.getName(), method.getParameterTypes());
-                c = m.getDeclaringClass();
-
-                if ((m = getPublicForm(c, m)) != null) {
-                    return m;
-                }
-            } catch (NoSuchMethodException ex) {
-            }
-        }
-
-        return null;
-    }
-
     /**
      * @throws PropertyResolutionException
      */
-    private static PropertyDescriptor getPropertyDescriptor(Object object,
+    private static BeanAccessors.Accessor getAccessor(Object object,
         String string) {
         assert object != null;
         
@@ -599,45 +654,42 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
             }
         }
 
-        PropertyDescriptor[] pds = getBeanInfo(object).getPropertyDescriptors();
-
-        if (pds == null) {
-            return null;
-        }
-
-        for (PropertyDescriptor pd : pds) {
-            if (!(pd instanceof IndexedPropertyDescriptor) &&
-                    pd.getName().equals(string)) {
-                return pd;
-            }
-        }
+        BeanAccessors.Accessor accessor = getBeanAccessors(object).getAccessor(string);
 
-        return null;
+        return (accessor == null || accessor.isIndexed()) ? null : accessor;
     }
 
-    private static EventSetDescriptor getEventSetDescriptor(Object object) {
-        assert object != null;
-
-        EventSetDescriptor[] eds = getBeanInfo(object).getEventSetDescriptors();
+    /**
+     * @throws PropertyResolutionException
+     */
+    private static Object invokeReader(BeanAccessors.Accessor accessor,
+        Object object) {
+        Exception reason = null;
 
-        for (EventSetDescriptor ed : eds) {
-            if (ed.getListenerType() == PropertyChangeListener.class) {
-                return ed;
-            }
+        try {
+            return accessor.get(object);
+        } catch (IllegalArgumentException ex) {
+            reason = ex;
+        } catch (IllegalAccessException ex) {
+            reason = ex;
+        } catch (InvocationTargetException ex) {
+            reason = ex;
         }
 
-        return null;
+        throw new PropertyResolutionException("Exception invoking method " +
+            accessor.getReadMethod() + " on " + object, reason);
     }
 
     /**
      * @throws PropertyResolutionException
      */
-    private static Object invokeMethod(Method method, Object object,
-        Object... args) {
+    private static void invokeWriter(BeanAccessors.Accessor accessor,
+        Object object, Object value) {
         Exception reason = null;
 
         try {
-            return method.invoke(object, args);
+            accessor.set(object, value);
+            return;
         } catch (IllegalArgumentException ex) {
             reason = ex;
         } catch (IllegalAccessException ex) {
@@ -647,7 +699,7 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
         }
 
         throw new PropertyResolutionException("Exception invoking method " +
-            method + " on " + object, reason);
+            accessor.getWriteMethod() + " on " + object, reason);
     }
 
     private Object getReader(Object object, String string) {
@@ -659,11 +711,9 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
 
         object = getAdapter(object, string);
 
-        PropertyDescriptor pd = getPropertyDescriptor(object, string);
+        BeanAccessors.Accessor accessor = getAccessor(object, string);
 
-        return (pd == null) ? null
-                            : getPublicForm(object.getClass(),
-            pd.getReadMethod());
+        return (accessor == null || !accessor.isReadable()) ? null : accessor;
     }
 
     /**
@@ -680,7 +730,7 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
 
         object = getAdapter(object, string);
 
-        return invokeMethod((Method) reader, object);
+        return invokeReader((BeanAccessors.Accessor) reader, object);
     }
 
     /**
@@ -714,15 +764,14 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
 
         object = getAdapter(object, string);
 
-        PropertyDescriptor pd = getPropertyDescriptor(object, string);
+        BeanAccessors.Accessor accessor = getAccessor(object, string);
 
-        if ((pd == null) ||
-                (getPublicForm(object.getClass(), pd.getWriteMethod()) == null)) {
+        if ((accessor == null) || !accessor.isWritable()) {
             logger.severe("getType(): missing write method");
             throw new UnsupportedOperationException("Unwritable");
         }
 
-        return pd.getPropertyType();
+        return accessor.getPropertyType();
     }
 
     private Object getWriter(Object object, String string) {
@@ -734,11 +783,9 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
 
         object = getAdapter(object, string);
 
-        PropertyDescriptor pd = getPropertyDescriptor(object, string);
+        BeanAccessors.Accessor accessor = getAccessor(object, string);
 
-        return (pd == null) ? null
-                            : getPublicForm(object.getClass(),
-            pd.getWriteMethod());
+        return (accessor == null || !accessor.isWritable()) ? null : accessor;
     }
 
     /**
@@ -756,7 +803,7 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
 
         object = getAdapter(object, string);
 
-        invokeMethod((Method) writer, object, value);
+        invokeWriter((BeanAccessors.Accessor) writer, object, value);
     }
 
     /**
@@ -790,8 +837,9 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
             if (object instanceof ObservableMap) {
                 ((ObservableMap) object).addObservableMapListener(entry);
             } else if (!(object instanceof Map)) {
-                object = getAdapter(object, property);
-                addPropertyChangeListener(object, entry);
+                Object adapter = getAdapter(object, property);
+                // adapters may report the property under another name
+                addPropertyChangeListener(adapter, adapter == object ? property : null, entry);
             }
         }
     }
@@ -805,8 +853,8 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
             if (object instanceof ObservableMap) {
                 ((ObservableMap) object).removeObservableMapListener(entry);
             } else if (!(object instanceof Map)) {
-                object = getAdapter(object, property);
-                removePropertyChangeListener(object, entry);
+                Object adapter = getAdapter(object, property);
+                removePropertyChangeListener(adapter, adapter == object ? property : null, entry);
             }
         }
     }
@@ -815,32 +863,77 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
      * @throws PropertyResolutionException
      */
     private static void addPropertyChangeListener(Object object,
-        PropertyChangeListener listener) {
-        EventSetDescriptor ed = getEventSetDescriptor(object);
-        Method addPCMethod = null;
+        String property, PropertyChangeListener listener) {
+        if (object instanceof XNotifyPropertyChanged) {
+            // no need for introspection if the bean tells us how
+            if (property == null) {
+                ((XNotifyPropertyChanged) object).addPropertyChangeListener(listener);
+            } else {
+                ((XNotifyPropertyChanged) object).addPropertyChangeListener(property, listener);
+            }
 
-        if ((ed == null) || ((addPCMethod = getPublicForm(object.getClass(), ed.getAddListenerMethod())) == null)) {
-            logger.warning("addPropertyChangeListener(): can't add listener");
             return;
         }
 
-        invokeMethod(addPCMethod, object, listener);
+        Exception reason = null;
+
+        try {
+            BeanAccessors accessors = getBeanAccessors(object);
+
+            // other beans may not send changes of all properties (a null
+            // property name) to listeners registered for a single property
+            if (!accessors.addPropertyChangeListener(object, listener)) {
+                logger.warning("addPropertyChangeListener(): can't add listener");
+            }
+
+            return;
+        } catch (IllegalArgumentException ex) {
+            reason = ex;
+        } catch (IllegalAccessException ex) {
+            reason = ex;
+        } catch (InvocationTargetException ex) {
+            reason = ex;
+        }
+
+        throw new PropertyResolutionException(
+            "Exception adding PropertyChangeListener to " + object, reason);
     }
 
     /**
      * @throws PropertyResolutionException
      */
     private static void removePropertyChangeListener(Object object,
-        PropertyChangeListener listener) {
-        EventSetDescriptor ed = getEventSetDescriptor(object);
-        Method removePCMethod = null;
+        String property, PropertyChangeListener listener) {
+        if (object instanceof XNotifyPropertyChanged) {
+            if (property == null) {
+                ((XNotifyPropertyChanged) object).removePropertyChangeListener(listener);
+            } else {
+                ((XNotifyPropertyChanged) object).removePropertyChangeListener(property, listener);
+            }
 
-        if ((ed == null) || ((removePCMethod = getPublicForm(object.getClass(), ed.getRemoveListenerMethod())) == null)) {
-            logger.warning("removePropertyChangeListener()", "can't remove listener from source");
             return;
         }
 
-        invokeMethod(removePCMethod, object, listener);
+        Exception reason = null;
+
+        try {
+            BeanAccessors accessors = getBeanAccessors(object);
+
+            if (!accessors.removePropertyChangeListener(object, listener)) {
+                logger.warning("removePropertyChangeListener()", "can't remove listener from source");
+            }
+
+            return;
+        } catch (IllegalArgumentException ex) {
+            reason = ex;
+        } catch (IllegalAccessException ex) {
+            reason = ex;
+        } catch (InvocationTargetException ex) {
+            reason = ex;
+        }
+
+        throw new PropertyResolutionException(
+            "Exception removing PropertyChangeListener from " + object, reason);
     }
 
     private static boolean wrapsLiteral(Object o) {
@@ -879,8 +972,8 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
     }
 
     private final class SourceEntry implements PropertyChangeListener,
-        ObservableMapListener, PropertyStateListener {
-        private S source;
+        ObservableMapBatchListener, PropertyStateListener {
+        private final S source;
         private Object cachedBean;
         private Object[] cache;
         private Object cachedValue;
@@ -888,6 +981,10 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
         private boolean ignoreChange;
         private boolean wasCleanedUp = false;
 
+        // the first index of the path which has to be resolved again by a
+        // lazy property, -1 for the bean, CLEAN if the cache is current
+        private int dirtyIndex = CLEAN;
+
         private SourceEntry(S source) {
             this.source = source;
             cache = new Object[path.length()];
@@ -1080,7 +1177,56 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
             }
         }
 
+        private void refresh() {
+            if (dirtyIndex == CLEAN) {
+                return;
+            }
+
+            int index = dirtyIndex;
+            dirtyIndex = CLEAN;
+            boolean wasWriteable = cachedIsWriteable();
+
+            if (index == -1) {
+                updateCachedBean();
+                index = 0;
+            }
+
+            updateCachedSources(index);
+            updateCachedValue();
+
+            if (index != path.length()) {
+                updateCachedWriter();
+            }
+
+            if (wasWriteable != cachedIsWriteable()) {
+                notifyListenersOfWriteableChange(this);
+            }
+        }
+
+        /**
+         * Returns whether the change was deferred, notifying the listeners
+         * unless the entry is already dirty.
+         */
+        private boolean markDirty(int index) {
+            if (!lazy) {
+                return false;
+            }
+
+            boolean wasClean = (dirtyIndex == CLEAN);
+            dirtyIndex = Math.min(dirtyIndex, index);
+
+            if (wasClean) {
+                notifyListenersOfUnknownValue(this);
+            }
+
+            return true;
+        }
+
         private void bindingPropertyChanged(PropertyStateEvent pse) {
+            if (markDirty(-1)) {
+                return;
+            }
+
             validateCache(0);
 
             Object oldValue = cachedValue;
@@ -1093,6 +1239,10 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
         }
 
         private void cachedValueChanged(int index) {
+            if (markDirty(index)) {
+                return;
+            }
+
             validateCache(index);
 
             boolean wasWriteable = cachedIsWriteable();
@@ -1166,5 +1316,22 @@ public final class BeanProperty<S, V> extends PropertyHelper<S, V> {
         public void mapKeyRemoved(ObservableMap map, Object key, Object value) {
             mapValueChanged(map, key);
         }
+
+        public void mapChanged(ObservableMap map, MapChangeSet changes) {
+            if (ignoreChange || wasCleanedUp) {
+                return;
+            }
+
+            int index = getSourceIndex(map);
+
+            if (index == -1) {
+                throw new AssertionError();
+            }
+
+            // a batch re-evaluates the path at most once
+            if (changes.containsKey(path.get(index))) {
+                cachedValueChanged(index + 1);
+            }
+        }
     }
 }
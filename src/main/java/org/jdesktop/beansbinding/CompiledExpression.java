@@ -0,0 +1,376 @@
+package org.jdesktop.beansbinding;
+
+import java.beans.IntrospectionException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+
+import org.jdesktop.beansbinding.ext.BeanAdapterFactory;
+import org.jdesktop.el.ELContext;
+import org.jdesktop.el.ELException;
+import org.jdesktop.el.impl.lang.ELArithmetic;
+import org.jdesktop.el.impl.lang.ExpressionBuilder;
+import org.jdesktop.el.impl.parser.AstBracketSuffix;
+import org.jdesktop.el.impl.parser.AstCompositeExpression;
+import org.jdesktop.el.impl.parser.AstDeferredExpression;
+import org.jdesktop.el.impl.parser.AstDiv;
+import org.jdesktop.el.impl.parser.AstDotSuffix;
+import org.jdesktop.el.impl.parser.AstDynamicExpression;
+import org.jdesktop.el.impl.parser.AstFalse;
+import org.jdesktop.el.impl.parser.AstFloatingPoint;
+import org.jdesktop.el.impl.parser.AstIdentifier;
+import org.jdesktop.el.impl.parser.AstInteger;
+import org.jdesktop.el.impl.parser.AstLiteralExpression;
+import org.jdesktop.el.impl.parser.AstMinus;
+import org.jdesktop.el.impl.parser.AstMod;
+import org.jdesktop.el.impl.parser.AstMult;
+import org.jdesktop.el.impl.parser.AstNull;
+import org.jdesktop.el.impl.parser.AstPlus;
+import org.jdesktop.el.impl.parser.AstString;
+import org.jdesktop.el.impl.parser.AstTrue;
+import org.jdesktop.el.impl.parser.AstValue;
+import org.jdesktop.el.impl.parser.Node;
+import org.jdesktop.el.impl.util.BeanAccessors;
+import org.jdesktop.xbindings.XBindingOptions;
+
+/**
+ * An EL expression translated into a tree of evaluators, used by
+ * {@link ELProperty} to read values without going through the resolver chain.
+ * <p>
+ * Only property paths, literals, arithmetic and composite text are compiled.
+ * Each property read remembers the accessor it resolved for the last bean
+ * class it saw and invokes the getter through that accessor directly. Cases
+ * which need the full resolver semantics (beans with adapters, unknown or
+ * indexed properties, non-string property names) yield {@link #FALLBACK},
+ * after which the caller must interpret the expression instead.
+ */
+final class CompiledExpression {
+
+    /**
+     * The result of an evaluation which has to be repeated by the
+     * interpreter.
+     */
+    static final Object FALLBACK = new Object();
+
+    private final Evaluator root;
+
+    private CompiledExpression(Evaluator root) {
+        this.root = root;
+    }
+
+    /**
+     * Compiles the given expression string, or returns {@code null} if it
+     * uses constructs which are only supported by the interpreter.
+     */
+    static CompiledExpression compile(String expression) {
+        try {
+            Evaluator root = compile(ExpressionBuilder.createNode(expression));
+            return (root == null) ? null : new CompiledExpression(root);
+        } catch (ELException ele) {
+            return null;
+        }
+    }
+
+    /**
+     * Evaluates the expression relative to the given source. Returns
+     * {@code ELContext.UNRESOLVABLE_RESULT} if the expression can't be
+     * resolved and {@link #FALLBACK} if it must be interpreted instead.
+     *
+     * @throws ELException if a getter throws an exception
+     */
+    Object getValue(Object source) {
+        if (source == null) {
+            return FALLBACK;
+        }
+
+        return root.evaluate(source);
+    }
+
+    private static Evaluator compile(Node node) {
+        if (node instanceof AstDeferredExpression || node instanceof AstDynamicExpression) {
+            return compile(node.jjtGetChild(0));
+        }
+
+        if (node instanceof AstInteger || node instanceof AstFloatingPoint ||
+                node instanceof AstString || node instanceof AstTrue ||
+                node instanceof AstFalse || node instanceof AstNull ||
+                node instanceof AstLiteralExpression) {
+            // literals don't use the context
+            return new Constant(node.getValue(null));
+        }
+
+        if (node instanceof AstIdentifier) {
+            return new Path(null, new Evaluator[] {new Constant(node.getImage())});
+        }
+
+        if (node instanceof AstValue) {
+            Evaluator base = compile(node.jjtGetChild(0));
+            Evaluator[] properties = new Evaluator[node.jjtGetNumChildren() - 1];
+
+            for (int i = 0; i < properties.length; i++) {
+                Node suffix = node.jjtGetChild(i + 1);
+
+                if (suffix instanceof AstDotSuffix) {
+                    properties[i] = new Constant(suffix.getImage());
+                } else if (suffix instanceof AstBracketSuffix) {
+                    properties[i] = compile(suffix.jjtGetChild(0));
+                } else {
+                    return null;
+                }
+
+                if (properties[i] == null) {
+                    return null;
+                }
+            }
+
+            return (base == null) ? null : new Path(base, properties);
+        }
+
+        if (node instanceof AstCompositeExpression) {
+            Evaluator[] parts = new Evaluator[node.jjtGetNumChildren()];
+
+            for (int i = 0; i < parts.length; i++) {
+                parts[i] = compile(node.jjtGetChild(i));
+
+                if (parts[i] == null) {
+                    return null;
+                }
+            }
+
+            return new Composite(parts);
+        }
+
+        int operator = (node instanceof AstPlus) ? Arithmetic.ADD
+            : (node instanceof AstMinus) ? Arithmetic.SUBTRACT
+            : (node instanceof AstMult) ? Arithmetic.MULTIPLY
+            : (node instanceof AstDiv) ? Arithmetic.DIVIDE
+            : (node instanceof AstMod) ? Arithmetic.MOD : -1;
+
+        if (operator != -1) {
+            Evaluator left = compile(node.jjtGetChild(0));
+            Evaluator right = compile(node.jjtGetChild(1));
+
+            if (left == null || right == null) {
+                return null;
+            }
+
+            return new Arithmetic(operator, left, right);
+        }
+
+        return null;
+    }
+
+    private static abstract class Evaluator {
+        abstract Object evaluate(Object source);
+    }
+
+    private static final class Constant extends Evaluator {
+        private final Object value;
+
+        Constant(Object value) {
+            this.value = value;
+        }
+
+        Object evaluate(Object source) {
+            return value;
+        }
+    }
+
+    /**
+     * A chain of property reads, mirroring {@code AstValue} and
+     * {@code AstIdentifier}. A {@code null} base evaluator starts the chain
+     * at the source.
+     */
+    private static final class Path extends Evaluator {
+        private final Evaluator base;
+        private final Evaluator[] properties;
+        private final PropertyReader[] readers;
+
+        Path(Evaluator base, Evaluator[] properties) {
+            this.base = base;
+            this.properties = properties;
+            this.readers = new PropertyReader[properties.length];
+
+            for (int i = 0; i < readers.length; i++) {
+                readers[i] = new PropertyReader();
+            }
+        }
+
+        Object evaluate(Object source) {
+            Object value = (base == null) ? source : base.evaluate(source);
+
+            if (value == FALLBACK) {
+                return FALLBACK;
+            }
+
+            if (value == ELContext.UNRESOLVABLE_RESULT || (value == null && properties.length > 0)) {
+                return ELContext.UNRESOLVABLE_RESULT;
+            }
+
+            for (int i = 0; i < properties.length; i++) {
+                Object property = properties[i].evaluate(source);
+
+                if (property == FALLBACK || property == ELContext.UNRESOLVABLE_RESULT) {
+                    return FALLBACK;
+                }
+
+                if (property == null) {
+                    return null;
+                }
+
+                value = readers[i].read(value, property);
+
+                if (value == FALLBACK || value == ELContext.UNRESOLVABLE_RESULT) {
+                    return value;
+                }
+
+                if (value == null && i < properties.length - 1) {
+                    return ELContext.UNRESOLVABLE_RESULT;
+                }
+            }
+
+            return value;
+        }
+    }
+
+    /**
+     * Reads a single property, caching the accessor found for the last
+     * bean class.
+     */
+    private static final class PropertyReader {
+        private volatile CacheEntry cache;
+
+        Object read(Object bean, Object property) {
+            if (bean instanceof Map) {
+                return ((Map<?, ?>) bean).get(property);
+            }
+
+            if (!(property instanceof String)) {
+                return FALLBACK;
+            }
+
+            boolean xProperties = XBindingOptions.getActive().areXPropertiesEnabled();
+            CacheEntry entry = cache;
+
+            if (entry == null || entry.type != bean.getClass() ||
+                    !entry.property.equals(property) || entry.xProperties != xProperties) {
+                entry = new CacheEntry(bean.getClass(), (String) property, xProperties);
+                cache = entry;
+            }
+
+            if (entry.accessor == null) {
+                return FALLBACK;
+            }
+
+            try {
+                return entry.accessor.get(bean);
+            } catch (InvocationTargetException ite) {
+                throw new ELException(ite.getCause());
+            } catch (Exception ex) {
+                throw new ELException(ex);
+            }
+        }
+    }
+
+    private static final class CacheEntry {
+        final Class<?> type;
+        final String property;
+        final boolean xProperties;
+        final BeanAccessors.Accessor accessor;
+
+        CacheEntry(Class<?> type, String property, boolean xProperties) {
+            this.type = type;
+            this.property = property;
+            this.xProperties = xProperties;
+            this.accessor = findAccessor(type, property);
+        }
+
+        private static BeanAccessors.Accessor findAccessor(Class<?> type, String property) {
+            if (BeanAdapterFactory.providesAdapter(type, property)) {
+                return null;
+            }
+
+            try {
+                BeanAccessors.Accessor accessor = BeanAccessors.forClass(type).getAccessor(property);
+
+                if (accessor == null || accessor.isIndexed() || !accessor.isReadable()) {
+                    return null;
+                }
+
+                return accessor;
+            } catch (IntrospectionException ie) {
+                return null;
+            }
+        }
+    }
+
+    private static final class Composite extends Evaluator {
+        private final Evaluator[] parts;
+
+        Composite(Evaluator[] parts) {
+            this.parts = parts;
+        }
+
+        Object evaluate(Object source) {
+            StringBuffer sb = new StringBuffer(16);
+
+            for (int i = 0; i < parts.length; i++) {
+                Object value = parts[i].evaluate(source);
+
+                if (value == FALLBACK || value == ELContext.UNRESOLVABLE_RESULT) {
+                    return value;
+                }
+
+                if (value != null) {
+                    sb.append(value);
+                }
+            }
+
+            return sb.toString();
+        }
+    }
+
+    private static final class Arithmetic extends Evaluator {
+        static final int ADD = 0;
+        static final int SUBTRACT = 1;
+        static final int MULTIPLY = 2;
+        static final int DIVIDE = 3;
+        static final int MOD = 4;
+
+        private final int operator;
+        private final Evaluator left;
+        private final Evaluator right;
+
+        Arithmetic(int operator, Evaluator left, Evaluator right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        Object evaluate(Object source) {
+            Object obj0 = left.evaluate(source);
+
+            if (obj0 == FALLBACK || obj0 == ELContext.UNRESOLVABLE_RESULT) {
+                return obj0;
+            }
+
+            Object obj1 = right.evaluate(source);
+
+            if (obj1 == FALLBACK || obj1 == ELContext.UNRESOLVABLE_RESULT) {
+                return obj1;
+            }
+
+            switch (operator) {
+                case ADD:
+                    return ELArithmetic.add(obj0, obj1);
+                case SUBTRACT:
+                    return ELArithmetic.subtract(obj0, obj1);
+                case MULTIPLY:
+                    return ELArithmetic.multiply(obj0, obj1);
+                case DIVIDE:
+                    return ELArithmetic.divide(obj0, obj1);
+                default:
+                    return ELArithmetic.mod(obj0, obj1);
+            }
+        }
+    }
+}
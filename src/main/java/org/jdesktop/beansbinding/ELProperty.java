@@ -30,16 +30,11 @@
 package org.jdesktop.beansbinding;
 
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.util.HashSet;
+import java.util.ArrayList;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.beans.BeanInfo;
-import java.beans.EventSetDescriptor;
 import java.beans.IntrospectionException;
-import java.beans.Introspector;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import static org.jdesktop.beansbinding.PropertyStateEvent.UNREADABLE;
@@ -50,9 +45,12 @@ import org.jdesktop.el.Expression;
 import org.jdesktop.el.Expression.ResolvedProperty;
 import org.jdesktop.el.ValueExpression;
 import org.jdesktop.el.impl.ExpressionFactoryImpl;
+import org.jdesktop.el.impl.util.BeanAccessors;
 import org.jdesktop.observablecollections.ObservableMap;
-import org.jdesktop.observablecollections.ObservableMapListener;
+import org.jdesktop.observablecollections.MapChangeSet;
+import org.jdesktop.observablecollections.ObservableMapBatchListener;
 import org.jdesktop.beansbinding.util.logging.Logger;
+import org.jdesktop.xbindings.XNotifyPropertyChanged;
 
 
 /**
@@ -180,6 +178,14 @@ import org.jdesktop.beansbinding.util.logging.Logger;
  * An {@code ELProperty} should not be used again for that same source object
  * after such an exception without first removing all listeners associated with
  * the {@code ELProperty} for that source object.
+ * <p>
+ * An {@code ELProperty} created with {@link #createLazy(String)} doesn't
+ * re-evaluate the expression when a bean it depends on changes. Instead, it
+ * notifies its listeners once with a new value of
+ * {@link PropertyStateEvent#UNKNOWN} and evaluates the expression again on the
+ * next call to one of its methods for that source object. Further changes
+ * before that call are not reported. If the writeability has changed, that
+ * call notifies the listeners of it with a second event.
  *
  * @param <S> the type of source object that this {@code ELProperty} operates on
  * @param <V> the type of value that this {@code ELProperty} represents
@@ -194,27 +200,37 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
     private static final Object NOREAD = new Object();
     private Property<S, ?> baseProperty;
     private final ValueExpression expression;
-    private final ELContext context = new TempELContext();
+
+    // the expression compiled for reads without listeners, or null if it
+    // can only be interpreted
+    private final CompiledExpression compiled;
+    private final boolean lazy;
     private IdentityHashMap<S, SourceEntry> map = new IdentityHashMap<S, SourceEntry>();
 
+    // the entry found by the last lookup, since consecutive calls are
+    // usually made for the same source
+    private SourceEntry lastEntry;
+
     /**
      * @throws IllegalArgumentException for empty or {@code null} expression.
      */
-    private ELProperty(Property<S, ?> baseProperty, String expression) {
+    private ELProperty(Property<S, ?> baseProperty, String expression, boolean lazy) {
         if ((expression == null) || (expression.length() == 0)) {
             throw new IllegalArgumentException(
                 "expression must be non-null and non-empty");
         }
 
         try {
-            this.expression = new ExpressionFactoryImpl().createValueExpression(context,
+            this.expression = new ExpressionFactoryImpl().createValueExpression(new TempELContext(),
                     expression, Object.class);
         } catch (ELException ele) {
             throw new PropertyResolutionException(
                 "Error creating EL expression " + expression, ele);
         }
 
+        this.compiled = CompiledExpression.compile(expression);
         this.baseProperty = baseProperty;
+        this.lazy = lazy;
     }
 
     /**
@@ -226,7 +242,7 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
      * @throws PropertyResolutionException if there's a problem with the expression
      */
     public static final <S, V> ELProperty<S, V> create(String expression) {
-        return new ELProperty<S, V>(null, expression);
+        return new ELProperty<S, V>(null, expression, false);
     }
 
     /**
@@ -241,7 +257,53 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
      */
     public static final <S, V> ELProperty<S, V> create(
         Property<S, ?> baseProperty, String expression) {
-        return new ELProperty<S, V>(baseProperty, expression);
+        return new ELProperty<S, V>(baseProperty, expression, false);
+    }
+
+    /**
+     * Creates an instance of {@code ELProperty} for the given expression,
+     * which is evaluated lazily while listeners are installed.
+     * <p>
+     * Like a lazy {@code BeanProperty} (see {@link BeanProperty#createLazy(String)}),
+     * a lazy {@code ELProperty} reports {@link PropertyStateEvent#UNKNOWN} as
+     * the new value of its events. It must only be used with bindings and
+     * listeners which read the value again or call
+     * {@link PropertyStateEvent#getResolvedNewValue()} in that case.
+     *
+     * @param expression the expression
+     * @return a lazy instance of {@code ELProperty} for the given expression
+     * @throws IllegalArgumentException if the path is null or empty
+     * @throws PropertyResolutionException if there's a problem with the expression
+     */
+    public static final <S, V> ELProperty<S, V> createLazy(String expression) {
+        return new ELProperty<S, V>(null, expression, true);
+    }
+
+    /**
+     * Creates an instance of {@code ELProperty} for the given base property
+     * and expression, which is evaluated lazily while listeners are installed.
+     * The expression is relative to the value of the base property. See
+     * {@link #createLazy(String)} for the bindings a lazy property can be
+     * used with.
+     *
+     * @param baseProperty the base property
+     * @param expression the expression
+     * @return a lazy instance of {@code ELProperty} for the given base property and expression
+     * @throws IllegalArgumentException if the path is null or empty
+     * @throws PropertyResolutionException if there's a problem with the expression
+     */
+    public static final <S, V> ELProperty<S, V> createLazy(
+        Property<S, ?> baseProperty, String expression) {
+        return new ELProperty<S, V>(baseProperty, expression, true);
+    }
+
+    /**
+     * Returns whether this property evaluates its expression lazily.
+     *
+     * @return whether this property was created with {@code createLazy}
+     */
+    public boolean isLazy() {
+        return lazy;
     }
 
     /**
@@ -255,9 +317,10 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
      * @see #isWriteable
      */
     public Class<?extends V> getWriteType(S source) {
-        SourceEntry entry = map.get(source);
+        SourceEntry entry = getSourceEntry(source);
 
         if (entry != null) {
+            entry.refresh();
             entry.validateCache(-1);
 
             if (!entry.cachedIsWriteable) {
@@ -268,7 +331,7 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
         }
 
         try {
-            expression.setSource(getBeanFromSource(source, true));
+            ELContext context = new TempELContext(getBeanFromSource(source, true));
 
             Expression.Result result = expression.getResult(context, false);
 
@@ -287,8 +350,6 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
             throw new PropertyResolutionException(
                 "Error evaluating EL expression " + expression + " on " +
                 source, ele);
-        } finally {
-            expression.setSource(null);
         }
     }
 
@@ -302,9 +363,10 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
      * @see #isReadable
      */
     public V getValue(S source) {
-        SourceEntry entry = map.get(source);
+        SourceEntry entry = getSourceEntry(source);
 
         if (entry != null) {
+            entry.refresh();
             entry.validateCache(-1);
 
             if (entry.cachedValue == NOREAD) {
@@ -315,22 +377,26 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
         }
 
         try {
-            expression.setSource(getBeanFromSource(source, true));
+            Object bean = getBeanFromSource(source, true);
+            Object value = (compiled == null) ? CompiledExpression.FALLBACK : compiled.getValue(bean);
 
-            Expression.Result result = expression.getResult(context, false);
+            if (value == CompiledExpression.FALLBACK) {
+                Expression.Result result = expression.getResult(new TempELContext(bean), false);
 
-            if (result.getType() == Expression.Result.Type.UNRESOLVABLE) {
+                value = (result.getType() == Expression.Result.Type.UNRESOLVABLE)
+                    ? ELContext.UNRESOLVABLE_RESULT : result.getResult();
+            }
+
+            if (value == ELContext.UNRESOLVABLE_RESULT) {
                 logger.warning("getValue(): expression is unresolvable");
                 throw new UnsupportedOperationException("Unreadable");
             }
 
-            return (V) result.getResult();
+            return (V) value;
         } catch (ELException ele) {
             throw new PropertyResolutionException(
                 "Error evaluating EL expression " + expression + " on " +
                 source, ele);
-        } finally {
-            expression.setSource(null);
         }
     }
 
@@ -345,9 +411,10 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
      * @see #getWriteType
      */
     public void setValue(S source, V value) {
-        SourceEntry entry = map.get(source);
+        SourceEntry entry = getSourceEntry(source);
 
         if (entry != null) {
+            entry.refresh();
             entry.validateCache(-1);
 
             if (!entry.cachedIsWriteable) {
@@ -356,7 +423,7 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
 
             try {
                 entry.ignoreChange = true;
-                expression.setSource(getBeanFromSource(source, false));
+                ELContext context = new TempELContext(getBeanFromSource(source, false));
                 expression.setValue(context, value);
             } catch (ELException ele) {
                 throw new PropertyResolutionException(
@@ -364,7 +431,6 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
                     source, ele);
             } finally {
                 entry.ignoreChange = false;
-                expression.setSource(null);
             }
 
             Object oldValue = entry.cachedValue;
@@ -376,7 +442,7 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
         }
 
         try {
-            expression.setSource(getBeanFromSource(source, true));
+            ELContext context = new TempELContext(getBeanFromSource(source, true));
 
             Expression.Result result = expression.getResult(context, false);
 
@@ -395,8 +461,6 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
             throw new PropertyResolutionException(
                 "Error evaluating EL expression " + expression + " on " +
                 source, ele);
-        } finally {
-            expression.setSource(null);
         }
     }
 
@@ -410,16 +474,17 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
      * @see #isWriteable
      */
     public boolean isReadable(S source) {
-        SourceEntry entry = map.get(source);
+        SourceEntry entry = getSourceEntry(source);
 
         if (entry != null) {
+            entry.refresh();
             entry.validateCache(-1);
 
             return entry.cachedIsReadable();
         }
 
         try {
-            expression.setSource(getBeanFromSource(source, true));
+            ELContext context = new TempELContext(getBeanFromSource(source, true));
 
             Expression.Result result = expression.getResult(context, false);
 
@@ -434,8 +499,6 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
             throw new PropertyResolutionException(
                 "Error evaluating EL expression " + expression + " on " +
                 source, ele);
-        } finally {
-            expression.setSource(null);
         }
     }
 
@@ -449,16 +512,17 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
      * @see #isReadable
      */
     public boolean isWriteable(S source) {
-        SourceEntry entry = map.get(source);
+        SourceEntry entry = getSourceEntry(source);
 
         if (entry != null) {
+            entry.refresh();
             entry.validateCache(-1);
 
             return entry.cachedIsWriteable;
         }
 
         try {
-            expression.setSource(getBeanFromSource(source, true));
+            ELContext context = new TempELContext(getBeanFromSource(source, true));
 
             Expression.Result result = expression.getResult(context, false);
 
@@ -479,8 +543,6 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
             throw new PropertyResolutionException(
                 "Error evaluating EL expression " + expression + " on " +
                 source, ele);
-        } finally {
-            expression.setSource(null);
         }
     }
 
@@ -516,7 +578,7 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
 
     @Override
     protected final void listeningStarted(S source) {
-        SourceEntry entry = map.get(source);
+        SourceEntry entry = getSourceEntry(source);
 
         if (entry == null) {
             entry = new SourceEntry(source);
@@ -529,10 +591,34 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
         SourceEntry entry = map.remove(source);
 
         if (entry != null) {
+            if (entry == lastEntry) {
+                lastEntry = null;
+            }
+
             entry.cleanup();
         }
     }
 
+    private SourceEntry getSourceEntry(S source) {
+        SourceEntry entry = lastEntry;
+
+        if ((entry != null) && (entry.source == source)) {
+            return entry;
+        }
+
+        if (map.isEmpty()) {
+            return null;
+        }
+
+        entry = map.get(source);
+
+        if (entry != null) {
+            lastEntry = entry;
+        }
+
+        return entry;
+    }
+
     private static boolean didValueChange(Object oldValue, Object newValue) {
         return (oldValue == null) || (newValue == null) ||
         !oldValue.equals(newValue);
@@ -563,6 +649,26 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
         this.firePropertyStateChange(pse);
     }
 
+    private void notifyListenersOfUnknownValue(SourceEntry entry) {
+        PropertyStateEvent pse = new PropertyStateEvent(this, entry.source,
+                true, toUNREADABLE(entry.cachedValue), PropertyStateEvent.UNKNOWN,
+                false, entry.cachedIsWriteable);
+
+        this.firePropertyStateChange(pse);
+    }
+
+    /**
+     * Reports a change of the writeability found when a lazy entry is
+     * refreshed, since the {@code UNKNOWN} event couldn't report it.
+     */
+    private void notifyListenersOfWriteableChange(SourceEntry entry) {
+        Object value = toUNREADABLE(entry.cachedValue);
+        PropertyStateEvent pse = new PropertyStateEvent(this, entry.source,
+                false, value, value, true, entry.cachedIsWriteable);
+
+        this.firePropertyStateChange(pse);
+    }
+
     /**
      * Returns a string representation of the {@code ELProperty}. This
      * method is intended to be used for debugging purposes only, and
@@ -577,14 +683,34 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
         return getClass().getName() + "[" + expression + "]";
     }
 
+    private static Object toUNREADABLE(Object src) {
+        return (src == NOREAD) ? UNREADABLE : src;
+    }
+
+    private void registerListener(Object source, SourceEntry entry) {
+        if (source instanceof ObservableMap) {
+            ((ObservableMap) source).addObservableMapListener(entry);
+        } else {
+            addPropertyChangeListener(source, entry);
+        }
+    }
+
+    private void unregisterListener(Object source, SourceEntry entry) {
+        if (source instanceof ObservableMap) {
+            ((ObservableMap) source).removeObservableMapListener(entry);
+        } else {
+            removePropertyChangeListener(source, entry);
+        }
+    }
+
     /**
      * @throws PropertyResolutionException
      */
-    private static BeanInfo getBeanInfo(Object object) {
+    private static BeanAccessors getBeanAccessors(Object object) {
         assert object != null;
 
         try {
-            return Introspector.getBeanInfo(object.getClass());
+            return BeanAccessors.forClass(object.getClass());
         } catch (IntrospectionException ie) {
             throw new PropertyResolutionException(
                 "Exception while introspecting " + object.getClass().getName(),
@@ -592,29 +718,26 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
         }
     }
 
-    private static EventSetDescriptor getEventSetDescriptor(Object object) {
-        assert object != null;
-
-        EventSetDescriptor[] eds = getBeanInfo(object).getEventSetDescriptors();
-
-        for (EventSetDescriptor ed : eds) {
-            if (ed.getListenerType() == PropertyChangeListener.class) {
-                return ed;
-            }
-        }
-
-        return null;
-    }
-
     /**
      * @throws PropertyResolutionException
      */
-    private static Object invokeMethod(Method method, Object object,
-        Object... args) {
+    private static void addPropertyChangeListener(Object object,
+        PropertyChangeListener listener) {
+        if (object instanceof XNotifyPropertyChanged) {
+            // XNotifyPropertyChanged beans are registered with directly
+            ((XNotifyPropertyChanged) object).addPropertyChangeListener(listener);
+
+            return;
+        }
+
         Exception reason = null;
 
         try {
-            return method.invoke(object, args);
+            if (!getBeanAccessors(object).addPropertyChangeListener(object, listener)) {
+                logger.warning("addPropertyChangeListener(): can't add listener");
+            }
+
+            return;
         } catch (IllegalArgumentException ex) {
             reason = ex;
         } catch (IllegalAccessException ex) {
@@ -623,89 +746,39 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
             reason = ex;
         }
 
-        throw new PropertyResolutionException("Exception invoking method " +
-            method + " on " + object, reason);
-    }
-
-    private static Object toUNREADABLE(Object src) {
-        return (src == NOREAD) ? UNREADABLE : src;
-    }
-
-    private void registerListener(ResolvedProperty resolved, SourceEntry entry) {
-        Object source = resolved.getSource();
-        Object property = resolved.getProperty();
-
-        if ((source != null) && property instanceof String) {
-            String sProp = (String) property;
-
-            if (source instanceof ObservableMap) {
-                RegisteredListener rl = new RegisteredListener(source, sProp);
-
-                if (!entry.registeredListeners.contains(rl)) {
-                    if (!entry.lastRegisteredListeners.remove(rl)) {
-                        ((ObservableMap) source).addObservableMapListener(entry);
-                    }
-
-                    entry.registeredListeners.add(rl);
-                }
-            } else if (!(source instanceof Map)) {
-                source = getAdapter(source, sProp);
-
-                RegisteredListener rl = new RegisteredListener(source, sProp);
-
-                if (!entry.registeredListeners.contains(rl)) {
-                    if (!entry.lastRegisteredListeners.remove(rl)) {
-                        addPropertyChangeListener(source, entry);
-                    }
-
-                    entry.registeredListeners.add(rl);
-                }
-            }
-        }
-    }
-
-    private void unregisterListener(RegisteredListener rl, SourceEntry entry) {
-        Object source = rl.getSource();
-
-        if (source instanceof ObservableMap) {
-            ((ObservableMap) source).removeObservableMapListener(entry);
-        } else if (!(source instanceof Map)) {
-            removePropertyChangeListener(source, entry);
-        }
+        throw new PropertyResolutionException(
+            "Exception adding PropertyChangeListener to " + object, reason);
     }
 
     /**
      * @throws PropertyResolutionException
      */
-    private static void addPropertyChangeListener(Object object,
+    private static void removePropertyChangeListener(Object object,
         PropertyChangeListener listener) {
-        EventSetDescriptor ed = getEventSetDescriptor(object);
-        Method addPCMethod = null;
-
-        if ((ed == null) || ((addPCMethod = ed.getAddListenerMethod()) == null)) {
-            logger.warning("addPropertyChangeListener(): can't add listener");
+        if (object instanceof XNotifyPropertyChanged) {
+            ((XNotifyPropertyChanged) object).removePropertyChangeListener(listener);
 
             return;
         }
 
-        invokeMethod(addPCMethod, object, listener);
-    }
-
-    /**
-     * @throws PropertyResolutionException
-     */
-    private static void removePropertyChangeListener(Object object,
-        PropertyChangeListener listener) {
-        EventSetDescriptor ed = getEventSetDescriptor(object);
-        Method removePCMethod = null;
+        Exception reason = null;
 
-        if ((ed == null) || ((removePCMethod = ed.getRemoveListenerMethod()) == null)) {
-            logger.warning("removePropertyChangeListener(): can't remove listener from source");
+        try {
+            if (!getBeanAccessors(object).removePropertyChangeListener(object, listener)) {
+                logger.warning("removePropertyChangeListener(): can't remove listener from source");
+            }
 
             return;
+        } catch (IllegalArgumentException ex) {
+            reason = ex;
+        } catch (IllegalAccessException ex) {
+            reason = ex;
+        } catch (InvocationTargetException ex) {
+            reason = ex;
         }
 
-        invokeMethod(removePCMethod, object, listener);
+        throw new PropertyResolutionException(
+            "Exception removing PropertyChangeListener from " + object, reason);
     }
 
 //    private static boolean wrapsLiteral(Object o) {
@@ -744,15 +817,21 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
     }
 
     private final class SourceEntry implements PropertyChangeListener,
-        ObservableMapListener, PropertyStateListener {
-        private S source;
+        ObservableMapBatchListener, PropertyStateListener {
+        private final S source;
         private Object cachedBean;
         private Object cachedValue;
         private boolean cachedIsWriteable;
         private Class<?> cachedWriteType;
         private boolean ignoreChange;
-        private Set<RegisteredListener> registeredListeners;
-        private Set<RegisteredListener> lastRegisteredListeners;
+        // the properties the last evaluation depended on; updated in place
+        // by marking the dependencies found by each evaluation
+        private List<RegisteredListener> registeredListeners = new ArrayList<RegisteredListener>(4);
+        private int evaluation;
+        // whether a lazy property has to evaluate the expression again,
+        // and whether the bean has to be read from the base property first
+        private boolean dirty;
+        private boolean beanDirty;
 
         private SourceEntry(S source) {
             this.source = source;
@@ -761,15 +840,13 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
                 baseProperty.addPropertyStateListener(source, this);
             }
 
-            registeredListeners = new HashSet<RegisteredListener>(1);
             updateCachedBean();
             updateCache();
         }
 
         private void cleanup() {
-            for (RegisteredListener rl : registeredListeners) {
-                unregisterListener(rl, this);
-            }
+            evaluation++;
+            removeStaleDependencies();
 
             if (baseProperty != null) {
                 baseProperty.removePropertyStateListener(source, this);
@@ -784,18 +861,54 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
             return cachedValue != NOREAD;
         }
 
+        private void refresh() {
+            if (!dirty) {
+                return;
+            }
+
+            if (beanDirty) {
+                updateCachedBean();
+            }
+
+            boolean wasWriteable = cachedIsWriteable;
+            dirty = false;
+            beanDirty = false;
+            updateCache();
+
+            if (wasWriteable != cachedIsWriteable) {
+                notifyListenersOfWriteableChange(this);
+            }
+        }
+
+        /**
+         * Returns whether the change was deferred, notifying the listeners
+         * unless the entry is already dirty.
+         */
+        private boolean markDirty(boolean beanChanged) {
+            if (!lazy) {
+                return false;
+            }
+
+            boolean wasClean = !dirty;
+            dirty = true;
+            beanDirty |= beanChanged;
+
+            if (wasClean) {
+                notifyListenersOfUnknownValue(this);
+            }
+
+            return true;
+        }
+
         private void updateCachedBean() {
             cachedBean = getBeanFromSource(source, true);
         }
 
         private void updateCache() {
-            lastRegisteredListeners = registeredListeners;
-            registeredListeners = new HashSet<RegisteredListener>(lastRegisteredListeners.size());
-
             List<ResolvedProperty> resolvedProperties = null;
 
             try {
-                expression.setSource(getBeanFromSource(source, true));
+                ELContext context = new TempELContext(getBeanFromSource(source, true));
 
                 Expression.Result result = expression.getResult(context, true);
 
@@ -816,20 +929,93 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
                 throw new PropertyResolutionException(
                     "Error evaluating EL expression " + expression + " on " +
                     source, ele);
-            } finally {
-                expression.setSource(null);
             }
 
-            for (ResolvedProperty prop : resolvedProperties) {
-                registerListener(prop, this);
+            evaluation++;
+
+            for (int i = 0; i < resolvedProperties.size(); i++) {
+                ResolvedProperty prop = resolvedProperties.get(i);
+                Object source = prop.getSource();
+
+                if ((source != null) && prop.getProperty() instanceof String) {
+                    String property = (String) prop.getProperty();
+
+                    if (source instanceof ObservableMap) {
+                        addDependency(source, property);
+                    } else if (!(source instanceof Map)) {
+                        addDependency(getAdapter(source, property), property);
+                    }
+                }
             }
 
             // Uninstall all listeners that are no longer along the path.
-            for (RegisteredListener listener : lastRegisteredListeners) {
-                unregisterListener(listener, this);
+            removeStaleDependencies();
+        }
+
+        private void addDependency(Object source, String property) {
+            boolean listening = false;
+
+            for (int i = 0; i < registeredListeners.size(); i++) {
+                RegisteredListener rl = registeredListeners.get(i);
+
+                if (rl.getSource() == source) {
+                    if (property.equals(rl.getProperty())) {
+                        rl.evaluation = evaluation;
+
+                        return;
+                    }
+
+                    listening = true;
+                }
+            }
+
+            // one listener per source serves all of its properties
+            if (!listening) {
+                registerListener(source, this);
             }
 
-            lastRegisteredListeners = null;
+            RegisteredListener rl = new RegisteredListener(source, property);
+            rl.evaluation = evaluation;
+            registeredListeners.add(rl);
+        }
+
+        private void removeStaleDependencies() {
+            int size = registeredListeners.size();
+
+            for (int i = 0; i < size; i++) {
+                RegisteredListener rl = registeredListeners.get(i);
+
+                if ((rl.evaluation != evaluation) && !isListeningTo(rl.getSource(), i)) {
+                    unregisterListener(rl.getSource(), this);
+                }
+            }
+
+            int kept = 0;
+
+            for (int i = 0; i < size; i++) {
+                RegisteredListener rl = registeredListeners.get(i);
+
+                if (rl.evaluation == evaluation) {
+                    registeredListeners.set(kept++, rl);
+                }
+            }
+
+            registeredListeners.subList(kept, size).clear();
+        }
+
+        // whether the listener on the source is still needed, or has already
+        // been removed for a stale dependency before the given index
+        private boolean isListeningTo(Object source, int staleIndex) {
+            for (int i = 0; i < registeredListeners.size(); i++) {
+                RegisteredListener rl = registeredListeners.get(i);
+
+                if ((i != staleIndex) && (rl.getSource() == source) &&
+                        ((rl.evaluation == evaluation) || (i < staleIndex))) {
+                    return true;
+                }
+            }
+
+            return false;
         }
 
         // flag -1 - validate all
@@ -845,7 +1031,7 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
 
                         if (flag != 1) {
                             try {
-                                expression.setSource(getBeanFromSource(source, true));
+                                ELContext context = new TempELContext(getBeanFromSource(source, true));
                                 Expression.Result result = expression.getResult(context, false);
 
                                 Object currValue;
@@ -867,15 +1053,13 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
                                 }
                             } catch (ELException ele) {
                                 throw new PropertyResolutionException("Error evaluating EL expression " + expression + " on " + source, ele);
-                            } finally {
-                                expression.setSource(null);
                             }
                         }
              */
         }
 
         public void propertyStateChanged(PropertyStateEvent pe) {
-            if (!pe.getValueChanged()) {
+            if (!pe.getValueChanged() || markDirty(true)) {
                 return;
             }
 
@@ -889,6 +1073,10 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
         }
 
         private void processSourceChanged() {
+            if (markDirty(false)) {
+                return;
+            }
+
             validateCache(1);
 
             boolean wasWriteable = cachedIsWriteable;
@@ -899,7 +1087,7 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
         }
 
         private void sourceChanged(Object source, String property) {
-            if (ignoreChange) {
+            if (ignoreChange || dirty) {
                 return;
             }
 
@@ -907,7 +1095,9 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
                 property = property.intern();
             }
 
-            for (RegisteredListener rl : registeredListeners) {
+            for (int i = 0; i < registeredListeners.size(); i++) {
+                RegisteredListener rl = registeredListeners.get(i);
+
                 if ((rl.getSource() == source) &&
                         ((property == null) || (rl.getProperty() == property))) {
                     processSourceChanged();
@@ -939,11 +1129,31 @@ public final class ELProperty<S, V> extends PropertyHelper<S, V> {
                 sourceChanged(map, (String) key);
             }
         }
+
+        public void mapChanged(ObservableMap map, MapChangeSet changes) {
+            if (ignoreChange || dirty) {
+                return;
+            }
+
+            // a batch re-evaluates the expression at most once
+            for (int i = 0; i < registeredListeners.size(); i++) {
+                RegisteredListener rl = registeredListeners.get(i);
+
+                if ((rl.getSource() == map) && (rl.getProperty() != null) &&
+                        changes.containsKey(rl.getProperty())) {
+                    processSourceChanged();
+
+                    break;
+                }
+            }
+        }
     }
 
     private static final class RegisteredListener {
         private final Object source;
         private final String property;
+        // the last evaluation of the entry which depended on this property
+        private int evaluation;
 
         RegisteredListener(Object source) {
             this(source, null);
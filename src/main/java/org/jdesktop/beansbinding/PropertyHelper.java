@@ -29,9 +29,13 @@
  **********************************************************************************************************************/
 package org.jdesktop.beansbinding;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.IdentityHashMap;
 import java.util.List;
+import org.jdesktop.xbindings.XBindingOptions;
 
 /**
  * An abstract subclass of {@code Property} that helps with the management of
@@ -46,6 +50,15 @@ import java.util.List;
  * {@code PropertyHelper} also provides, by way of the protected methods
  * {@link #listeningStarted} and {@link #listeningStopped} a hook for subclasses
  * to know when it's time to start tracking changes to a particular source object.
+ * <p>
+ * If weak listeners are enabled in the active {@link XBindingOptions} when a
+ * {@code PropertyHelper} is created, it only holds its listeners weakly, and
+ * callers must keep them reachable for as long as they are needed. Once a
+ * listener has been garbage collected it is removed the next time any
+ * {@code PropertyHelper} is used, calling {@code listeningStopped} if it was
+ * the last listener for its source object. This lets an abandoned
+ * {@code Binding} be reclaimed along with the listeners its properties have
+ * installed on long-lived beans.
  *
  * @param <S> the type of source object that this {@code Property} operates on
  * @param <V> the type of value that this {@code Property} represents
@@ -56,6 +69,13 @@ public abstract class PropertyHelper<S, V> extends Property<S, V> {
     private final boolean ignoresSource;
     private Object listeners;
 
+    // whether the listeners are held weakly
+    private final boolean weak;
+
+    // the collected weak listeners of all PropertyHelpers
+    private static final ReferenceQueue<PropertyStateListener> staleListeners =
+        new ReferenceQueue<PropertyStateListener>();
+
     /**
      * Create a {@code PropertyHelper} that manages listeners for multiple
      * source objects.
@@ -74,6 +94,7 @@ public abstract class PropertyHelper<S, V> extends Property<S, V> {
      */
     public PropertyHelper(boolean ignoresSource) {
         this.ignoresSource = ignoresSource;
+        this.weak = XBindingOptions.getActive().areWeakListenersEnabled();
     }
 
     private List<PropertyStateListener> getListeners(S source, boolean create) {
@@ -109,6 +130,37 @@ public abstract class PropertyHelper<S, V> extends Property<S, V> {
         return list;
     }
 
+    private void removeListeners(S source) {
+        if (ignoresSource) {
+            listeners = null;
+        } else {
+            ((IdentityHashMap<S, List<PropertyStateListener>>) listeners).remove(source);
+        }
+    }
+
+    /**
+     * Removes the weakly held listeners of all {@code PropertyHelpers} which
+     * have been collected, so that stale listeners don't wait for their own
+     * {@code PropertyHelper} to be used again.
+     */
+    private static void expungeStaleListeners() {
+        Reference<? extends PropertyStateListener> ref;
+
+        while ((ref = staleListeners.poll()) != null) {
+            ((WeakListener) ref).expunge();
+        }
+    }
+
+    private void expunge(WeakListener ref) {
+        S source = (S) ref.source;
+        List<PropertyStateListener> listeners = getListeners(source, false);
+
+        if ((listeners != null) && listeners.remove(ref) && listeners.isEmpty()) {
+            removeListeners(source);
+            listeningStopped(source);
+        }
+    }
+
     /**
      * {@inheritDoc}
      * @throws UnsupportedOperationException {@inheritDoc}
@@ -172,9 +224,13 @@ public abstract class PropertyHelper<S, V> extends Property<S, V> {
             return;
         }
 
+        expungeStaleListeners();
+
         List<PropertyStateListener> listeners = getListeners(source, true);
         boolean wasListening = (listeners.size() != 0);
-        listeners.add(listener);
+        listeners.add(weak
+            ? new WeakListener(listener, this, ignoresSource ? null : source)
+            : listener);
 
         if (!wasListening) {
             listeningStarted(ignoresSource ? null : source);
@@ -190,6 +246,8 @@ public abstract class PropertyHelper<S, V> extends Property<S, V> {
             return;
         }
 
+        expungeStaleListeners();
+
         List<PropertyStateListener> listeners = getListeners(source, false);
 
         if (listeners == null) {
@@ -198,10 +256,25 @@ public abstract class PropertyHelper<S, V> extends Property<S, V> {
 
         boolean wasListening = (listeners.size() != 0);
 
-        listeners.remove(listener);
+        if (!weak) {
+            listeners.remove(listener);
+        } else {
+            for (int i = 0; i < listeners.size(); i++) {
+                if (listener.equals(((WeakListener) listeners.get(i)).get())) {
+                    listeners.remove(i);
 
-        if (wasListening && (listeners.size() == 0)) {
-            listeningStopped(ignoresSource ? null : source);
+                    break;
+                }
+            }
+        }
+
+        if (listeners.size() == 0) {
+            // don't keep the source reachable once nobody listens to it
+            removeListeners(source);
+
+            if (wasListening) {
+                listeningStopped(ignoresSource ? null : source);
+            }
         }
     }
 
@@ -209,12 +282,28 @@ public abstract class PropertyHelper<S, V> extends Property<S, V> {
      * {@inheritDoc}
      */
     public final PropertyStateListener[] getPropertyStateListeners(S source) {
+        expungeStaleListeners();
+
         List<PropertyStateListener> listeners = getListeners(source, false);
 
         if (listeners == null) {
             return new PropertyStateListener[0];
         }
 
+        if (weak) {
+            List<PropertyStateListener> ret = new ArrayList<PropertyStateListener>(listeners.size());
+
+            for (PropertyStateListener listener : listeners) {
+                PropertyStateListener referent = ((WeakListener) listener).get();
+
+                if (referent != null) {
+                    ret.add(referent);
+                }
+            }
+
+            return ret.toArray(new PropertyStateListener[ret.size()]);
+        }
+
         PropertyStateListener[] ret = new PropertyStateListener[listeners.size()];
         ret = listeners.toArray(ret);
 
@@ -231,6 +320,8 @@ public abstract class PropertyHelper<S, V> extends Property<S, V> {
      * @param pse the {@code PropertyStateEvent} characterizing the state change
      */
     protected final void firePropertyStateChange(PropertyStateEvent pse) {
+        expungeStaleListeners();
+
         List<PropertyStateListener> listeners = getListeners((S) pse.getSourceObject(),
                 false);
 
@@ -238,7 +329,8 @@ public abstract class PropertyHelper<S, V> extends Property<S, V> {
             return;
         }
 
-        for (PropertyStateListener listener : listeners) {
+        // a listener may cause stale listeners to be removed from this list
+        for (PropertyStateListener listener : listeners.toArray(new PropertyStateListener[listeners.size()])) {
             listener.propertyStateChanged(pse);
         }
     }
@@ -252,8 +344,38 @@ public abstract class PropertyHelper<S, V> extends Property<S, V> {
      *         installed for the given source object
      */
     public final boolean isListening(S source) {
+        expungeStaleListeners();
+
         List<PropertyStateListener> listeners = getListeners(source, false);
 
         return (listeners != null) && (listeners.size() != 0);
     }
+
+    /**
+     * Forwards events to a weakly held listener.
+     */
+    private static final class WeakListener extends WeakReference<PropertyStateListener>
+        implements PropertyStateListener {
+        private final PropertyHelper<?, ?> owner;
+        private final Object source;
+
+        WeakListener(PropertyStateListener listener, PropertyHelper<?, ?> owner,
+            Object source) {
+            super(listener, staleListeners);
+            this.owner = owner;
+            this.source = source;
+        }
+
+        void expunge() {
+            ((PropertyHelper<Object, ?>) owner).expunge(this);
+        }
+
+        public void propertyStateChanged(PropertyStateEvent pse) {
+            PropertyStateListener listener = get();
+
+            if (listener != null) {
+                listener.propertyStateChanged(pse);
+            }
+        }
+    }
 }
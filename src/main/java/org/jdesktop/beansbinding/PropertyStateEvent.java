@@ -46,6 +46,12 @@ public class PropertyStateEvent extends EventObject {
      * Used to indicate that a particular value is unreadable.
      */
     public static final Object UNREADABLE = new StringBuffer("UNREADABLE");
+
+    /**
+     * Used by lazy properties to indicate that a value has changed but
+     * has not been computed yet.
+     */
+    public static final Object UNKNOWN = new StringBuffer("UNKNOWN");
     private Object sourceObject;
     private final boolean valueChanged;
     private final Object oldValue;
@@ -157,14 +163,15 @@ public class PropertyStateEvent extends EventObject {
 
     /**
      * Returns the new value of the {@code Property} for the source object,
-     * or {@code UNREADABLE} if the {@code Property} is not currently readable for the
-     * source object.
+     * {@code UNREADABLE} if the {@code Property} is not currently readable for the
+     * source object, or {@code UNKNOWN} if a lazy {@code Property} hasn't
+     * computed it yet.
      * <p>
      * Note: This method must only be called if {@code getValueChanged} returns
      * {@code true}.
      *
-     * @return the new value of the {@code Property} for the source object
-     *         or {@code UNREADABLE}
+     * @return the new value of the {@code Property} for the source object,
+     *         {@code UNREADABLE} or {@code UNKNOWN}
      * @throws UnsupportedOperationException if the value hasn't changed
      */
     public final Object getNewValue() {
@@ -175,17 +182,42 @@ public class PropertyStateEvent extends EventObject {
         return newValue;
     }
 
+    /**
+     * Returns the new value like {@link #getNewValue}, but reads it from the
+     * source object if it is {@code UNKNOWN}. Listeners which use the new
+     * value should call this method, so that they work with lazy properties.
+     * <p>
+     * Note: This method must only be called if {@code getValueChanged} returns
+     * {@code true}.
+     *
+     * @return the new value of the {@code Property} for the source object
+     *         or {@code UNREADABLE}
+     * @throws UnsupportedOperationException if the value hasn't changed
+     */
+    public final Object getResolvedNewValue() {
+        Object value = getNewValue();
+
+        if (value == UNKNOWN) {
+            Property property = getSourceProperty();
+            value = property.isReadable(sourceObject)
+                ? property.getValue(sourceObject) : UNREADABLE;
+        }
+
+        return value;
+    }
+
     /**
      * Returns whether or not the {@code Property's} readability has changed for
      * the source object. In particuler, this returns {@code true} if the value
      * has changed and either the old value or new value is {@code UNREADABLE},
-     * and {@code false} otherwise.
+     * and {@code false} otherwise. The readability of an {@code UNKNOWN} new
+     * value isn't known, so this returns {@code false} for it.
      *
      * @return whether or not the {@code Property's} readability has changed for
      * the source object.
      */
     public final boolean getReadableChanged() {
-        return valueChanged && (oldValue != newValue) &&
+        return valueChanged && (oldValue != newValue) && (newValue != UNKNOWN) &&
         ((oldValue == UNREADABLE) || (newValue == UNREADABLE));
     }
 
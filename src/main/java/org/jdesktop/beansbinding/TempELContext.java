@@ -53,30 +53,50 @@ import java.util.*;
  * @author Shannon Hickey
  */
 class TempELContext extends ELContext {
-    private final CompositeELResolver resolver;
-    private final VariableMapper variableMapper = new VariableMapperImpl();
-    private final FunctionMapper functionMapper = new FunctionMapperImpl();
+    // the resolvers keep no state, so all contexts share them
+    private static final CompositeELResolver resolver = new CompositeELResolver();
 
-    public TempELContext() {
-        resolver = new CompositeELResolver();
+    static {
         // PENDING(shannonh) - EL also has an ArrayELResolver. Should that be added too?
         resolver.add(new MapELResolver());
         resolver.add(new BeanDelegateELResolver());
     }
 
+    private VariableMapper variableMapper;
+    private FunctionMapper functionMapper;
+
+    public TempELContext() {
+    }
+
+    /**
+     * Creates a context which evaluates identifiers relative to the given
+     * source.
+     */
+    public TempELContext(Object source) {
+        setSource(source);
+    }
+
     public ELResolver getELResolver() {
         return resolver;
     }
 
     public FunctionMapper getFunctionMapper() {
+        if (functionMapper == null) {
+            functionMapper = new FunctionMapperImpl();
+        }
+
         return functionMapper;
     }
 
     public VariableMapper getVariableMapper() {
+        if (variableMapper == null) {
+            variableMapper = new VariableMapperImpl();
+        }
+
         return variableMapper;
     }
 
-    private class BeanDelegateELResolver extends BeanELResolver {
+    private static class BeanDelegateELResolver extends BeanELResolver {
         public Iterator<FeatureDescriptor> getFeatureDescriptors(
             ELContext context, Object base) {
             Iterator<FeatureDescriptor> superDescriptors = super.getFeatureDescriptors(context,
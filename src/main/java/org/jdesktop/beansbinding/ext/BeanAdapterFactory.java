@@ -69,6 +69,14 @@ public final class BeanAdapterFactory {
         return INSTANCE.getAdapter0(source, property);
     }
 
+    /**
+     * Returns whether an adapter is provided for the given property of
+     * instances of the given type, without creating one.
+     */
+    public static boolean providesAdapter(Class<?> type, String property) {
+        return INSTANCE.providesAdapter0(type, property);
+    }
+
     public static List<PropertyDescriptor> getAdapterPropertyDescriptors(
         Class<?> type) {
         return INSTANCE.getAdapterPropertyDescriptors0(type);
@@ -144,7 +152,7 @@ public final class BeanAdapterFactory {
         loadProvidersIfNecessary();
         property = property.intern();
 
-        BeanAdapterProvider provider = getProvider(source, property);
+        BeanAdapterProvider provider = getProvider(source.getClass(), property);
 
         if (provider != null) {
             List<VendedAdapter> adapters = vendedAdapters.get(source);
@@ -155,7 +163,7 @@ public final class BeanAdapterFactory {
                     Object adapter = vendedAdapter.getAdapter();
 
                     if (adapter == null) {
-                        vendedAdapters.remove(i);
+                        adapters.remove(i);
                     } else if ((vendedAdapter.getProvider() == provider) &&
                             (vendedAdapter.getProperty() == property)) {
                         return adapter;
@@ -175,9 +183,17 @@ public final class BeanAdapterFactory {
         return null;
     }
 
-    private BeanAdapterProvider getProvider(Object source, String property) {
-        Class<?> type = source.getClass();
+    private boolean providesAdapter0(Class<?> type, String property) {
+        if ((type == null) || (property == null)) {
+            throw new IllegalArgumentException();
+        }
+
+        loadProvidersIfNecessary();
+
+        return getProvider(type, property) != null;
+    }
 
+    private BeanAdapterProvider getProvider(Class<?> type, String property) {
         for (BeanAdapterProvider provider : providers) {
             if (provider.providesAdapter(type, property)) {
                 return provider;
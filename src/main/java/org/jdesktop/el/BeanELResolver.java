@@ -31,7 +31,6 @@ package org.jdesktop.el;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.beans.FeatureDescriptor;
 import java.beans.BeanInfo;
 import java.beans.Introspector;
@@ -41,7 +40,9 @@ import java.util.Iterator;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Objects;
+
+import org.jdesktop.el.impl.util.BeanAccessors;
 
 /**
  * Defines property resolution behavior on objects using the JavaBeans
@@ -75,33 +76,51 @@ public class BeanELResolver extends ELResolver {
 
     private boolean isReadOnly;
 
-    // Set a limit for the number of beans in the cache.
-    private final static int SIZE = 2000;
-    // Two maps are used here, to facilitate discarding the older cache
-    // when cache size reaches the limit.
-    private static final Map<Class, BeanProperties> properties =
-        new ConcurrentHashMap<Class, BeanProperties>(SIZE);
-    private static final Map<Class, BeanProperties> properties2 =
-        new ConcurrentHashMap<Class, BeanProperties>(SIZE);
+    // The properties are cached with the class, so that the cache neither
+    // needs a size limit nor keeps classes from being unloaded.
+    private static final ClassValue<BeanProperties> properties =
+        new ClassValue<BeanProperties>() {
+            @Override
+            protected BeanProperties computeValue(Class<?> baseClass) {
+                return new BeanProperties(baseClass);
+            }
+        };
                                                                                 
     /*
      * Defines a property for a bean.
      */
     protected final static class BeanProperty {
 
-        private Method readMethod;
-        private Method writeMethod;
-        private Class baseClass;
-        private PropertyDescriptor descriptor;
+        // the cached accessor, or null if the descriptor describes other
+        // methods than the introspection of the class has found
+        private final BeanAccessors.Accessor accessor;
+        private final Method readMethod;
+        private final Method writeMethod;
+        private final Class propertyType;
                                                                                 
         public BeanProperty(Class<?> baseClass,
                             PropertyDescriptor descriptor) {
-            this.baseClass = baseClass;
-            this.descriptor = descriptor;
+            this(findAccessor(baseClass, descriptor),
+                 BeanAccessors.getPublicForm(baseClass, descriptor.getReadMethod()),
+                 BeanAccessors.getPublicForm(baseClass, descriptor.getWriteMethod()),
+                 descriptor.getPropertyType());
+        }
+
+        private BeanProperty(BeanAccessors.Accessor accessor) {
+            this(accessor, accessor.getReadMethod(), accessor.getWriteMethod(),
+                 accessor.getPropertyType());
+        }
+
+        private BeanProperty(BeanAccessors.Accessor accessor, Method readMethod,
+                             Method writeMethod, Class propertyType) {
+            this.accessor = accessor;
+            this.readMethod = readMethod;
+            this.writeMethod = writeMethod;
+            this.propertyType = propertyType;
         }
                                                                                 
         public Class getPropertyType() {
-            return descriptor.getPropertyType();
+            return propertyType;
         }
                                                                                 
         public boolean isReadOnly() {
@@ -109,18 +128,48 @@ public class BeanELResolver extends ELResolver {
         }
                                                                                 
         public Method getReadMethod() {
-            if (readMethod == null) {
-                readMethod = getMethod(baseClass, descriptor.getReadMethod());
-            }
             return readMethod;
         }
                                                                                 
         public Method getWriteMethod() {
-            if (writeMethod == null) {
-                writeMethod = getMethod(baseClass, descriptor.getWriteMethod());
-            }
             return writeMethod;
         }
+
+        private Object get(Object base)
+                throws InvocationTargetException, IllegalAccessException {
+            if (accessor == null) {
+                return readMethod.invoke(base);
+            }
+            return accessor.get(base);
+        }
+
+        private void set(Object base, Object value)
+                throws InvocationTargetException, IllegalAccessException {
+            if (accessor == null) {
+                writeMethod.invoke(base, value);
+            } else {
+                accessor.set(base, value);
+            }
+        }
+
+        private static BeanAccessors.Accessor findAccessor(
+                Class<?> baseClass, PropertyDescriptor descriptor) {
+            BeanAccessors.Accessor accessor;
+            try {
+                accessor = BeanAccessors.forClass(baseClass)
+                               .getAccessor(descriptor.getName());
+            } catch (IntrospectionException ie) {
+                return null;
+            }
+            if (accessor == null
+                    || !Objects.equals(accessor.getReadMethod(),
+                           BeanAccessors.getPublicForm(baseClass, descriptor.getReadMethod()))
+                    || !Objects.equals(accessor.getWriteMethod(),
+                           BeanAccessors.getPublicForm(baseClass, descriptor.getWriteMethod()))) {
+                return null;
+            }
+            return accessor;
+        }
     }
                                                                                 
     /*
@@ -134,16 +183,15 @@ public class BeanELResolver extends ELResolver {
                                                                                 
         public BeanProperties(Class<?> baseClass) {
             this.baseClass = baseClass;
-            PropertyDescriptor[] descriptors;
+            BeanAccessors accessors;
             try {
-                BeanInfo info = Introspector.getBeanInfo(baseClass);
-                descriptors = info.getPropertyDescriptors();
+                accessors = BeanAccessors.forClass(baseClass);
             } catch (IntrospectionException ie) {
                 throw new ELException(ie);
             }
-            for (PropertyDescriptor pd: descriptors) {
-                propertyMap.put(pd.getName(),
-                                new BeanProperty(baseClass, pd));
+            for (BeanAccessors.Accessor accessor: accessors.getAccessors()) {
+                propertyMap.put(accessor.getName(),
+                                new BeanProperty(accessor));
             }
         }
                                                                                 
@@ -272,7 +320,7 @@ public class BeanELResolver extends ELResolver {
 
         Object value;
         try {
-            value = method.invoke(base, new Object[0]);
+            value = bp.get(base);
             context.setPropertyResolved(true);
         } catch (ELException ex) {
             throw ex;
@@ -351,7 +399,7 @@ public class BeanELResolver extends ELResolver {
         }
 
         try {
-            method.invoke(base, new Object[] {val});
+            bp.set(base, val);
             context.setPropertyResolved(true);
         } catch (ELException ex) {
             throw ex;
@@ -504,65 +552,12 @@ public class BeanELResolver extends ELResolver {
         return Object.class;
     }
 
-    /*
-     * Get a public method form a public class or interface of a given method.
-     * Note that if a PropertyDescriptor is obtained for a non-public class that
-     * implements a public interface, the read/write methods will be for the
-     * class, and therefore inaccessible.  To correct this, a version of the
-     * same method must be found in a superclass or interface.
-     **/
-
-    static private Method getMethod(Class cl, Method method) {
-        if (method == null) {
-            return null;
-        }
-        
-        if (Modifier.isPublic (cl.getModifiers ())) {
-            return method;
-        }
-        Class [] interfaces = cl.getInterfaces ();
-        for (int i = 0; i < interfaces.length; i++) {
-            Class c = interfaces[i];
-            Method m = null;
-            try {
-                m = c.getMethod(method.getName(), method.getParameterTypes());
-                c = m.getDeclaringClass();
-                if ((m = getMethod(c, m)) != null)
-                    return m;
-            } catch (NoSuchMethodException ex) {
-            }
-        }
-        Class c = cl.getSuperclass();
-        if (c != null) {
-            Method m = null;
-            try {
-                m = c.getMethod(method.getName(), method.getParameterTypes());
-                c = m.getDeclaringClass();
-                if ((m = getMethod(c, m)) != null)
-                    return m;
-            } catch (NoSuchMethodException ex) {
-            }
-        }
-        return null;
-    }
-
     private BeanProperty getBeanProperty(ELContext context,
                                          Object base,
                                          Object prop) {
 
         String property = prop.toString();
-        Class baseClass = base.getClass();
-        BeanProperties bps = properties.get(baseClass);
-        if (bps == null && (bps = properties2.get(baseClass)) == null) {
-            if (properties.size() > SIZE) {
-                // Discard the old map to limit the cache size.
-                properties2.clear();
-                properties2.putAll(properties);
-                properties.clear();
-            }
-            bps = new BeanProperties(baseClass);
-            properties.put(baseClass, bps);
-        }
+        BeanProperties bps = properties.get(base.getClass());
         return bps.getBeanProperty(property);
     }
 }
@@ -131,6 +131,9 @@ public abstract class ELContext {
         if((key == null) || (contextObject == null)) {
             throw new NullPointerException();
         }
+        if (map == null) {
+            map = new HashMap();
+        }
         map.put(key, contextObject);
     }
 
@@ -156,7 +159,7 @@ public abstract class ELContext {
         if(key == null) {
             throw new NullPointerException();
         }
-        return map.get(key);
+        return (map == null) ? null : map.get(key);
     }
                       
     /**
@@ -227,8 +230,34 @@ public abstract class ELContext {
      */
     public abstract VariableMapper getVariableMapper();
 
+    /**
+     * Sets the source for the identifiers of expressions evaluated with
+     * this context which have no source of their own (see
+     * {@link ValueExpression#setSource}).
+     *
+     * <p>Unlike the source of a <code>ValueExpression</code>, which is
+     * shared by everyone evaluating the expression, the source of a
+     * context only applies to evaluations using that context. This allows
+     * one expression to be evaluated for different sources concurrently.</p>
+     *
+     * @param source the source for identifiers; may be <code>null</code>
+     */
+    public void setSource(Object source) {
+        this.source = source;
+    }
+
+    /**
+     * Returns the source for identifiers set by {@link #setSource}.
+     *
+     * @return the source for identifiers, or <code>null</code>
+     */
+    public Object getSource() {
+        return source;
+    }
+
     private boolean resolved;
-    private HashMap map = new HashMap();
+    private Object source;
+    private HashMap map;
 
 
 }
@@ -113,7 +113,7 @@ public final class ValueExpressionImpl extends ValueExpression implements
 
     private VariableMapper varMapper;
 
-    private transient Node node;
+    private transient volatile Node node;
 
     public ValueExpressionImpl() {
 
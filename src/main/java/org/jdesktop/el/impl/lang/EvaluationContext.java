@@ -108,6 +108,14 @@ public final class EvaluationContext extends ELContext {
         this.elContext.setPropertyResolved(resolved);
     }
 
+    public Object getSource() {
+        return this.elContext.getSource();
+    }
+
+    public void setSource(Object source) {
+        this.elContext.setSource(source);
+    }
+
     public void clearResolvedProperties() {
         if (resolvedProperties == null) {
             return;
@@ -178,8 +178,11 @@ public final class AstIdentifier extends SimpleNode {
     private Object getSource(EvaluationContext ctx) {
         Expression expression = ctx.getExpression();
         if (expression instanceof ValueExpression) {
-            return ((ValueExpression)expression).getSource();
+            Object source = ((ValueExpression)expression).getSource();
+            if (source != null) {
+                return source;
+            }
         }
-        return null;
+        return ctx.getSource();
     }
 }
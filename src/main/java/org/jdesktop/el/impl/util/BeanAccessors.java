@@ -0,0 +1,382 @@
+package org.jdesktop.el.impl.util;
+
+import java.beans.BeanInfo;
+import java.beans.EventSetDescriptor;
+import java.beans.IndexedPropertyDescriptor;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The resolved JavaBeans properties of a class. Introspection and the search
+ * for the public form of the accessor methods happen once per class; the
+ * result is cached with the class (see {@link ClassValue}) and shared by
+ * {@code BeanProperty}, {@code ELProperty} and {@code BeanELResolver}.
+ * <p>
+ * Accessors are invoked through {@code MethodHandle}s. Exceptions thrown by
+ * an accessor are wrapped in an {@code InvocationTargetException}, as they
+ * would be by {@link Method#invoke}.
+ */
+public final class BeanAccessors {
+
+    private static final ClassValue<BeanAccessors> CACHE = new ClassValue<BeanAccessors>() {
+        @Override
+        protected BeanAccessors computeValue(Class<?> type) {
+            return new BeanAccessors(type);
+        }
+    };
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Class<?> type;
+    private final IntrospectionException failure;
+    private final Map<String, Accessor> accessors = new HashMap<String, Accessor>();
+    private final Invoker addListener;
+    private final Invoker removeListener;
+
+    private BeanAccessors(Class<?> type) {
+        this.type = type;
+
+        BeanInfo info = null;
+        IntrospectionException failure = null;
+
+        try {
+            info = Introspector.getBeanInfo(type);
+        } catch (IntrospectionException ie) {
+            failure = ie;
+        }
+
+        this.failure = failure;
+
+        Invoker addListener = null;
+        Invoker removeListener = null;
+
+        if (info != null) {
+            PropertyDescriptor[] pds = info.getPropertyDescriptors();
+
+            if (pds != null) {
+                for (PropertyDescriptor pd : pds) {
+                    accessors.put(pd.getName(), new Accessor(pd));
+                }
+            }
+
+            EventSetDescriptor[] eds = info.getEventSetDescriptors();
+
+            if (eds != null) {
+                for (EventSetDescriptor ed : eds) {
+                    if (ed.getListenerType() == PropertyChangeListener.class) {
+                        addListener = Invoker.of(getPublicForm(type, ed.getAddListenerMethod()), SETTER_TYPE);
+                        removeListener = Invoker.of(getPublicForm(type, ed.getRemoveListenerMethod()), SETTER_TYPE);
+                        break;
+                    }
+                }
+            }
+        }
+
+        this.addListener = addListener;
+        this.removeListener = removeListener;
+    }
+
+    /**
+     * Returns the resolved properties of the given class.
+     *
+     * @param type the bean class
+     * @return the properties of {@code type}
+     * @throws IntrospectionException if the class can't be introspected
+     */
+    public static BeanAccessors forClass(Class<?> type) throws IntrospectionException {
+        BeanAccessors accessors = CACHE.get(type);
+
+        if (accessors.failure != null) {
+            throw accessors.failure;
+        }
+
+        return accessors;
+    }
+
+    /**
+     * Returns the bean class.
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * Returns the properties of the class.
+     */
+    public Collection<Accessor> getAccessors() {
+        return Collections.unmodifiableCollection(accessors.values());
+    }
+
+    /**
+     * Returns the property with the given name, or {@code null} if the class
+     * has no such property.
+     */
+    public Accessor getAccessor(String name) {
+        return accessors.get(name);
+    }
+
+    /**
+     * Registers a {@code PropertyChangeListener} with the given bean.
+     *
+     * @return {@code false} if the bean has no public method to add
+     *         a {@code PropertyChangeListener}
+     */
+    public boolean addPropertyChangeListener(Object bean, PropertyChangeListener listener)
+            throws InvocationTargetException, IllegalAccessException {
+        if (addListener == null) {
+            return false;
+        }
+
+        addListener.set(bean, listener);
+        return true;
+    }
+
+    /**
+     * Unregisters a {@code PropertyChangeListener} from the given bean.
+     *
+     * @return {@code false} if the bean has no public method to remove
+     *         a {@code PropertyChangeListener}
+     */
+    public boolean removePropertyChangeListener(Object bean, PropertyChangeListener listener)
+            throws InvocationTargetException, IllegalAccessException {
+        if (removeListener == null) {
+            return false;
+        }
+
+        removeListener.set(bean, listener);
+        return true;
+    }
+
+    /**
+     * Returns a public form of the given method for the given class.
+     * <p>
+     * If a {@code PropertyDescriptor} is obtained for a non-public class that
+     * implements a public interface, the read/write methods will be for the
+     * class, and therefore inaccessible. To correct this, a version of the
+     * same method must be found in a superclass or interface.
+     *
+     * @param cl the class on which to search for the method
+     * @param method the method
+     * @return a public form of the given method for the given class,
+     *         or {@code null} if one can't be found
+     */
+    public static Method getPublicForm(Class<?> cl, Method method) {
+        if (method == null) {
+            return null;
+        }
+
+        if (Modifier.isPublic(cl.getModifiers())) {
+            return method;
+        }
+
+        for (Class<?> c : cl.getInterfaces()) {
+            try {
+                Method m = c.getMethod(method.getName(), method.getParameterTypes());
+
+                if ((m = getPublicForm(m.getDeclaringClass(), m)) != null) {
+                    return m;
+                }
+            } catch (NoSuchMethodException ex) {
+            }
+        }
+
+        Class<?> c = cl.getSuperclass();
+
+        if (c != null) {
+            try {
+                Method m = c.getMethod(method.getName(), method.getParameterTypes());
+
+                if ((m = getPublicForm(m.getDeclaringClass(), m)) != null) {
+                    return m;
+                }
+            } catch (NoSuchMethodException ex) {
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * A property of a bean class with the public forms of its accessors.
+     */
+    public final class Accessor {
+
+        private final PropertyDescriptor descriptor;
+        private final Invoker reader;
+        private final Invoker writer;
+
+        private Accessor(PropertyDescriptor descriptor) {
+            this.descriptor = descriptor;
+            this.reader = Invoker.of(getPublicForm(type, descriptor.getReadMethod()), GETTER_TYPE);
+            this.writer = Invoker.of(getPublicForm(type, descriptor.getWriteMethod()), SETTER_TYPE);
+        }
+
+        public String getName() {
+            return descriptor.getName();
+        }
+
+        public Class<?> getPropertyType() {
+            return descriptor.getPropertyType();
+        }
+
+        /**
+         * Returns whether this is an indexed property.
+         */
+        public boolean isIndexed() {
+            return descriptor instanceof IndexedPropertyDescriptor;
+        }
+
+        /**
+         * Returns the public form of the read method, or {@code null}.
+         */
+        public Method getReadMethod() {
+            return reader == null ? null : reader.method;
+        }
+
+        /**
+         * Returns the public form of the write method, or {@code null}.
+         */
+        public Method getWriteMethod() {
+            return writer == null ? null : writer.method;
+        }
+
+        public boolean isReadable() {
+            return reader != null;
+        }
+
+        public boolean isWritable() {
+            return writer != null;
+        }
+
+        /**
+         * Reads the property from the given bean.
+         *
+         * @throws IllegalStateException if the property is not readable
+         */
+        public Object get(Object bean) throws InvocationTargetException, IllegalAccessException {
+            if (reader == null) {
+                throw new IllegalStateException("Property " + getName() + " of " + type.getName() + " is not readable");
+            }
+
+            return reader.get(bean);
+        }
+
+        /**
+         * Writes the property of the given bean.
+         *
+         * @throws IllegalStateException if the property is not writable
+         */
+        public void set(Object bean, Object value) throws InvocationTargetException, IllegalAccessException {
+            if (writer == null) {
+                throw new IllegalStateException("Property " + getName() + " of " + type.getName() + " is not writable");
+            }
+
+            writer.set(bean, value);
+        }
+
+        @Override
+        public String toString() {
+            return type.getName() + "." + getName();
+        }
+    }
+
+    /**
+     * Invokes a getter, a setter or a listener registration method through a
+     * {@code MethodHandle} adapted to {@code Object} arguments. Methods which
+     * can't be looked up publicly are invoked reflectively.
+     */
+    private static final class Invoker {
+
+        final Method method;
+        final MethodHandle handle;
+        final Class<?> declaringClass;
+        final Class<?> parameterType;
+        // the type of the first argument after boxing a primitive parameter
+        final Class<?> argumentType;
+
+        private Invoker(Method method, MethodHandle handle) {
+            this.method = method;
+            this.handle = handle;
+            this.declaringClass = method.getDeclaringClass();
+
+            Class<?>[] parameters = method.getParameterTypes();
+            this.parameterType = parameters.length == 0 ? null : parameters[0];
+            this.argumentType = parameterType == null ? null
+                : MethodType.methodType(parameterType).wrap().returnType();
+        }
+
+        static Invoker of(Method method, MethodType type) {
+            if (method == null || method.getParameterTypes().length != type.parameterCount() - 1) {
+                return null;
+            }
+
+            MethodHandle handle;
+
+            try {
+                handle = MethodHandles.publicLookup().unreflect(method).asType(type);
+            } catch (IllegalAccessException ex) {
+                handle = null;
+            }
+
+            return new Invoker(method, handle);
+        }
+
+        Object get(Object bean) throws InvocationTargetException, IllegalAccessException {
+            if (handle == null) {
+                return method.invoke(bean);
+            }
+
+            checkTarget(bean);
+
+            try {
+                return (Object) handle.invokeExact(bean);
+            } catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+
+        void set(Object bean, Object value) throws InvocationTargetException, IllegalAccessException {
+            if (handle == null) {
+                method.invoke(bean, value);
+                return;
+            }
+
+            checkTarget(bean);
+
+            if (value == null ? parameterType.isPrimitive() : !argumentType.isInstance(value)) {
+                if (value != null && parameterType.isPrimitive()) {
+                    // let reflection apply a widening conversion or reject
+                    // the value, the handle would throw a ClassCastException
+                    method.invoke(bean, value);
+                    return;
+                }
+                throw new IllegalArgumentException("argument type mismatch");
+            }
+
+            try {
+                handle.invokeExact(bean, value);
+            } catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+
+        private void checkTarget(Object bean) {
+            if (!declaringClass.isInstance(bean)) {
+                throw new IllegalArgumentException("object is not an instance of declaring class");
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package org.jdesktop.observablecollections;
+
+import java.util.List;
+
+/**
+ * Collects the changes of an observable collection while a batch is running
+ * (see {@link ObservableList#beginBatch()}) and sends them to its listeners
+ * when the outermost batch ends.
+ *
+ * @param <B> the type of the change set builder
+ */
+abstract class BatchSupport<B> {
+    // number of nested batches and the changes collected during them
+    private int batchDepth;
+    private B pendingChanges;
+
+    /**
+     * Returns the builder collecting the changes of the running batch, or
+     * {@code null} if no batch is running.
+     */
+    final B getPendingChanges() {
+        return pendingChanges;
+    }
+
+    final boolean isBatching() {
+        return batchDepth > 0;
+    }
+
+    final void beginBatch() {
+        if (batchDepth++ == 0) {
+            pendingChanges = createBuilder();
+        }
+    }
+
+    final void endBatch() {
+        if (batchDepth == 0) {
+            throw new IllegalStateException("No batch has been started");
+        }
+
+        if (--batchDepth == 0) {
+            B changes = pendingChanges;
+            pendingChanges = null;
+            fire(changes);
+        }
+    }
+
+    /**
+     * Returns the builder to record a bulk change with: the pending
+     * changes if a batch is running, a new one otherwise.
+     */
+    final B startChange() {
+        return pendingChanges != null ? pendingChanges : createBuilder();
+    }
+
+    /**
+     * Sends the changes recorded with a builder from {@code startChange},
+     * unless they belong to the running batch.
+     */
+    final void endChange(B changes) {
+        if (changes != pendingChanges) {
+            fire(changes);
+        }
+    }
+
+    /**
+     * Returns {@code true} if changes have to be recorded, because there are
+     * listeners or a batch is running.
+     */
+    final boolean hasListeners() {
+        return pendingChanges != null || !getListeners().isEmpty();
+    }
+
+    abstract List<?> getListeners();
+
+    abstract B createBuilder();
+
+    /**
+     * Sends the recorded changes to the listeners, if there are any.
+     */
+    abstract void fire(B changes);
+
+    static final class ForList extends BatchSupport<ListChangeSet.Builder> {
+        private final ObservableList<?> list;
+        private final List<ObservableListListener> listeners;
+
+        ForList(ObservableList<?> list, List<ObservableListListener> listeners) {
+            this.list = list;
+            this.listeners = listeners;
+        }
+
+        List<?> getListeners() {
+            return listeners;
+        }
+
+        ListChangeSet.Builder createBuilder() {
+            return new ListChangeSet.Builder();
+        }
+
+        void fire(ListChangeSet.Builder changes) {
+            if (!changes.isEmpty()) {
+                changes.build().dispatch(list, listeners);
+            }
+        }
+    }
+
+    static final class ForMap extends BatchSupport<MapChangeSet.Builder> {
+        private final ObservableMap<?, ?> map;
+        private final List<ObservableMapListener> listeners;
+
+        ForMap(ObservableMap<?, ?> map, List<ObservableMapListener> listeners) {
+            this.map = map;
+            this.listeners = listeners;
+        }
+
+        List<?> getListeners() {
+            return listeners;
+        }
+
+        MapChangeSet.Builder createBuilder() {
+            return new MapChangeSet.Builder();
+        }
+
+        void fire(MapChangeSet.Builder changes) {
+            if (!changes.isEmpty()) {
+                changes.build().dispatch(map, listeners);
+            }
+        }
+    }
+}
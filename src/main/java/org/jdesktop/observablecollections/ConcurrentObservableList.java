@@ -0,0 +1,555 @@
+package org.jdesktop.observablecollections;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+
+/**
+ * A thread-safe {@code ObservableList} for lists which are changed by several
+ * threads, e.g. data feeds, and displayed by another one, e.g. the EDT.
+ * <p>
+ * The elements are kept in a {@link PersistentVector} which is replaced on
+ * each change, so reading never blocks and {@link #snapshot()} is O(1).
+ * Writers hold a lock while the new version is derived: setting and
+ * appending elements take O(log n) time, inserting or removing elements
+ * copies the part of the list behind the changed index. Use the bulk
+ * operations ({@code addAll}, {@code removeIf}, {@code setAll}, ...) to apply
+ * many changes at once.
+ * <p>
+ * Iterators work on a snapshot of the list and don't support
+ * {@code remove}; ranges returned by {@code subList} apply their changes
+ * to this list.
+ * <p>
+ * Listeners are notified using the executor passed to the constructor (e.g.
+ * {@code SwingUtilities::invokeLater}), one notification at a time and in the
+ * order in which the changes have been applied. All changes which are queued
+ * when the executor runs the delivery are merged into one notification.
+ * Because the list may already have changed again when a listener is
+ * notified, listeners should read the elements from the change set, whose
+ * {@link ListChangeSet#getSnapshot() snapshot} holds the state after the
+ * notified changes, instead of from this list. Bindings which read the
+ * list itself (e.g. {@code JListBinding}, {@code JTableBinding} or
+ * {@code XListBinding}) therefore need a list without an executor, changed
+ * on the thread they are used on.
+ */
+public final class ConcurrentObservableList<E> extends AbstractList<E>
+    implements ObservableList<E>, RandomAccess {
+
+    // the current elements
+    private volatile PersistentVector<E> elements = PersistentVector.empty();
+
+    // serializes the writers
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private final List<ObservableListListener> listeners =
+        new CopyOnWriteArrayList<ObservableListListener>();
+
+    private final Executor eventExecutor;
+
+    // changes which have not been delivered yet, in the order they were applied
+    private final ConcurrentLinkedQueue<PendingChange<E>> pendingChanges =
+        new ConcurrentLinkedQueue<PendingChange<E>>();
+    private final AtomicBoolean deliveryScheduled = new AtomicBoolean();
+
+    private final Runnable deliveryTask = new Runnable() {
+        public void run() {
+            deliverChanges();
+        }
+    };
+
+    /**
+     * Creates an empty list which notifies its listeners on the thread
+     * which changed the list.
+     */
+    public ConcurrentObservableList() {
+        this(null);
+    }
+
+    /**
+     * Creates an empty list which notifies its listeners using the given
+     * executor.
+     *
+     * @param eventExecutor the executor to run the notifications with or
+     *        {@code null} to notify on the thread which changed the list
+     */
+    public ConcurrentObservableList(Executor eventExecutor) {
+        this.eventExecutor = eventExecutor;
+    }
+
+    /**
+     * Returns an immutable list of the current elements, which is not
+     * affected by later changes of this list.
+     *
+     * @return the current elements
+     */
+    public List<E> snapshot() {
+        return elements;
+    }
+
+    // -----------------------------
+    // reading
+    // -----------------------------
+
+    public E get(int index) {
+        return elements.get(index);
+    }
+
+    public int size() {
+        return elements.size();
+    }
+
+    public Object[] toArray() {
+        return elements.toArray();
+    }
+
+    public <T> T[] toArray(T[] a) {
+        return elements.toArray(a);
+    }
+
+    public int indexOf(Object o) {
+        return elements.indexOf(o);
+    }
+
+    public int lastIndexOf(Object o) {
+        return elements.lastIndexOf(o);
+    }
+
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    /**
+     * Returns a read-only iterator over a snapshot of this list.
+     */
+    public Iterator<E> iterator() {
+        return snapshot().iterator();
+    }
+
+    /**
+     * Returns a read-only iterator over a snapshot of this list.
+     */
+    public ListIterator<E> listIterator(int index) {
+        return snapshot().listIterator(index);
+    }
+
+    // -----------------------------
+    // writing
+    // -----------------------------
+
+    public E set(int index, E element) {
+        writeLock.lock();
+        try {
+            PersistentVector<E> current = elements;
+            E oldElement = current.get(index);
+
+            PersistentVector<E> updated = current.with(index, element);
+            elements = updated;
+
+            ListChangeSet.Builder changes = new ListChangeSet.Builder();
+            changes.replaced(index, oldElement, element);
+            enqueue(changes, updated);
+            return oldElement;
+        } finally {
+            writeLock.unlock();
+            scheduleDelivery();
+        }
+    }
+
+    public boolean add(E element) {
+        // the size must be read under the lock
+        return addAll(Collections.singletonList(element));
+    }
+
+    public void add(int index, E element) {
+        addAll(index, Collections.singletonList(element));
+    }
+
+    public boolean addAll(Collection<? extends E> c) {
+        Object[] added = c.toArray();
+
+        writeLock.lock();
+        try {
+            return insert(elements.size(), added);
+        } finally {
+            writeLock.unlock();
+            scheduleDelivery();
+        }
+    }
+
+    public boolean addAll(int index, Collection<? extends E> c) {
+        Object[] added = c.toArray();
+
+        writeLock.lock();
+        try {
+            return insert(index, added);
+        } finally {
+            writeLock.unlock();
+            scheduleDelivery();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean insert(int index, Object[] added) {
+        PersistentVector<E> current = elements;
+        if (index < 0 || index > current.size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + current.size());
+        }
+        if (added.length == 0) {
+            return false;
+        }
+
+        List<E> addedList = (List<E>) Arrays.asList(added);
+        PersistentVector<E> updated = current.insertAll(index, addedList);
+        elements = updated;
+        modCount++;
+
+        ListChangeSet.Builder changes = new ListChangeSet.Builder();
+        changes.added(index, addedList);
+        enqueue(changes, updated);
+        return true;
+    }
+
+    public E remove(int index) {
+        writeLock.lock();
+        try {
+            E oldElement = elements.get(index);
+            delete(index, index + 1);
+            return oldElement;
+        } finally {
+            writeLock.unlock();
+            scheduleDelivery();
+        }
+    }
+
+    public boolean remove(Object o) {
+        writeLock.lock();
+        try {
+            int index = elements.indexOf(o);
+            if (index < 0) {
+                return false;
+            }
+
+            delete(index, index + 1);
+            return true;
+        } finally {
+            writeLock.unlock();
+            scheduleDelivery();
+        }
+    }
+
+    protected void removeRange(int fromIndex, int toIndex) {
+        writeLock.lock();
+        try {
+            delete(fromIndex, toIndex);
+        } finally {
+            writeLock.unlock();
+            scheduleDelivery();
+        }
+    }
+
+    public void clear() {
+        removeRange(0, size());
+    }
+
+    private void delete(int fromIndex, int toIndex) {
+        PersistentVector<E> current = elements;
+        PersistentVector<E> updated = current.withoutRange(fromIndex, toIndex);
+        if (updated == current) {
+            return;
+        }
+        elements = updated;
+        modCount++;
+
+        ListChangeSet.Builder changes = new ListChangeSet.Builder();
+        changes.removed(fromIndex, current.subList(fromIndex, toIndex));
+        enqueue(changes, updated);
+    }
+
+    @SuppressWarnings("unchecked")
+    public boolean removeIf(Predicate<? super E> filter) {
+        if (filter == null) {
+            throw new NullPointerException("Filter must be non-null");
+        }
+
+        writeLock.lock();
+        try {
+            PersistentVector<E> current = elements;
+            Object[] kept = new Object[current.size()];
+            int keptCount = 0;
+            ListChangeSet.Builder changes = new ListChangeSet.Builder();
+
+            for (E element : current) {
+                if (filter.test(element)) {
+                    changes.removed(keptCount, Collections.singletonList(element));
+                } else {
+                    kept[keptCount++] = element;
+                }
+            }
+
+            if (changes.isEmpty()) {
+                return false;
+            }
+
+            PersistentVector<E> updated = PersistentVector.of((List<E>) Arrays.asList(kept).subList(0, keptCount));
+            elements = updated;
+            modCount++;
+            enqueue(changes, updated);
+            return true;
+        } finally {
+            writeLock.unlock();
+            scheduleDelivery();
+        }
+    }
+
+    public boolean removeAll(final Collection<?> c) {
+        return removeIf(new Predicate<E>() {
+            public boolean test(E element) {
+                return c.contains(element);
+            }
+        });
+    }
+
+    public boolean retainAll(final Collection<?> c) {
+        return removeIf(new Predicate<E>() {
+            public boolean test(E element) {
+                return !c.contains(element);
+            }
+        });
+    }
+
+    public void replaceRange(int fromIndex, int toIndex, Collection<? extends E> newElements) {
+        Object[] added = newElements.toArray();
+
+        writeLock.lock();
+        try {
+            replace(fromIndex, toIndex, added);
+        } finally {
+            writeLock.unlock();
+            scheduleDelivery();
+        }
+    }
+
+    /**
+     * Replaces each element with the result of the operator and notifies the
+     * listeners with a single {@code REPLACED} change.
+     */
+    @SuppressWarnings("unchecked")
+    public void replaceAll(UnaryOperator<E> operator) {
+        if (operator == null) {
+            throw new NullPointerException("Operator must be non-null");
+        }
+
+        writeLock.lock();
+        try {
+            PersistentVector<E> current = elements;
+            if (current.isEmpty()) {
+                return;
+            }
+
+            Object[] replaced = new Object[current.size()];
+            int i = 0;
+            for (E element : current) {
+                replaced[i++] = operator.apply(element);
+            }
+
+            PersistentVector<E> updated = PersistentVector.of((List<E>) Arrays.asList(replaced));
+            elements = updated;
+
+            ListChangeSet.Builder changes = new ListChangeSet.Builder();
+            changes.replaced(0, current, updated);
+            enqueue(changes, updated);
+        } finally {
+            writeLock.unlock();
+            scheduleDelivery();
+        }
+    }
+
+    public boolean setAll(Collection<? extends E> newElements) {
+        Object[] added = newElements.toArray();
+
+        writeLock.lock();
+        try {
+            if (elements.isEmpty() && added.length == 0) {
+                return false;
+            }
+            replace(0, elements.size(), added);
+            return true;
+        } finally {
+            writeLock.unlock();
+            scheduleDelivery();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void replace(int fromIndex, int toIndex, Object[] added) {
+        PersistentVector<E> current = elements;
+        if (fromIndex < 0 || toIndex > current.size() || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("Range: " + fromIndex + " - " + toIndex + ", Size: " + current.size());
+        }
+
+        int removedCount = toIndex - fromIndex;
+        List<E> newRange = (List<E>) Arrays.asList(added);
+        PersistentVector<E> updated;
+        if (removedCount == added.length) {
+            updated = current;
+            for (int i = 0; i < added.length; i++) {
+                updated = updated.with(fromIndex + i, newRange.get(i));
+            }
+        } else {
+            updated = current.withoutRange(fromIndex, toIndex).insertAll(fromIndex, newRange);
+            modCount++;
+        }
+        elements = updated;
+
+        List<E> oldRange = current.subList(fromIndex, toIndex);
+        int overlap = Math.min(removedCount, added.length);
+
+        ListChangeSet.Builder changes = new ListChangeSet.Builder();
+        changes.replaced(fromIndex, oldRange.subList(0, overlap), newRange.subList(0, overlap));
+        if (added.length > overlap) {
+            changes.added(fromIndex + overlap, newRange.subList(overlap, added.length));
+        } else {
+            changes.removed(fromIndex + overlap, oldRange.subList(overlap, removedCount));
+        }
+        enqueue(changes, updated);
+    }
+
+    /**
+     * Sorts the list and notifies the listeners with a single
+     * {@code PERMUTED} change covering the reordered range.
+     */
+    public void sort(Comparator<? super E> c) {
+        writeLock.lock();
+        try {
+            PersistentVector<E> current = elements;
+            Object[] sorted = current.toArray();
+            int[] order = ObservableCollections.sortOrder(sorted, c);
+
+            int from = 0;
+            while (from < order.length && order[from] == from) {
+                from++;
+            }
+            if (from == order.length) {
+                return;
+            }
+            int to = order.length - 1;
+            while (order[to] == to) {
+                to--;
+            }
+
+            Object[] reordered = sorted.clone();
+            int[] permutation = new int[to - from + 1];
+            for (int i = from; i <= to; i++) {
+                reordered[i] = sorted[order[i]];
+                permutation[order[i] - from] = i - from;
+            }
+
+            @SuppressWarnings("unchecked")
+            List<E> reorderedRange = (List<E>) Arrays.asList(reordered).subList(from, to + 1);
+            PersistentVector<E> updated = current.withoutRange(from, to + 1).insertAll(from, reorderedRange);
+            elements = updated;
+
+            ListChangeSet.Builder changes = new ListChangeSet.Builder();
+            changes.permuted(from, permutation);
+            enqueue(changes, updated);
+        } finally {
+            writeLock.unlock();
+            scheduleDelivery();
+        }
+    }
+
+    // -----------------------------
+    // notification
+    // -----------------------------
+
+    public void addObservableListListener(ObservableListListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeObservableListListener(ObservableListListener listener) {
+        listeners.remove(listener);
+    }
+
+    public boolean supportsElementPropertyChanged() {
+        return false;
+    }
+
+    /**
+     * Queues the changes, has to be called while holding the write lock so
+     * that the queue has the order in which the changes have been applied.
+     */
+    private void enqueue(ListChangeSet.Builder changes, PersistentVector<E> snapshot) {
+        if (!changes.isEmpty() && !listeners.isEmpty()) {
+            pendingChanges.add(new PendingChange<E>(changes.build(), snapshot));
+        }
+    }
+
+    private void scheduleDelivery() {
+        if (!pendingChanges.isEmpty() && deliveryScheduled.compareAndSet(false, true)) {
+            if (eventExecutor == null) {
+                deliverChanges();
+            } else {
+                eventExecutor.execute(deliveryTask);
+            }
+        }
+    }
+
+    private void deliverChanges() {
+        try {
+            while (!pendingChanges.isEmpty()) {
+                // merge everything which has been queued into one notification
+                ListChangeSet.Builder merged = new ListChangeSet.Builder();
+                PersistentVector<E> snapshot = null;
+
+                PendingChange<E> next;
+                while ((next = pendingChanges.poll()) != null) {
+                    merged.append(next.changes);
+                    snapshot = next.snapshot;
+                }
+
+                if (!merged.isEmpty()) {
+                    merged.build(snapshot).dispatch(this, listeners);
+                }
+            }
+        } finally {
+            deliveryScheduled.set(false);
+            // changes which have been queued while the flag was still set
+            scheduleDelivery();
+        }
+    }
+
+    private static final class PendingChange<E> {
+        final ListChangeSet changes;
+        final PersistentVector<E> snapshot;
+
+        PendingChange(ListChangeSet changes, PersistentVector<E> snapshot) {
+            this.changes = changes;
+            this.snapshot = snapshot;
+        }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        // like the other ObservableLists, never equal to another list
+        return this == other;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+}
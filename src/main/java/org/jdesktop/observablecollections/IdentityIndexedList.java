@@ -0,0 +1,111 @@
+package org.jdesktop.observablecollections;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+
+/**
+ * A list which keeps an index from each element to its positions, so that
+ * {@code indexOf} and {@code contains} don't have to scan the list.
+ * Elements are compared by identity.
+ * <p>
+ * The positions are kept in a {@link PositionIndex}, so adding, removing or
+ * replacing k elements takes O(k log n) time in addition to the cost of the
+ * backing array list. {@code contains} takes constant time, {@code indexOf}
+ * and {@code lastIndexOf} take O(m log n) time for an element contained m
+ * times.
+ *
+ * @see ObservableCollections#indexedObservableList()
+ */
+final class IdentityIndexedList<E> extends AbstractList<E> implements RandomAccess {
+    private final List<E> elements = new ArrayList<E>();
+    private PositionIndex index = new PositionIndex();
+
+    public E get(int index) {
+        return elements.get(index);
+    }
+
+    public int size() {
+        return elements.size();
+    }
+
+    public E set(int index, E element) {
+        E oldElement = elements.set(index, element);
+        this.index.replaced(index, element);
+        return oldElement;
+    }
+
+    public void add(int index, E element) {
+        elements.add(index, element);
+        modCount++;
+        this.index.added(index, elements.subList(index, index + 1));
+    }
+
+    public boolean addAll(int index, Collection<? extends E> c) {
+        int oldSize = elements.size();
+        if (!elements.addAll(index, c)) {
+            return false;
+        }
+        modCount++;
+
+        int length = elements.size() - oldSize;
+        this.index.added(index, elements.subList(index, index + length));
+        return true;
+    }
+
+    public boolean addAll(Collection<? extends E> c) {
+        return addAll(elements.size(), c);
+    }
+
+    public E remove(int index) {
+        E oldElement = elements.remove(index);
+        modCount++;
+        this.index.removed(index, 1);
+        return oldElement;
+    }
+
+    protected void removeRange(int fromIndex, int toIndex) {
+        elements.subList(fromIndex, toIndex).clear();
+        modCount++;
+        index.removed(fromIndex, toIndex - fromIndex);
+    }
+
+    public void clear() {
+        elements.clear();
+        index = new PositionIndex();
+        modCount++;
+    }
+
+    public int indexOf(Object o) {
+        return index.firstIndexOf(o);
+    }
+
+    public int lastIndexOf(Object o) {
+        return index.lastIndexOf(o);
+    }
+
+    public boolean contains(Object o) {
+        return index.contains(o);
+    }
+
+    public boolean remove(Object o) {
+        int index = indexOf(o);
+        if (index < 0) {
+            return false;
+        }
+
+        remove(index);
+        return true;
+    }
+
+    public Object[] toArray() {
+        return elements.toArray();
+    }
+
+    public <T> T[] toArray(T[] a) {
+        return elements.toArray(a);
+    }
+}
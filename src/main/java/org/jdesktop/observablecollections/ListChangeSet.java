@@ -0,0 +1,580 @@
+package org.jdesktop.observablecollections;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@code ListChangeSet} describes a sequence of changes which have been made
+ * to an {@code ObservableList} as one unit (e.g. during a batch, see
+ * {@link ObservableList#beginBatch()}, or by a sort).
+ * Adjacent changes of the same kind are merged into ranges, so a loop which
+ * sets or adds many consecutive elements is described by a single change.
+ * The changes are ordered; the index of each change refers to the state of the
+ * list after all preceding changes have been applied.
+ *
+ * @see ObservableListChangeListener
+ */
+public final class ListChangeSet {
+
+    /**
+     * The kind of a single change
+     */
+    public enum ChangeType {
+        /** A range of elements has been added */
+        ADDED,
+        /** A range of elements has been removed */
+        REMOVED,
+        /** A range of elements has been replaced by other elements */
+        REPLACED,
+        /** Properties of a range of elements have changed */
+        UPDATED,
+        /** The elements of a range have been reordered */
+        PERMUTED
+    }
+
+    /**
+     * A single change of a contiguous range of the list
+     */
+    public static final class Change {
+        private final ChangeType type;
+        private int index;
+        private final List<Object> oldElements;
+        private final List<Object> newElements;
+        private int length;
+        private int[] permutation;
+
+        Change(ChangeType type, int index, List<Object> oldElements, List<Object> newElements, int length) {
+            this.type = type;
+            this.index = index;
+            this.oldElements = oldElements;
+            this.newElements = newElements;
+            this.length = length;
+        }
+
+        Change(int index, int[] permutation) {
+            this(ChangeType.PERMUTED, index, null, null, permutation.length);
+            this.permutation = permutation;
+        }
+
+        /**
+         * Returns the kind of this change.
+         *
+         * @return the type of the change
+         */
+        public ChangeType getType() {
+            return type;
+        }
+
+        /**
+         * Returns the index of the first element of the changed range.
+         *
+         * @return the start index of the range
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * Returns the number of elements which have been added, removed,
+         * replaced or updated.
+         *
+         * @return the length of the changed range
+         */
+        public int getLength() {
+            switch (type) {
+                case ADDED:
+                    return newElements.size();
+                case UPDATED:
+                case PERMUTED:
+                    return length;
+                default:
+                    return oldElements.size();
+            }
+        }
+
+        /**
+         * Returns the elements which have been removed or replaced
+         * (empty for {@code ADDED}, {@code UPDATED} and {@code PERMUTED}).
+         *
+         * @return the old elements of the range
+         */
+        public List<Object> getOldElements() {
+            return oldElements == null ? Collections.emptyList() : Collections.unmodifiableList(oldElements);
+        }
+
+        /**
+         * Returns the elements which have been added or which replaced the
+         * old elements (empty for {@code REMOVED}, {@code UPDATED} and
+         * {@code PERMUTED}).
+         *
+         * @return the new elements of the range
+         */
+        public List<Object> getNewElements() {
+            return newElements == null ? Collections.emptyList() : Collections.unmodifiableList(newElements);
+        }
+
+        /**
+         * Returns the reordering of a {@code PERMUTED} change: the element
+         * which was at {@code getIndex() + i} before the change is at
+         * {@code getIndex() + getPermutation()[i]} afterwards.
+         *
+         * @return the new positions relative to the index of the change
+         *         or {@code null} if this is no {@code PERMUTED} change
+         */
+        public int[] getPermutation() {
+            return permutation == null ? null : permutation.clone();
+        }
+
+        private boolean contains(int i) {
+            return i >= index && i < index + getLength();
+        }
+
+        @Override
+        public String toString() {
+            return type + "[" + index + ", " + getLength() + "]";
+        }
+    }
+
+    private final List<Change> changes;
+
+    // the content of the list after the changes, if recorded
+    private final List<?> snapshot;
+
+    // cached result of isReplayable()
+    private Boolean replayable;
+
+    private ListChangeSet(List<Change> changes, List<?> snapshot) {
+        this.changes = changes;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Returns the changes in the order in which they have been applied.
+     *
+     * @return the changes of this set
+     */
+    public List<Change> getChanges() {
+        return Collections.unmodifiableList(changes);
+    }
+
+    /**
+     * Returns the content of the list right after the changes of this set.
+     * Lists which notify their listeners later than they change (see
+     * {@link ConcurrentObservableList}) record it, since the list itself
+     * may already have changed again; for other lists this is {@code null}.
+     *
+     * @return the elements after the changes or {@code null}
+     */
+    public List<?> getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Returns {@code true} if this set does not contain any change.
+     *
+     * @return whether this set is empty
+     */
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    /**
+     * Sends the changes of this set to all given listeners, as one
+     * notification to {@code ObservableListChangeListeners} and replayed
+     * (see {@link #replay}) to all others.
+     *
+     * @param list the {@code ObservableList} whose changes are described
+     * @param listeners the listeners to notify
+     */
+    public void dispatch(ObservableList list, Iterable<? extends ObservableListListener> listeners) {
+        for (ObservableListListener listener : listeners) {
+            if (listener instanceof ObservableListChangeListener) {
+                ((ObservableListChangeListener) listener).listChanged(list, this);
+            } else {
+                replay(list, listener);
+            }
+        }
+    }
+
+    /**
+     * Sends the changes of this set to a listener which only understands the
+     * single notifications of {@code ObservableListListener}. The listener
+     * is expected to be called after all changes have been applied to
+     * {@code list}. Reordered ranges and runs of more than one replaced
+     * element are reported as removed and added again.
+     * If the listener could not read consistent elements from {@code list}
+     * for the individual changes, the whole content is reported as removed
+     * and added again instead. The content is taken from the snapshot if
+     * this set has one.
+     *
+     * @param list the {@code ObservableList} whose changes are described
+     * @param listener the listener to notify
+     */
+    public void replay(ObservableList list, ObservableListListener listener) {
+        List<?> content = (snapshot != null) ? snapshot : list;
+
+        if (isReplayable()) {
+            for (Change change : changes) {
+                switch (change.type) {
+                    case ADDED:
+                        listener.listElementsAdded(list, change.index, change.getLength());
+                        break;
+                    case REMOVED:
+                        listener.listElementsRemoved(list, change.index, change.getOldElements());
+                        break;
+                    case REPLACED:
+                        if (change.oldElements.size() == 1) {
+                            listener.listElementReplaced(list, change.index, change.oldElements.get(0));
+                        } else {
+                            listener.listElementsRemoved(list, change.index, change.getOldElements());
+                            listener.listElementsAdded(list, change.index, change.getLength());
+                        }
+                        break;
+                    case PERMUTED:
+                        List<Object> before = new ArrayList<Object>(change.length);
+                        for (int i = 0; i < change.length; i++) {
+                            before.add(content.get(change.index + change.permutation[i]));
+                        }
+                        listener.listElementsRemoved(list, change.index, before);
+                        listener.listElementsAdded(list, change.index, change.length);
+                        break;
+                    default:
+                        for (int i = 0; i < change.length; i++) {
+                            listener.listElementPropertyChanged(list, change.index + i);
+                        }
+                }
+            }
+        } else {
+            List<Object> oldContent = getOldContent(content);
+
+            if (!oldContent.isEmpty()) {
+                listener.listElementsRemoved(list, 0, oldContent);
+            }
+
+            if (!content.isEmpty()) {
+                listener.listElementsAdded(list, 0, content.size());
+            }
+        }
+    }
+
+    /**
+     * Legacy listeners read the added or replaced elements from the list when
+     * they are notified, so replaying the single changes is only correct if no
+     * later change moves or modifies the range of an earlier change.
+     */
+    private boolean isReplayable() {
+        if (replayable == null) {
+            boolean result = true;
+            int minLaterIndex = Integer.MAX_VALUE;
+
+            for (int i = changes.size() - 1; i >= 0 && result; i--) {
+                Change change = changes.get(i);
+                if (change.type != ChangeType.REMOVED && minLaterIndex < change.index + change.getLength()) {
+                    result = false;
+                }
+                minLaterIndex = Math.min(minLaterIndex, change.index);
+            }
+
+            replayable = result;
+        }
+
+        return replayable;
+    }
+
+    /**
+     * Reconstructs the content of the list before the changes of this set
+     * by reverting them on a copy of the current content.
+     *
+     * @param list the content of the list right after the changes
+     * @return a new list with the content before the changes
+     */
+    public List<Object> getOldContent(List<?> list) {
+        List<Object> content = new ArrayList<Object>(list);
+
+        for (int i = changes.size() - 1; i >= 0; i--) {
+            Change change = changes.get(i);
+            switch (change.type) {
+                case ADDED:
+                    content.subList(change.index, change.index + change.getLength()).clear();
+                    break;
+                case REMOVED:
+                    content.addAll(change.index, change.oldElements);
+                    break;
+                case REPLACED:
+                    for (int j = 0; j < change.oldElements.size(); j++) {
+                        content.set(change.index + j, change.oldElements.get(j));
+                    }
+                    break;
+                case PERMUTED:
+                    List<Object> range = content.subList(change.index, change.index + change.length);
+                    List<Object> after = new ArrayList<Object>(range);
+                    for (int j = 0; j < change.length; j++) {
+                        range.set(j, after.get(change.permutation[j]));
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        return content;
+    }
+
+    @Override
+    public String toString() {
+        return changes.toString();
+    }
+
+    /**
+     * Collects the changes of an {@code ObservableList} and merges each change
+     * with the previous one where possible.
+     */
+    public static final class Builder {
+        private final List<Change> changes = new ArrayList<Change>();
+
+        private Change last() {
+            return changes.isEmpty() ? null : changes.get(changes.size() - 1);
+        }
+
+        /**
+         * Records that {@code elements} have been added at {@code index}.
+         *
+         * @param index the index the elements were added to
+         * @param elements the added elements
+         */
+        public void added(int index, List<?> elements) {
+            if (elements.isEmpty()) {
+                return;
+            }
+
+            Change last = last();
+
+            if (last != null && last.type == ChangeType.ADDED &&
+                    index >= last.index && index <= last.index + last.getLength()) {
+                last.newElements.addAll(index - last.index, elements);
+                return;
+            }
+
+            changes.add(new Change(ChangeType.ADDED, index, null, new ArrayList<Object>(elements), 0));
+        }
+
+        /**
+         * Records that {@code oldElements} have been removed at {@code index}.
+         *
+         * @param index the index the elements were removed from
+         * @param oldElements the removed elements
+         */
+        public void removed(int index, List<?> oldElements) {
+            int length = oldElements.size();
+            if (length == 0) {
+                return;
+            }
+
+            Change last = last();
+
+            if (last != null && last.type == ChangeType.REMOVED) {
+                if (index == last.index) {
+                    last.oldElements.addAll(oldElements);
+                    return;
+                } else if (index + length == last.index) {
+                    last.oldElements.addAll(0, oldElements);
+                    last.index = index;
+                    return;
+                }
+            } else if (last != null && last.type == ChangeType.ADDED &&
+                    index >= last.index && index + length <= last.index + last.getLength()) {
+                // elements which have been added during the same batch
+                last.newElements.subList(index - last.index, index - last.index + length).clear();
+                if (last.newElements.isEmpty()) {
+                    changes.remove(changes.size() - 1);
+                }
+                return;
+            }
+
+            changes.add(new Change(ChangeType.REMOVED, index, new ArrayList<Object>(oldElements), null, 0));
+        }
+
+        /**
+         * Records that the element at {@code index} has been replaced.
+         *
+         * @param index the index of the replaced element
+         * @param oldElement the element before the change
+         * @param newElement the element after the change
+         */
+        public void replaced(int index, Object oldElement, Object newElement) {
+            Change last = last();
+
+            if (last != null && (last.type == ChangeType.ADDED || last.type == ChangeType.REPLACED) && last.contains(index)) {
+                // keep the original old element
+                last.newElements.set(index - last.index, newElement);
+                return;
+            }
+
+            if (last != null && last.type == ChangeType.REPLACED) {
+                if (index == last.index + last.getLength()) {
+                    last.oldElements.add(oldElement);
+                    last.newElements.add(newElement);
+                    return;
+                } else if (index == last.index - 1) {
+                    last.oldElements.add(0, oldElement);
+                    last.newElements.add(0, newElement);
+                    last.index = index;
+                    return;
+                }
+            }
+
+            List<Object> oldElements = new ArrayList<Object>();
+            oldElements.add(oldElement);
+            List<Object> newElements = new ArrayList<Object>();
+            newElements.add(newElement);
+            changes.add(new Change(ChangeType.REPLACED, index, oldElements, newElements, 0));
+        }
+
+        /**
+         * Records that the elements starting at {@code index} have been
+         * replaced.
+         *
+         * @param index the index of the first replaced element
+         * @param oldElements the elements before the change
+         * @param newElements the elements after the change (of the same size)
+         */
+        public void replaced(int index, List<?> oldElements, List<?> newElements) {
+            if (oldElements.size() != newElements.size()) {
+                throw new IllegalArgumentException("Old and new elements must have the same size");
+            }
+            if (oldElements.isEmpty()) {
+                return;
+            }
+
+            Change last = last();
+
+            if (last != null && last.type == ChangeType.REPLACED && index == last.index + last.getLength()) {
+                last.oldElements.addAll(oldElements);
+                last.newElements.addAll(newElements);
+                return;
+            }
+
+            changes.add(new Change(ChangeType.REPLACED, index, new ArrayList<Object>(oldElements),
+                new ArrayList<Object>(newElements), 0));
+        }
+
+        /**
+         * Records that a property of the element at {@code index} has changed.
+         *
+         * @param index the index of the changed element
+         */
+        public void updated(int index) {
+            Change last = last();
+
+            if (last != null && last.type != ChangeType.REMOVED && last.type != ChangeType.PERMUTED && last.contains(index)) {
+                // already reported as changed
+                return;
+            }
+
+            if (last != null && last.type == ChangeType.UPDATED) {
+                if (index == last.index + last.length) {
+                    last.length++;
+                    return;
+                } else if (index == last.index - 1) {
+                    last.index = index;
+                    last.length++;
+                    return;
+                }
+            }
+
+            changes.add(new Change(ChangeType.UPDATED, index, null, null, 1));
+        }
+
+        /**
+         * Records that the elements of the range starting at {@code index}
+         * have been reordered, see {@link Change#getPermutation()}.
+         *
+         * @param index the index of the first reordered element
+         * @param permutation the new positions relative to {@code index}
+         */
+        public void permuted(int index, int[] permutation) {
+            if (permutation.length == 0) {
+                return;
+            }
+
+            Change last = last();
+
+            if (last != null && last.type == ChangeType.PERMUTED &&
+                    last.index == index && last.length == permutation.length) {
+                // two reorderings of the same range are one reordering
+                int[] combined = new int[permutation.length];
+                for (int i = 0; i < combined.length; i++) {
+                    combined[i] = permutation[last.permutation[i]];
+                }
+                last.permutation = combined;
+                return;
+            }
+
+            changes.add(new Change(index, permutation.clone()));
+        }
+
+        /**
+         * Records all changes of another change set, merging them with the
+         * changes recorded so far.
+         *
+         * @param changes the changes which have been applied after the
+         *        changes recorded so far
+         */
+        public void append(ListChangeSet changes) {
+            for (Change change : changes.changes) {
+                switch (change.type) {
+                    case ADDED:
+                        added(change.index, change.newElements);
+                        break;
+                    case REMOVED:
+                        removed(change.index, change.oldElements);
+                        break;
+                    case REPLACED:
+                        replaced(change.index, change.oldElements, change.newElements);
+                        break;
+                    case PERMUTED:
+                        permuted(change.index, change.permutation);
+                        break;
+                    default:
+                        for (int i = 0; i < change.length; i++) {
+                            updated(change.index + i);
+                        }
+                }
+            }
+        }
+
+        /**
+         * Returns {@code true} if no change has been recorded.
+         *
+         * @return whether no change has been recorded
+         */
+        public boolean isEmpty() {
+            return changes.isEmpty();
+        }
+
+        /**
+         * Creates the change set and resets this builder.
+         *
+         * @return the recorded changes
+         */
+        public ListChangeSet build() {
+            return build(null);
+        }
+
+        /**
+         * Creates the change set with the content of the list after the
+         * changes (see {@link ListChangeSet#getSnapshot()}) and resets this
+         * builder.
+         *
+         * @param snapshot the elements after the changes, must not be
+         *        changed afterwards
+         * @return the recorded changes
+         */
+        public ListChangeSet build(List<?> snapshot) {
+            ListChangeSet set = new ListChangeSet(new ArrayList<Change>(changes), snapshot);
+            changes.clear();
+            return set;
+        }
+    }
+}
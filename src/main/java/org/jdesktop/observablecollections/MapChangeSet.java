@@ -0,0 +1,238 @@
+package org.jdesktop.observablecollections;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@code MapChangeSet} describes the changes which have been made to an
+ * {@code ObservableMap} as one unit (e.g. during a batch, see
+ * {@link ObservableMap#beginBatch()}, or by {@code putAll} or
+ * {@code clear}). The changes of each key are coalesced into one change
+ * against the state before the batch: a key which has been added and
+ * removed again is not reported at all, a key which has been changed
+ * several times is reported once with its original value.
+ *
+ * @see ObservableMapChangeListener
+ */
+public final class MapChangeSet {
+
+    /**
+     * The kind of change of a key
+     */
+    public enum ChangeType {
+        /** The key has been added */
+        ADDED,
+        /** The key has been removed */
+        REMOVED,
+        /** The value of the key has changed */
+        CHANGED
+    }
+
+    private static final class Change {
+        ChangeType type;
+        Object oldValue;
+
+        Change(ChangeType type, Object oldValue) {
+            this.type = type;
+            this.oldValue = oldValue;
+        }
+    }
+
+    private final Map<Object, Change> changes;
+
+    private MapChangeSet(Map<Object, Change> changes) {
+        this.changes = changes;
+    }
+
+    /**
+     * Returns the changed keys, in the order in which they have first been
+     * changed.
+     *
+     * @return the changed keys
+     */
+    public Set<Object> getKeys() {
+        return Collections.unmodifiableSet(changes.keySet());
+    }
+
+    /**
+     * Returns whether a key has changed.
+     *
+     * @param key the key
+     * @return {@code true} if the key has been added, removed or changed
+     */
+    public boolean containsKey(Object key) {
+        return changes.containsKey(key);
+    }
+
+    /**
+     * Returns how a key has changed.
+     *
+     * @param key the key
+     * @return the kind of change or {@code null} if the key has not changed
+     */
+    public ChangeType getChangeType(Object key) {
+        Change change = changes.get(key);
+        return change == null ? null : change.type;
+    }
+
+    /**
+     * Returns the value of a removed or changed key before the changes.
+     *
+     * @param key the key
+     * @return the previous value or {@code null} for added keys
+     */
+    public Object getOldValue(Object key) {
+        Change change = changes.get(key);
+        return change == null ? null : change.oldValue;
+    }
+
+    /**
+     * Returns the number of changed keys.
+     *
+     * @return the number of changed keys
+     */
+    public int size() {
+        return changes.size();
+    }
+
+    /**
+     * Returns {@code true} if no key has changed.
+     *
+     * @return whether this set is empty
+     */
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    /**
+     * Sends the changes of this set to all given listeners, as one
+     * notification to {@code ObservableMapChangeListeners} and replayed
+     * (see {@link #replay}) to all others.
+     *
+     * @param map the map which has changed
+     * @param listeners the listeners to notify
+     */
+    public void dispatch(ObservableMap map, Iterable<? extends ObservableMapListener> listeners) {
+        for (ObservableMapListener listener : listeners) {
+            if (listener instanceof ObservableMapChangeListener) {
+                ((ObservableMapChangeListener) listener).mapChanged(map, this);
+            } else {
+                replay(map, listener);
+            }
+        }
+    }
+
+    /**
+     * Sends the changes of this set to a listener which only understands the
+     * single notifications of {@code ObservableMapListener}, one per key.
+     *
+     * @param map the map which has changed
+     * @param listener the listener to notify
+     */
+    public void replay(ObservableMap map, ObservableMapListener listener) {
+        for (Map.Entry<Object, Change> entry : changes.entrySet()) {
+            Change change = entry.getValue();
+
+            switch (change.type) {
+                case ADDED:
+                    listener.mapKeyAdded(map, entry.getKey());
+                    break;
+                case REMOVED:
+                    listener.mapKeyRemoved(map, entry.getKey(), change.oldValue);
+                    break;
+                default:
+                    listener.mapKeyValueChanged(map, entry.getKey(), change.oldValue);
+                    break;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (Map.Entry<Object, Change> entry : changes.entrySet()) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(entry.getValue().type).append(' ').append(entry.getKey());
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * Collects the changes of an {@code ObservableMap} and coalesces the
+     * changes of each key.
+     */
+    public static final class Builder {
+        private Map<Object, Change> changes = new LinkedHashMap<Object, Change>();
+
+        /**
+         * Records that a key has been added.
+         *
+         * @param key the added key
+         */
+        public void added(Object key) {
+            Change change = changes.get(key);
+
+            if (change == null) {
+                changes.put(key, new Change(ChangeType.ADDED, null));
+            } else if (change.type == ChangeType.REMOVED) {
+                // removed and added again
+                change.type = ChangeType.CHANGED;
+            }
+        }
+
+        /**
+         * Records that a key has been removed.
+         *
+         * @param key the removed key
+         * @param oldValue the value of the key before it was removed
+         */
+        public void removed(Object key, Object oldValue) {
+            Change change = changes.get(key);
+
+            if (change == null) {
+                changes.put(key, new Change(ChangeType.REMOVED, oldValue));
+            } else if (change.type == ChangeType.ADDED) {
+                // added and removed again
+                changes.remove(key);
+            } else {
+                change.type = ChangeType.REMOVED;
+            }
+        }
+
+        /**
+         * Records that the value of a key has changed.
+         *
+         * @param key the key
+         * @param oldValue the value of the key before the change
+         */
+        public void changed(Object key, Object oldValue) {
+            if (!changes.containsKey(key)) {
+                changes.put(key, new Change(ChangeType.CHANGED, oldValue));
+            }
+        }
+
+        /**
+         * Returns {@code true} if no change has been recorded.
+         *
+         * @return whether no change has been recorded
+         */
+        public boolean isEmpty() {
+            return changes.isEmpty();
+        }
+
+        /**
+         * Creates the change set and resets this builder.
+         *
+         * @return the recorded changes
+         */
+        public MapChangeSet build() {
+            MapChangeSet set = new MapChangeSet(changes);
+            changes = new LinkedHashMap<Object, Change>();
+            return set;
+        }
+    }
+}
@@ -29,16 +29,27 @@
  **********************************************************************************************************************/
 package org.jdesktop.observablecollections;
 
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.util.AbstractList;
 import java.util.AbstractMap;
 import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+
+import org.jdesktop.xbindings.XNotifyPropertyChanged;
 
 
 /**
@@ -65,6 +76,30 @@ public final class ObservableCollections {
         return new ObservableMapImpl<K, V>(map);
     }
 
+    /**
+     * Creates and returns an empty {@code ObservableNavigableMap} which keeps
+     * its keys sorted and offers its entries as an {@code ObservableList}.
+     *
+     * @param comparator the comparator to sort the keys with or
+     *        {@code null} to use their natural order
+     * @return an {@code ObservableNavigableMap}
+     */
+    public static <K, V> ObservableNavigableMap<K, V> observableNavigableMap(Comparator<? super K> comparator) {
+        return new ObservableNavigableMap<K, V>(comparator);
+    }
+
+    /**
+     * Creates and returns an empty {@code ObservableSortedSet} which keeps
+     * its elements sorted and offers them as an {@code ObservableList}.
+     *
+     * @param comparator the comparator to sort the elements with or
+     *        {@code null} to use their natural order
+     * @return an {@code ObservableSortedSet}
+     */
+    public static <E> ObservableSortedSet<E> observableSortedSet(Comparator<? super E> comparator) {
+        return new ObservableSortedSet<E>(comparator);
+    }
+
     /**
      * Creates and returns an {@code ObservableList} wrapping the supplied
      * {@code List}.
@@ -81,6 +116,145 @@ public final class ObservableCollections {
         return new ObservableListImpl<E>(list, false);
     }
 
+    /**
+     * Creates and returns an {@code ObservableList} wrapping the supplied
+     * {@code List}. If {@code observeElements} is {@code true}, the list
+     * registers one shared listener with each element implementing
+     * {@code XNotifyPropertyChanged} and sends
+     * {@code listElementPropertyChanged} when a property of an element
+     * changes, so that its listeners do not have to observe the elements
+     * themselves. The elements keep a reference to the list until they are
+     * removed from it.
+     *
+     * @param list the {@code List} to wrap
+     * @param observeElements whether to send notifications for property
+     *        changes of the elements
+     * @return an {@code ObservableList}
+     * @throws IllegalArgumentException if {@code list} is {@code null}
+     */
+    public static <E> ObservableList<E> observableList(List<E> list, boolean observeElements) {
+        if (list == null) {
+            throw new IllegalArgumentException("List must be non-null");
+        }
+
+        ObservableListImpl<E> oList = new ObservableListImpl<E>(list, observeElements);
+        if (observeElements) {
+            oList.observeElements();
+        }
+
+        return oList;
+    }
+
+    /**
+     * Creates and returns an empty {@code ObservableList} which stores its
+     * elements in an {@code ArrayList} of its own. As no other code has access
+     * to the storage, {@code clear()} can hand the old storage to the
+     * listeners instead of copying all elements.
+     *
+     * @return an {@code ObservableList}
+     */
+    public static <E> ObservableList<E> observableArrayList() {
+        return new ObservableListImpl<E>(new ArrayList<E>(), false, true);
+    }
+
+    /**
+     * Creates and returns an {@code ObservableList} which stores its
+     * elements in an {@code ArrayList} of its own and initially contains the
+     * elements of the supplied {@code Collection}.
+     *
+     * @param elements the initial elements
+     * @return an {@code ObservableList}
+     * @throws IllegalArgumentException if {@code elements} is {@code null}
+     *
+     * @see #observableArrayList()
+     */
+    public static <E> ObservableList<E> observableArrayList(Collection<? extends E> elements) {
+        if (elements == null) {
+            throw new IllegalArgumentException("Collection must be non-null");
+        }
+
+        return new ObservableListImpl<E>(new ArrayList<E>(elements), false, true);
+    }
+
+    /**
+     * Creates and returns an empty {@code ObservableList} which stores its
+     * elements in a {@link PersistentVector}. {@link #snapshot} returns the
+     * current state of such a list in O(1) and the snapshot shares its
+     * structure with the later versions of the list, so background tasks can
+     * work on a consistent view of the list without copying it.
+     *
+     * @return an {@code ObservableList}
+     */
+    public static <E> ObservableList<E> persistentObservableList() {
+        return new ObservableListImpl<E>(new PersistentVector.Storage<E>(), false);
+    }
+
+    /**
+     * Creates and returns an empty {@code ObservableList} which keeps an index
+     * from each element to its positions, so that {@code indexOf},
+     * {@code contains} and {@code remove(Object)} don't have to scan the
+     * list. The positions are kept in a balanced tree: adding, removing or
+     * replacing k elements costs O(k log n) on top of the array list,
+     * {@code contains} takes constant time and {@code indexOf} O(m log n)
+     * for an element contained m times.
+     * <p>
+     * Unlike other lists, this list compares elements by identity, not by
+     * {@code equals}.
+     *
+     * @return an {@code ObservableList}
+     */
+    public static <E> ObservableList<E> indexedObservableList() {
+        return new ObservableListImpl<E>(new IdentityIndexedList<E>(), false);
+    }
+
+    /**
+     * Returns an immutable copy of the current elements of a list, which is
+     * not affected by later changes of the list. For lists created by
+     * {@link #persistentObservableList()} and for
+     * {@code ConcurrentObservableList}s this takes O(1) time, other lists
+     * are copied.
+     *
+     * @param list the list to take the snapshot of
+     * @return the current elements of the list
+     * @throws IllegalArgumentException if {@code list} is {@code null}
+     */
+    public static <E> List<E> snapshot(List<E> list) {
+        if (list == null) {
+            throw new IllegalArgumentException("List must be non-null");
+        }
+
+        if (list instanceof PersistentVector) {
+            return list;
+        }
+        if (list instanceof ConcurrentObservableList) {
+            return ((ConcurrentObservableList<E>) list).snapshot();
+        }
+        if (list instanceof ObservableListImpl) {
+            List<E> storage = ((ObservableListImpl<E>) list).list;
+            if (storage instanceof PersistentVector.Storage) {
+                return ((PersistentVector.Storage<E>) storage).snapshot();
+            }
+        }
+
+        return java.util.Collections.unmodifiableList(new ArrayList<E>(list));
+    }
+
+    /**
+     * Creates and returns an empty {@code ObservableList} which may be
+     * changed by several threads at once. The listeners are notified using
+     * the given executor, e.g. {@code SwingUtilities::invokeLater}, in the
+     * order in which the changes have been applied.
+     *
+     * @param eventExecutor the executor to notify the listeners with or
+     *        {@code null} to notify them on the thread which changed the list
+     * @return a thread-safe {@code ObservableList}
+     *
+     * @see ConcurrentObservableList
+     */
+    public static <E> ConcurrentObservableList<E> concurrentObservableList(Executor eventExecutor) {
+        return new ConcurrentObservableList<E>(eventExecutor);
+    }
+
     /**
      * Creates and returns an {@code ObservableListHelper} wrapping
      * the supplied {@code List}. If you can track changes to the underlying
@@ -144,19 +318,31 @@ public final class ObservableCollections {
         private List<ObservableMapListener> listeners;
         private Set<Map.Entry<K, V>> entrySet;
 
+        // collects the changes during batches
+        private final BatchSupport.ForMap batch;
+
         ObservableMapImpl(Map<K, V> map) {
             this.map = map;
             listeners = new CopyOnWriteArrayList<ObservableMapListener>();
+            batch = new BatchSupport.ForMap(this, listeners);
         }
 
         public void clear() {
-            // Remove all elements via iterator to trigger notification
-            Iterator<K> iterator = keySet().iterator();
+            if (map.isEmpty()) {
+                return;
+            }
+
+            if (!batch.hasListeners()) {
+                map.clear();
+                return;
+            }
 
-            while (iterator.hasNext()) {
-                iterator.next();
-                iterator.remove();
+            MapChangeSet.Builder changes = batch.startChange();
+            for (Map.Entry<K, V> entry : map.entrySet()) {
+                changes.removed(entry.getKey(), entry.getValue());
             }
+            map.clear();
+            batch.endChange(changes);
         }
 
         public boolean containsKey(Object key) {
@@ -187,14 +373,24 @@ public final class ObservableCollections {
             if (containsKey(key)) {
                 lastValue = map.put(key, value);
 
-                for (ObservableMapListener listener : listeners) {
-                    listener.mapKeyValueChanged(this, key, lastValue);
+                MapChangeSet.Builder pending = batch.getPendingChanges();
+                if (pending != null) {
+                    pending.changed(key, lastValue);
+                } else {
+                    for (ObservableMapListener listener : listeners) {
+                        listener.mapKeyValueChanged(this, key, lastValue);
+                    }
                 }
             } else {
                 lastValue = map.put(key, value);
 
-                for (ObservableMapListener listener : listeners) {
-                    listener.mapKeyAdded(this, key);
+                MapChangeSet.Builder pending = batch.getPendingChanges();
+                if (pending != null) {
+                    pending.added(key);
+                } else {
+                    for (ObservableMapListener listener : listeners) {
+                        listener.mapKeyAdded(this, key);
+                    }
                 }
             }
 
@@ -202,18 +398,20 @@ public final class ObservableCollections {
         }
 
         public void putAll(Map<?extends K, ?extends V> m) {
-            for (K key : m.keySet()) {
-                put(key, m.get(key));
+            beginBatch();
+            try {
+                for (Map.Entry<? extends K, ? extends V> entry : m.entrySet()) {
+                    put(entry.getKey(), entry.getValue());
+                }
+            } finally {
+                endBatch();
             }
         }
 
         public V remove(Object key) {
             if (containsKey(key)) {
                 V value = map.remove(key);
-
-                for (ObservableMapListener listener : listeners) {
-                    listener.mapKeyRemoved(this, key, value);
-                }
+                fireKeyRemoved(key, value);
 
                 return value;
             }
@@ -221,6 +419,17 @@ public final class ObservableCollections {
             return null;
         }
 
+        private void fireKeyRemoved(Object key, V value) {
+            MapChangeSet.Builder pending = batch.getPendingChanges();
+            if (pending != null) {
+                pending.removed(key, value);
+            } else {
+                for (ObservableMapListener listener : listeners) {
+                    listener.mapKeyRemoved(this, key, value);
+                }
+            }
+        }
+
         public int size() {
             return map.size();
         }
@@ -233,6 +442,18 @@ public final class ObservableCollections {
             listeners.remove(listener);
         }
 
+        public void beginBatch() {
+            batch.beginBatch();
+        }
+
+        public void endBatch() {
+            batch.endBatch();
+        }
+
+        public boolean isBatching() {
+            return batch.isBatching();
+        }
+
         private class EntryIterator implements Iterator<Map.Entry<K, V>> {
             private Iterator<Map.Entry<K, V>> realIterator;
             private Map.Entry<K, V> last;
@@ -256,9 +477,12 @@ public final class ObservableCollections {
                     throw new IllegalStateException();
                 }
 
-                Object toRemove = last.getKey();
+                // remove through the real iterator, so that it can continue
+                K key = last.getKey();
+                V value = last.getValue();
                 last = null;
-                ObservableMapImpl.this.remove(toRemove);
+                realIterator.remove();
+                fireKeyRemoved(key, value);
             }
         }
 
@@ -303,16 +527,57 @@ public final class ObservableCollections {
         }
     }
 
+    /**
+     * Sorts the positions of the given elements (stable, like
+     * {@code List.sort}) without changing the array: the element at
+     * {@code order[i]} belongs to position {@code i}.
+     */
+    @SuppressWarnings("unchecked")
+    static <E> int[] sortOrder(final Object[] elements, final Comparator<? super E> c) {
+        Integer[] order = new Integer[elements.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                if (c == null) {
+                    return ((Comparable<Object>) elements[a]).compareTo(elements[b]);
+                }
+                return c.compare((E) elements[a], (E) elements[b]);
+            }
+        });
+
+        int[] result = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = order[i];
+        }
+        return result;
+    }
+
     private static final class ObservableListImpl<E> extends AbstractList<E>
         implements ObservableList<E> {
         private final boolean supportsElementPropertyChanged;
         private List<E> list;
         private List<ObservableListListener> listeners;
 
+        // true if list has been created for this ObservableList and is not
+        // accessible from the outside, so it may be replaced on clear()
+        private final boolean ownsList;
+
+        // collects the changes during batches
+        private final BatchSupport.ForList batch;
+
         ObservableListImpl(List<E> list, boolean supportsElementPropertyChanged) {
+            this(list, supportsElementPropertyChanged, false);
+        }
+
+        ObservableListImpl(List<E> list, boolean supportsElementPropertyChanged, boolean ownsList) {
             this.list = list;
             listeners = new CopyOnWriteArrayList<ObservableListListener>();
+            batch = new BatchSupport.ForList(this, listeners);
             this.supportsElementPropertyChanged = supportsElementPropertyChanged;
+            this.ownsList = ownsList;
         }
 
         public E get(int index) {
@@ -326,8 +591,13 @@ public final class ObservableCollections {
         public E set(int index, E element) {
             E oldValue = list.set(index, element);
 
-            for (ObservableListListener listener : listeners) {
-                listener.listElementReplaced(this, index, oldValue);
+            ListChangeSet.Builder pending = batch.getPendingChanges();
+            if (pending != null) {
+                pending.replaced(index, oldValue, element);
+            } else {
+                for (ObservableListListener listener : listeners) {
+                    listener.listElementReplaced(this, index, oldValue);
+                }
             }
 
             return oldValue;
@@ -337,8 +607,13 @@ public final class ObservableCollections {
             list.add(index, element);
             modCount++;
 
-            for (ObservableListListener listener : listeners) {
-                listener.listElementsAdded(this, index, 1);
+            ListChangeSet.Builder pending = batch.getPendingChanges();
+            if (pending != null) {
+                pending.added(index, java.util.Collections.singletonList(element));
+            } else {
+                for (ObservableListListener listener : listeners) {
+                    listener.listElementsAdded(this, index, 1);
+                }
             }
         }
 
@@ -346,9 +621,14 @@ public final class ObservableCollections {
             E oldValue = list.remove(index);
             modCount++;
 
-            for (ObservableListListener listener : listeners) {
-                listener.listElementsRemoved(this, index,
-                    java.util.Collections.singletonList(oldValue));
+            ListChangeSet.Builder pending = batch.getPendingChanges();
+            if (pending != null) {
+                pending.removed(index, java.util.Collections.singletonList(oldValue));
+            } else {
+                for (ObservableListListener listener : listeners) {
+                    listener.listElementsRemoved(this, index,
+                        java.util.Collections.singletonList(oldValue));
+                }
             }
 
             return oldValue;
@@ -359,25 +639,221 @@ public final class ObservableCollections {
         }
 
         public boolean addAll(int index, Collection<?extends E> c) {
-            if (list.addAll(index, c)) {
+            ListChangeSet.Builder pending = batch.getPendingChanges();
+            if (pending != null) {
+                // c may be changed after the call, keep the added elements
+                List<E> added = new ArrayList<E>(c);
+
+                if (list.addAll(index, added)) {
+                    modCount++;
+                    pending.added(index, added);
+                }
+            } else if (list.addAll(index, c)) {
                 modCount++;
 
                 for (ObservableListListener listener : listeners) {
                     listener.listElementsAdded(this, index, c.size());
                 }
+            } else {
+                return false;
             }
 
-            return false;
+            return true;
+        }
+
+        /**
+         * Removes the range with a single notification, this is also used by
+         * {@code subList(fromIndex, toIndex).clear()}.
+         */
+        protected void removeRange(int fromIndex, int toIndex) {
+            List<E> range = list.subList(fromIndex, toIndex);
+            if (range.isEmpty()) {
+                return;
+            }
+
+            if (!batch.hasListeners()) {
+                // nobody is interested in the removed elements
+                range.clear();
+                modCount++;
+                return;
+            }
+
+            List<E> oldElements = new ArrayList<E>(range);
+            range.clear();
+            modCount++;
+
+            ListChangeSet.Builder changes = batch.startChange();
+            changes.removed(fromIndex, oldElements);
+            batch.endChange(changes);
+        }
+
+        /**
+         * Removes all matching elements in one pass over the list and
+         * notifies the listeners once for each run of removed elements
+         * (with a single change set for {@code ObservableListChangeListeners}).
+         */
+        public boolean removeIf(Predicate<? super E> filter) {
+            if (filter == null) {
+                throw new NullPointerException("Filter must be non-null");
+            }
+
+            // test all elements first, so that an exception thrown by
+            // the filter leaves the list unchanged
+            int size = list.size();
+            BitSet matches = new BitSet(size);
+            int index = 0;
+            for (E element : list) {
+                if (filter.test(element)) {
+                    matches.set(index);
+                }
+                index++;
+            }
+
+            if (matches.isEmpty()) {
+                return false;
+            }
+
+            ListChangeSet.Builder changes = batch.startChange();
+            int kept = 0;
+
+            if (list instanceof RandomAccess) {
+                // move the remaining elements to the front and cut off the rest
+                for (int i = 0; i < size; i++) {
+                    E element = list.get(i);
+                    if (matches.get(i)) {
+                        changes.removed(kept, java.util.Collections.singletonList(element));
+                    } else {
+                        if (kept != i) {
+                            list.set(kept, element);
+                        }
+                        kept++;
+                    }
+                }
+                list.subList(kept, size).clear();
+            } else {
+                Iterator<E> it = list.iterator();
+                for (int i = 0; i < size; i++) {
+                    E element = it.next();
+                    if (matches.get(i)) {
+                        it.remove();
+                        changes.removed(kept, java.util.Collections.singletonList(element));
+                    } else {
+                        kept++;
+                    }
+                }
+            }
+
+            modCount++;
+            batch.endChange(changes);
+            return true;
+        }
+
+        public boolean removeAll(final Collection<?> c) {
+            return removeIf(new Predicate<E>() {
+                public boolean test(E element) {
+                    return c.contains(element);
+                }
+            });
+        }
+
+        public boolean retainAll(final Collection<?> c) {
+            return removeIf(new Predicate<E>() {
+                public boolean test(E element) {
+                    return !c.contains(element);
+                }
+            });
+        }
+
+        public void replaceRange(int fromIndex, int toIndex, Collection<? extends E> elements) {
+            List<E> newElements = new ArrayList<E>(elements);
+            List<E> range = list.subList(fromIndex, toIndex);
+            int oldSize = range.size();
+            // the replaced elements are only kept if somebody is interested in them
+            List<E> oldElements = batch.hasListeners() ? new ArrayList<E>(range) : null;
+            int overlap = Math.min(oldSize, newElements.size());
+
+            for (int i = 0; i < overlap; i++) {
+                range.set(i, newElements.get(i));
+            }
+            if (newElements.size() > overlap) {
+                range.addAll(newElements.subList(overlap, newElements.size()));
+            } else if (oldSize > overlap) {
+                range.subList(overlap, oldSize).clear();
+            }
+            modCount++;
+
+            if (oldElements != null) {
+                recordReplace(fromIndex, oldElements, newElements);
+            }
+        }
+
+        public boolean setAll(Collection<? extends E> elements) {
+            if (isEmpty() && elements.isEmpty()) {
+                return false;
+            }
+
+            if (ownsList) {
+                // the old storage becomes the list of replaced elements
+                List<E> oldElements = list;
+                list = new ArrayList<E>(elements);
+                modCount++;
+
+                recordReplace(0, oldElements, list);
+            } else {
+                replaceRange(0, size(), elements);
+            }
+
+            return true;
+        }
+
+        /**
+         * Records the replacement of oldElements by newElements at index as
+         * one replaced run followed by the added or removed rest
+         */
+        private void recordReplace(int index, List<E> oldElements, List<E> newElements) {
+            int overlap = Math.min(oldElements.size(), newElements.size());
+
+            ListChangeSet.Builder changes = batch.startChange();
+            changes.replaced(index, oldElements.subList(0, overlap), newElements.subList(0, overlap));
+            if (newElements.size() > overlap) {
+                changes.added(index + overlap, newElements.subList(overlap, newElements.size()));
+            } else {
+                changes.removed(index + overlap, oldElements.subList(overlap, oldElements.size()));
+            }
+            batch.endChange(changes);
         }
 
         public void clear() {
-            List<E> dup = new ArrayList<E>(list);
-            list.clear();
+            List<E> oldElements;
+
+            if (ownsList) {
+                // the old storage becomes the list of removed elements
+                oldElements = list;
+                list = new ArrayList<E>();
+            } else if (list instanceof PersistentVector.Storage) {
+                // the current version is immutable and can be handed out as is
+                oldElements = ((PersistentVector.Storage<E>) list).snapshot();
+                list.clear();
+            } else if (!batch.hasListeners()) {
+                // nobody is interested in the removed elements
+                oldElements = java.util.Collections.emptyList();
+                list.clear();
+            } else {
+                oldElements = new ArrayList<E>(list);
+                list.clear();
+            }
             modCount++;
 
-            if (dup.size() != 0) {
-                for (ObservableListListener listener : listeners) {
-                    listener.listElementsRemoved(this, 0, dup);
+            if (oldElements.size() != 0) {
+                oldElements = java.util.Collections.unmodifiableList(oldElements);
+
+                ListChangeSet.Builder pending = batch.getPendingChanges();
+                if (pending != null) {
+                    pending.removed(0, oldElements);
+                } else {
+                    for (ObservableListListener listener : listeners) {
+                        listener.listElementsRemoved(this, 0, oldElements);
+                    }
                 }
             }
         }
@@ -386,6 +862,28 @@ public final class ObservableCollections {
             return list.containsAll(c);
         }
 
+        public boolean contains(Object o) {
+            return list.contains(o);
+        }
+
+        public int indexOf(Object o) {
+            return list.indexOf(o);
+        }
+
+        public int lastIndexOf(Object o) {
+            return list.lastIndexOf(o);
+        }
+
+        public boolean remove(Object o) {
+            int index = list.indexOf(o);
+            if (index < 0) {
+                return false;
+            }
+
+            remove(index);
+            return true;
+        }
+
         public <T> T[] toArray(T[] a) {
             return list.toArray(a);
         }
@@ -394,12 +892,77 @@ public final class ObservableCollections {
             return list.toArray();
         }
 
+        /**
+         * Registers the element observer, which has to be the first listener
+         * so that it knows about new elements before anybody else does
+         */
+        void observeElements() {
+            ElementObserver observer = new ElementObserver();
+            listeners.add(0, observer);
+
+            for (E element : list) {
+                observer.attach(element);
+            }
+        }
+
         private void fireElementChanged(int index) {
+            ListChangeSet.Builder pending = batch.getPendingChanges();
+            if (pending != null) {
+                pending.updated(index);
+                return;
+            }
+
             for (ObservableListListener listener : listeners) {
                 listener.listElementPropertyChanged(this, index);
             }
         }
 
+        public void beginBatch() {
+            batch.beginBatch();
+        }
+
+        public void endBatch() {
+            batch.endBatch();
+        }
+
+        /**
+         * Sorts the list and notifies the listeners with a single
+         * {@code PERMUTED} change covering the reordered range.
+         */
+        @SuppressWarnings("unchecked")
+        public void sort(Comparator<? super E> c) {
+            Object[] elements = list.toArray();
+            int[] order = sortOrder(elements, c);
+
+            // only the range between the first and the last moved element changes
+            int from = 0;
+            while (from < order.length && order[from] == from) {
+                from++;
+            }
+            if (from == order.length) {
+                return;
+            }
+            int to = order.length - 1;
+            while (order[to] == to) {
+                to--;
+            }
+
+            int[] permutation = new int[to - from + 1];
+            for (int i = from; i <= to; i++) {
+                list.set(i, (E) elements[order[i]]);
+                permutation[order[i] - from] = i - from;
+            }
+            modCount++;
+
+            ListChangeSet.Builder changes = batch.startChange();
+            changes.permuted(from, permutation);
+            batch.endChange(changes);
+        }
+
+        public boolean isBatching() {
+            return batch.isBatching();
+        }
+
         public void addObservableListListener(ObservableListListener listener) {
             listeners.add(listener);
         }
@@ -413,6 +976,149 @@ public final class ObservableCollections {
             return supportsElementPropertyChanged;
         }
 
+        /**
+         * Listens to the property changes of all elements implementing
+         * XNotifyPropertyChanged with one listener and maps the changed element
+         * to its positions using an identity index. Structural changes are
+         * recorded in a log of shifts which is applied lazily to the positions
+         * of an element when it changes, the index is only rebuilt when the log
+         * has grown too long or the list has been reordered. Elements added
+         * during a batch are observed when the batch ends.
+         */
+        private final class ElementObserver implements ObservableListBatchListener, PropertyChangeListener {
+            // the number of positions at which each observed element is contained
+            private final Map<Object, Integer> observed = new IdentityHashMap<Object, Integer>();
+
+            // the positions of the elements (null if not built yet)
+            private PositionIndex index;
+
+            void attach(Object element) {
+                if (element instanceof XNotifyPropertyChanged) {
+                    Integer count = observed.get(element);
+                    if (count == null) {
+                        ((XNotifyPropertyChanged) element).addPropertyChangeListener(this);
+                        observed.put(element, 1);
+                    } else {
+                        observed.put(element, count + 1);
+                    }
+                }
+            }
+
+            void detach(Object element) {
+                Integer count = observed.get(element);
+                if (count == null) {
+                    return;
+                }
+
+                if (count == 1) {
+                    observed.remove(element);
+                    ((XNotifyPropertyChanged) element).removePropertyChangeListener(this);
+                } else {
+                    observed.put(element, count - 1);
+                }
+            }
+
+            public void propertyChange(PropertyChangeEvent evt) {
+                Object element = evt.getSource();
+                if (!observed.containsKey(element)) {
+                    return;
+                }
+
+                int[] indices;
+                if (isBatching()) {
+                    // the list may have changed in the running batch, which
+                    // the index does not know about yet
+                    indices = new int[observed.get(element)];
+                    int count = 0;
+                    for (int i = 0; i < list.size() && count < indices.length; i++) {
+                        if (list.get(i) == element) {
+                            indices[count++] = i;
+                        }
+                    }
+                    indices = Arrays.copyOf(indices, count);
+                } else {
+                    if (index == null) {
+                        index = new PositionIndex(list);
+                    }
+                    indices = index.indicesOf(element);
+                }
+
+                for (int i : indices) {
+                    fireElementChanged(i);
+                }
+            }
+
+            public void listElementsAdded(ObservableList list, int index, int length) {
+                added(index, list.subList(index, index + length));
+            }
+
+            public void listElementsRemoved(ObservableList list, int index, List oldElements) {
+                removed(index, oldElements);
+            }
+
+            public void listElementReplaced(ObservableList list, int index, Object oldElement) {
+                replaced(index, oldElement, list.get(index));
+            }
+
+            public void listElementPropertyChanged(ObservableList list, int index) {
+            }
+
+            public void listChanged(ObservableList list, ListChangeSet changes) {
+                for (ListChangeSet.Change change : changes.getChanges()) {
+                    int index = change.getIndex();
+                    List<Object> oldElements = change.getOldElements();
+                    List<Object> newElements = change.getNewElements();
+
+                    switch (change.getType()) {
+                        case ADDED:
+                            added(index, newElements);
+                            break;
+                        case REMOVED:
+                            removed(index, oldElements);
+                            break;
+                        case REPLACED:
+                            for (int i = 0; i < newElements.size(); i++) {
+                                replaced(index + i, oldElements.get(i), newElements.get(i));
+                            }
+                            break;
+                        case PERMUTED:
+                            if (this.index != null) {
+                                this.index.permuted(index, change.getPermutation());
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            }
+
+            private void added(int index, List<?> elements) {
+                for (Object element : elements) {
+                    attach(element);
+                }
+                if (this.index != null) {
+                    this.index.added(index, elements);
+                }
+            }
+
+            private void removed(int index, List<?> oldElements) {
+                for (Object element : oldElements) {
+                    detach(element);
+                }
+                if (this.index != null) {
+                    this.index.removed(index, oldElements.size());
+                }
+            }
+
+            private void replaced(int index, Object oldElement, Object newElement) {
+                detach(oldElement);
+                attach(newElement);
+                if (this.index != null) {
+                    this.index.replaced(index, newElement);
+                }
+            }
+        }
+
         // ---------------------------------------------
         // Fix for erroneous list/table binding behavior for
         // nested ObservableLists
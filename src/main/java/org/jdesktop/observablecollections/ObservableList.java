@@ -29,6 +29,7 @@
  **********************************************************************************************************************/
 package org.jdesktop.observablecollections;
 
+import java.util.Collection;
 import java.util.List;
 
 
@@ -52,6 +53,26 @@ public interface ObservableList<E> extends List<E> {
      */
     public void removeObservableListListener(ObservableListListener listener);
 
+    /**
+     * Adds a listener that is notified with a {@code ListChangeSet} for
+     * every change of the list.
+     *
+     * @param listener the listener to add
+     * @see ObservableListChangeAdapter
+     */
+    public default void addObservableListChangeListener(ObservableListChangeListener listener) {
+        addObservableListListener(new ObservableListChangeAdapter(listener));
+    }
+
+    /**
+     * Removes a listener added with {@code addObservableListChangeListener}.
+     *
+     * @param listener the listener to remove
+     */
+    public default void removeObservableListChangeListener(ObservableListChangeListener listener) {
+        removeObservableListListener(new ObservableListChangeAdapter(listener));
+    }
+
     /**
      * Returns {@code true} if this list sends out notification when
      * the properties of an element change. This method may be used
@@ -62,4 +83,90 @@ public interface ObservableList<E> extends List<E> {
      *         the properties of an element change
      */
     public boolean supportsElementPropertyChanged();
+
+    /**
+     * Replaces the elements between {@code fromIndex} (inclusive) and
+     * {@code toIndex} (exclusive) with the given elements. The listeners are
+     * notified of one replaced run and the elements added or removed behind
+     * it, instead of once per element. (To remove a range with a single
+     * notification use {@code subList(fromIndex, toIndex).clear()}.)
+     *
+     * @param fromIndex the index of the first element to replace
+     * @param toIndex the index after the last element to replace
+     * @param elements the new elements of the range
+     * @throws IndexOutOfBoundsException if the range is not valid
+     */
+    public default void replaceRange(final int fromIndex, final int toIndex,
+        final Collection<? extends E> elements) {
+        batch(new Runnable() {
+            public void run() {
+                subList(fromIndex, toIndex).clear();
+                addAll(fromIndex, elements);
+            }
+        });
+    }
+
+    /**
+     * Replaces the contents of this list with the given elements,
+     * see {@link #replaceRange}.
+     *
+     * @param elements the new elements of the list
+     * @return {@code true} if this list changed
+     */
+    public default boolean setAll(Collection<? extends E> elements) {
+        boolean changed = !isEmpty() || !elements.isEmpty();
+        replaceRange(0, size(), elements);
+        return changed;
+    }
+
+    /**
+     * Starts a batch of changes. Until the matching call to
+     * {@link #endBatch()} no notifications are sent; the changes are
+     * collected and merged into ranges instead. Batches may be nested, the
+     * notifications are sent when the outermost batch ends.
+     * Listeners implementing {@link ObservableListChangeListener} receive
+     * all changes of a batch with a single call.
+     * <p>
+     * Lists which do not support batches notify their listeners immediately,
+     * which is the default implementation.
+     */
+    public default void beginBatch() {
+    }
+
+    /**
+     * Ends a batch of changes started by {@link #beginBatch()} and sends
+     * the collected notifications if this was the outermost batch.
+     *
+     * @throws IllegalStateException if no batch has been started
+     */
+    public default void endBatch() {
+    }
+
+    /**
+     * Returns {@code true} if a batch has been started and not ended yet.
+     *
+     * @return whether changes are currently collected
+     */
+    public default boolean isBatching() {
+        return false;
+    }
+
+    /**
+     * Runs {@code changes} as one batch, see {@link #beginBatch()}.
+     *
+     * @param changes the code which changes this list
+     * @throws IllegalArgumentException if {@code changes} is {@code null}
+     */
+    public default void batch(Runnable changes) {
+        if (changes == null) {
+            throw new IllegalArgumentException("Changes must be non-null");
+        }
+
+        beginBatch();
+        try {
+            changes.run();
+        } finally {
+            endBatch();
+        }
+    }
 }
@@ -0,0 +1,22 @@
+package org.jdesktop.observablecollections;
+
+
+/**
+ * An {@code ObservableListListener} which receives the changes of a batch
+ * (see {@link ObservableList#beginBatch()}), a sort or a bulk operation as a
+ * single notification instead of one notification per change. Changes of
+ * single elements made outside of a batch are still sent using the methods
+ * of {@code ObservableListListener}.
+ *
+ * @see ListChangeSet
+ */
+public interface ObservableListBatchListener extends ObservableListListener,
+    ObservableListChangeListener {
+    /**
+     * Notification that a batch of changes has been applied to the list.
+     *
+     * @param list the {@code ObservableList} that has changed
+     * @param changes the merged changes of the batch
+     */
+    public void listChanged(ObservableList list, ListChangeSet changes);
+}
@@ -0,0 +1,82 @@
+package org.jdesktop.observablecollections;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Adapts an {@code ObservableListChangeListener} to the
+ * {@code ObservableListListener} interface, so that it can be registered with
+ * any {@code ObservableList}. Single notifications are converted to change
+ * sets containing one change; batches are forwarded unchanged.
+ * <p>
+ * Two adapters are equal if they wrap the same listener, so a listener can be
+ * removed by passing a new adapter for it.
+ *
+ * @see ListChangeSet#replay for the opposite direction
+ */
+public final class ObservableListChangeAdapter implements ObservableListBatchListener {
+    private final ObservableListChangeListener listener;
+
+    /**
+     * Creates an adapter for the given listener.
+     *
+     * @param listener the listener to notify
+     * @throws IllegalArgumentException if {@code listener} is {@code null}
+     */
+    public ObservableListChangeAdapter(ObservableListChangeListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener must be non-null");
+        }
+
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the wrapped listener.
+     *
+     * @return the listener which receives the change sets
+     */
+    public ObservableListChangeListener getListener() {
+        return listener;
+    }
+
+    public void listChanged(ObservableList list, ListChangeSet changes) {
+        listener.listChanged(list, changes);
+    }
+
+    public void listElementsAdded(ObservableList list, int index, int length) {
+        ListChangeSet.Builder builder = new ListChangeSet.Builder();
+        builder.added(index, new ArrayList<Object>(list.subList(index, index + length)));
+        listener.listChanged(list, builder.build());
+    }
+
+    public void listElementsRemoved(ObservableList list, int index, List oldElements) {
+        ListChangeSet.Builder builder = new ListChangeSet.Builder();
+        builder.removed(index, oldElements);
+        listener.listChanged(list, builder.build());
+    }
+
+    public void listElementReplaced(ObservableList list, int index, Object oldElement) {
+        ListChangeSet.Builder builder = new ListChangeSet.Builder();
+        builder.replaced(index, oldElement, list.get(index));
+        listener.listChanged(list, builder.build());
+    }
+
+    public void listElementPropertyChanged(ObservableList list, int index) {
+        ListChangeSet.Builder builder = new ListChangeSet.Builder();
+        builder.updated(index);
+        listener.listChanged(list, builder.build());
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof ObservableListChangeAdapter &&
+            ((ObservableListChangeAdapter) other).listener == listener;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(listener);
+    }
+}
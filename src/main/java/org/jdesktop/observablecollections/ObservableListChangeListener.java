@@ -0,0 +1,29 @@
+package org.jdesktop.observablecollections;
+
+import java.util.EventListener;
+
+
+/**
+ * Receives the changes of an {@code ObservableList} as a
+ * {@link ListChangeSet}, which can describe several ranges, replaced runs and
+ * reorderings with one notification.
+ * <p>
+ * Listeners which also implement {@code ObservableListListener} (see
+ * {@link ObservableListBatchListener}) receive changes of single elements
+ * through the methods of {@code ObservableListListener} and batches, sorts
+ * and bulk operations (e.g. {@code removeIf}, {@code setAll}) as a change
+ * set. Use
+ * {@link ObservableList#addObservableListChangeListener} to receive every
+ * change as a change set.
+ *
+ * @see ObservableListChangeAdapter
+ */
+public interface ObservableListChangeListener extends EventListener {
+    /**
+     * Notification that the list has changed.
+     *
+     * @param list the {@code ObservableList} that has changed
+     * @param changes the changes, in the order they have been applied
+     */
+    public void listChanged(ObservableList list, ListChangeSet changes);
+}
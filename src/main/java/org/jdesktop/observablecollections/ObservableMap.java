@@ -51,4 +51,75 @@ public interface ObservableMap<K, V> extends Map<K, V> {
      * @param listener the listener to remove
      */
     public void removeObservableMapListener(ObservableMapListener listener);
+
+    /**
+     * Adds a listener that is notified with a {@code MapChangeSet} for
+     * every change of the map.
+     *
+     * @param listener the listener to add
+     * @see ObservableMapChangeAdapter
+     */
+    public default void addObservableMapChangeListener(ObservableMapChangeListener listener) {
+        addObservableMapListener(new ObservableMapChangeAdapter(listener));
+    }
+
+    /**
+     * Removes a listener added with {@code addObservableMapChangeListener}.
+     *
+     * @param listener the listener to remove
+     */
+    public default void removeObservableMapChangeListener(ObservableMapChangeListener listener) {
+        removeObservableMapListener(new ObservableMapChangeAdapter(listener));
+    }
+
+    /**
+     * Starts a batch of changes. Until the matching call to
+     * {@link #endBatch()} no notifications are sent; the changes are
+     * collected and coalesced per key instead. Batches may be nested, the
+     * notifications are sent when the outermost batch ends.
+     * Listeners implementing {@link ObservableMapBatchListener} receive
+     * all changes of a batch with a single call.
+     * <p>
+     * Maps which do not support batches notify their listeners immediately,
+     * which is the default implementation.
+     */
+    public default void beginBatch() {
+    }
+
+    /**
+     * Ends a batch of changes started by {@link #beginBatch()} and sends
+     * the collected notifications if this was the outermost batch.
+     *
+     * @throws IllegalStateException if no batch has been started
+     */
+    public default void endBatch() {
+    }
+
+    /**
+     * Returns {@code true} if a batch has been started and not ended yet.
+     *
+     * @return whether changes are currently collected
+     */
+    public default boolean isBatching() {
+        return false;
+    }
+
+    /**
+     * Runs {@code changes} as one batch, see {@link #beginBatch()}.
+     *
+     * @param changes the code which changes this map
+     * @throws IllegalArgumentException if {@code changes} is {@code null}
+     */
+    public default void batch(Runnable changes) {
+        if (changes == null) {
+            throw new IllegalArgumentException("Changes must be non-null");
+        }
+
+        beginBatch();
+        try {
+            changes.run();
+        } finally {
+            endBatch();
+        }
+    }
 }
@@ -0,0 +1,22 @@
+package org.jdesktop.observablecollections;
+
+
+/**
+ * An {@code ObservableMapListener} which receives the changes of a batch
+ * (see {@link ObservableMap#beginBatch()}), of {@code putAll} or of
+ * {@code clear} as a single notification instead of one notification per
+ * key. Changes of single keys made outside of a batch are still sent using
+ * the methods of {@code ObservableMapListener}.
+ *
+ * @see MapChangeSet
+ */
+public interface ObservableMapBatchListener extends ObservableMapListener,
+    ObservableMapChangeListener {
+    /**
+     * Notification that a batch of changes has been applied to the map.
+     *
+     * @param map the {@code ObservableMap} that has changed
+     * @param changes the coalesced changes of the batch
+     */
+    public void mapChanged(ObservableMap map, MapChangeSet changes);
+}
@@ -0,0 +1,73 @@
+package org.jdesktop.observablecollections;
+
+
+/**
+ * Adapts an {@code ObservableMapChangeListener} to the
+ * {@code ObservableMapListener} interface, so that it can be registered with
+ * any {@code ObservableMap}. Single notifications are converted to change
+ * sets containing one key; batches are forwarded unchanged.
+ * <p>
+ * Two adapters are equal if they wrap the same listener, so a listener can be
+ * removed by passing a new adapter for it.
+ *
+ * @see MapChangeSet#replay for the opposite direction
+ */
+public final class ObservableMapChangeAdapter implements ObservableMapBatchListener {
+    private final ObservableMapChangeListener listener;
+
+    /**
+     * Creates an adapter for the given listener.
+     *
+     * @param listener the listener to notify
+     * @throws IllegalArgumentException if {@code listener} is {@code null}
+     */
+    public ObservableMapChangeAdapter(ObservableMapChangeListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener must be non-null");
+        }
+
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the wrapped listener.
+     *
+     * @return the listener which receives the change sets
+     */
+    public ObservableMapChangeListener getListener() {
+        return listener;
+    }
+
+    public void mapChanged(ObservableMap map, MapChangeSet changes) {
+        listener.mapChanged(map, changes);
+    }
+
+    public void mapKeyValueChanged(ObservableMap map, Object key, Object lastValue) {
+        MapChangeSet.Builder builder = new MapChangeSet.Builder();
+        builder.changed(key, lastValue);
+        listener.mapChanged(map, builder.build());
+    }
+
+    public void mapKeyAdded(ObservableMap map, Object key) {
+        MapChangeSet.Builder builder = new MapChangeSet.Builder();
+        builder.added(key);
+        listener.mapChanged(map, builder.build());
+    }
+
+    public void mapKeyRemoved(ObservableMap map, Object key, Object value) {
+        MapChangeSet.Builder builder = new MapChangeSet.Builder();
+        builder.removed(key, value);
+        listener.mapChanged(map, builder.build());
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof ObservableMapChangeAdapter &&
+            ((ObservableMapChangeAdapter) other).listener == listener;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(listener);
+    }
+}
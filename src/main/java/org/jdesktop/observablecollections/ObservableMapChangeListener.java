@@ -0,0 +1,27 @@
+package org.jdesktop.observablecollections;
+
+import java.util.EventListener;
+
+
+/**
+ * Receives the changes of an {@code ObservableMap} as a {@link MapChangeSet},
+ * which describes any number of changed keys with one notification.
+ * <p>
+ * Listeners which also implement {@code ObservableMapListener} (see
+ * {@link ObservableMapBatchListener}) receive changes of single keys
+ * through the methods of {@code ObservableMapListener} and batches,
+ * {@code putAll} and {@code clear} as a change set. Use
+ * {@link ObservableMap#addObservableMapChangeListener} to receive every
+ * change as a change set.
+ *
+ * @see ObservableMapChangeAdapter
+ */
+public interface ObservableMapChangeListener extends EventListener {
+    /**
+     * Notification that the map has changed.
+     *
+     * @param map the {@code ObservableMap} that has changed
+     * @param changes the changed keys
+     */
+    public void mapChanged(ObservableMap map, MapChangeSet changes);
+}
@@ -0,0 +1,562 @@
+package org.jdesktop.observablecollections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+
+/**
+ * An {@code ObservableMap} which keeps its keys sorted. Besides the usual
+ * {@code ObservableMapListener} notifications it offers the entries as an
+ * {@code ObservableList} in key order ({@link #entryList()}), whose
+ * listeners are notified with the positions of the changed entries, so the
+ * map can be bound to a {@code JTable} directly.
+ * <p>
+ * The entries are stored in a balanced tree which knows the size of its
+ * subtrees, so changes as well as finding the entry at a position and the
+ * position of a key take O(log n) time. The entries are immutable, changing
+ * the value of a key replaces its entry. The views returned by
+ * {@code subMap}, {@code headMap}, {@code tailMap}, {@code descendingMap}
+ * and {@code navigableKeySet} are live; changes made through them are
+ * reported as well.
+ *
+ * @see ObservableCollections#observableNavigableMap(Comparator)
+ */
+public final class ObservableNavigableMap<K, V> extends AbstractMap<K, V>
+    implements NavigableMap<K, V>, ObservableMap<K, V> {
+    private final RankedTree<K> tree;
+    private final RankedTree.ListView<Map.Entry<K, V>> entryList;
+    private final List<ObservableMapListener> listeners =
+        new CopyOnWriteArrayList<ObservableMapListener>();
+    private final SubMap all;
+
+    // collects the changes during batches
+    private final BatchSupport.ForMap batch = new BatchSupport.ForMap(this, listeners);
+
+    /**
+     * Creates an empty map sorted by the natural order of its keys.
+     */
+    public ObservableNavigableMap() {
+        this(null);
+    }
+
+    /**
+     * Creates an empty map sorted by the given comparator.
+     *
+     * @param comparator the comparator to sort the keys with or
+     *        {@code null} to use their natural order
+     */
+    public ObservableNavigableMap(Comparator<? super K> comparator) {
+        tree = new RankedTree<K>(comparator);
+        entryList = new RankedTree.ListView<Map.Entry<K, V>>(tree, true);
+        all = new SubMap(new RankedTree.Range<K>(tree, new RankedTree.Owner<K>() {
+            public boolean addKey(K key) {
+                throw new UnsupportedOperationException();
+            }
+
+            public void removeRange(int fromRank, int toRank) {
+                ObservableNavigableMap.this.removeRange(fromRank, toRank);
+            }
+        }));
+    }
+
+    /**
+     * Returns a read-only {@code ObservableList} of the entries of this map
+     * in the order of their keys. Its listeners are notified with the
+     * positions of added, removed and replaced entries.
+     *
+     * @return the entries as a list
+     */
+    public ObservableList<Map.Entry<K, V>> entryList() {
+        return entryList;
+    }
+
+    /**
+     * Returns the position of a key in O(log n) time.
+     *
+     * @param key the key to find
+     * @return the position or -1 if this map does not contain the key
+     */
+    public int indexOfKey(Object key) {
+        return tree.rankOf(key);
+    }
+
+    // -----------------------------
+    // changes
+    // -----------------------------
+
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        Map.Entry<K, V> entry = new AbstractMap.SimpleImmutableEntry<K, V>(key, value);
+        int index = tree.rankOf(key);
+
+        if (index >= 0) {
+            RankedTree.Node<K> node = tree.get(index);
+            Map.Entry<K, V> oldEntry = (Map.Entry<K, V>) node.value;
+            node.value = entry;
+
+            entryList.fireReplaced(index, oldEntry, entry);
+            MapChangeSet.Builder pending = batch.getPendingChanges();
+            if (pending != null) {
+                pending.changed(key, oldEntry.getValue());
+            } else {
+                for (ObservableMapListener listener : listeners) {
+                    listener.mapKeyValueChanged(this, key, oldEntry.getValue());
+                }
+            }
+            return oldEntry.getValue();
+        }
+
+        index = tree.insert(key, entry);
+        entryList.fireAdded(index, entry);
+        MapChangeSet.Builder pending = batch.getPendingChanges();
+        if (pending != null) {
+            pending.added(key);
+        } else {
+            for (ObservableMapListener listener : listeners) {
+                listener.mapKeyAdded(this, key);
+            }
+        }
+        return null;
+    }
+
+    public void putAll(Map<? extends K, ? extends V> m) {
+        beginBatch();
+        try {
+            super.putAll(m);
+        } finally {
+            endBatch();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        int index = tree.rankOf(key);
+        if (index < 0) {
+            return null;
+        }
+
+        V value = ((Map.Entry<K, V>) tree.get(index).value).getValue();
+        removeRange(index, index + 1);
+        return value;
+    }
+
+    /**
+     * Removes the entries at the positions from {@code fromIndex},
+     * inclusive, to {@code toIndex}, exclusive.
+     *
+     * @param fromIndex the position of the first entry to remove
+     * @param toIndex the position after the last entry to remove
+     * @throws IndexOutOfBoundsException if the range is not valid
+     */
+    @SuppressWarnings("unchecked")
+    public void removeRange(int fromIndex, int toIndex) {
+        List<RankedTree.Node<K>> removed = tree.removeRange(fromIndex, toIndex);
+        if (removed.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<K, V>> oldEntries = new ArrayList<Map.Entry<K, V>>(removed.size());
+        for (RankedTree.Node<K> node : removed) {
+            oldEntries.add((Map.Entry<K, V>) node.value);
+        }
+
+        entryList.fireRemoved(fromIndex, oldEntries);
+        if (!batch.isBatching() && oldEntries.size() == 1) {
+            Map.Entry<K, V> entry = oldEntries.get(0);
+            for (ObservableMapListener listener : listeners) {
+                listener.mapKeyRemoved(this, entry.getKey(), entry.getValue());
+            }
+            return;
+        }
+
+        MapChangeSet.Builder changes = batch.startChange();
+        for (Map.Entry<K, V> entry : oldEntries) {
+            changes.removed(entry.getKey(), entry.getValue());
+        }
+        batch.endChange(changes);
+    }
+
+    public void clear() {
+        removeRange(0, size());
+    }
+
+    public void addObservableMapListener(ObservableMapListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeObservableMapListener(ObservableMapListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Starts a batch of changes, see {@link ObservableMap#beginBatch()}.
+     * The listeners of {@link #entryList()} are notified at the end of the
+     * batch as well.
+     */
+    public void beginBatch() {
+        batch.beginBatch();
+        entryList.beginBatch();
+    }
+
+    public void endBatch() {
+        if (!batch.isBatching()) {
+            throw new IllegalStateException("No batch has been started");
+        }
+
+        entryList.endBatch();
+        batch.endBatch();
+    }
+
+    public boolean isBatching() {
+        return batch.isBatching();
+    }
+
+    // -----------------------------
+    // NavigableMap
+    // -----------------------------
+
+    public int size() {
+        return tree.size();
+    }
+
+    public boolean containsKey(Object key) {
+        return tree.find(key) != null;
+    }
+
+    public V get(Object key) {
+        return all.get(key);
+    }
+
+    public Set<Map.Entry<K, V>> entrySet() {
+        return all.entrySet();
+    }
+
+    public Comparator<? super K> comparator() {
+        return tree.comparator();
+    }
+
+    public K firstKey() {
+        return all.firstKey();
+    }
+
+    public K lastKey() {
+        return all.lastKey();
+    }
+
+    public Map.Entry<K, V> firstEntry() {
+        return all.firstEntry();
+    }
+
+    public Map.Entry<K, V> lastEntry() {
+        return all.lastEntry();
+    }
+
+    public Map.Entry<K, V> pollFirstEntry() {
+        return all.pollFirstEntry();
+    }
+
+    public Map.Entry<K, V> pollLastEntry() {
+        return all.pollLastEntry();
+    }
+
+    public Map.Entry<K, V> lowerEntry(K key) {
+        return all.lowerEntry(key);
+    }
+
+    public K lowerKey(K key) {
+        return all.lowerKey(key);
+    }
+
+    public Map.Entry<K, V> floorEntry(K key) {
+        return all.floorEntry(key);
+    }
+
+    public K floorKey(K key) {
+        return all.floorKey(key);
+    }
+
+    public Map.Entry<K, V> ceilingEntry(K key) {
+        return all.ceilingEntry(key);
+    }
+
+    public K ceilingKey(K key) {
+        return all.ceilingKey(key);
+    }
+
+    public Map.Entry<K, V> higherEntry(K key) {
+        return all.higherEntry(key);
+    }
+
+    public K higherKey(K key) {
+        return all.higherKey(key);
+    }
+
+    public Set<K> keySet() {
+        return all.navigableKeySet();
+    }
+
+    public NavigableSet<K> navigableKeySet() {
+        return all.navigableKeySet();
+    }
+
+    public NavigableSet<K> descendingKeySet() {
+        return all.descendingKeySet();
+    }
+
+    public NavigableMap<K, V> descendingMap() {
+        return all.descendingMap();
+    }
+
+    public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        return all.subMap(fromKey, fromInclusive, toKey, toInclusive);
+    }
+
+    public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+        return all.headMap(toKey, inclusive);
+    }
+
+    public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        return all.tailMap(fromKey, inclusive);
+    }
+
+    public SortedMap<K, V> subMap(K fromKey, K toKey) {
+        return all.subMap(fromKey, toKey);
+    }
+
+    public SortedMap<K, V> headMap(K toKey) {
+        return all.headMap(toKey);
+    }
+
+    public SortedMap<K, V> tailMap(K fromKey) {
+        return all.tailMap(fromKey);
+    }
+
+    /**
+     * A live view of the entries whose keys are in a range of keys
+     */
+    private final class SubMap extends AbstractMap<K, V> implements NavigableMap<K, V> {
+        private final RankedTree.Range<K> keys;
+        private Set<Map.Entry<K, V>> entrySet;
+
+        SubMap(RankedTree.Range<K> keys) {
+            this.keys = keys;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Map.Entry<K, V> entryAt(int rank) {
+            return rank < 0 ? null : (Map.Entry<K, V>) tree.get(rank).value;
+        }
+
+        private K keyAt(int rank) {
+            return rank < 0 ? null : tree.get(rank).key;
+        }
+
+        private Map.Entry<K, V> pollAt(int rank) {
+            Map.Entry<K, V> entry = entryAt(rank);
+            if (entry != null) {
+                ObservableNavigableMap.this.removeRange(rank, rank + 1);
+            }
+            return entry;
+        }
+
+        public int size() {
+            return keys.size();
+        }
+
+        public boolean isEmpty() {
+            return keys.isEmpty();
+        }
+
+        public boolean containsKey(Object key) {
+            return keys.contains(key);
+        }
+
+        @SuppressWarnings("unchecked")
+        public V get(Object key) {
+            if (!keys.inRange(key)) {
+                return null;
+            }
+
+            RankedTree.Node<K> node = tree.find(key);
+            return node == null ? null : ((Map.Entry<K, V>) node.value).getValue();
+        }
+
+        public V put(K key, V value) {
+            if (!keys.inRange(key)) {
+                throw new IllegalArgumentException("Key out of range");
+            }
+            return ObservableNavigableMap.this.put(key, value);
+        }
+
+        public V remove(Object key) {
+            return keys.inRange(key) ? ObservableNavigableMap.this.remove(key) : null;
+        }
+
+        public void clear() {
+            keys.clear();
+        }
+
+        public Set<Map.Entry<K, V>> entrySet() {
+            Set<Map.Entry<K, V>> es = entrySet;
+
+            return (es != null) ? es : (entrySet = new EntrySet());
+        }
+
+        public Comparator<? super K> comparator() {
+            return keys.comparator();
+        }
+
+        public K firstKey() {
+            return keys.first();
+        }
+
+        public K lastKey() {
+            return keys.last();
+        }
+
+        public Map.Entry<K, V> firstEntry() {
+            return entryAt(keys.firstRank());
+        }
+
+        public Map.Entry<K, V> lastEntry() {
+            return entryAt(keys.lastRank());
+        }
+
+        public Map.Entry<K, V> pollFirstEntry() {
+            return pollAt(keys.firstRank());
+        }
+
+        public Map.Entry<K, V> pollLastEntry() {
+            return pollAt(keys.lastRank());
+        }
+
+        public Map.Entry<K, V> lowerEntry(K key) {
+            return entryAt(keys.lowerRank(key));
+        }
+
+        public K lowerKey(K key) {
+            return keyAt(keys.lowerRank(key));
+        }
+
+        public Map.Entry<K, V> floorEntry(K key) {
+            return entryAt(keys.floorRank(key));
+        }
+
+        public K floorKey(K key) {
+            return keyAt(keys.floorRank(key));
+        }
+
+        public Map.Entry<K, V> ceilingEntry(K key) {
+            return entryAt(keys.ceilingRank(key));
+        }
+
+        public K ceilingKey(K key) {
+            return keyAt(keys.ceilingRank(key));
+        }
+
+        public Map.Entry<K, V> higherEntry(K key) {
+            return entryAt(keys.higherRank(key));
+        }
+
+        public K higherKey(K key) {
+            return keyAt(keys.higherRank(key));
+        }
+
+        public Set<K> keySet() {
+            return keys;
+        }
+
+        public NavigableSet<K> navigableKeySet() {
+            return keys;
+        }
+
+        public NavigableSet<K> descendingKeySet() {
+            return keys.descendingSet();
+        }
+
+        public NavigableMap<K, V> descendingMap() {
+            return new SubMap((RankedTree.Range<K>) keys.descendingSet());
+        }
+
+        public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+            return new SubMap(keys.subRange(true, fromKey, fromInclusive, true, toKey, toInclusive));
+        }
+
+        public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+            return new SubMap(keys.subRange(false, null, false, true, toKey, inclusive));
+        }
+
+        public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+            return new SubMap(keys.subRange(true, fromKey, inclusive, false, null, false));
+        }
+
+        public SortedMap<K, V> subMap(K fromKey, K toKey) {
+            return subMap(fromKey, true, toKey, false);
+        }
+
+        public SortedMap<K, V> headMap(K toKey) {
+            return headMap(toKey, false);
+        }
+
+        public SortedMap<K, V> tailMap(K fromKey) {
+            return tailMap(fromKey, true);
+        }
+
+        private class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+            public Iterator<Map.Entry<K, V>> iterator() {
+                final Iterator<K> keyIterator = keys.iterator();
+
+                return new Iterator<Map.Entry<K, V>>() {
+                    public boolean hasNext() {
+                        return keyIterator.hasNext();
+                    }
+
+                    @SuppressWarnings("unchecked")
+                    public Map.Entry<K, V> next() {
+                        return (Map.Entry<K, V>) tree.find(keyIterator.next()).value;
+                    }
+
+                    public void remove() {
+                        keyIterator.remove();
+                    }
+                };
+            }
+
+            public int size() {
+                return keys.size();
+            }
+
+            public boolean contains(Object o) {
+                if (!(o instanceof Map.Entry)) {
+                    return false;
+                }
+
+                Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+                return keys.contains(entry.getKey()) && entry.equals(tree.find(entry.getKey()).value);
+            }
+
+            public boolean remove(Object o) {
+                if (!contains(o)) {
+                    return false;
+                }
+
+                SubMap.this.remove(((Map.Entry<?, ?>) o).getKey());
+                return true;
+            }
+
+            public void clear() {
+                keys.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package org.jdesktop.observablecollections;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.SortedSet;
+
+
+/**
+ * A {@code NavigableSet} which keeps its elements sorted and reports the
+ * changes with their positions to the listeners of {@link #asList()}, so it
+ * can be bound to a {@code JTable} or {@code JList} directly, without a
+ * sorted view which sorts the elements again on each refresh.
+ * <p>
+ * The elements are stored in a balanced tree which knows the size of its
+ * subtrees, so adding and removing elements as well as finding the element
+ * at a position and the position of an element take O(log n) time.
+ * The views returned by {@code subSet}, {@code headSet}, {@code tailSet} and
+ * {@code descendingSet} are live; changes made through them are reported
+ * as well.
+ *
+ * @see ObservableCollections#observableSortedSet(Comparator)
+ */
+public final class ObservableSortedSet<E> extends AbstractSet<E> implements NavigableSet<E> {
+    private final RankedTree<E> tree;
+    private final RankedTree.ListView<E> list;
+    private final RankedTree.Range<E> all;
+
+    /**
+     * Creates an empty set sorted by the natural order of its elements.
+     */
+    public ObservableSortedSet() {
+        this(null);
+    }
+
+    /**
+     * Creates an empty set sorted by the given comparator.
+     *
+     * @param comparator the comparator to sort the elements with or
+     *        {@code null} to use their natural order
+     */
+    public ObservableSortedSet(Comparator<? super E> comparator) {
+        tree = new RankedTree<E>(comparator);
+        list = new RankedTree.ListView<E>(tree, false);
+        all = new RankedTree.Range<E>(tree, new RankedTree.Owner<E>() {
+            public boolean addKey(E key) {
+                return ObservableSortedSet.this.add(key);
+            }
+
+            public void removeRange(int fromRank, int toRank) {
+                ObservableSortedSet.this.removeRange(fromRank, toRank);
+            }
+        });
+    }
+
+    /**
+     * Returns a read-only {@code ObservableList} of the elements of this
+     * set in their sorted order. Its listeners are notified with the
+     * positions of the added and removed elements.
+     *
+     * @return the elements as a list
+     */
+    public ObservableList<E> asList() {
+        return list;
+    }
+
+    /**
+     * Returns the element at the given position in O(log n) time.
+     *
+     * @param index the position of the element
+     * @return the element
+     * @throws IndexOutOfBoundsException if {@code index} is not valid
+     */
+    public E get(int index) {
+        return tree.get(index).key;
+    }
+
+    /**
+     * Returns the position of an element in O(log n) time.
+     *
+     * @param o the element to find
+     * @return the position or -1 if this set does not contain the element
+     */
+    public int indexOf(Object o) {
+        return list.indexOf(o);
+    }
+
+    // -----------------------------
+    // changes
+    // -----------------------------
+
+    public boolean add(E element) {
+        if (tree.rankOf(element) >= 0) {
+            return false;
+        }
+
+        int index = tree.insert(element, null);
+        list.fireAdded(index, element);
+        return true;
+    }
+
+    public boolean remove(Object o) {
+        return all.remove(o);
+    }
+
+    /**
+     * Removes the elements at the positions from {@code fromIndex},
+     * inclusive, to {@code toIndex}, exclusive, with a single notification.
+     *
+     * @param fromIndex the position of the first element to remove
+     * @param toIndex the position after the last element to remove
+     * @throws IndexOutOfBoundsException if the range is not valid
+     */
+    public void removeRange(int fromIndex, int toIndex) {
+        List<RankedTree.Node<E>> removed = tree.removeRange(fromIndex, toIndex);
+
+        if (!removed.isEmpty() && list.hasListeners()) {
+            List<E> oldElements = new ArrayList<E>(removed.size());
+            for (RankedTree.Node<E> node : removed) {
+                oldElements.add(node.key);
+            }
+            list.fireRemoved(fromIndex, oldElements);
+        }
+    }
+
+    public void clear() {
+        removeRange(0, size());
+    }
+
+    public boolean addAll(Collection<? extends E> c) {
+        list.beginBatch();
+        try {
+            return super.addAll(c);
+        } finally {
+            list.endBatch();
+        }
+    }
+
+    public boolean removeAll(Collection<?> c) {
+        list.beginBatch();
+        try {
+            return super.removeAll(c);
+        } finally {
+            list.endBatch();
+        }
+    }
+
+    public boolean retainAll(Collection<?> c) {
+        list.beginBatch();
+        try {
+            return super.retainAll(c);
+        } finally {
+            list.endBatch();
+        }
+    }
+
+    // -----------------------------
+    // NavigableSet
+    // -----------------------------
+
+    public int size() {
+        return tree.size();
+    }
+
+    public boolean contains(Object o) {
+        return all.contains(o);
+    }
+
+    public Iterator<E> iterator() {
+        return all.iterator();
+    }
+
+    public Iterator<E> descendingIterator() {
+        return all.descendingIterator();
+    }
+
+    public Comparator<? super E> comparator() {
+        return tree.comparator();
+    }
+
+    public E first() {
+        return all.first();
+    }
+
+    public E last() {
+        return all.last();
+    }
+
+    public E lower(E e) {
+        return all.lower(e);
+    }
+
+    public E floor(E e) {
+        return all.floor(e);
+    }
+
+    public E ceiling(E e) {
+        return all.ceiling(e);
+    }
+
+    public E higher(E e) {
+        return all.higher(e);
+    }
+
+    public E pollFirst() {
+        return all.pollFirst();
+    }
+
+    public E pollLast() {
+        return all.pollLast();
+    }
+
+    public NavigableSet<E> descendingSet() {
+        return all.descendingSet();
+    }
+
+    public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+        return all.subSet(fromElement, fromInclusive, toElement, toInclusive);
+    }
+
+    public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+        return all.headSet(toElement, inclusive);
+    }
+
+    public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+        return all.tailSet(fromElement, inclusive);
+    }
+
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        return all.subSet(fromElement, toElement);
+    }
+
+    public SortedSet<E> headSet(E toElement) {
+        return all.headSet(toElement);
+    }
+
+    public SortedSet<E> tailSet(E fromElement) {
+        return all.tailSet(fromElement);
+    }
+}
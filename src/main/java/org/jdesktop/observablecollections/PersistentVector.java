@@ -0,0 +1,450 @@
+package org.jdesktop.observablecollections;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+
+/**
+ * An immutable list which shares its structure with the lists derived from
+ * it. The elements are stored in a 32-way trie, so {@code get}, {@code with}
+ * and {@code plus} take O(log32 n) time, and all versions of a list share
+ * the nodes they have in common.
+ * <p>
+ * Inserting and removing elements keeps the part of the trie in front of the
+ * changed index and copies the rest, so changes at the end of the list are
+ * cheap and changes at the start cost about as much as for an
+ * {@code ArrayList}.
+ *
+ * @see ObservableCollections#persistentObservableList()
+ */
+public final class PersistentVector<E> extends AbstractList<E> implements RandomAccess {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private static final Object[] EMPTY_NODE = new Object[WIDTH];
+    private static final Object[] EMPTY_TAIL = new Object[0];
+
+    private static final PersistentVector<Object> EMPTY =
+        new PersistentVector<Object>(0, BITS, EMPTY_NODE, EMPTY_TAIL);
+
+    // the elements in front of the tail are stored in the trie below root,
+    // whose leaves (at level 0) are full arrays of WIDTH elements
+    private final int size;
+    private final int shift;
+    private final Object[] root;
+    private final Object[] tail;
+
+    private PersistentVector(int size, int shift, Object[] root, Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    /**
+     * Returns the empty vector.
+     *
+     * @return the empty vector
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> empty() {
+        return (PersistentVector<E>) EMPTY;
+    }
+
+    /**
+     * Returns a vector of the given elements.
+     *
+     * @param elements the elements of the vector
+     * @return a vector of the given elements
+     * @throws IllegalArgumentException if {@code elements} is {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> of(Collection<? extends E> elements) {
+        if (elements == null) {
+            throw new IllegalArgumentException("Collection must be non-null");
+        }
+        if (elements instanceof PersistentVector) {
+            return (PersistentVector<E>) elements;
+        }
+
+        return PersistentVector.<E>empty().plusAll(elements);
+    }
+
+    // -----------------------------
+    // reading
+    // -----------------------------
+
+    public int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        checkIndex(index, size);
+        return (E) leafFor(index)[index & MASK];
+    }
+
+    private int tailOffset() {
+        return tailOffset(size);
+    }
+
+    private static int tailOffset(int size) {
+        return size == 0 ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    /**
+     * Returns the array which holds the element at index
+     */
+    private Object[] leafFor(int index) {
+        if (index >= tailOffset()) {
+            return tail;
+        }
+
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int index;
+            private Object[] leaf;
+
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                if ((index & MASK) == 0 || leaf == null) {
+                    leaf = leafFor(index);
+                }
+                return (E) leaf[index++ & MASK];
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    // -----------------------------
+    // deriving new versions
+    // -----------------------------
+
+    /**
+     * Returns a vector with the element at {@code index} replaced.
+     *
+     * @param index the index of the element to replace
+     * @param element the new element
+     * @return the changed vector
+     * @throws IndexOutOfBoundsException if {@code index} is not valid
+     */
+    public PersistentVector<E> with(int index, E element) {
+        checkIndex(index, size);
+
+        if (index >= tailOffset()) {
+            Object[] newTail = tail.clone();
+            newTail[index & MASK] = element;
+            return new PersistentVector<E>(size, shift, root, newTail);
+        }
+
+        return new PersistentVector<E>(size, shift, with(root, shift, index, element), tail);
+    }
+
+    private static Object[] with(Object[] node, int level, int index, Object element) {
+        Object[] copy = node.clone();
+        if (level == 0) {
+            copy[index & MASK] = element;
+        } else {
+            int child = (index >>> level) & MASK;
+            copy[child] = with((Object[]) node[child], level - BITS, index, element);
+        }
+        return copy;
+    }
+
+    /**
+     * Returns a vector with the element appended.
+     *
+     * @param element the element to append
+     * @return the changed vector
+     */
+    public PersistentVector<E> plus(E element) {
+        Object[] newTail = new Object[tail.length + 1];
+        System.arraycopy(tail, 0, newTail, 0, tail.length);
+        newTail[tail.length] = element;
+
+        if (tail.length < WIDTH) {
+            return new PersistentVector<E>(size + 1, shift, root, newTail);
+        }
+
+        // the tail is full, push it into the trie and start a new one
+        PersistentVector<E> pushed = pushTail();
+        return new PersistentVector<E>(size + 1, pushed.shift, pushed.root, new Object[] { element });
+    }
+
+    /**
+     * Returns a vector with the elements appended.
+     *
+     * @param elements the elements to append
+     * @return the changed vector
+     */
+    public PersistentVector<E> plusAll(Collection<? extends E> elements) {
+        Object[] added = elements.toArray();
+        if (added.length == 0) {
+            return this;
+        }
+
+        PersistentVector<E> result = this;
+        int offset = 0;
+
+        while (offset < added.length) {
+            if (result.tail.length == WIDTH) {
+                result = result.pushTail();
+            }
+
+            // fill the tail with as many elements as fit in one copy
+            Object[] oldTail = result.tail;
+            int count = Math.min(WIDTH - oldTail.length, added.length - offset);
+            Object[] newTail = new Object[oldTail.length + count];
+            System.arraycopy(oldTail, 0, newTail, 0, oldTail.length);
+            System.arraycopy(added, offset, newTail, oldTail.length, count);
+            offset += count;
+
+            result = new PersistentVector<E>(result.size + count, result.shift, result.root, newTail);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns a vector with the full tail moved into the trie and an empty
+     * tail
+     */
+    private PersistentVector<E> pushTail() {
+        Object[] newRoot;
+        int newShift = shift;
+
+        if ((size >>> BITS) > (1 << shift)) {
+            // the trie is full, add a level
+            newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newRoot[1] = newPath(shift, tail);
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(root, shift, size - 1, tail);
+        }
+
+        return new PersistentVector<E>(size, newShift, newRoot, EMPTY_TAIL);
+    }
+
+    private static Object[] pushTail(Object[] node, int level, int lastIndex, Object[] leaf) {
+        Object[] copy = node.clone();
+        int child = (lastIndex >>> level) & MASK;
+
+        if (level == BITS) {
+            copy[child] = leaf;
+        } else {
+            Object[] childNode = (Object[]) node[child];
+            copy[child] = childNode != null ?
+                pushTail(childNode, level - BITS, lastIndex, leaf) : newPath(level - BITS, leaf);
+        }
+        return copy;
+    }
+
+    private static Object[] newPath(int level, Object[] leaf) {
+        if (level == 0) {
+            return leaf;
+        }
+
+        Object[] node = new Object[WIDTH];
+        node[0] = newPath(level - BITS, leaf);
+        return node;
+    }
+
+    /**
+     * Returns a vector of the first {@code length} elements, which shares
+     * all nodes in front of {@code length} with this vector.
+     *
+     * @param length the number of elements to keep
+     * @return the shortened vector
+     * @throws IndexOutOfBoundsException if {@code length} is negative or
+     *         greater than the size
+     */
+    public PersistentVector<E> truncate(int length) {
+        if (length < 0 || length > size) {
+            throw new IndexOutOfBoundsException("Length: " + length + ", Size: " + size);
+        }
+        if (length == size) {
+            return this;
+        }
+        if (length == 0) {
+            return empty();
+        }
+
+        int oldTailOffset = tailOffset();
+        if (length > oldTailOffset) {
+            Object[] newTail = new Object[length - oldTailOffset];
+            System.arraycopy(tail, 0, newTail, 0, newTail.length);
+            return new PersistentVector<E>(length, shift, root, newTail);
+        }
+
+        // the leaf holding the last kept element becomes the tail
+        int newTailOffset = tailOffset(length);
+        Object[] leaf = leafFor(length - 1);
+        Object[] newTail = new Object[length - newTailOffset];
+        System.arraycopy(leaf, 0, newTail, 0, newTail.length);
+
+        if (newTailOffset == 0) {
+            return new PersistentVector<E>(length, BITS, EMPTY_NODE, newTail);
+        }
+
+        Object[] newRoot = truncate(root, shift, newTailOffset - 1);
+        int newShift = shift;
+        while (newShift > BITS && newRoot[1] == null) {
+            newRoot = (Object[]) newRoot[0];
+            newShift -= BITS;
+        }
+
+        return new PersistentVector<E>(length, newShift, newRoot, newTail);
+    }
+
+    private static Object[] truncate(Object[] node, int level, int lastIndex) {
+        int child = (lastIndex >>> level) & MASK;
+        Object[] copy = new Object[WIDTH];
+        System.arraycopy(node, 0, copy, 0, child + 1);
+
+        if (level > BITS) {
+            copy[child] = truncate((Object[]) node[child], level - BITS, lastIndex);
+        }
+        return copy;
+    }
+
+    /**
+     * Returns a vector with the elements inserted at {@code index}.
+     *
+     * @param index the index to insert the elements at
+     * @param elements the elements to insert
+     * @return the changed vector
+     * @throws IndexOutOfBoundsException if {@code index} is not valid
+     */
+    public PersistentVector<E> insertAll(int index, Collection<? extends E> elements) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        if (index == size) {
+            return plusAll(elements);
+        }
+
+        return truncate(index).plusAll(elements).plusAll(subList(index, size));
+    }
+
+    /**
+     * Returns a vector without the elements from {@code fromIndex},
+     * inclusive, to {@code toIndex}, exclusive.
+     *
+     * @param fromIndex the index of the first element to remove
+     * @param toIndex the index after the last element to remove
+     * @return the changed vector
+     * @throws IndexOutOfBoundsException if the range is not valid
+     */
+    public PersistentVector<E> withoutRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("Range: " + fromIndex + " - " + toIndex + ", Size: " + size);
+        }
+        if (fromIndex == toIndex) {
+            return this;
+        }
+
+        return truncate(fromIndex).plusAll(subList(toIndex, size));
+    }
+
+    private static void checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * A mutable list which stores its elements in a {@code PersistentVector}
+     * and can hand out its current state in O(1)
+     */
+    static final class Storage<E> extends AbstractList<E> implements RandomAccess {
+        private PersistentVector<E> vector = empty();
+
+        PersistentVector<E> snapshot() {
+            return vector;
+        }
+
+        public E get(int index) {
+            return vector.get(index);
+        }
+
+        public int size() {
+            return vector.size;
+        }
+
+        public E set(int index, E element) {
+            E oldElement = vector.get(index);
+            vector = vector.with(index, element);
+            return oldElement;
+        }
+
+        public boolean add(E element) {
+            vector = vector.plus(element);
+            modCount++;
+            return true;
+        }
+
+        public void add(int index, E element) {
+            addAll(index, java.util.Collections.singletonList(element));
+        }
+
+        public boolean addAll(Collection<? extends E> c) {
+            return addAll(vector.size, c);
+        }
+
+        public boolean addAll(int index, Collection<? extends E> c) {
+            if (index < 0 || index > vector.size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + vector.size);
+            }
+            if (c.isEmpty()) {
+                return false;
+            }
+
+            vector = vector.insertAll(index, c);
+            modCount++;
+            return true;
+        }
+
+        public E remove(int index) {
+            E oldElement = vector.get(index);
+            removeRange(index, index + 1);
+            return oldElement;
+        }
+
+        protected void removeRange(int fromIndex, int toIndex) {
+            vector = vector.withoutRange(fromIndex, toIndex);
+            modCount++;
+        }
+
+        public void clear() {
+            vector = empty();
+            modCount++;
+        }
+
+        public Object[] toArray() {
+            return vector.toArray();
+        }
+    }
+}
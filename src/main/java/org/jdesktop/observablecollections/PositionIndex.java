@@ -0,0 +1,373 @@
+package org.jdesktop.observablecollections;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * An index from the elements of a list to their positions, comparing the
+ * elements by identity. Each position is a node of a balanced tree (a treap)
+ * which knows the size of each subtree, and the nodes of an element are
+ * linked with each other. Adding, removing or replacing k elements takes
+ * O(k log n) time; the position of a node is found by walking up to the
+ * root, so looking up an element contained m times takes O(m log n) time.
+ * <p>
+ * The index has to be told about every change of the list.
+ */
+final class PositionIndex {
+
+    private static final class Node {
+        Object element;
+
+        Node left;
+        Node right;
+        Node parent;
+        int size = 1;
+        final int priority;
+
+        // the other nodes of the same element
+        Node previousSame;
+        Node nextSame;
+
+        Node(Object element, int priority) {
+            this.element = element;
+            this.priority = priority;
+        }
+    }
+
+    // the first node of each element
+    private final Map<Object, Node> heads = new IdentityHashMap<Object, Node>();
+    private Node root;
+    private int seed;
+
+    PositionIndex() {
+    }
+
+    PositionIndex(List<?> elements) {
+        added(0, elements);
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * Returns whether the list contains element
+     */
+    boolean contains(Object element) {
+        return heads.containsKey(element);
+    }
+
+    /**
+     * Returns the first position of element or -1
+     */
+    int firstIndexOf(Object element) {
+        int result = -1;
+        for (Node node = heads.get(element); node != null; node = node.nextSame) {
+            int index = rankOf(node);
+            if (result == -1 || index < result) {
+                result = index;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the last position of element or -1
+     */
+    int lastIndexOf(Object element) {
+        int result = -1;
+        for (Node node = heads.get(element); node != null; node = node.nextSame) {
+            result = Math.max(result, rankOf(node));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the positions of element in ascending order
+     */
+    int[] indicesOf(Object element) {
+        int count = 0;
+        for (Node node = heads.get(element); node != null; node = node.nextSame) {
+            count++;
+        }
+
+        int[] indices = new int[count];
+        count = 0;
+        for (Node node = heads.get(element); node != null; node = node.nextSame) {
+            indices[count++] = rankOf(node);
+        }
+        Arrays.sort(indices);
+        return indices;
+    }
+
+    /**
+     * Records that elements have been inserted at index
+     */
+    void added(int index, List<?> elements) {
+        if (elements.isEmpty()) {
+            return;
+        }
+
+        Node[] nodes = new Node[elements.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = new Node(elements.get(i), nextPriority());
+            link(nodes[i]);
+        }
+
+        insert(index, build(nodes));
+    }
+
+    /**
+     * Records that count elements have been removed at index
+     */
+    void removed(int index, int count) {
+        Node[] parts = cut(index, index + count);
+        unlinkAll(parts[1]);
+        root = join(parts[0], parts[2]);
+    }
+
+    /**
+     * Records that the element at index has been replaced
+     */
+    void replaced(int index, Object element) {
+        Node node = get(index);
+        if (node.element != element) {
+            unlink(node);
+            node.element = element;
+            link(node);
+        }
+    }
+
+    /**
+     * Records that the elements at index + i have been moved to
+     * index + permutation[i]
+     */
+    void permuted(int index, int[] permutation) {
+        Node[] parts = cut(index, index + permutation.length);
+
+        Node[] before = new Node[permutation.length];
+        collect(parts[1], before, 0);
+        Node[] after = new Node[permutation.length];
+        for (int i = 0; i < permutation.length; i++) {
+            after[permutation[i]] = before[i];
+        }
+
+        root = join(join(parts[0], build(after)), parts[2]);
+    }
+
+    private void link(Node node) {
+        Node head = heads.put(node.element, node);
+        node.previousSame = null;
+        node.nextSame = head;
+        if (head != null) {
+            head.previousSame = node;
+        }
+    }
+
+    private void unlink(Node node) {
+        if (node.previousSame != null) {
+            node.previousSame.nextSame = node.nextSame;
+        } else if (node.nextSame != null) {
+            heads.put(node.element, node.nextSame);
+        } else {
+            heads.remove(node.element);
+        }
+        if (node.nextSame != null) {
+            node.nextSame.previousSame = node.previousSame;
+        }
+    }
+
+    private void unlinkAll(Node node) {
+        if (node != null) {
+            unlinkAll(node.left);
+            unlink(node);
+            unlinkAll(node.right);
+        }
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void update(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+        if (node.left != null) {
+            node.left.parent = node;
+        }
+        if (node.right != null) {
+            node.right.parent = node;
+        }
+    }
+
+    private Node get(int rank) {
+        if (rank < 0 || rank >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + rank + ", Size: " + size());
+        }
+
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (rank < leftSize) {
+                node = node.left;
+            } else if (rank == leftSize) {
+                return node;
+            } else {
+                rank -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    private static int rankOf(Node node) {
+        int rank = size(node.left);
+        for (Node parent = node.parent; parent != null; node = parent, parent = parent.parent) {
+            if (parent.right == node) {
+                rank += size(parent.left) + 1;
+            }
+        }
+        return rank;
+    }
+
+    private void insert(int index, Node tree) {
+        if (index < 0 || index > size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+
+        Node[] pair = new Node[2];
+        splitAt(root, index, pair);
+        root = join(join(pair[0], tree), pair[1]);
+    }
+
+    /**
+     * Splits the tree into the positions before from, the ones from from to
+     * to and the ones behind to
+     */
+    private Node[] cut(int from, int to) {
+        if (from < 0 || to > size() || from > to) {
+            throw new IndexOutOfBoundsException("Range: " + from + " - " + to + ", Size: " + size());
+        }
+
+        Node[] pair = new Node[2];
+        splitAt(root, to, pair);
+        Node tail = pair[1];
+        splitAt(pair[0], from, pair);
+        root = null;
+        return new Node[] {pair[0], pair[1], tail};
+    }
+
+    /**
+     * Splits node into the first rank positions (result[0]) and the others
+     * (result[1])
+     */
+    private static void splitAt(Node node, int rank, Node[] result) {
+        if (node == null) {
+            result[0] = result[1] = null;
+            return;
+        }
+
+        if (rank <= size(node.left)) {
+            splitAt(node.left, rank, result);
+            node.left = result[1];
+            update(node);
+            result[1] = node;
+        } else {
+            splitAt(node.right, rank - size(node.left) - 1, result);
+            node.right = result[0];
+            update(node);
+            result[0] = node;
+        }
+        node.parent = null;
+    }
+
+    private static Node join(Node first, Node second) {
+        Node result = merge(first, second);
+        if (result != null) {
+            result.parent = null;
+        }
+        return result;
+    }
+
+    /**
+     * Joins two trees, the positions of the first one are in front of the
+     * positions of the second one
+     */
+    private static Node merge(Node first, Node second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+
+        if (first.priority > second.priority) {
+            first.right = merge(first.right, second);
+            update(first);
+            return first;
+        }
+
+        second.left = merge(first, second.left);
+        update(second);
+        return second;
+    }
+
+    /**
+     * Builds a tree of the nodes in the given order in O(n) time, keeping
+     * the right spine of the tree on a stack
+     */
+    private static Node build(Node[] nodes) {
+        Node[] spine = new Node[nodes.length];
+        int top = 0;
+
+        for (Node node : nodes) {
+            node.left = node.right = node.parent = null;
+
+            Node last = null;
+            while (top > 0 && spine[top - 1].priority < node.priority) {
+                last = spine[--top];
+            }
+            node.left = last;
+            if (top > 0) {
+                spine[top - 1].right = node;
+            }
+            spine[top++] = node;
+        }
+
+        Node tree = top == 0 ? null : spine[0];
+        if (tree != null) {
+            updateAll(tree);
+            tree.parent = null;
+        }
+        return tree;
+    }
+
+    private static void updateAll(Node node) {
+        if (node.left != null) {
+            updateAll(node.left);
+        }
+        if (node.right != null) {
+            updateAll(node.right);
+        }
+        update(node);
+    }
+
+    private static int collect(Node node, Node[] nodes, int index) {
+        if (node == null) {
+            return index;
+        }
+
+        index = collect(node.left, nodes, index);
+        nodes[index++] = node;
+        return collect(node.right, nodes, index);
+    }
+
+    private int nextPriority() {
+        // scrambled counter, deterministic but without patterns in list order
+        int z = seed += 0x9E3779B9;
+        z = (z ^ (z >>> 16)) * 0x85EBCA6B;
+        z = (z ^ (z >>> 13)) * 0xC2B2AE35;
+        return z ^ (z >>> 16);
+    }
+}
@@ -0,0 +1,760 @@
+package org.jdesktop.observablecollections;
+
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.SortedSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+
+/**
+ * A balanced search tree (a treap) which knows the size of each subtree, so
+ * that the position of a key and the key at a position can be found in
+ * O(log n) time. This is the storage of {@code ObservableSortedSet} and
+ * {@code ObservableNavigableMap}.
+ */
+final class RankedTree<K> {
+
+    static final class Node<K> {
+        final K key;
+        Object value;
+
+        private Node<K> left;
+        private Node<K> right;
+        private int size = 1;
+        private final int priority;
+
+        Node(K key, Object value, int priority) {
+            this.key = key;
+            this.value = value;
+            this.priority = priority;
+        }
+    }
+
+    private final Comparator<? super K> comparator;
+    private Node<K> root;
+    private int seed;
+
+    // changed on each structural change, to detect concurrent modification
+    int modCount;
+
+    RankedTree(Comparator<? super K> comparator) {
+        this.comparator = comparator;
+    }
+
+    Comparator<? super K> comparator() {
+        return comparator;
+    }
+
+    @SuppressWarnings("unchecked")
+    int compare(Object key1, Object key2) {
+        return comparator != null ? comparator.compare((K) key1, (K) key2) :
+            ((Comparable<Object>) key1).compareTo(key2);
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void update(Node<?> node) {
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
+    /**
+     * Returns the node at the given position
+     */
+    Node<K> get(int rank) {
+        if (rank < 0 || rank >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + rank + ", Size: " + size());
+        }
+
+        Node<K> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (rank < leftSize) {
+                node = node.left;
+            } else if (rank == leftSize) {
+                return node;
+            } else {
+                rank -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Returns the position of key or -1 if the tree does not contain it
+     */
+    int rankOf(Object key) {
+        Node<K> node = root;
+        int rank = 0;
+
+        while (node != null) {
+            int c = compare(key, node.key);
+            if (c < 0) {
+                node = node.left;
+            } else if (c > 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return rank + size(node.left);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the node of key or {@code null} if the tree does not contain it
+     */
+    Node<K> find(Object key) {
+        Node<K> node = root;
+
+        while (node != null) {
+            int c = compare(key, node.key);
+            if (c == 0) {
+                return node;
+            }
+            node = c < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the position of the first key which is greater than or equal
+     * to key (inclusive) or greater than key (not inclusive); this is
+     * {@code size()} if there is no such key
+     */
+    int ceilingRank(Object key, boolean inclusive) {
+        Node<K> node = root;
+        int rank = 0;
+
+        while (node != null) {
+            int c = compare(key, node.key);
+            if (c < 0 || (c == 0 && inclusive)) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Inserts a key which is not contained in the tree yet and returns its
+     * position
+     */
+    int insert(K key, Object value) {
+        // fails for null or incomparable keys, like TreeMap does
+        compare(key, key);
+
+        Node<K>[] parts = newPair();
+        split(root, key, parts);
+        int rank = size(parts[0]);
+        root = merge(merge(parts[0], new Node<K>(key, value, nextPriority())), parts[1]);
+        modCount++;
+        return rank;
+    }
+
+    /**
+     * Removes the keys from fromRank, inclusive, to toRank, exclusive, and
+     * returns their nodes in order
+     */
+    List<Node<K>> removeRange(int fromRank, int toRank) {
+        if (fromRank < 0 || toRank > size() || fromRank > toRank) {
+            throw new IndexOutOfBoundsException("Range: " + fromRank + " - " + toRank + ", Size: " + size());
+        }
+
+        Node<K>[] parts = newPair();
+        splitAt(root, fromRank, parts);
+        Node<K> front = parts[0];
+        splitAt(parts[1], toRank - fromRank, parts);
+        root = merge(front, parts[1]);
+        modCount++;
+
+        List<Node<K>> removed = new ArrayList<Node<K>>(toRank - fromRank);
+        collect(parts[0], removed);
+        return removed;
+    }
+
+    void clear() {
+        root = null;
+        modCount++;
+    }
+
+    private static <K> void collect(Node<K> node, List<Node<K>> nodes) {
+        if (node != null) {
+            collect(node.left, nodes);
+            nodes.add(node);
+            collect(node.right, nodes);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> Node<K>[] newPair() {
+        return new Node[2];
+    }
+
+    /**
+     * Splits node into the keys less than key (result[0]) and the others
+     * (result[1])
+     */
+    private void split(Node<K> node, Object key, Node<K>[] result) {
+        if (node == null) {
+            result[0] = result[1] = null;
+        } else if (compare(node.key, key) < 0) {
+            split(node.right, key, result);
+            node.right = result[0];
+            update(node);
+            result[0] = node;
+        } else {
+            split(node.left, key, result);
+            node.left = result[1];
+            update(node);
+            result[1] = node;
+        }
+    }
+
+    /**
+     * Splits node into the first rank keys (result[0]) and the others
+     * (result[1])
+     */
+    private static <K> void splitAt(Node<K> node, int rank, Node<K>[] result) {
+        if (node == null) {
+            result[0] = result[1] = null;
+        } else if (rank <= size(node.left)) {
+            splitAt(node.left, rank, result);
+            node.left = result[1];
+            update(node);
+            result[1] = node;
+        } else {
+            splitAt(node.right, rank - size(node.left) - 1, result);
+            node.right = result[0];
+            update(node);
+            result[0] = node;
+        }
+    }
+
+    /**
+     * Joins two trees, all keys of the first one have to be less than the
+     * keys of the second one
+     */
+    private static <K> Node<K> merge(Node<K> first, Node<K> second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+
+        if (first.priority > second.priority) {
+            first.right = merge(first.right, second);
+            update(first);
+            return first;
+        }
+
+        second.left = merge(first, second.left);
+        update(second);
+        return second;
+    }
+
+    private int nextPriority() {
+        // scrambled counter, deterministic but without patterns in key order
+        int z = seed += 0x9E3779B9;
+        z = (z ^ (z >>> 16)) * 0x85EBCA6B;
+        z = (z ^ (z >>> 13)) * 0xC2B2AE35;
+        return z ^ (z >>> 16);
+    }
+
+    // *************************************************************************
+    // Views
+    // *************************************************************************
+
+    /**
+     * Changes the tree on behalf of a view, so that the owner can send
+     * notifications
+     */
+    interface Owner<K> {
+        /**
+         * Adds a key, returns {@code false} if it has been contained already
+         */
+        boolean addKey(K key);
+
+        /**
+         * Removes the keys in the given range of positions
+         */
+        void removeRange(int fromRank, int toRank);
+    }
+
+    /**
+     * A live view of the keys in a range of the tree, in ascending or
+     * descending order
+     */
+    static final class Range<K> extends AbstractSet<K> implements NavigableSet<K> {
+        private final RankedTree<K> tree;
+        private final Owner<K> owner;
+
+        private final boolean fromBounded;
+        private final K fromKey;
+        private final boolean fromInclusive;
+        private final boolean toBounded;
+        private final K toKey;
+        private final boolean toInclusive;
+        private final boolean descending;
+
+        Range(RankedTree<K> tree, Owner<K> owner) {
+            this(tree, owner, false, null, false, false, null, false, false);
+        }
+
+        private Range(RankedTree<K> tree, Owner<K> owner, boolean fromBounded, K fromKey,
+                boolean fromInclusive, boolean toBounded, K toKey, boolean toInclusive, boolean descending) {
+            this.tree = tree;
+            this.owner = owner;
+            this.fromBounded = fromBounded;
+            this.fromKey = fromKey;
+            this.fromInclusive = fromInclusive;
+            this.toBounded = toBounded;
+            this.toKey = toKey;
+            this.toInclusive = toInclusive;
+            this.descending = descending;
+        }
+
+        RankedTree<K> tree() {
+            return tree;
+        }
+
+        // position of the first key in the range
+        int lowRank() {
+            return fromBounded ? tree.ceilingRank(fromKey, fromInclusive) : 0;
+        }
+
+        // position behind the last key in the range
+        int highRank() {
+            return toBounded ? tree.ceilingRank(toKey, !toInclusive) : tree.size();
+        }
+
+        boolean inRange(Object key) {
+            if (fromBounded) {
+                int c = tree.compare(key, fromKey);
+                if (c < 0 || (c == 0 && !fromInclusive)) {
+                    return false;
+                }
+            }
+            if (toBounded) {
+                int c = tree.compare(key, toKey);
+                if (c > 0 || (c == 0 && !toInclusive)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns the tree position of the element at index in the order of
+         * this view
+         */
+        int rankAt(int index) {
+            return descending ? highRank() - 1 - index : lowRank() + index;
+        }
+
+        // tree position of the first key >= key (or > key) in the range, or -1
+        private int ascendingCeiling(Object key, boolean inclusive) {
+            int rank = Math.max(lowRank(), tree.ceilingRank(key, inclusive));
+            return rank < highRank() ? rank : -1;
+        }
+
+        // tree position of the last key <= key (or < key) in the range, or -1
+        private int ascendingFloor(Object key, boolean inclusive) {
+            int rank = Math.min(highRank(), tree.ceilingRank(key, !inclusive)) - 1;
+            return rank >= lowRank() ? rank : -1;
+        }
+
+        int ceilingRank(Object key) {
+            return descending ? ascendingFloor(key, true) : ascendingCeiling(key, true);
+        }
+
+        int higherRank(Object key) {
+            return descending ? ascendingFloor(key, false) : ascendingCeiling(key, false);
+        }
+
+        int floorRank(Object key) {
+            return descending ? ascendingCeiling(key, true) : ascendingFloor(key, true);
+        }
+
+        int lowerRank(Object key) {
+            return descending ? ascendingCeiling(key, false) : ascendingFloor(key, false);
+        }
+
+        // tree position of the first key in the order of this view, or -1
+        int firstRank() {
+            return isEmpty() ? -1 : rankAt(0);
+        }
+
+        // tree position of the last key in the order of this view, or -1
+        int lastRank() {
+            return isEmpty() ? -1 : rankAt(size() - 1);
+        }
+
+        private K keyAt(int rank) {
+            return rank < 0 ? null : tree.get(rank).key;
+        }
+
+        private K pollAt(int rank) {
+            if (rank < 0) {
+                return null;
+            }
+
+            K key = tree.get(rank).key;
+            owner.removeRange(rank, rank + 1);
+            return key;
+        }
+
+        public int size() {
+            return Math.max(0, highRank() - lowRank());
+        }
+
+        public boolean isEmpty() {
+            return size() == 0;
+        }
+
+        public boolean contains(Object o) {
+            return inRange(o) && tree.rankOf(o) >= 0;
+        }
+
+        public boolean add(K key) {
+            if (!inRange(key)) {
+                throw new IllegalArgumentException("Key out of range");
+            }
+            return owner.addKey(key);
+        }
+
+        public boolean remove(Object o) {
+            if (!inRange(o)) {
+                return false;
+            }
+
+            int rank = tree.rankOf(o);
+            if (rank < 0) {
+                return false;
+            }
+
+            owner.removeRange(rank, rank + 1);
+            return true;
+        }
+
+        public void clear() {
+            int low = lowRank();
+            int high = highRank();
+            if (low < high) {
+                owner.removeRange(low, high);
+            }
+        }
+
+        public Iterator<K> iterator() {
+            return new RankIterator(descending);
+        }
+
+        public Iterator<K> descendingIterator() {
+            return new RankIterator(!descending);
+        }
+
+        public Comparator<? super K> comparator() {
+            return descending ? Collections.reverseOrder(tree.comparator()) : tree.comparator();
+        }
+
+        public K first() {
+            if (isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            return keyAt(firstRank());
+        }
+
+        public K last() {
+            if (isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            return keyAt(lastRank());
+        }
+
+        public K lower(K key) {
+            return keyAt(lowerRank(key));
+        }
+
+        public K floor(K key) {
+            return keyAt(floorRank(key));
+        }
+
+        public K ceiling(K key) {
+            return keyAt(ceilingRank(key));
+        }
+
+        public K higher(K key) {
+            return keyAt(higherRank(key));
+        }
+
+        public K pollFirst() {
+            return pollAt(firstRank());
+        }
+
+        public K pollLast() {
+            return pollAt(lastRank());
+        }
+
+        public NavigableSet<K> descendingSet() {
+            return new Range<K>(tree, owner, fromBounded, fromKey, fromInclusive,
+                toBounded, toKey, toInclusive, !descending);
+        }
+
+        public NavigableSet<K> subSet(K fromElement, boolean fromInclusive, K toElement, boolean toInclusive) {
+            return subRange(true, fromElement, fromInclusive, true, toElement, toInclusive);
+        }
+
+        public NavigableSet<K> headSet(K toElement, boolean inclusive) {
+            return subRange(false, null, false, true, toElement, inclusive);
+        }
+
+        public NavigableSet<K> tailSet(K fromElement, boolean inclusive) {
+            return subRange(true, fromElement, inclusive, false, null, false);
+        }
+
+        public SortedSet<K> subSet(K fromElement, K toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        public SortedSet<K> headSet(K toElement) {
+            return headSet(toElement, false);
+        }
+
+        public SortedSet<K> tailSet(K fromElement) {
+            return tailSet(fromElement, true);
+        }
+
+        /**
+         * Returns a view of a part of this range, the bounds are given in
+         * the order of this view
+         */
+        Range<K> subRange(boolean hasFrom, K from, boolean fromInc, boolean hasTo, K to, boolean toInc) {
+            if (descending) {
+                boolean hasLow = hasTo;
+                K low = to;
+                boolean lowInc = toInc;
+                hasTo = hasFrom;
+                to = from;
+                toInc = fromInc;
+                hasFrom = hasLow;
+                from = low;
+                fromInc = lowInc;
+            }
+
+            if (hasFrom && hasTo && tree.compare(from, to) > 0) {
+                throw new IllegalArgumentException("fromKey > toKey");
+            }
+
+            if (hasFrom) {
+                checkWithin(from, fromInc);
+            } else {
+                hasFrom = fromBounded;
+                from = fromKey;
+                fromInc = fromInclusive;
+            }
+            if (hasTo) {
+                checkWithin(to, toInc);
+            } else {
+                hasTo = toBounded;
+                to = toKey;
+                toInc = toInclusive;
+            }
+
+            return new Range<K>(tree, owner, hasFrom, from, fromInc, hasTo, to, toInc, descending);
+        }
+
+        private void checkWithin(K key, boolean inclusive) {
+            if (fromBounded) {
+                int c = tree.compare(key, fromKey);
+                if (c < 0 || (c == 0 && inclusive && !fromInclusive)) {
+                    throw new IllegalArgumentException("Key out of range");
+                }
+            }
+            if (toBounded) {
+                int c = tree.compare(key, toKey);
+                if (c > 0 || (c == 0 && inclusive && !toInclusive)) {
+                    throw new IllegalArgumentException("Key out of range");
+                }
+            }
+        }
+
+        /**
+         * Iterates over the positions of the range
+         */
+        private final class RankIterator implements Iterator<K> {
+            private final boolean reverse;
+            private int next;
+            private int end;
+            private int last = -1;
+            private int expectedModCount = tree.modCount;
+
+            RankIterator(boolean reverse) {
+                this.reverse = reverse;
+                if (reverse) {
+                    next = highRank() - 1;
+                    end = lowRank();
+                } else {
+                    next = lowRank();
+                    end = highRank();
+                }
+            }
+
+            public boolean hasNext() {
+                return reverse ? next >= end : next < end;
+            }
+
+            public K next() {
+                if (tree.modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                last = reverse ? next-- : next++;
+                return tree.get(last).key;
+            }
+
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+                if (tree.modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+
+                owner.removeRange(last, last + 1);
+                if (!reverse) {
+                    next--;
+                    end--;
+                }
+                last = -1;
+                expectedModCount = tree.modCount;
+            }
+        }
+    }
+
+    /**
+     * The read-only {@code ObservableList} of the keys (or of the values)
+     * of the tree in ascending order
+     */
+    static final class ListView<E> extends AbstractList<E> implements ObservableList<E>, RandomAccess {
+        private final RankedTree<?> tree;
+        private final boolean values;
+        private final List<ObservableListListener> listeners =
+            new CopyOnWriteArrayList<ObservableListListener>();
+
+        // collects the changes during batches
+        private final BatchSupport.ForList batch = new BatchSupport.ForList(this, listeners);
+
+        ListView(RankedTree<?> tree, boolean values) {
+            this.tree = tree;
+            this.values = values;
+        }
+
+        @SuppressWarnings("unchecked")
+        public E get(int index) {
+            Node<?> node = tree.get(index);
+            return (E) (values ? node.value : node.key);
+        }
+
+        public int size() {
+            return tree.size();
+        }
+
+        public int indexOf(Object o) {
+            if (values) {
+                return super.indexOf(o);
+            }
+
+            try {
+                return tree.rankOf(o);
+            } catch (ClassCastException e) {
+                return -1;
+            } catch (NullPointerException e) {
+                return -1;
+            }
+        }
+
+        public int lastIndexOf(Object o) {
+            return values ? super.lastIndexOf(o) : indexOf(o);
+        }
+
+        public boolean contains(Object o) {
+            return indexOf(o) >= 0;
+        }
+
+        void fireAdded(int index, Object element) {
+            ListChangeSet.Builder changes = batch.startChange();
+            changes.added(index, Collections.singletonList(element));
+            batch.endChange(changes);
+        }
+
+        void fireRemoved(int index, List<?> oldElements) {
+            ListChangeSet.Builder changes = batch.startChange();
+            changes.removed(index, oldElements);
+            batch.endChange(changes);
+        }
+
+        void fireReplaced(int index, Object oldElement, Object newElement) {
+            ListChangeSet.Builder changes = batch.startChange();
+            changes.replaced(index, oldElement, newElement);
+            batch.endChange(changes);
+        }
+
+        boolean hasListeners() {
+            return batch.hasListeners();
+        }
+
+        public void beginBatch() {
+            batch.beginBatch();
+        }
+
+        public void endBatch() {
+            batch.endBatch();
+        }
+
+        public boolean isBatching() {
+            return batch.isBatching();
+        }
+
+        public void addObservableListListener(ObservableListListener listener) {
+            listeners.add(listener);
+        }
+
+        public void removeObservableListListener(ObservableListListener listener) {
+            listeners.remove(listener);
+        }
+
+        public boolean supportsElementPropertyChanged() {
+            return false;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return this == other;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+}
@@ -269,7 +269,7 @@ public final class JComboBoxBinding<E, SS, TS> extends AutoBinding<SS, List<E>,
                 cleanupForLast();
 
                 boolean wasAccessible = isComboAccessible(pse.getOldValue());
-                boolean isAccessible = isComboAccessible(pse.getNewValue());
+                boolean isAccessible = isComboAccessible(pse.getResolvedNewValue());
 
                 if (wasAccessible != isAccessible) {
                     elementsP.setAccessible(isAccessible);
@@ -288,7 +288,7 @@ public final class JComboBoxBinding<E, SS, TS> extends AutoBinding<SS, List<E>,
                     combo.setModel(model);
                 }
 
-                model.updateElements((List) pse.getNewValue(),
+                model.updateElements((List) pse.getResolvedNewValue(),
                     combo.isEditable());
             }
         }
@@ -415,7 +415,7 @@ public final class JListBinding<E, SS, TS> extends AutoBinding<SS, List<E>, TS,
                 cleanupForLast();
 
                 boolean wasAccessible = isListAccessible(pse.getOldValue());
-                boolean isAccessible = isListAccessible(pse.getNewValue());
+                boolean isAccessible = isListAccessible(pse.getResolvedNewValue());
 
                 if (wasAccessible != isAccessible) {
                     elementsP.setAccessible(isAccessible);
@@ -436,7 +436,7 @@ public final class JListBinding<E, SS, TS> extends AutoBinding<SS, List<E>, TS,
                     resetListSelection();
                 }
 
-                model.setElements((List) pse.getNewValue(), true);
+                model.setElements((List) pse.getResolvedNewValue(), true);
             }
         }
     }
@@ -816,7 +816,7 @@ public final class JTableBinding<E, SS, TS> extends AutoBinding<SS, List<E>, TS,
                 cleanupForLast();
 
                 boolean wasAccessible = isTableAccessible(pse.getOldValue());
-                boolean isAccessible = isTableAccessible(pse.getNewValue());
+                boolean isAccessible = isTableAccessible(pse.getResolvedNewValue());
 
                 if (wasAccessible != isAccessible) {
                     elementsP.setAccessible(isAccessible);
@@ -843,7 +843,7 @@ public final class JTableBinding<E, SS, TS> extends AutoBinding<SS, List<E>, TS,
                     }
                 }
 
-                model.setElements((List) pse.getNewValue(), true);
+                model.setElements((List) pse.getResolvedNewValue(), true);
             }
         }
     }
@@ -0,0 +1,244 @@
+package org.jdesktop.xbindings;
+
+import java.util.Arrays;
+
+/**
+ * A set of non-negative ints which is stored as sorted, non-overlapping
+ * and non-adjacent runs (intervals) of consecutive values.
+ * Large contiguous blocks need only one run, lookups use binary search
+ * and inserting or removing a range of positions shifts the runs behind it
+ * instead of every single value
+ */
+class IntRunSet {
+
+	private static final int INITIAL_CAPACITY = 8;
+
+	// start and end (inclusive) of the runs, sorted ascending
+	private int[] starts = new int[INITIAL_CAPACITY];
+	private int[] ends = new int[INITIAL_CAPACITY];
+	private int runCount = 0;
+
+	// number of values in the set
+	private long cardinality = 0;
+
+	/**
+	 * Return the number of values in this set
+	 */
+	public long cardinality() {
+		return cardinality;
+	}
+
+	public boolean isEmpty() {
+		return runCount == 0;
+	}
+
+	/**
+	 * Return the smallest value of this set or -1 if it is empty
+	 */
+	public int min() {
+		return runCount == 0 ? -1 : starts[0];
+	}
+
+	/**
+	 * Return the largest value of this set or -1 if it is empty
+	 */
+	public int max() {
+		return runCount == 0 ? -1 : ends[runCount - 1];
+	}
+
+	public int getRunCount() {
+		return runCount;
+	}
+
+	public int getRunStart(int run) {
+		return starts[run];
+	}
+
+	public int getRunEnd(int run) {
+		return ends[run];
+	}
+
+	public boolean contains(int value) {
+		int run = lastRunStartingAtOrBefore(value);
+		return run >= 0 && ends[run] >= value;
+	}
+
+	public void clear() {
+		runCount = 0;
+		cardinality = 0;
+	}
+
+	/**
+	 * Return the values of this set in ascending order
+	 */
+	public int[] toArray() {
+		int[] values = new int[(int) cardinality];
+		int i = 0;
+		for (int run = 0; run < runCount; run++)
+			for (int v = starts[run]; v <= ends[run]; v++)
+				values[i++] = v;
+		return values;
+	}
+
+	/**
+	 * Add all values between from and to (inclusive)
+	 */
+	public void add(int from, int to) {
+		// runs which overlap or touch the new range are merged with it
+		int lo = firstRunEndingAtOrAfter(from == 0 ? 0 : from - 1);
+		int hi = lastRunStartingAtOrBefore(to == Integer.MAX_VALUE ? to : to + 1);
+
+		if (lo > hi) {
+			replaceRuns(lo, lo, from, to, -1, -1);
+		} else {
+			replaceRuns(lo, hi + 1, Math.min(from, starts[lo]), Math.max(to, ends[hi]), -1, -1);
+		}
+	}
+
+	/**
+	 * Remove all values between from and to (inclusive)
+	 */
+	public void remove(int from, int to) {
+		int lo = firstRunEndingAtOrAfter(from);
+		int hi = lastRunStartingAtOrBefore(to);
+
+		if (lo > hi)
+			return;
+
+		// the parts of the first and the last run outside of the range survive
+		int leftStart = starts[lo] < from ? starts[lo] : -1;
+		int rightEnd = ends[hi] > to ? ends[hi] : -1;
+
+		if (leftStart != -1 && rightEnd != -1)
+			replaceRuns(lo, hi + 1, leftStart, from - 1, to + 1, rightEnd);
+		else if (leftStart != -1)
+			replaceRuns(lo, hi + 1, leftStart, from - 1, -1, -1);
+		else if (rightEnd != -1)
+			replaceRuns(lo, hi + 1, to + 1, rightEnd, -1, -1);
+		else
+			replaceRuns(lo, hi + 1, -1, -1, -1, -1);
+	}
+
+	/**
+	 * Insert length (unset) positions at the given index:
+	 * all values greater than or equal to index are increased by length
+	 */
+	public void insertPositions(int index, int length) {
+		if (length <= 0)
+			return;
+
+		int run = firstRunEndingAtOrAfter(index);
+		if (run >= runCount)
+			return;
+
+		if (starts[run] < index) {
+			// split the run which contains index
+			int end = ends[run];
+			replaceRuns(run, run + 1, starts[run], index - 1, index, end);
+			run++;
+		}
+
+		for (int i = run; i < runCount; i++) {
+			starts[i] += length;
+			ends[i] += length;
+		}
+	}
+
+	/**
+	 * Remove the positions between from and to (inclusive):
+	 * the values in the range are removed and all values greater than to
+	 * are decreased by the length of the range
+	 */
+	public void removePositions(int from, int to) {
+		int length = to - from + 1;
+		if (length <= 0)
+			return;
+
+		remove(from, to);
+
+		int run = firstRunEndingAtOrAfter(from);
+		for (int i = run; i < runCount; i++) {
+			starts[i] -= length;
+			ends[i] -= length;
+		}
+
+		// the runs before and after the gap may touch now
+		if (run > 0 && run < runCount && ends[run - 1] + 1 == starts[run]) {
+			int start = starts[run - 1];
+			int end = ends[run];
+			replaceRuns(run - 1, run + 1, start, end, -1, -1);
+		}
+	}
+
+	/**
+	 * Return the index of the first run whose end is >= value
+	 * (runCount if there is none)
+	 */
+	int firstRunEndingAtOrAfter(int value) {
+		int lo = 0, hi = runCount - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			if (ends[mid] < value)
+				lo = mid + 1;
+			else
+				hi = mid - 1;
+		}
+		return lo;
+	}
+
+	/**
+	 * Return the index of the last run whose start is <= value
+	 * (-1 if there is none)
+	 */
+	private int lastRunStartingAtOrBefore(int value) {
+		int lo = 0, hi = runCount - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			if (starts[mid] <= value)
+				lo = mid + 1;
+			else
+				hi = mid - 1;
+		}
+		return hi;
+	}
+
+	/**
+	 * Replace the runs [from, to) with up to two new runs
+	 * (a run whose start is -1 is omitted) and update the cardinality
+	 */
+	private void replaceRuns(int from, int to, int start1, int end1, int start2, int end2) {
+		for (int i = from; i < to; i++)
+			cardinality -= (long) ends[i] - starts[i] + 1;
+
+		int newRuns = (start1 != -1 ? 1 : 0) + (start2 != -1 ? 1 : 0);
+		int delta = newRuns - (to - from);
+
+		if (delta != 0) {
+			ensureCapacity(runCount + delta);
+			System.arraycopy(starts, to, starts, to + delta, runCount - to);
+			System.arraycopy(ends, to, ends, to + delta, runCount - to);
+			runCount += delta;
+		}
+
+		int i = from;
+		if (start1 != -1) {
+			starts[i] = start1;
+			ends[i] = end1;
+			cardinality += (long) end1 - start1 + 1;
+			i++;
+		}
+		if (start2 != -1) {
+			starts[i] = start2;
+			ends[i] = end2;
+			cardinality += (long) end2 - start2 + 1;
+		}
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > starts.length) {
+			int newCapacity = Math.max(capacity, starts.length * 2);
+			starts = Arrays.copyOf(starts, newCapacity);
+			ends = Arrays.copyOf(ends, newCapacity);
+		}
+	}
+}
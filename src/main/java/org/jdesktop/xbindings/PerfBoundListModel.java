@@ -0,0 +1,544 @@
+package org.jdesktop.xbindings;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+
+import javax.swing.ListModel;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
+import org.jdesktop.observablecollections.ListChangeSet;
+import org.jdesktop.observablecollections.ObservableList;
+import org.jdesktop.observablecollections.ObservableListChangeListener;
+import org.jdesktop.observablecollections.ObservableListListener;
+
+/**
+ * ListModel used by XListBinding which fires range events
+ * for bulk changes and coalesces adjacent changes which happen
+ * between beginUpdate() and endUpdate() into a single ListDataEvent
+ *
+ * The model either keeps its own copy of the elements or, when created
+ * with a shared source list, reads directly from that list. In the latter case
+ * the model is read-only and only forwards the changes of the source list
+ * (see elementsAdded(), elementsRemoved() and elementChanged())
+ * @author berre
+ *
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+class PerfBoundListModel implements ListModel, java.util.List {
+
+	protected List<Object> elements;
+
+	// true, if elements is a read-only view of the source list
+	private boolean shared;
+
+	// the shared source list and, after detach(), the listener which takes
+	// the copy of the elements when the source list changes
+	private List sharedElements;
+	private SourceChangeListener sourceChangeListener;
+
+	protected List<ListDataListener> listeners = new ArrayList<ListDataListener>();
+
+	// cache of the cell sizes of the JList which displays this model
+	// (is notified before all other listeners, so that the cache is up-to-date
+	// when the list's UI re-layouts the cells)
+	protected XListCellSizeCache cellSizeCache;
+
+	// number of nested beginUpdate() calls
+	private int updateDepth = 0;
+
+	// the change which has not been sent to the listeners yet
+	// (pendingType is -1 if there is none)
+	private int pendingType = -1;
+	private int pendingIndex0;
+	private int pendingIndex1;
+
+	/**
+	 * Create a new list model which holds its own copy of the elements
+	 */
+	public PerfBoundListModel() {
+		elements = new ArrayList<Object>();
+		shared = false;
+	}
+
+	/**
+	 * Create a new read-only list model which reads the elements directly
+	 * from the given list (without copying them)
+	 * @param sharedElements The list whose elements the model shows
+	 */
+	public PerfBoundListModel(List sharedElements) {
+		if (sharedElements == null)
+			throw new IllegalArgumentException("Parameter sharedElements must not be null");
+
+		this.sharedElements = sharedElements;
+		elements = Collections.unmodifiableList(sharedElements);
+		shared = true;
+	}
+
+	/**
+	 * Returns true, if the model reads its elements directly from a shared list
+	 */
+	public boolean isShared() {
+		return shared;
+	}
+
+	/**
+	 * Stops sharing the elements with the source list, so that the model keeps
+	 * its current contents when the source list is changed afterwards (e.g.
+	 * after the binding has been removed). If the source list is an
+	 * ObservableList, the private copy is only taken when it changes next
+	 * (rebuilding the contents before that change), otherwise right away
+	 */
+	public void detach() {
+		if (!shared || sourceChangeListener != null)
+			return;
+
+		if (sharedElements instanceof ObservableList) {
+			sourceChangeListener = new SourceChangeListener();
+			((ObservableList) sharedElements).addObservableListListener(sourceChangeListener);
+		} else {
+			keepElements(new ArrayList<Object>(elements));
+		}
+	}
+
+	/**
+	 * Shares the elements with the source list again after detach(), which is
+	 * only possible as long as the model hasn't taken its copy yet
+	 * @return true, if the model reads from the source list again
+	 */
+	public boolean reattach() {
+		if (sourceChangeListener == null)
+			return false;
+
+		stopListening();
+		return true;
+	}
+
+	private void stopListening() {
+		if (sourceChangeListener != null) {
+			((ObservableList) sharedElements).removeObservableListListener(sourceChangeListener);
+			sourceChangeListener = null;
+		}
+	}
+
+	/**
+	 * Replaces the shared source list by the given private copy of the elements
+	 */
+	private void keepElements(List<Object> copy) {
+		stopListening();
+		elements = copy;
+		sharedElements = null;
+		shared = false;
+	}
+
+	/**
+	 * Takes the copy of a detached model on the first change of the source
+	 * list by reverting that change on the current contents
+	 */
+	private class SourceChangeListener implements ObservableListListener, ObservableListChangeListener {
+		@Override
+		public void listElementsAdded(ObservableList list, int index, int length) {
+			List<Object> copy = new ArrayList<Object>(list);
+			copy.subList(index, index + length).clear();
+			keepElements(copy);
+		}
+
+		@Override
+		public void listElementsRemoved(ObservableList list, int index, List oldElements) {
+			List<Object> copy = new ArrayList<Object>(list);
+			copy.addAll(index, oldElements);
+			keepElements(copy);
+		}
+
+		@Override
+		public void listElementReplaced(ObservableList list, int index, Object oldElement) {
+			List<Object> copy = new ArrayList<Object>(list);
+			copy.set(index, oldElement);
+			keepElements(copy);
+		}
+
+		@Override
+		public void listElementPropertyChanged(ObservableList list, int index) {
+		}
+
+		@Override
+		public void listChanged(ObservableList list, ListChangeSet changes) {
+			List<?> content = changes.getSnapshot() != null ? changes.getSnapshot() : list;
+			keepElements(changes.getOldContent(content));
+		}
+	}
+
+	// ************************
+	// ListModel implementation
+	// ************************
+
+	@Override
+	public Object getElementAt(int index) {
+		return elements.get(index);
+	}
+
+	@Override
+	public int getSize() {
+		return elements.size();
+	}
+
+	@Override
+	public void addListDataListener(ListDataListener listener) {
+		if (!listeners.contains(listener))
+			listeners.add(listener);
+	}
+
+	@Override
+	public void removeListDataListener(ListDataListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Sets the cell size cache which has to be kept in sync with this model
+	 * (or null to remove it)
+	 */
+	public void setCellSizeCache(XListCellSizeCache cellSizeCache) {
+		this.cellSizeCache = cellSizeCache;
+
+		if (cellSizeCache != null)
+			cellSizeCache.invalidateAll(elements.size());
+	}
+
+	public XListCellSizeCache getCellSizeCache() {
+		return cellSizeCache;
+	}
+
+	// *****************
+	// Change coalescing
+	// *****************
+
+	/**
+	 * Starts a burst of changes. Until the matching call to endUpdate()
+	 * adjacent changes of the same kind are merged into one ListDataEvent
+	 */
+	public void beginUpdate() {
+		updateDepth++;
+	}
+
+	/**
+	 * Ends a burst of changes started with beginUpdate() and
+	 * sends the pending change to the listeners
+	 */
+	public void endUpdate() {
+		if (updateDepth == 0)
+			throw new IllegalStateException("endUpdate() called without matching beginUpdate()");
+
+		updateDepth--;
+		if (updateDepth == 0)
+			flushPendingChange();
+	}
+
+	/**
+	 * Returns true if changes are currently being coalesced
+	 */
+	public boolean isUpdating() {
+		return updateDepth > 0;
+	}
+
+	protected void fireItemsAdded(int startIdx, int count) {
+		if (count > 0)
+			queueChange(ListDataEvent.INTERVAL_ADDED, startIdx, startIdx + count - 1);
+	}
+
+	protected void fireItemsRemoved(int startIdx, int count) {
+		if (count > 0)
+			queueChange(ListDataEvent.INTERVAL_REMOVED, startIdx, startIdx + count - 1);
+	}
+
+	protected void fireItemsChanged(int startIdx, int count) {
+		if (count > 0)
+			queueChange(ListDataEvent.CONTENTS_CHANGED, startIdx, startIdx + count - 1);
+	}
+
+	/**
+	 * Merges the given change into the pending change if possible,
+	 * otherwise the pending change is sent and the given one takes its place
+	 */
+	private void queueChange(int type, int index0, int index1) {
+		if (pendingType == type && tryMerge(type, index0, index1))
+			return;
+
+		flushPendingChange();
+
+		pendingType = type;
+		pendingIndex0 = index0;
+		pendingIndex1 = index1;
+
+		if (updateDepth == 0)
+			flushPendingChange();
+	}
+
+	/**
+	 * Try to merge the given range with the pending range of the same type
+	 * (all indices are relative to the list state at the time of the change)
+	 */
+	private boolean tryMerge(int type, int index0, int index1) {
+		int length = index1 - index0 + 1;
+
+		switch (type) {
+			case ListDataEvent.INTERVAL_ADDED:
+				// the new block is inserted into or directly next to the pending block
+				if (index0 >= pendingIndex0 && index0 <= pendingIndex1 + 1) {
+					pendingIndex1 += length;
+					return true;
+				}
+				return false;
+			case ListDataEvent.INTERVAL_REMOVED:
+				// the new block is directly before or after the already removed block
+				if (index0 <= pendingIndex0 && pendingIndex0 <= index1 + 1) {
+					pendingIndex1 = index0 + (pendingIndex1 - pendingIndex0) + length;
+					pendingIndex0 = index0;
+					return true;
+				}
+				return false;
+			default:
+				// overlapping or adjacent changed rows
+				if (index0 <= pendingIndex1 + 1 && index1 >= pendingIndex0 - 1) {
+					pendingIndex0 = Math.min(pendingIndex0, index0);
+					pendingIndex1 = Math.max(pendingIndex1, index1);
+					return true;
+				}
+				return false;
+		}
+	}
+
+	private void flushPendingChange() {
+		if (pendingType == -1)
+			return;
+
+		ListDataEvent e = new ListDataEvent(this, pendingType, pendingIndex0, pendingIndex1);
+		int type = pendingType;
+		pendingType = -1;
+
+		List<ListDataListener> receivers = new ArrayList<ListDataListener>(listeners.size() + 1);
+		if (cellSizeCache != null)
+			receivers.add(cellSizeCache);
+		receivers.addAll(listeners);
+
+		for (ListDataListener listener : receivers) {
+			switch (type) {
+				case ListDataEvent.INTERVAL_ADDED:
+					listener.intervalAdded(e);
+					break;
+				case ListDataEvent.INTERVAL_REMOVED:
+					listener.intervalRemoved(e);
+					break;
+				default:
+					listener.contentsChanged(e);
+			}
+		}
+	}
+
+	/**
+	 * Notifies the listeners that the element at the given index has changed
+	 * (e.g. one of its properties)
+	 */
+	public void elementChanged(int index) {
+		fireItemsChanged(index, 1);
+	}
+
+	/**
+	 * Notifies the listeners that count elements have been added to the
+	 * shared list at the given index
+	 */
+	public void elementsAdded(int index, int count) {
+		fireItemsAdded(index, count);
+	}
+
+	/**
+	 * Notifies the listeners that count elements have been removed from the
+	 * shared list at the given index
+	 */
+	public void elementsRemoved(int index, int count) {
+		fireItemsRemoved(index, count);
+	}
+
+	// *****************************
+	// java.util.List implementation
+	// *****************************
+
+	@Override
+	public boolean add(Object e) {
+		int startIdx = elements.size();
+		elements.add(e);
+		fireItemsAdded(startIdx, 1);
+		return true;
+	}
+
+	@Override
+	public void add(int index, Object element) {
+		elements.add(index, element);
+		fireItemsAdded(index, 1);
+	}
+
+	@Override
+	public boolean addAll(Collection c) {
+		return addAll(elements.size(), c);
+	}
+
+	@Override
+	public boolean addAll(int index, Collection c) {
+		if (c.isEmpty())
+			return false;
+
+		elements.addAll(index, c);
+		fireItemsAdded(index, c.size());
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		int cnt = elements.size();
+		elements.clear();
+		fireItemsRemoved(0, cnt);
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return elements.contains(o);
+	}
+
+	@Override
+	public boolean containsAll(Collection c) {
+		return elements.containsAll(c);
+	}
+
+	@Override
+	public Object get(int index) {
+		return getElementAt(index);
+	}
+
+	@Override
+	public int indexOf(Object o) {
+		return elements.indexOf(o);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return elements.isEmpty();
+	}
+
+	@Override
+	public Iterator iterator() {
+		return elements.iterator();
+	}
+
+	@Override
+	public int lastIndexOf(Object o) {
+		return elements.lastIndexOf(o);
+	}
+
+	@Override
+	public ListIterator listIterator() {
+		return elements.listIterator();
+	}
+
+	@Override
+	public ListIterator listIterator(int index) {
+		return elements.listIterator(index);
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		int idx = elements.indexOf(o);
+		if (idx > -1) {
+			remove(idx);
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public Object remove(int index) {
+		Object o = elements.remove(index);
+		fireItemsRemoved(index, 1);
+		return o;
+	}
+
+	@Override
+	public boolean removeAll(Collection c) {
+		return removeMatching(c, true);
+	}
+
+	/**
+	 * Removes the elements between fromIdx and toIdx (inclusive)
+	 */
+	public void removeRange(int fromIdx, int toIdx) {
+		if (toIdx < fromIdx)
+			return;
+
+		elements.subList(fromIdx, toIdx + 1).clear();
+		fireItemsRemoved(fromIdx, toIdx - fromIdx + 1);
+	}
+
+	@Override
+	public boolean retainAll(Collection c) {
+		return removeMatching(c, false);
+	}
+
+	/**
+	 * Removes all elements whose containment in c equals remove in a single
+	 * pass and fires one event per contiguous block of removed elements
+	 */
+	private boolean removeMatching(Collection c, boolean remove) {
+		boolean changed = false;
+
+		beginUpdate();
+		try {
+			// iterate backwards so that the indices of pending blocks stay valid
+			int blockEnd = -1;
+			for (int i = elements.size() - 1; i >= -1; i--) {
+				boolean matches = i >= 0 && c.contains(elements.get(i)) == remove;
+				if (matches) {
+					if (blockEnd == -1)
+						blockEnd = i;
+				} else if (blockEnd != -1) {
+					removeRange(i + 1, blockEnd);
+					blockEnd = -1;
+					changed = true;
+				}
+			}
+		} finally {
+			endUpdate();
+		}
+
+		return changed;
+	}
+
+	@Override
+	public Object set(int index, Object element) {
+		Object o = elements.set(index, element);
+		fireItemsChanged(index, 1);
+		return o;
+	}
+
+	@Override
+	public int size() {
+		return getSize();
+	}
+
+	@Override
+	public List subList(int fromIndex, int toIndex) {
+		return elements.subList(fromIndex, toIndex);
+	}
+
+	@Override
+	public Object[] toArray() {
+		return elements.toArray();
+	}
+
+	@Override
+	public Object[] toArray(Object[] a) {
+		return elements.toArray(a);
+	}
+
+}
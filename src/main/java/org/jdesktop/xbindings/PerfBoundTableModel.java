@@ -30,6 +30,10 @@ class PerfBoundTableModel<E> implements TableModel, List<E>, PropertyChangeListe
 
 	List<XColumnBinding> columnBindings = new ArrayList<XColumnBinding>();
 
+	// whether this model registers a PropertyChangeListener with each item
+	// (not necessary when the source list reports element property changes)
+	private boolean observeItems = true;
+
 	public PerfBoundTableModel() {
 
 	}
@@ -157,9 +161,13 @@ class PerfBoundTableModel<E> implements TableModel, List<E>, PropertyChangeListe
 	}
 
 	protected void fireRowItemChanged(int index) {
+		fireRowItemsChanged(index, 1);
+	}
+
+	protected void fireRowItemsChanged(int startIdx, int count) {
 		for (TableModelListener listener : listeners)
-			listener.tableChanged(new TableModelEvent(this, index,
-					index, TableModelEvent.ALL_COLUMNS,
+			listener.tableChanged(new TableModelEvent(this, startIdx,
+					startIdx + count - 1, TableModelEvent.ALL_COLUMNS,
 					TableModelEvent.UPDATE));
 	}
 
@@ -321,6 +329,24 @@ class PerfBoundTableModel<E> implements TableModel, List<E>, PropertyChangeListe
 		return o;
 	}
 
+	/**
+	 * Replaces the elements starting at index with the given elements
+	 * and sends a single update event for the range
+	 */
+	public void setRange(int index, List<? extends E> newElements) {
+		if (newElements.isEmpty())
+			return;
+
+		List<E> range = elements.subList(index, index + newElements.size());
+		for (int i = 0; i < newElements.size(); i++) {
+			removeItemChangeListener(range.get(i));
+			range.set(i, newElements.get(i));
+			addItemChangeListener(newElements.get(i));
+		}
+
+		fireRowItemsChanged(index, newElements.size());
+	}
+
 	@Override
 	public List subList(int fromIndex, int toIndex) {
 		return elements.subList(fromIndex, toIndex);
@@ -343,14 +369,26 @@ class PerfBoundTableModel<E> implements TableModel, List<E>, PropertyChangeListe
 	// register PropertyChangeHandlers for all table items and
 	// invoke a row update when a value of an item is changed
 
+	/**
+	 * Set whether this model listens to the property changes of its items itself.
+	 * Only change this while the model is empty
+	 */
+	public void setObserveItems(boolean observeItems) {
+		this.observeItems = observeItems;
+	}
+
+	public boolean getObserveItems() {
+		return observeItems;
+	}
+
 	protected void addItemChangeListener(Object item) {
-		if (item instanceof XNotifyPropertyChanged) {
+		if (observeItems && item instanceof XNotifyPropertyChanged) {
 			((XNotifyPropertyChanged) item).addPropertyChangeListener(this);
 		}
 	}
 
 	protected void removeItemChangeListener(Object item) {
-		if (item instanceof XNotifyPropertyChanged) {
+		if (observeItems && item instanceof XNotifyPropertyChanged) {
 			((XNotifyPropertyChanged) item).removePropertyChangeListener(this);
 		}
 	}
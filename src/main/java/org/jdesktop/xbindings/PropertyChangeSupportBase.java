@@ -1,7 +1,14 @@
 package org.jdesktop.xbindings;
 
+import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeListenerProxy;
 import java.beans.PropertyChangeSupport;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Default implementation for IPropertyChangeSupport
@@ -19,7 +26,46 @@ public abstract class PropertyChangeSupportBase implements XNotifyPropertyChange
         this.support.removePropertyChangeListener(listener);
     }
 
+    @Override
+    public void addPropertyChangeListener(String propertyName, PropertyChangeListener listener) {
+        this.support.addPropertyChangeListener(propertyName, listener);
+    }
+
+    @Override
+    public void removePropertyChangeListener(String propertyName, PropertyChangeListener listener) {
+        this.support.removePropertyChangeListener(propertyName, listener);
+    }
+
     protected void firePropertyChanged(String propertyName, Object oldValue, Object newValue) {
-        support.firePropertyChange(propertyName, oldValue, newValue);
+        if (propertyName != null) {
+            support.firePropertyChange(propertyName, oldValue, newValue);
+            return;
+        }
+
+        if (oldValue != null && newValue != null && oldValue.equals(newValue)) {
+            return;
+        }
+
+        // a change of all properties also concerns the listeners of single properties,
+        // which PropertyChangeSupport would skip; each of them is notified once, even
+        // if it has been registered for several properties
+        Set<PropertyChangeListener> notified = Collections.newSetFromMap(new IdentityHashMap<PropertyChangeListener, Boolean>());
+        List<PropertyChangeListener> named = new ArrayList<PropertyChangeListener>();
+        for (PropertyChangeListener listener : support.getPropertyChangeListeners()) {
+            if (listener instanceof PropertyChangeListenerProxy) {
+                named.add(((PropertyChangeListenerProxy) listener).getListener());
+            } else {
+                notified.add(listener);
+            }
+        }
+
+        support.firePropertyChange(null, oldValue, newValue);
+
+        PropertyChangeEvent event = new PropertyChangeEvent(this, null, oldValue, newValue);
+        for (PropertyChangeListener listener : named) {
+            if (notified.add(listener)) {
+                listener.propertyChange(event);
+            }
+        }
     }
 }
@@ -9,6 +9,8 @@ public class XBindingOptions {
 
     private boolean enableXProperties = false;
 
+    private boolean enableWeakListeners = false;
+
     /**
      * Returns if the usage of XProperty classes has been enabled
      */
@@ -23,6 +25,28 @@ public class XBindingOptions {
         enableXProperties = value;
     }
 
+    /**
+     * Returns if properties created from now on hold their listeners weakly
+     */
+    public boolean areWeakListenersEnabled() {
+        return enableWeakListeners;
+    }
+
+    /**
+     * Enable or disable holding the listeners of properties weakly, so that
+     * abandoned bindings can be garbage collected.
+     * <p>
+     * A bound {@code AutoBinding} which is not referenced anywhere else
+     * (e.g. by a field or a {@code BindingGroup})
+     * is collected as well and then silently stops synchronizing its
+     * properties. The listeners of collected bindings are removed the next
+     * time any property adds, removes or notifies listeners, until then
+     * they stay registered with the beans.
+     */
+    public void setWeakListenersEnabled(boolean value) {
+        enableWeakListeners = value;
+    }
+
     /**
      * Return the XBindingOptions which are valid in the current context
      */
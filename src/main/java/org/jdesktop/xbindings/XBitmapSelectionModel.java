@@ -0,0 +1,446 @@
+package org.jdesktop.xbindings;
+
+import javax.swing.ListSelectionModel;
+import javax.swing.event.EventListenerList;
+import javax.swing.event.ListSelectionEvent;
+import javax.swing.event.ListSelectionListener;
+
+/**
+ * ListSelectionModel which stores the selected indices as compressed runs
+ * of consecutive indices instead of one bit per row.
+ * Selecting large blocks, counting and iterating the selection and
+ * inserting or removing rows only depend on the number of selected runs
+ * and not on the number of rows, which makes this model suitable for
+ * tables with millions of rows and MULTIPLE_INTERVAL_SELECTION.
+ *
+ * The model behaves like the DefaultListSelectionModel (including anchor
+ * and lead handling). XSelectionBinding uses the runs directly when this
+ * model is installed, e.g. using
+ * {@code table.setSelectionModel(new XBitmapSelectionModel())}
+ */
+public class XBitmapSelectionModel implements ListSelectionModel {
+
+	private IntRunSet value = new IntRunSet();
+
+	private EventListenerList listenerList = new EventListenerList();
+
+	private int selectionMode = MULTIPLE_INTERVAL_SELECTION;
+
+	private int anchorIndex = -1;
+	private int leadIndex = -1;
+
+	private boolean isAdjusting = false;
+
+	// range of indices which changed since the last notification
+	private int firstChangedIndex = Integer.MAX_VALUE;
+	private int lastChangedIndex = -1;
+
+	// range of indices which changed while the value was adjusting
+	private int firstAdjustedIndex = Integer.MAX_VALUE;
+	private int lastAdjustedIndex = -1;
+
+	// *********************
+	// Compressed selection
+	// *********************
+
+	/**
+	 * Return the number of selected indices
+	 */
+	public int getSelectedItemsCount() {
+		return (int) value.cardinality();
+	}
+
+	/**
+	 * Return the selected indices in ascending order
+	 */
+	public int[] getSelectedIndices() {
+		return value.toArray();
+	}
+
+	/**
+	 * Return the number of runs (intervals of consecutive selected indices)
+	 */
+	public int getSelectedRunCount() {
+		return value.getRunCount();
+	}
+
+	/**
+	 * Return the first index of the given run
+	 */
+	public int getSelectedRunStart(int run) {
+		return value.getRunStart(run);
+	}
+
+	/**
+	 * Return the last index (inclusive) of the given run
+	 */
+	public int getSelectedRunEnd(int run) {
+		return value.getRunEnd(run);
+	}
+
+	/**
+	 * Return the first run which ends at or after the given index
+	 * (getSelectedRunCount() if there is none)
+	 */
+	public int findSelectedRun(int index) {
+		return value.firstRunEndingAtOrAfter(index);
+	}
+
+	// ***********************************
+	// ListSelectionModel implementation
+	// ***********************************
+
+	@Override
+	public void setSelectionInterval(int index0, int index1) {
+		if (index0 == -1 || index1 == -1)
+			return;
+
+		if (selectionMode == SINGLE_SELECTION)
+			index0 = index1;
+
+		updateLeadAnchorIndices(index0, index1);
+
+		int oldMin = value.min();
+		int oldMax = value.max();
+		int setMin = Math.min(index0, index1);
+		int setMax = Math.max(index0, index1);
+
+		value.clear();
+		value.add(setMin, setMax);
+
+		if (oldMin != -1)
+			markAsDirty(oldMin, oldMax);
+		markAsDirty(setMin, setMax);
+		fireValueChanged();
+	}
+
+	@Override
+	public void addSelectionInterval(int index0, int index1) {
+		if (index0 == -1 || index1 == -1)
+			return;
+
+		// if we only allow a single selection, enforce it through setSelectionInterval()
+		if (selectionMode == SINGLE_SELECTION) {
+			setSelectionInterval(index0, index1);
+			return;
+		}
+
+		int setMin = Math.min(index0, index1);
+		int setMax = Math.max(index0, index1);
+
+		// the selection must stay a single interval
+		if (selectionMode == SINGLE_INTERVAL_SELECTION && !value.isEmpty()
+				&& (setMax < value.min() - 1 || setMin > value.max() + 1)) {
+			setSelectionInterval(index0, index1);
+			return;
+		}
+
+		updateLeadAnchorIndices(index0, index1);
+
+		value.add(setMin, setMax);
+		markAsDirty(setMin, setMax);
+		fireValueChanged();
+	}
+
+	@Override
+	public void removeSelectionInterval(int index0, int index1) {
+		if (index0 == -1 || index1 == -1)
+			return;
+
+		updateLeadAnchorIndices(index0, index1);
+
+		int clearMin = Math.min(index0, index1);
+		int clearMax = Math.max(index0, index1);
+
+		// removing from the middle of a single interval would split it
+		if (selectionMode != MULTIPLE_INTERVAL_SELECTION && clearMin > value.min() && clearMax < value.max())
+			clearMax = value.max();
+
+		value.remove(clearMin, clearMax);
+		markAsDirty(clearMin, clearMax);
+		fireValueChanged();
+	}
+
+	@Override
+	public int getMinSelectionIndex() {
+		return value.min();
+	}
+
+	@Override
+	public int getMaxSelectionIndex() {
+		return value.max();
+	}
+
+	@Override
+	public boolean isSelectedIndex(int index) {
+		return index >= 0 && value.contains(index);
+	}
+
+	@Override
+	public int getAnchorSelectionIndex() {
+		return anchorIndex;
+	}
+
+	@Override
+	public void setAnchorSelectionIndex(int anchorIndex) {
+		updateLeadAnchorIndices(anchorIndex, leadIndex);
+		fireValueChanged();
+	}
+
+	@Override
+	public int getLeadSelectionIndex() {
+		return leadIndex;
+	}
+
+	@Override
+	public void setLeadSelectionIndex(int newLeadIndex) {
+		int newAnchorIndex = anchorIndex;
+
+		if (newLeadIndex == -1) {
+			if (newAnchorIndex == -1) {
+				updateLeadAnchorIndices(newAnchorIndex, newLeadIndex);
+				fireValueChanged();
+			}
+			return;
+		} else if (newAnchorIndex == -1) {
+			return;
+		}
+
+		if (leadIndex == -1)
+			leadIndex = newLeadIndex;
+
+		boolean shouldSelect = value.contains(anchorIndex);
+
+		if (selectionMode == SINGLE_SELECTION) {
+			newAnchorIndex = newLeadIndex;
+			shouldSelect = true;
+		}
+
+		int oldMin = Math.min(anchorIndex, leadIndex);
+		int oldMax = Math.max(anchorIndex, leadIndex);
+		int newMin = Math.min(newAnchorIndex, newLeadIndex);
+		int newMax = Math.max(newAnchorIndex, newLeadIndex);
+
+		updateLeadAnchorIndices(newAnchorIndex, newLeadIndex);
+
+		// extend (or shrink) the range between anchor and lead
+		if (shouldSelect) {
+			value.remove(oldMin, oldMax);
+			value.add(newMin, newMax);
+		} else {
+			value.add(oldMin, oldMax);
+			value.remove(newMin, newMax);
+		}
+
+		markAsDirty(Math.min(oldMin, newMin), Math.max(oldMax, newMax));
+		fireValueChanged();
+	}
+
+	@Override
+	public void clearSelection() {
+		if (value.isEmpty())
+			return;
+
+		markAsDirty(value.min(), value.max());
+		value.clear();
+		fireValueChanged();
+	}
+
+	@Override
+	public boolean isSelectionEmpty() {
+		return value.isEmpty();
+	}
+
+	@Override
+	public void insertIndexInterval(int index, int length, boolean before) {
+		if (index < 0 || length <= 0)
+			return;
+
+		// the inserted indices get the selection state of index
+		boolean setInsertedValues = selectionMode != SINGLE_SELECTION && value.contains(index);
+
+		int insMinIndex = before ? index : index + 1;
+		int insMaxIndex = insMinIndex + length - 1;
+		int oldMax = value.max();
+
+		value.insertPositions(insMinIndex, length);
+		if (setInsertedValues)
+			value.add(insMinIndex, insMaxIndex);
+
+		int newLeadIndex = leadIndex;
+		if (newLeadIndex > index || (before && newLeadIndex == index))
+			newLeadIndex = leadIndex + length;
+		int newAnchorIndex = anchorIndex;
+		if (newAnchorIndex > index || (before && newAnchorIndex == index))
+			newAnchorIndex = anchorIndex + length;
+		if (newLeadIndex != leadIndex || newAnchorIndex != anchorIndex)
+			updateLeadAnchorIndices(newAnchorIndex, newLeadIndex);
+
+		markAsDirty(insMinIndex, Math.max(insMaxIndex, oldMax + length));
+		fireValueChanged();
+	}
+
+	@Override
+	public void removeIndexInterval(int index0, int index1) {
+		if (index0 < 0 || index1 < 0)
+			return;
+
+		int rmMinIndex = Math.min(index0, index1);
+		int rmMaxIndex = Math.max(index0, index1);
+		int gapLength = rmMaxIndex - rmMinIndex + 1;
+		int oldMax = value.max();
+
+		value.removePositions(rmMinIndex, rmMaxIndex);
+
+		int newLeadIndex = leadIndex;
+		if (newLeadIndex == 0 && rmMinIndex == 0) {
+			// do nothing
+		} else if (newLeadIndex > rmMaxIndex) {
+			newLeadIndex = leadIndex - gapLength;
+		} else if (newLeadIndex >= rmMinIndex) {
+			newLeadIndex = rmMinIndex - 1;
+		}
+
+		int newAnchorIndex = anchorIndex;
+		if (newAnchorIndex == 0 && rmMinIndex == 0) {
+			// do nothing
+		} else if (newAnchorIndex > rmMaxIndex) {
+			newAnchorIndex = anchorIndex - gapLength;
+		} else if (newAnchorIndex >= rmMinIndex) {
+			newAnchorIndex = rmMinIndex - 1;
+		}
+
+		if (newLeadIndex != leadIndex || newAnchorIndex != anchorIndex)
+			updateLeadAnchorIndices(newAnchorIndex, newLeadIndex);
+
+		if (oldMax >= rmMinIndex)
+			markAsDirty(rmMinIndex, oldMax);
+		fireValueChanged();
+	}
+
+	@Override
+	public void setValueIsAdjusting(boolean valueIsAdjusting) {
+		if (valueIsAdjusting != isAdjusting) {
+			isAdjusting = valueIsAdjusting;
+			fireValueChanged(valueIsAdjusting);
+		}
+	}
+
+	@Override
+	public boolean getValueIsAdjusting() {
+		return isAdjusting;
+	}
+
+	@Override
+	public void setSelectionMode(int selectionMode) {
+		switch (selectionMode) {
+			case SINGLE_SELECTION:
+			case SINGLE_INTERVAL_SELECTION:
+			case MULTIPLE_INTERVAL_SELECTION:
+				this.selectionMode = selectionMode;
+				break;
+			default:
+				throw new IllegalArgumentException("invalid selectionMode");
+		}
+	}
+
+	@Override
+	public int getSelectionMode() {
+		return selectionMode;
+	}
+
+	@Override
+	public void addListSelectionListener(ListSelectionListener l) {
+		listenerList.add(ListSelectionListener.class, l);
+	}
+
+	@Override
+	public void removeListSelectionListener(ListSelectionListener l) {
+		listenerList.remove(ListSelectionListener.class, l);
+	}
+
+	public ListSelectionListener[] getListSelectionListeners() {
+		return listenerList.getListeners(ListSelectionListener.class);
+	}
+
+	// **********
+	// Internals
+	// **********
+
+	private void updateLeadAnchorIndices(int newAnchorIndex, int newLeadIndex) {
+		if (anchorIndex != newAnchorIndex) {
+			expandDirty(anchorIndex);
+			expandDirty(newAnchorIndex);
+			anchorIndex = newAnchorIndex;
+		}
+
+		if (leadIndex != newLeadIndex) {
+			expandDirty(leadIndex);
+			expandDirty(newLeadIndex);
+			leadIndex = newLeadIndex;
+		}
+	}
+
+	private void expandDirty(int index) {
+		if (index != -1)
+			markAsDirty(index, index);
+	}
+
+	private void markAsDirty(int index0, int index1) {
+		firstChangedIndex = Math.min(firstChangedIndex, index0);
+		lastChangedIndex = Math.max(lastChangedIndex, index1);
+	}
+
+	private void fireValueChanged() {
+		if (lastChangedIndex == -1)
+			return;
+
+		// remember the changed range for the final event after adjusting
+		int first = firstChangedIndex;
+		int last = lastChangedIndex;
+		firstChangedIndex = Integer.MAX_VALUE;
+		lastChangedIndex = -1;
+
+		if (isAdjusting) {
+			firstAdjustedIndex = Math.min(firstAdjustedIndex, first);
+			lastAdjustedIndex = Math.max(lastAdjustedIndex, last);
+		}
+
+		fireValueChanged(first, last, isAdjusting);
+	}
+
+	private void fireValueChanged(boolean isAdjusting) {
+		if (lastChangedIndex != -1) {
+			// include pending changes which have not been sent yet
+			firstAdjustedIndex = Math.min(firstAdjustedIndex, firstChangedIndex);
+			lastAdjustedIndex = Math.max(lastAdjustedIndex, lastChangedIndex);
+			firstChangedIndex = Integer.MAX_VALUE;
+			lastChangedIndex = -1;
+		}
+
+		if (lastAdjustedIndex == -1)
+			return;
+
+		int first = firstAdjustedIndex;
+		int last = lastAdjustedIndex;
+		if (!isAdjusting) {
+			firstAdjustedIndex = Integer.MAX_VALUE;
+			lastAdjustedIndex = -1;
+		}
+
+		fireValueChanged(first, last, isAdjusting);
+	}
+
+	private void fireValueChanged(int firstIndex, int lastIndex, boolean isAdjusting) {
+		Object[] listeners = listenerList.getListenerList();
+		ListSelectionEvent e = null;
+
+		for (int i = listeners.length - 2; i >= 0; i -= 2) {
+			if (listeners[i] == ListSelectionListener.class) {
+				if (e == null)
+					e = new ListSelectionEvent(this, firstIndex, lastIndex, isAdjusting);
+				((ListSelectionListener) listeners[i + 1]).valueChanged(e);
+			}
+		}
+	}
+}
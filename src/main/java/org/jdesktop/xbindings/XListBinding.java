@@ -1,20 +1,14 @@
 package org.jdesktop.xbindings;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Iterator;
 import java.util.List;
-import java.util.ListIterator;
 
-import javax.swing.DefaultListModel;
 import javax.swing.JList;
-import javax.swing.ListModel;
-import javax.swing.ListSelectionModel;
-import javax.swing.event.ListDataEvent;
-import javax.swing.event.ListDataListener;
+import javax.swing.ListCellRenderer;
 
-import org.jdesktop.beansbinding.BeanProperty;
+import org.jdesktop.observablecollections.ListChangeSet;
 import org.jdesktop.observablecollections.ObservableList;
+import org.jdesktop.observablecollections.ObservableListChangeListener;
 import org.jdesktop.observablecollections.ObservableListListener;
 
 /**
@@ -23,16 +17,26 @@ import org.jdesktop.observablecollections.ObservableListListener;
  *
  */
 @SuppressWarnings({ "rawtypes", "unchecked" })
-public class XListBinding implements XBinding, ObservableListListener {
+public class XListBinding implements XBinding, ObservableListListener, ObservableListChangeListener {
 
 	ObservableList sourceList;
 
 	PerfBoundListModel listModel;
+
+	// the shared model of the last binding, which bind() reuses if possible
+	PerfBoundListModel detachedModel;
 	JList targetList;
+
+	// if true, the list model reads directly from the sourceList instead of keeping a copy
+	boolean shareSourceList;
+
+	// caches the cell sizes of the targetList (if enabled)
+	XListCellSizeCache cellSizeCache;
 	
-	private XListBinding(ObservableList _sourceList, JList _targetList) {
+	private XListBinding(ObservableList _sourceList, JList _targetList, boolean _shareSourceList) {
 		sourceList = _sourceList;
 		targetList = _targetList;
+		shareSourceList = _shareSourceList;
 
 		bind();		
 	}
@@ -65,7 +69,21 @@ public class XListBinding implements XBinding, ObservableListListener {
 	public static XListBinding createJListBinding(ObservableList _sourceList,
 			JList _targetList) {
 
-		XListBinding xbnd = new XListBinding(_sourceList, _targetList);
+		return createJListBinding(_sourceList, _targetList, false);
+	}
+
+	/**
+	 * Create a new list binding for the given JList
+	 * @param _sourceList The list which holds the items
+	 * @param _targetList The JList whose item source shall be bound
+	 * @param _shareSourceList If true, the JList's model reads directly from the source list
+	 *  instead of keeping a copy of it. The source list must then only be changed on the EDT
+	 * @return
+	 */
+	public static XListBinding createJListBinding(ObservableList _sourceList,
+			JList _targetList, boolean _shareSourceList) {
+
+		XListBinding xbnd = new XListBinding(_sourceList, _targetList, _shareSourceList);
 
 		return xbnd;
 	}
@@ -78,14 +96,31 @@ public class XListBinding implements XBinding, ObservableListListener {
 	public void bind() {
 		sourceList.addObservableListListener(this);
 
-		listModel = new PerfBoundListModel();
-		listModel.addAll(sourceList);
+		if (shareSourceList) {
+			// the model of the last binding still reads from the source list
+			// unless the source list has changed since then
+			if (detachedModel != null && targetList.getModel() == detachedModel && detachedModel.reattach())
+				listModel = detachedModel;
+			else
+				listModel = new PerfBoundListModel(sourceList);
+			detachedModel = null;
+		} else {
+			listModel = new PerfBoundListModel();
+			listModel.addAll(sourceList);
+		}
+		listModel.setCellSizeCache(cellSizeCache);
 		targetList.setModel(listModel);
 	}
 
 	@Override
 	public void unbind() {
-		sourceList.removeObservableListListener(this);		
+		sourceList.removeObservableListListener(this);
+		// the JList keeps showing the last state of the source list
+		if (listModel != null) {
+			listModel.detach();
+			if (listModel.isShared())
+				detachedModel = listModel;
+		}
 		listModel = null;
 	}
 
@@ -93,6 +128,71 @@ public class XListBinding implements XBinding, ObservableListListener {
 	public boolean isBound() {
 		return listModel != null && targetList.getModel() == listModel;
 	}
+
+	/**
+	 * Wraps the cell renderer of the target JList so that the preferred size
+	 * of each cell is only measured once and again after the element of the row
+	 * has been changed. Use this for lists with variable row heights
+	 * @return The installed cell size cache
+	 */
+	public XListCellSizeCache enableCellSizeCache() {
+		if (cellSizeCache == null) {
+			ListCellRenderer renderer = targetList.getCellRenderer();
+			cellSizeCache = renderer == null ? new XListCellSizeCache() : new XListCellSizeCache(renderer);
+			// the cache has to be filled before the JList queries any cell size
+			if (listModel != null)
+				listModel.setCellSizeCache(cellSizeCache);
+			targetList.setCellRenderer(cellSizeCache);
+			cellSizeCache.install(targetList);
+		}
+
+		return cellSizeCache;
+	}
+
+	/**
+	 * Removes the cell size cache (if enabled) and restores the
+	 * original cell renderer of the target JList
+	 */
+	public void disableCellSizeCache() {
+		if (cellSizeCache != null) {
+			cellSizeCache.uninstall(targetList);
+			if (listModel != null)
+				listModel.setCellSizeCache(null);
+			if (targetList.getCellRenderer() == cellSizeCache)
+				targetList.setCellRenderer(cellSizeCache.getDelegate());
+			cellSizeCache = null;
+		}
+	}
+
+	/**
+	 * Lets the target JList use the size of the given prototype value for all cells,
+	 * so that no cell has to be measured when the list changes
+	 * (use this instead of the cell size cache when all rows have the same height)
+	 * @param prototypeCellValue The value whose rendered size is used for all cells or null to measure each cell
+	 */
+	public void setFixedCellSize(Object prototypeCellValue) {
+		if (prototypeCellValue != null)
+			disableCellSizeCache();
+
+		targetList.setPrototypeCellValue(prototypeCellValue);
+	}
+
+	/**
+	 * Starts a burst of source list changes. Adjacent changes until the
+	 * matching endUpdate() are sent to the JList as a single ListDataEvent
+	 */
+	public void beginUpdate() {
+		if (listModel != null)
+			listModel.beginUpdate();
+	}
+
+	/**
+	 * Ends a burst of source list changes started with beginUpdate()
+	 */
+	public void endUpdate() {
+		if (listModel != null && listModel.isUpdating())
+			listModel.endUpdate();
+	}
 	
 	// ************************************
 	// List changed listener implementation
@@ -100,239 +200,86 @@ public class XListBinding implements XBinding, ObservableListListener {
 
 	@Override
 	public void listElementPropertyChanged(ObservableList lst, int idx) {
-		// currently not supported
+		listModel.elementChanged(idx);
 	}
 
 	@Override
 	public void listElementReplaced(ObservableList lst, int idx, Object element) {
-		// currently not supported
-
+		if (listModel.isShared())
+			listModel.elementChanged(idx);
+		else
+			listModel.set(idx, sourceList.get(idx));
 	}
 
 	@Override
 	public void listElementsAdded(ObservableList lst, int startIdx, int count) {
-		if (startIdx >= listModel.size())
-		{
-			listModel.addAll(sourceList.subList(startIdx, startIdx + count));
-		} else
-		{
-			listModel.addAll(startIdx, sourceList.subList(startIdx, startIdx + count - 1));
-		}
+		if (listModel.isShared())
+			listModel.elementsAdded(startIdx, count);
+		else
+			listModel.addAll(startIdx, sourceList.subList(startIdx, startIdx + count));
 	}
 
 	@Override
 	public void listElementsRemoved(ObservableList lst, int idx, List elements) {
-		listModel.removeRange(idx, idx + elements.size() - 1);
+		if (listModel.isShared())
+			listModel.elementsRemoved(idx, elements.size());
+		else
+			listModel.removeRange(idx, idx + elements.size() - 1);
 	}
 
-	/**
-	 * The ListModel which is used by the bound JList
-	 * @author berre
-	 *
-	 */
-	private class PerfBoundListModel implements ListModel, java.util.List {
-
-		protected List<Object> elements = new ArrayList<Object>();
-
-		protected List<ListDataListener> listeners = new ArrayList<ListDataListener>();
-
-		// ************************
-		// ListModel implementation
-		// ************************
-		
-		@Override
-		public Object getElementAt(int index) {
-			return elements.get(index);
-		}
-
-		@Override
-		public int getSize() {
-			return elements.size();
-		}
-
-		@Override
-		public void addListDataListener(ListDataListener listener) {
-			if (!listeners.contains(listener))
-				listeners.add(listener);
-		}
-
-		@Override
-		public void removeListDataListener(ListDataListener listener) {
-			listeners.remove(listener);
-		}
-
-		protected void fireItemsAdded(int startIdx, int count) {
-			for(ListDataListener listener: listeners)
-				listener.intervalAdded(new ListDataEvent(this, ListDataEvent.INTERVAL_ADDED, startIdx, startIdx + count - 1));
-		}
-
-		protected void fireItemsRemoved(int startIdx, int count) {
-			for(ListDataListener listener: listeners)
-				listener.intervalAdded(new ListDataEvent(this, ListDataEvent.INTERVAL_REMOVED, startIdx, startIdx + count - 1));
-		}
-
-		// *****************************
-		// java.util.List implementation
-		// *****************************
-
-		@Override
-		public boolean add(Object e) {
-			int startIdx = elements.size();
-			elements.add(e);
-			fireItemsAdded(startIdx, 1);
-			return true;
-		}
-
-		@Override
-		public void add(int index, Object element) {
-			elements.add(index, element);
-			fireItemsAdded(index, 1);
-		}
-
-		@Override
-		public boolean addAll(Collection c) {
-			int startIdx = elements.size();
-			elements.addAll(c);
-			fireItemsAdded(startIdx, c.size());
-			return true;
-		}
-
-		@Override
-		public boolean addAll(int index, Collection c) {
-			elements.addAll(index, c);
-			fireItemsAdded(index, c.size());
-			return true;
-		}
-
-		@Override
-		public void clear() {
-			int cnt = elements.size();
-			elements.clear();
-			fireItemsRemoved(0, cnt);
-		}
-
-		@Override
-		public boolean contains(Object o) {
-			return elements.contains(o);
-		}
-
-		@Override
-		public boolean containsAll(Collection c) {
-			return elements.containsAll(c);
-		}
-
-		@Override
-		public Object get(int index) {
-			return getElementAt(index);
-		}
-
-		@Override
-		public int indexOf(Object o) {
-			return elements.indexOf(o);
-		}
-
-		@Override
-		public boolean isEmpty() {
-			return elements.isEmpty();
-		}
-
-		@Override
-		public Iterator iterator() {
-			return elements.iterator();
-		}
-
-		@Override
-		public int lastIndexOf(Object o) {
-			return elements.lastIndexOf(o);
-		}
-
-		@Override
-		public ListIterator listIterator() {
-			return elements.listIterator();
-		}
-
-		@Override
-		public ListIterator listIterator(int index) {
-			return elements.listIterator(index);
-		}
-
-		@Override
-		public boolean remove(Object o) {
-			int idx = elements.indexOf(o);
-			if (idx > -1) {
-				elements.remove(idx);
-				return true;
-			}
-			return false;
-		}
-
-		@Override
-		public Object remove(int index) {
-			Object o = elements.get(index);
-			elements.remove(index);
-			fireItemsRemoved(index, 1);
-			return o;
-		}
-
-		@Override
-		public boolean removeAll(Collection c) {
-			// TODO: solution with better performance?
-			for(Object o: c)
-				remove(o);
-			return true;
-		}
-
-		public void removeRange(int fromIdx, int toIdx) {
-			elements.subList(fromIdx, toIdx + 1).clear();
-			fireItemsRemoved(fromIdx, toIdx - fromIdx + 1);
-		}
-
-		@Override
-		public boolean retainAll(Collection c) {
-			// TODO: solution with better performance?
-			
-			// find the elements to remove (elements not in c)
-			int diff = Math.max(0, this.size() - c.size());			
-			List<Object> rem =  new ArrayList<Object>(diff);
-			for(Object o: elements) {
-				if (!c.contains(o))
-					rem.add(o);
+	@Override
+	public void listChanged(ObservableList lst, ListChangeSet changes) {
+		// adjacent changes are sent to the JList as one ListDataEvent
+		listModel.beginUpdate();
+		try {
+			for (ListChangeSet.Change change : changes.getChanges()) {
+				int idx = change.getIndex();
+				int count = change.getLength();
+
+				switch (change.getType()) {
+					case ADDED:
+						if (listModel.isShared())
+							listModel.elementsAdded(idx, count);
+						else
+							listModel.addAll(idx, change.getNewElements());
+						break;
+					case REMOVED:
+						if (listModel.isShared())
+							listModel.elementsRemoved(idx, count);
+						else
+							listModel.removeRange(idx, idx + count - 1);
+						break;
+					case REPLACED:
+						for (int i = 0; i < count; i++) {
+							if (listModel.isShared())
+								listModel.elementChanged(idx + i);
+							else
+								listModel.set(idx + i, change.getNewElements().get(i));
+						}
+						break;
+					case PERMUTED:
+						// the rows of the range only show other elements, the selection
+						// binding moves the selection along with the elements
+						if (listModel.isShared()) {
+							for (int i = 0; i < count; i++)
+								listModel.elementChanged(idx + i);
+						} else {
+							List reordered = new ArrayList(listModel.subList(idx, idx + count));
+							int[] permutation = change.getPermutation();
+							for (int i = 0; i < count; i++)
+								reordered.set(permutation[i], listModel.get(idx + i));
+							for (int i = 0; i < count; i++)
+								listModel.set(idx + i, reordered.get(i));
+						}
+						break;
+					default:
+						for (int i = 0; i < count; i++)
+							listModel.elementChanged(idx + i);
+				}
 			}
-			
-			if (rem.size() > 0) {
-				this.removeAll(rem);
-				return true;	
-			} else
-				return false;
-		}
-
-		@Override
-		public Object set(int index, Object element) {
-			Object o = elements.get(index);
-			elements.set(index, element);
-			return o;
+		} finally {
+			listModel.endUpdate();
 		}
-
-		@Override
-		public int size() {
-			return getSize();
-		}
-
-		@Override
-		public List subList(int fromIndex, int toIndex) {
-			return elements.subList(fromIndex, toIndex);
-		}
-
-		@Override
-		public Object[] toArray() {
-			return elements.toArray();
-		}
-
-		@Override
-		public Object[] toArray(Object[] a) {
-			return elements.toArray(a);
-		}
-
 	}
 
 }
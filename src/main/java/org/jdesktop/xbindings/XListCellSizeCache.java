@@ -0,0 +1,270 @@
+package org.jdesktop.xbindings;
+
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.MouseEvent;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.swing.CellRendererPane;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.JComponent;
+import javax.swing.JList;
+import javax.swing.ListCellRenderer;
+import javax.swing.ListModel;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
+/**
+ * ListCellRenderer which wraps another renderer and caches the preferred size
+ * of each row, so that a JList with variable row heights does not have to
+ * measure every cell again whenever the list model changes.
+ * The cached sizes are kept in sync with the row indices by listening
+ * to the ListDataEvents of the list model: only rows which have been
+ * added or changed are measured again.
+ *
+ * For a row whose size is cached the wrapped renderer is not called when the
+ * JList lays out its cells, it is only asked for the component once the cell
+ * is actually painted.
+ *
+ * The cached size does not depend on the selection or focus state of a row,
+ * so the wrapped renderer should not change its size for selected rows.
+ * Once installed on a JList (see install()), all sizes are measured again
+ * when its font, cell renderer, fixed cell size or width changes.
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class XListCellSizeCache implements ListCellRenderer, ListDataListener {
+
+	// the renderer which actually renders the cells
+	private ListCellRenderer delegate;
+
+	// the cached preferred size for each row (null if not measured yet)
+	private List<Dimension> sizes = new ArrayList<Dimension>();
+
+	// handed out for rows whose size is cached
+	private final CachedCell cachedCell = new CachedCell();
+
+	// discards the cached sizes when the list changes how cells are measured
+	private final ListChangeHandler listChangeHandler = new ListChangeHandler();
+
+	/**
+	 * Create a new cell size cache which uses a DefaultListCellRenderer
+	 */
+	public XListCellSizeCache() {
+		this(new DefaultListCellRenderer());
+	}
+
+	/**
+	 * Create a new cell size cache which wraps the given renderer
+	 * @param delegate The renderer to use for the cells
+	 */
+	public XListCellSizeCache(ListCellRenderer delegate) {
+		if (delegate == null)
+			throw new IllegalArgumentException("Parameter delegate must not be null");
+
+		this.delegate = delegate;
+	}
+
+	/**
+	 * Return the renderer which is wrapped by this cache
+	 */
+	public ListCellRenderer getDelegate() {
+		return delegate;
+	}
+
+	/**
+	 * Discard all cached sizes whenever the font, cell renderer or fixed
+	 * cell size of the given list or its width changes
+	 */
+	public void install(JList list) {
+		list.addPropertyChangeListener(listChangeHandler);
+		list.addComponentListener(listChangeHandler);
+		listChangeHandler.width = list.getWidth();
+	}
+
+	/**
+	 * Stop watching the given list (see install())
+	 */
+	public void uninstall(JList list) {
+		list.removePropertyChangeListener(listChangeHandler);
+		list.removeComponentListener(listChangeHandler);
+	}
+
+	/**
+	 * Discard all cached sizes and prepare the cache for a model with
+	 * the given number of rows
+	 */
+	public void invalidateAll(int rowCount) {
+		sizes = new ArrayList<Dimension>(Collections.nCopies(rowCount, (Dimension) null));
+	}
+
+	/**
+	 * Discard the cached sizes of the rows between index0 and index1 (inclusive)
+	 */
+	public void invalidate(int index0, int index1) {
+		int end = Math.min(index1, sizes.size() - 1);
+		for (int i = Math.max(0, index0); i <= end; i++)
+			sizes.set(i, null);
+	}
+
+	/**
+	 * Return whether the size of the given row is currently cached
+	 */
+	public boolean isCached(int index) {
+		return index >= 0 && index < sizes.size() && sizes.get(index) != null;
+	}
+
+	/**
+	 * Return the number of rows the cache currently tracks
+	 */
+	public int getRowCount() {
+		return sizes.size();
+	}
+
+	// ********************************
+	// ListCellRenderer implementation
+	// ********************************
+
+	@Override
+	public Component getListCellRendererComponent(JList list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+		boolean tracked = index >= 0 && index < sizes.size();
+
+		if (tracked && sizes.get(index) != null) {
+			cachedCell.prepare(list, value, index, isSelected, cellHasFocus, sizes.get(index));
+			return cachedCell;
+		}
+
+		Component c = delegate.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+
+		if (tracked)
+			sizes.set(index, new Dimension(c.getPreferredSize()));
+
+		return c;
+	}
+
+	/**
+	 * Reports the cached size of a cell and only calls the wrapped renderer
+	 * when the cell is painted or its tooltip is requested
+	 */
+	private class CachedCell extends JComponent {
+
+		private static final long serialVersionUID = 1L;
+
+		private final CellRendererPane rendererPane = new CellRendererPane();
+
+		private JList list;
+		private Object value;
+		private int index;
+		private boolean isSelected;
+		private boolean cellHasFocus;
+		private Dimension size;
+
+		CachedCell() {
+			add(rendererPane);
+		}
+
+		void prepare(JList list, Object value, int index, boolean isSelected, boolean cellHasFocus, Dimension size) {
+			this.list = list;
+			this.value = value;
+			this.index = index;
+			this.isSelected = isSelected;
+			this.cellHasFocus = cellHasFocus;
+			this.size = size;
+		}
+
+		private Component getRendererComponent() {
+			return delegate.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+		}
+
+		@Override
+		public Dimension getPreferredSize() {
+			return new Dimension(size);
+		}
+
+		@Override
+		public void paint(Graphics g) {
+			rendererPane.paintComponent(g, getRendererComponent(), this, 0, 0, getWidth(), getHeight(), true);
+		}
+
+		@Override
+		public String getToolTipText(MouseEvent event) {
+			Component c = getRendererComponent();
+			if (!(c instanceof JComponent))
+				return null;
+
+			c.setBounds(getBounds());
+			return ((JComponent) c).getToolTipText(new MouseEvent(c, event.getID(), event.getWhen(),
+					event.getModifiers(), event.getX(), event.getY(), event.getClickCount(), event.isPopupTrigger()));
+		}
+	}
+
+	/**
+	 * Listens to the changes of the JList which change the size of its cells
+	 */
+	private class ListChangeHandler extends ComponentAdapter implements PropertyChangeListener {
+
+		private int width;
+
+		@Override
+		public void propertyChange(PropertyChangeEvent evt) {
+			switch (evt.getPropertyName()) {
+				case "font":
+				case "cellRenderer":
+				case "fixedCellWidth":
+				case "fixedCellHeight":
+					invalidateAll(sizes.size());
+					break;
+				default:
+					break;
+			}
+		}
+
+		@Override
+		public void componentResized(ComponentEvent e) {
+			int newWidth = e.getComponent().getWidth();
+			if (newWidth != width) {
+				width = newWidth;
+				invalidateAll(sizes.size());
+			}
+		}
+	}
+
+	// ********************************
+	// ListDataListener implementation
+	// ********************************
+
+	@Override
+	public void intervalAdded(ListDataEvent e) {
+		int index = Math.min(e.getIndex0(), e.getIndex1());
+		int count = Math.abs(e.getIndex1() - e.getIndex0()) + 1;
+
+		if (index > sizes.size())
+			index = sizes.size();
+
+		sizes.addAll(index, Collections.nCopies(count, (Dimension) null));
+	}
+
+	@Override
+	public void intervalRemoved(ListDataEvent e) {
+		int index0 = Math.min(e.getIndex0(), e.getIndex1());
+		int index1 = Math.min(Math.max(e.getIndex0(), e.getIndex1()), sizes.size() - 1);
+
+		if (index0 <= index1)
+			sizes.subList(index0, index1 + 1).clear();
+	}
+
+	@Override
+	public void contentsChanged(ListDataEvent e) {
+		if (e.getIndex0() < 0 || e.getIndex1() < 0) {
+			// the whole model changed
+			invalidateAll(e.getSource() instanceof ListModel ? ((ListModel) e.getSource()).getSize() : sizes.size());
+		} else
+			invalidate(Math.min(e.getIndex0(), e.getIndex1()), Math.max(e.getIndex0(), e.getIndex1()));
+	}
+}
@@ -23,4 +23,25 @@ public interface XNotifyPropertyChanged {
 	 */
     public void removePropertyChangeListener(PropertyChangeListener listener);
 
+	/**
+	 * Register the given property change listener for a single property.
+	 * Beans which keep listeners per property should override this, so that
+	 * changes of other properties are not sent to the listener.
+	 * By default the listener is registered for all properties
+	 * @param propertyName
+	 * @param listener
+	 */
+	public default void addPropertyChangeListener(String propertyName, PropertyChangeListener listener) {
+		addPropertyChangeListener(listener);
+	}
+
+	/**
+	 * Remove a property change listener which has been registered for a single property
+	 * @param propertyName
+	 * @param listener
+	 */
+	public default void removePropertyChangeListener(String propertyName, PropertyChangeListener listener) {
+		removePropertyChangeListener(listener);
+	}
+
 }
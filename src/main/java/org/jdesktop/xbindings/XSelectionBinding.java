@@ -1,7 +1,15 @@
 package org.jdesktop.xbindings;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
 
 import javax.swing.*;
 import javax.swing.event.ListSelectionEvent;
@@ -11,7 +19,9 @@ import org.jdesktop.beansbinding.BeanProperty;
 import org.jdesktop.beansbinding.PropertyHelper;
 import org.jdesktop.beansbinding.PropertyStateEvent;
 import org.jdesktop.beansbinding.PropertyStateListener;
+import org.jdesktop.observablecollections.ListChangeSet;
 import org.jdesktop.observablecollections.ObservableList;
+import org.jdesktop.observablecollections.ObservableListBatchListener;
 import org.jdesktop.observablecollections.ObservableListListener;
 import org.jdesktop.xbindings.context.BeansDataContext;
 import org.jdesktop.xbindings.context.DataContext;
@@ -125,7 +135,8 @@ public abstract class XSelectionBinding implements XBinding {
 	
 	/**
 	 * Two-way binds the selected (row) elements (multiple selection) of the given JTable
-	 * to selectedItemsList
+	 * to selectedItemsList. For large tables, install an XBitmapSelectionModel on the
+	 * table first, so that selection changes are compared run by run
 	 * @param sourceList The source list (containing all elements)
 	 * @param selectedItemsList The list which should be synchronized with the selected items
 	 * @param table The target JTable whose selection shall be bound
@@ -162,10 +173,29 @@ public abstract class XSelectionBinding implements XBinding {
 	// contains the objects from the source list (because of Converters etc.)
 	// so unfortunately, we have to sync using indices
 	
+	/**
+	 * Convert the given (view) index of the target to the index in the source list
+	 */
+	protected int convertIndexToSource(int index) {
+		return index;
+	}
+
+	/**
+	 * Convert the given index of the source list to the (view) index of the target
+	 */
+	protected int convertIndexToView(int sourceIndex) {
+		return sourceIndex;
+	}
+
 	/**
 	 * Return the element of the source list for the given (view) index
 	 */
 	protected Object getSourceElementForIndex(int index) {
+		if (index < 0)
+			return null;
+
+		index = convertIndexToSource(index);
+
 		if (index < 0 || index >= getSourceList().size())
 			return null;
 
@@ -179,7 +209,59 @@ public abstract class XSelectionBinding implements XBinding {
 		if (element == null)
 			return -1;
 
-		return getSourceList().indexOf(element);
+		int idx = getSourceList().indexOf(element);
+		if (idx == -1)
+			return -1;
+
+		return convertIndexToView(idx);
+	}
+
+	/**
+	 * Return the (view) indices of the given elements of the source list
+	 * (elements which are not part of the source list are skipped)
+	 */
+	protected int[] getIndicesForElements(Collection elements) {
+		int[] indices = new int[elements.size()];
+		int count = 0;
+
+		if (elements.size() <= 2) {
+			for (Object element : elements) {
+				int idx = getIndexForElement(element);
+				if (idx > -1)
+					indices[count++] = idx;
+			}
+		} else {
+			// search the source list once for all elements (instead of once
+			// per element) and stop as soon as every element has been found
+			Map<Object, Integer> positions = new IdentityHashMap<Object, Integer>(elements.size());
+			for (Object element : elements) {
+				if (element != null)
+					positions.put(element, -1);
+			}
+
+			List sourceList = getSourceList();
+			int remaining = positions.size();
+			for (int i = 0; i < sourceList.size() && remaining > 0; i++) {
+				Object element = sourceList.get(i);
+				Integer position = positions.get(element);
+				if (position != null && position == -1) {
+					positions.put(element, i);
+					remaining--;
+				}
+			}
+
+			for (Object element : elements) {
+				if (element == null)
+					continue;
+
+				int sourceIdx = positions.get(element);
+				int idx = sourceIdx > -1 ? convertIndexToView(sourceIdx) : getIndexForElement(element);
+				if (idx > -1)
+					indices[count++] = idx;
+			}
+		}
+
+		return count == indices.length ? indices : Arrays.copyOf(indices, count);
 	}
 }
 
@@ -203,28 +285,18 @@ class XTableMultiSelectionBinding extends XMultiSelectionBinding {
 	}
 	
 	@Override
-	protected Object getSourceElementForIndex(int index) {
-		if (index == -1)
-			return null;
-
-		index = targetTable.convertRowIndexToModel(index);
-
-		if (index < 0 || index >= getSourceList().size())
-			return null;
-
-		return getSourceList().get(index);
+	protected int convertIndexToSource(int index) {
+		return targetTable.convertRowIndexToModel(index);
 	}
 
 	@Override
-	protected int getIndexForElement(Object element) {
-		if (element == null)
-			return -1;
-
-		int idx = getSourceList().indexOf(element);
-		if (idx == -1)
-			return -1;
+	protected int convertIndexToView(int sourceIndex) {
+		return targetTable.convertRowIndexToView(sourceIndex);
+	}
 
-		return targetTable.convertRowIndexToModel(idx);
+	@Override
+	protected int getViewRowCount() {
+		return targetTable.getRowCount();
 	}
 }
 
@@ -239,12 +311,24 @@ class XMultiSelectionBinding extends XSelectionBinding {
 	ObservableList selectedItemsList;
 	ObservableListListener selectedItemsListListener;
 
+	// the items which are currently contained in selectedItemsList (by identity)
+	protected Set<Object> selectedItems = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+
 	// true, if currently an update from target -> source is carried out
 	protected boolean isAdjustingSource = false;
 
 	// true, if currently an update from source -> target is carried out
 	protected boolean isAdjustingTarget = false;	
 
+	// the source list whose removals and replacements are tracked (if it is an ObservableList)
+	protected ObservableList observedSourceList;
+	protected ObservableListListener sourceListListener;
+	protected PropertyStateListener sourceListContextListener;
+
+	// true, if the selection has to be compared as a whole on the next selection event
+	// (the source list has been exchanged)
+	protected boolean fullUpdatePending = true;
+
 	protected XMultiSelectionBinding(DataContext sourceListContext, ObservableList selectedItemsList, ListSelectionModel targetSelectionModel) {
 		super(sourceListContext, targetSelectionModel);
 		
@@ -263,16 +347,7 @@ class XMultiSelectionBinding extends XSelectionBinding {
 					try {
 						isAdjustingSource = true;
 						// update source list
-						
-						selectedItemsList.clear();
-						
-						List newSelection = new ArrayList();
-						for(int idx = targetSelectionModel.getMinSelectionIndex(); idx <= targetSelectionModel.getMaxSelectionIndex(); idx++)
-							if (targetSelectionModel.isSelectedIndex(idx))
-								newSelection.add(getSourceElementForIndex(idx));
-							
-						selectedItemsList.addAll(newSelection);
-
+						updateSelectedItemsList(e.getFirstIndex(), e.getLastIndex());
 					} finally {
 						isAdjustingSource = false;
 					}
@@ -286,11 +361,10 @@ class XMultiSelectionBinding extends XSelectionBinding {
 				if (!isAdjustingSource) {
 					try {
 						isAdjustingTarget = true;
-						
-						for(int i = index; i < index+length; i++) {
-							int selIndex = getIndexForElement(list.get(i));
-							targetSelectionModel.addSelectionInterval(selIndex, selIndex);
-						}							
+
+						List added = list.subList(index, index + length);
+						selectedItems.addAll(added);
+						setTargetSelection(getIndicesForElements(added), true);
 					} finally {
 						isAdjustingTarget = false;
 					}
@@ -303,11 +377,12 @@ class XMultiSelectionBinding extends XSelectionBinding {
 				if (!isAdjustingSource) {
 					try {
 						isAdjustingTarget = true;
-						
-						for(Object element: oldElements) {
-							int selIndex = getIndexForElement(element);
-							targetSelectionModel.removeSelectionInterval(selIndex, selIndex);
-						}							
+
+						selectedItems.removeAll(oldElements);
+						if (list.isEmpty())
+							targetSelectionModel.clearSelection();
+						else
+							setTargetSelection(getIndicesForElements(oldElements), false);
 					} finally {
 						isAdjustingTarget = false;
 					}
@@ -321,12 +396,17 @@ class XMultiSelectionBinding extends XSelectionBinding {
 						isAdjustingTarget = true;
 						
 						// remove selection of the old element
+						selectedItems.remove(oldElement);
 						int selIndex = getIndexForElement(oldElement);
-						targetSelectionModel.removeSelectionInterval(selIndex, selIndex);
+						if (selIndex > -1)
+							targetSelectionModel.removeSelectionInterval(selIndex, selIndex);
 						
 						// add selection for the new element
-						selIndex = getIndexForElement(list.get(index));
-						targetSelectionModel.addSelectionInterval(selIndex, selIndex);
+						Object newElement = list.get(index);
+						selectedItems.add(newElement);
+						selIndex = getIndexForElement(newElement);
+						if (selIndex > -1)
+							targetSelectionModel.addSelectionInterval(selIndex, selIndex);
 					} finally {
 						isAdjustingTarget = false;
 					}
@@ -339,24 +419,376 @@ class XMultiSelectionBinding extends XSelectionBinding {
 			}
 		};
 
+		sourceListListener = new SourceListTracker();
+
+		sourceListContextListener = new PropertyStateListener() {
+			@Override
+			public void propertyStateChanged(PropertyStateEvent pse) {
+				// the source list has been exchanged
+				if (pse.getValueChanged())
+					observeSourceList();
+			}
+		};
+
 		targetSelectionModel.addListSelectionListener(targetListSelectionListener);
 		selectedItemsList.addObservableListListener(selectedItemsListListener);
+		sourceListContext.addPropertyStateListener(sourceListContextListener);
+		observeSourceList();
 
 		// set initial selection
 		SwingUtilities.invokeLater( () -> selectedItemsListListener.listElementsAdded(selectedItemsList, 0, selectedItemsList.size()) );
 	}
 
+	/**
+	 * Selects or deselects the given (view) indices in the target selection model
+	 * using one interval per run of consecutive indices. Listeners of the selection
+	 * model are only notified once
+	 */
+	protected void setTargetSelection(int[] indices, boolean select) {
+		if (indices.length == 0)
+			return;
+
+		Arrays.sort(indices);
+
+		boolean wasAdjusting = targetSelectionModel.getValueIsAdjusting();
+		targetSelectionModel.setValueIsAdjusting(true);
+		try {
+			int runStart = indices[0];
+			for (int i = 1; i <= indices.length; i++) {
+				if (i == indices.length || indices[i] > indices[i - 1] + 1) {
+					if (select)
+						targetSelectionModel.addSelectionInterval(runStart, indices[i - 1]);
+					else
+						targetSelectionModel.removeSelectionInterval(runStart, indices[i - 1]);
+
+					if (i < indices.length)
+						runStart = indices[i];
+				}
+			}
+		} finally {
+			if (!wasAdjusting)
+				targetSelectionModel.setValueIsAdjusting(false);
+		}
+	}
+
+	/**
+	 * Start tracking removals and replacements of the current source list
+	 */
+	private void observeSourceList() {
+		if (observedSourceList != null)
+			observedSourceList.removeObservableListListener(sourceListListener);
+
+		List sourceList = getSourceList();
+		observedSourceList = sourceList instanceof ObservableList ? (ObservableList) sourceList : null;
+		if (observedSourceList != null)
+			observedSourceList.addObservableListListener(sourceListListener);
+
+		fullUpdatePending = true;
+	}
+
+	/**
+	 * Return the number of (view) indices of the target
+	 */
+	protected int getViewRowCount() {
+		return getSourceList().size();
+	}
+
+	/**
+	 * Synchronizes selectedItemsList with the selection of the target in the
+	 * given (view) index interval. Items outside of the interval keep their
+	 * state, items removed from the source list are dropped by the
+	 * SourceListTracker. If the source list is not observable (or has been
+	 * exchanged) the whole selection is compared instead
+	 */
+	protected void updateSelectedItemsList(int firstIndex, int lastIndex) {
+		if (observedSourceList == null || fullUpdatePending) {
+			updateSelectedItemsList();
+			return;
+		}
+
+		Set<Object> selectedInInterval = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+		Set<Object> deselected = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+		List added = new ArrayList();
+
+		firstIndex = Math.max(firstIndex, 0);
+		lastIndex = Math.min(lastIndex, getViewRowCount() - 1);
+		if (targetSelectionModel instanceof XBitmapSelectionModel) {
+			compareSelectedRuns((XBitmapSelectionModel) targetSelectionModel, firstIndex, lastIndex, selectedInInterval, deselected, added);
+		} else {
+			for (int idx = firstIndex; idx <= lastIndex; idx++) {
+				Object element = getSourceElementForIndex(idx);
+				if (element == null)
+					continue;
+
+				if (targetSelectionModel.isSelectedIndex(idx)) {
+					if (selectedInInterval.add(element) && !selectedItems.contains(element))
+						added.add(element);
+				} else if (selectedItems.contains(element)) {
+					deselected.add(element);
+				}
+			}
+		}
+
+		// an element contained more than once might still be selected
+		deselected.removeAll(selectedInInterval);
+		if (!deselected.isEmpty()) {
+			selectedItems.removeAll(deselected);
+			removeFromSelectedItemsList(deselected::contains);
+		}
+
+		if (!added.isEmpty()) {
+			selectedItems.addAll(added);
+			selectedItemsList.addAll(added);
+		}
+	}
+
+	/**
+	 * Compares the selected runs of the given model in the (view) index interval
+	 * with selectedItems. The unselected indices between the runs are only
+	 * visited while some item of selectedItems hasn't been found in the runs
+	 */
+	private void compareSelectedRuns(XBitmapSelectionModel model, int firstIndex, int lastIndex,
+			Set<Object> selectedInInterval, Set<Object> deselected, List added) {
+		int firstRun = model.findSelectedRun(firstIndex);
+		int lastRun = firstRun;
+		int stillSelected = 0;
+
+		for (; lastRun < model.getSelectedRunCount() && model.getSelectedRunStart(lastRun) <= lastIndex; lastRun++) {
+			int end = Math.min(model.getSelectedRunEnd(lastRun), lastIndex);
+			for (int idx = Math.max(model.getSelectedRunStart(lastRun), firstIndex); idx <= end; idx++) {
+				Object element = getSourceElementForIndex(idx);
+				if (element != null && selectedInInterval.add(element)) {
+					if (selectedItems.contains(element))
+						stillSelected++;
+					else
+						added.add(element);
+				}
+			}
+		}
+
+		// the other selected items might be in the gaps between the runs
+		int gapStart = firstIndex;
+		for (int run = firstRun; run <= lastRun && stillSelected + deselected.size() < selectedItems.size(); run++) {
+			int gapEnd = run < lastRun ? model.getSelectedRunStart(run) - 1 : lastIndex;
+			for (int idx = gapStart; idx <= gapEnd; idx++) {
+				Object element = getSourceElementForIndex(idx);
+				if (element != null && selectedItems.contains(element) && !selectedInInterval.contains(element))
+					deselected.add(element);
+			}
+			if (run < lastRun)
+				gapStart = model.getSelectedRunEnd(run) + 1;
+		}
+	}
+
+	/**
+	 * Synchronizes selectedItemsList with the selection of the target by only
+	 * removing the deselected and adding the newly selected items
+	 */
+	protected void updateSelectedItemsList() {
+		Set<Object> newSelection = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+		List added = new ArrayList();
+
+		IntConsumer selectIndex = idx -> {
+			Object element = getSourceElementForIndex(idx);
+			if (element != null && newSelection.add(element) && !selectedItems.contains(element))
+				added.add(element);
+		};
+
+		if (targetSelectionModel instanceof XBitmapSelectionModel) {
+			// the selected runs are known, no need to test every index
+			XBitmapSelectionModel bitmapModel = (XBitmapSelectionModel) targetSelectionModel;
+			for (int run = 0; run < bitmapModel.getSelectedRunCount(); run++) {
+				for (int idx = bitmapModel.getSelectedRunStart(run); idx <= bitmapModel.getSelectedRunEnd(run); idx++)
+					selectIndex.accept(idx);
+			}
+		} else {
+			int minIndex = targetSelectionModel.getMinSelectionIndex();
+			if (minIndex > -1) {
+				int maxIndex = targetSelectionModel.getMaxSelectionIndex();
+				for(int idx = minIndex; idx <= maxIndex; idx++) {
+					if (targetSelectionModel.isSelectedIndex(idx))
+						selectIndex.accept(idx);
+				}
+			}
+		}
+
+		// remove the items which are no longer selected
+		if (newSelection.isEmpty()) {
+			if (!selectedItemsList.isEmpty())
+				selectedItemsList.clear();
+		} else if (selectedItems.size() + added.size() > newSelection.size()) {
+			removeFromSelectedItemsList(item -> !newSelection.contains(item));
+		}
+
+		if (!added.isEmpty())
+			selectedItemsList.addAll(added);
+
+		selectedItems = newSelection;
+		fullUpdatePending = false;
+	}
+
+	/**
+	 * Moves the selection of the rows of a reordered range of the source list
+	 * along with their elements (the element at index + i has been moved to
+	 * index + permutation[i]), the selected items stay the same
+	 */
+	protected void permuteTargetSelection(int index, int[] permutation) {
+		boolean[] wasSelected = new boolean[permutation.length];
+		for (int i = 0; i < permutation.length; i++) {
+			int viewIndex = convertIndexToView(index + i);
+			wasSelected[i] = viewIndex > -1 && targetSelectionModel.isSelectedIndex(viewIndex);
+		}
+
+		int[] select = new int[permutation.length];
+		int[] deselect = new int[permutation.length];
+		int selectCount = 0;
+		int deselectCount = 0;
+		for (int i = 0; i < permutation.length; i++) {
+			int viewIndex = convertIndexToView(index + permutation[i]);
+			if (viewIndex == -1 || wasSelected[i] == wasSelected[permutation[i]])
+				continue;
+
+			if (wasSelected[i])
+				select[selectCount++] = viewIndex;
+			else
+				deselect[deselectCount++] = viewIndex;
+		}
+
+		if (selectCount == 0 && deselectCount == 0)
+			return;
+
+		boolean wasAdjusting = targetSelectionModel.getValueIsAdjusting();
+		try {
+			isAdjustingTarget = true;
+			targetSelectionModel.setValueIsAdjusting(true);
+			setTargetSelection(Arrays.copyOf(deselect, deselectCount), false);
+			setTargetSelection(Arrays.copyOf(select, selectCount), true);
+		} finally {
+			if (!wasAdjusting)
+				targetSelectionModel.setValueIsAdjusting(false);
+			isAdjustingTarget = false;
+		}
+	}
+
+	/**
+	 * Removes the matching items from selectedItemsList using one
+	 * range removal per run of matching items
+	 */
+	protected void removeFromSelectedItemsList(Predicate<Object> remove) {
+		// back to front to keep the indices valid
+		int runEnd = -1;
+		for (int i = selectedItemsList.size() - 1; i >= -1; i--) {
+			if (i >= 0 && remove.test(selectedItemsList.get(i))) {
+				if (runEnd == -1)
+					runEnd = i;
+			} else if (runEnd != -1) {
+				selectedItemsList.subList(i + 1, runEnd + 1).clear();
+				runEnd = -1;
+			}
+		}
+	}
+
 	@Override
 	public void unbind() {
 		if (isBound()) {
 			selectedItemsList.removeObservableListListener(selectedItemsListListener);
 			targetSelectionModel.removeListSelectionListener(targetListSelectionListener);
+			sourceListContext.removePropertyStateListener(sourceListContextListener);
+			if (observedSourceList != null)
+				observedSourceList.removeObservableListListener(sourceListListener);
 
 			selectedItemsListListener = null;
 			targetListSelectionListener = null;
+			sourceListContextListener = null;
+			sourceListListener = null;
+			observedSourceList = null;
+			selectedItems.clear();
 		}
 	}
 
+	/**
+	 * Drops removed or replaced elements of the source list from the selected
+	 * items (the selection events of the target only cover the indices whose
+	 * selection changed, which no longer contain the removed elements)
+	 */
+	private class SourceListTracker implements ObservableListBatchListener {
+
+		@Override
+		public void listElementsAdded(ObservableList list, int index, int length) {
+			// added elements are not selected
+		}
+
+		@Override
+		public void listElementsRemoved(ObservableList list, int index, List oldElements) {
+			Set<Object> removed = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+			for (Object element : oldElements) {
+				if (selectedItems.contains(element))
+					removed.add(element);
+			}
+
+			deselectItems(removed);
+		}
+
+		@Override
+		public void listElementReplaced(ObservableList list, int index, Object oldElement) {
+			replaced(index, oldElement, list.get(index));
+		}
+
+		@Override
+		public void listElementPropertyChanged(ObservableList list, int index) {
+			// does not influence selection
+		}
+
+		@Override
+		public void listChanged(ObservableList list, ListChangeSet changes) {
+			for (ListChangeSet.Change change : changes.getChanges()) {
+				switch (change.getType()) {
+					case REMOVED:
+						listElementsRemoved(list, change.getIndex(), change.getOldElements());
+						break;
+					case REPLACED:
+						for (int i = 0; i < change.getLength(); i++)
+							replaced(change.getIndex() + i, change.getOldElements().get(i), change.getNewElements().get(i));
+						break;
+					case PERMUTED:
+						permuteTargetSelection(change.getIndex(), change.getPermutation());
+						break;
+					default:
+						// added and updated elements do not influence selection
+				}
+			}
+		}
+
+		private void replaced(int index, Object oldElement, Object newElement) {
+			if (selectedItems.contains(oldElement))
+				deselectItems(Collections.singleton(oldElement));
+
+			// the row keeps its selection, so the new element takes its place
+			int viewIndex = convertIndexToView(index);
+			if (!isAdjustingSource && viewIndex > -1 && targetSelectionModel.isSelectedIndex(viewIndex)
+					&& getSourceElementForIndex(viewIndex) == newElement && selectedItems.add(newElement)) {
+				try {
+					isAdjustingSource = true;
+					selectedItemsList.add(newElement);
+				} finally {
+					isAdjustingSource = false;
+				}
+			}
+		}
+
+		private void deselectItems(Set<Object> items) {
+			if (items.isEmpty() || isAdjustingSource)
+				return;
+
+			try {
+				isAdjustingSource = true;
+				selectedItems.removeAll(items);
+				removeFromSelectedItemsList(items::contains);
+			} finally {
+				isAdjustingSource = false;
+			}
+		}
+	}
 }
 
 /**
@@ -380,28 +812,13 @@ class XTableSingleSelectionBinding extends XSingleSelectionBinding {
 	}
 
 	@Override
-	protected Object getSourceElementForIndex(int index) {
-		if (index == -1)
-			return null;
-
-		index = targetTable.convertRowIndexToModel(index);
-
-		if (index < 0 || index >= getSourceList().size())
-			return null;
-
-		return getSourceList().get(index);
+	protected int convertIndexToSource(int index) {
+		return targetTable.convertRowIndexToModel(index);
 	}
 
 	@Override
-	protected int getIndexForElement(Object element) {
-		if (element == null)
-			return -1;
-
-		int idx = getSourceList().indexOf(element);
-		if (idx == -1)
-			return -1;
-
-		return targetTable.convertRowIndexToModel(idx);
+	protected int convertIndexToView(int sourceIndex) {
+		return targetTable.convertRowIndexToView(sourceIndex);
 	}
 }
 
@@ -428,6 +845,25 @@ class XSingleSelectionBinding extends XSelectionBinding {
 	 */
 	protected PropertyStateListener sourceListener;
 
+	/**
+	 * The selected element and its index in the source list (-1 if unknown).
+	 * The index is shifted when elements are added or removed above it, so that
+	 * the selected element does not have to be searched in the source list again
+	 */
+	protected Object selectedElement;
+	protected int selectedSourceIndex = -1;
+
+	/**
+	 * The source list whose changes are tracked (if it is an ObservableList)
+	 */
+	protected ObservableList observedSourceList;
+
+	/**
+	 * Listeners to track the index of the selected element
+	 */
+	protected ObservableListListener sourceListListener;
+	protected PropertyStateListener sourceListContextListener;
+
 	public XSingleSelectionBinding(Object source, PropertyHelper sourceProperty, DataContext sourceListContext, ListSelectionModel targetSelectionModel) {
 		super(sourceListContext, targetSelectionModel);
 
@@ -447,7 +883,10 @@ class XSingleSelectionBinding extends XSelectionBinding {
 			public void valueChanged(ListSelectionEvent e) {
 				if (!e.getValueIsAdjusting()) {
 					// update source
-					Object targetSelected = getSourceElementForIndex(getTargetSelectedIndex());
+					int targetIndex = getTargetSelectedIndex();
+					Object targetSelected = getSourceElementForIndex(targetIndex);
+					if (targetSelected != null)
+						setTrackedSelection(targetSelected, convertIndexToSource(targetIndex));
 
 					if (sourceProperty.getValue(source) != targetSelected) {
 						sourceProperty.setValue(source, targetSelected);
@@ -461,7 +900,7 @@ class XSingleSelectionBinding extends XSelectionBinding {
 			public void propertyStateChanged(PropertyStateEvent pse) {
 				// update target
 				if (pse.getValueChanged()) {
-					int sourceIndex = getIndexForElement(pse.getNewValue());
+					int sourceIndex = getTrackedIndexForElement(pse.getResolvedNewValue());
 					if (getTargetSelectedIndex() != sourceIndex) {
 						setTargetSelectedIndex(sourceIndex);
 						// scroll to new selection
@@ -471,11 +910,75 @@ class XSingleSelectionBinding extends XSelectionBinding {
 			}
 		};
 
+		sourceListListener = new SelectedIndexTracker();
+
+		sourceListContextListener = new PropertyStateListener() {
+			@Override
+			public void propertyStateChanged(PropertyStateEvent pse) {
+				// the source list has been exchanged
+				if (pse.getValueChanged())
+					observeSourceList();
+			}
+		};
+
 		targetSelectionModel.addListSelectionListener(targetListSelectionListener);
 		sourceProperty.addPropertyStateListener(source, sourceListener);
+		sourceListContext.addPropertyStateListener(sourceListContextListener);
+		observeSourceList();
 
 		// get the current value from the source
-		setTargetSelectedIndex(getIndexForElement(sourceProperty.getValue(source)));
+		setTargetSelectedIndex(getTrackedIndexForElement(sourceProperty.getValue(source)));
+	}
+
+	/**
+	 * Start tracking changes of the current source list
+	 */
+	private void observeSourceList() {
+		if (observedSourceList != null)
+			observedSourceList.removeObservableListListener(sourceListListener);
+
+		List sourceList = getSourceList();
+		observedSourceList = sourceList instanceof ObservableList ? (ObservableList) sourceList : null;
+		if (observedSourceList != null)
+			observedSourceList.addObservableListListener(sourceListListener);
+
+		resetTrackedSelection();
+	}
+
+	/**
+	 * Remember the index of the given element (when the selection is cleared
+	 * the last selected element is kept, so that selecting it again is cheap)
+	 */
+	private void setTrackedSelection(Object element, int sourceIndex) {
+		if (element != null) {
+			selectedElement = element;
+			selectedSourceIndex = sourceIndex;
+		}
+	}
+
+	private void resetTrackedSelection() {
+		selectedElement = null;
+		selectedSourceIndex = -1;
+	}
+
+	/**
+	 * Return the (view) index of the given element using the tracked index
+	 * of the selected element and only search the source list if the element
+	 * is not the one at the tracked index
+	 */
+	protected int getTrackedIndexForElement(Object element) {
+		if (element == null)
+			return -1;
+
+		List sourceList = getSourceList();
+		if (!isTrackedIndexValid(element, selectedSourceIndex, sourceList))
+			setTrackedSelection(element, sourceList.indexOf(element));
+
+		return selectedSourceIndex == -1 ? -1 : convertIndexToView(selectedSourceIndex);
+	}
+
+	private boolean isTrackedIndexValid(Object element, int sourceIndex, List sourceList) {
+		return sourceIndex > -1 && sourceIndex < sourceList.size() && sourceList.get(sourceIndex) == element;
 	}
 
 	private int getTargetSelectedIndex() {
@@ -494,9 +997,96 @@ class XSingleSelectionBinding extends XSelectionBinding {
 		if (isBound()) {
 			sourceProperty.removePropertyStateListener(source, sourceListener);
 			targetSelectionModel.removeListSelectionListener(targetListSelectionListener);
+			sourceListContext.removePropertyStateListener(sourceListContextListener);
+			if (observedSourceList != null)
+				observedSourceList.removeObservableListListener(sourceListListener);
 
 			sourceListener = null;
 			targetListSelectionListener = null;
+			sourceListContextListener = null;
+			observedSourceList = null;
+			resetTrackedSelection();
+		}
+	}
+
+	/**
+	 * Shifts the tracked index of the selected element when elements are
+	 * added or removed above it. The target's listener might already have
+	 * moved the index (depending on the order of the list listeners), so the
+	 * new index is validated against the selected element
+	 */
+	private class SelectedIndexTracker implements ObservableListBatchListener {
+
+		@Override
+		public void listElementsAdded(ObservableList list, int index, int length) {
+			if (selectedSourceIndex >= index)
+				shiftTrackedIndex(list, selectedSourceIndex + length);
+		}
+
+		@Override
+		public void listElementsRemoved(ObservableList list, int index, List oldElements) {
+			if (selectedSourceIndex >= index + oldElements.size())
+				shiftTrackedIndex(list, selectedSourceIndex - oldElements.size());
+			else if (selectedSourceIndex >= index)
+				// the selected element has been removed
+				selectedSourceIndex = -1;
+		}
+
+		@Override
+		public void listElementReplaced(ObservableList list, int index, Object oldElement) {
+			// the selected object itself has been replaced,
+			// look it up again when it is needed
+			if (index == selectedSourceIndex)
+				selectedSourceIndex = -1;
+		}
+
+		@Override
+		public void listElementPropertyChanged(ObservableList list, int index) {
+			// does not influence the index
+		}
+
+		@Override
+		public void listChanged(ObservableList list, ListChangeSet changes) {
+			boolean permuted = false;
+
+			for (ListChangeSet.Change change : changes.getChanges()) {
+				int index = change.getIndex();
+
+				switch (change.getType()) {
+					case ADDED:
+						listElementsAdded(list, index, change.getLength());
+						break;
+					case REMOVED:
+						listElementsRemoved(list, index, change.getOldElements());
+						break;
+					case REPLACED:
+						if (selectedSourceIndex >= index && selectedSourceIndex < index + change.getLength())
+							selectedSourceIndex = -1;
+						break;
+					case PERMUTED:
+						if (selectedSourceIndex >= index && selectedSourceIndex < index + change.getLength())
+							shiftTrackedIndex(list, index + change.getPermutation()[selectedSourceIndex - index]);
+						permuted = true;
+						break;
+					default:
+						// does not influence the index
+				}
+			}
+
+			if (permuted) {
+				// the rows only show other elements, so the selection has to be
+				// moved to the new row of the selected element
+				int viewIndex = getTrackedIndexForElement(sourceProperty.getValue(source));
+				if (getTargetSelectedIndex() != viewIndex)
+					setTargetSelectedIndex(viewIndex);
+			}
+		}
+
+		private void shiftTrackedIndex(List list, int newIndex) {
+			if (isTrackedIndexValid(selectedElement, newIndex, list))
+				selectedSourceIndex = newIndex;
+			else if (!isTrackedIndexValid(selectedElement, selectedSourceIndex, list))
+				selectedSourceIndex = -1;
 		}
 	}
 }
@@ -32,7 +32,9 @@ import static org.jdesktop.beansbinding.AutoBinding.UpdateStrategy.READ_WRITE;
 
 import org.jdesktop.beansbinding.Binding.SyncFailure;
 import org.jdesktop.beansbinding.util.Parameters;
+import org.jdesktop.observablecollections.ListChangeSet;
 import org.jdesktop.observablecollections.ObservableList;
+import org.jdesktop.observablecollections.ObservableListChangeListener;
 import org.jdesktop.observablecollections.ObservableListListener;
 import org.jdesktop.swingbinding.SwingBindings;
 import org.jdesktop.swingbinding.impl.AbstractColumnBinding;
@@ -48,7 +50,7 @@ import org.jdesktop.xbindings.context.DataContext;
  * @author berre
  */
 
-public final class XTableBinding implements XBinding, ObservableListListener {
+public final class XTableBinding implements XBinding, ObservableListListener, ObservableListChangeListener {
 
 	ObservableList sourceList;
 	PerfBoundTableModel tableModel;
@@ -79,6 +81,7 @@ public final class XTableBinding implements XBinding, ObservableListListener {
 		if (isBound()) {
 			sourceList.addObservableListListener(this);
 			tableModel.clear();
+			tableModel.setObserveItems(!sourceList.supportsElementPropertyChanged());
 			tableModel.addAll(sourceList);
 		}
 	}
@@ -93,6 +96,7 @@ public final class XTableBinding implements XBinding, ObservableListListener {
 			tableModel = new PerfBoundTableModel();
 			if (sourceList != null) {
 				sourceList.addObservableListListener(this);
+				tableModel.setObserveItems(!sourceList.supportsElementPropertyChanged());
 				tableModel.addAll(sourceList);
 			}
 			targetTable.setModel(tableModel);
@@ -302,12 +306,15 @@ public final class XTableBinding implements XBinding, ObservableListListener {
 
 	@Override
 	public void listElementPropertyChanged(ObservableList lst, int idx) {
-		// ObservableList has no element property changed support            
+		// otherwise the table model observes the elements itself
+		if (!tableModel.getObserveItems())
+			tableModel.fireRowItemChanged(idx);
 	}
 
 	@Override
 	public void listElementReplaced(ObservableList lst, int idx, Object element) {
-		tableModel.set(idx, element);
+		// element is the old element
+		tableModel.set(idx, sourceList.get(idx));
 	}
 
 	@Override
@@ -323,5 +330,40 @@ public final class XTableBinding implements XBinding, ObservableListListener {
 	@Override
 	public void listElementsRemoved(ObservableList lst, int idx, List elements) {
 		tableModel.removeRange(idx, idx + elements.size() - 1);
-	}               
+	}
+
+	@Override
+	public void listChanged(ObservableList lst, ListChangeSet changes) {
+		// the changes carry their elements, so the table model does not have to
+		// read from the source list (which already is in its final state)
+		for (ListChangeSet.Change change : changes.getChanges()) {
+			int idx = change.getIndex();
+			int count = change.getLength();
+
+			switch (change.getType()) {
+				case ADDED:
+					tableModel.addAll(idx, change.getNewElements());
+					break;
+				case REMOVED:
+					tableModel.removeRange(idx, idx + count - 1);
+					break;
+				case REPLACED:
+					tableModel.setRange(idx, change.getNewElements());
+					break;
+				case PERMUTED:
+					// the rows of the range only show other elements, the selection
+					// binding moves the selection along with the elements
+					List reordered = new ArrayList(tableModel.subList(idx, idx + count));
+					int[] permutation = change.getPermutation();
+					for (int i = 0; i < count; i++)
+						reordered.set(permutation[i], tableModel.get(idx + i));
+					tableModel.setRange(idx, reordered);
+					break;
+				default:
+					if (!tableModel.getObserveItems())
+						tableModel.fireRowItemsChanged(idx, count);
+					break;
+			}
+		}
+	}
 }
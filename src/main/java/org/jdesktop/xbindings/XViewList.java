@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
@@ -12,6 +13,7 @@ import java.util.Objects;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Predicate;
 
+import org.jdesktop.observablecollections.ListChangeSet;
 import org.jdesktop.observablecollections.ObservableCollections;
 import org.jdesktop.observablecollections.ObservableList;
 import org.jdesktop.observablecollections.ObservableListListener;
@@ -29,7 +31,7 @@ public class XViewList<E> implements ObservableList<E> {
 
 	// the current elements of this ViewList
 	// and actual source of the list changed notifications of the View
-	private ObservableList<E> viewList;
+	private InnerObservableList<E> viewList;
 
 	// Listen to listen for changes in the sourceList
 	private SourceListListener sourceListListener;
@@ -201,8 +203,50 @@ public class XViewList<E> implements ObservableList<E> {
 		if (isSorted())
 			Collections.sort(newItems, sortComparator);
 		
-		viewList.clear();
-		viewList.addAll(newItems);
+		// when only the order of the elements changed (e.g. the sort comparator was changed)
+		// the listeners receive a single PERMUTED change instead of clear + addAll
+		int[] permutation = getPermutation(viewList, newItems);
+		if (permutation != null) {
+			viewList.permute(permutation);
+		} else {
+			viewList.clear();
+			viewList.addAll(newItems);
+		}
+	}
+	
+	/**
+	 * Return the permutation which turns oldItems into newItems
+	 * (newItems.get(permutation[i]) == oldItems.get(i)) or null if the
+	 * lists do not contain the same elements
+	 */
+	private static int[] getPermutation(List<?> oldItems, List<?> newItems) {
+		int size = oldItems.size();
+		if (size != newItems.size() || size == 0)
+			return null;
+		
+		// positions of each element in oldItems, equal elements are chained by next
+		IdentityHashMap<Object, Integer> firstPosition = new IdentityHashMap<Object, Integer>(size);
+		int[] next = new int[size];
+		for (int i = size - 1; i >= 0; i--) {
+			Integer pos = firstPosition.put(oldItems.get(i), i);
+			next[i] = pos == null ? -1 : pos;
+		}
+		
+		int[] permutation = new int[size];
+		for (int i = 0; i < size; i++) {
+			Object element = newItems.get(i);
+			Integer pos = firstPosition.get(element);
+			if (pos == null)
+				return null;
+			
+			permutation[pos] = i;
+			if (next[pos] == -1)
+				firstPosition.remove(element);
+			else
+				firstPosition.put(element, next[pos]);
+		}
+		
+		return permutation;
 	}
 
 	/**
@@ -293,13 +337,17 @@ public class XViewList<E> implements ObservableList<E> {
 		public void listElementPropertyChanged(ObservableList list, int index) {			
 			E element = (E) list.get(index);
 			
-			if (viewList.contains(element)) {
+			int viewIndex = viewList.indexOf(element);
+			if (viewIndex > -1) {
 				// check if the item still matches the filters (if it was in the view)
 				// if not, remove it
 				// Todo: if the list is sorted the item might need to change its position				
 				if (!matchesFilters(element)) {
-					viewList.remove(element);
-				}	
+					viewList.remove(viewIndex);
+				} else {
+					// pass the change on to the listeners of the view
+					viewList.fireElementChanged(viewIndex);
+				}
 			} else {
 				// does the changed item need to be added to the view?
 				if (matchesFilters(element))
@@ -519,7 +567,8 @@ public class XViewList<E> implements ObservableList<E> {
 
 	@Override
 	public boolean supportsElementPropertyChanged() {
-		return viewList.supportsElementPropertyChanged();
+		// property changes of the source list are passed on
+		return sourceList.supportsElementPropertyChanged();
 	}
 	
 	/**
@@ -606,17 +655,37 @@ public class XViewList<E> implements ObservableList<E> {
 		}
 
 		public void clear() {
-			List<E> dup = new ArrayList<E>(list);
-			list.clear();
+			// the list is private to the view, so the old storage can be handed
+			// to the listeners instead of copying it
+			List<E> oldElements = list;
+			list = new ArrayList<E>();
 			modCount++;
 
-			if (dup.size() != 0) {
+			if (oldElements.size() != 0) {
+				oldElements = Collections.unmodifiableList(oldElements);
 				for (ObservableListListener listener : listeners) {
-					listener.listElementsRemoved(eventSource, 0, dup);
+					listener.listElementsRemoved(eventSource, 0, oldElements);
 				}
 			}
 		}
 
+		/**
+		 * Removes the range with a single notification (also used by subList(...).clear())
+		 */
+		protected void removeRange(int fromIndex, int toIndex) {
+			List<E> range = list.subList(fromIndex, toIndex);
+			if (range.isEmpty())
+				return;
+
+			List<E> oldElements = new ArrayList<E>(range);
+			range.clear();
+			modCount++;
+
+			for (ObservableListListener listener : listeners) {
+				listener.listElementsRemoved(eventSource, fromIndex, oldElements);
+			}
+		}
+
 		public boolean containsAll(Collection<?> c) {
 			return list.containsAll(c);
 		}
@@ -647,5 +716,33 @@ public class XViewList<E> implements ObservableList<E> {
 		public boolean supportsElementPropertyChanged() {
 			return supportsElementPropertyChanged;
 		}
+
+		/**
+		 * Reorders the elements (the element at index i is moved to permutation[i])
+		 * and notifies the listeners with a single PERMUTED change for the range which moved
+		 */
+		void permute(int[] permutation) {
+			int from = 0;
+			while (from < permutation.length && permutation[from] == from)
+				from++;
+			if (from == permutation.length)
+				return;
+			int to = permutation.length - 1;
+			while (permutation[to] == to)
+				to--;
+
+			List<E> range = list.subList(from, to + 1);
+			List<E> oldRange = new ArrayList<E>(range);
+			int[] rangePermutation = new int[to - from + 1];
+			for (int i = 0; i < rangePermutation.length; i++) {
+				rangePermutation[i] = permutation[from + i] - from;
+				range.set(rangePermutation[i], oldRange.get(i));
+			}
+			modCount++;
+
+			ListChangeSet.Builder builder = new ListChangeSet.Builder();
+			builder.permuted(from, rangePermutation);
+			builder.build().dispatch(eventSource, listeners);
+		}
 	}	
 }
\ No newline at end of file
@@ -0,0 +1,143 @@
+package org.jdesktop.beansbinding;
+
+import static org.junit.Assert.*;
+
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.swing.JList;
+
+import org.jdesktop.beansbinding.ELPropertyTest.Node;
+import org.jdesktop.swingbinding.JListBinding;
+import org.jdesktop.swingbinding.SwingBindings;
+import org.junit.Test;
+
+public class BeanPropertyTest {
+
+	@Test
+	public void testLazyPropertyResolvesOnAccess() {
+		Node second = new Node(2);
+		Node first = new Node(1);
+		first.setChild(second);
+		Node root = new Node(0);
+		root.setChild(first);
+
+		BeanProperty<Node, Integer> property = BeanProperty.createLazy("child.child.value");
+		assertTrue(property.isLazy());
+
+		final List<Object> values = new ArrayList<Object>();
+		final int[] unknown = new int[1];
+		property.addPropertyStateListener(root, new PropertyStateListener() {
+			public void propertyStateChanged(PropertyStateEvent pse) {
+				if (!pse.getValueChanged()) {
+					return;
+				}
+				if (pse.getNewValue() == PropertyStateEvent.UNKNOWN) {
+					assertFalse(pse.getReadableChanged());
+					unknown[0]++;
+				}
+				values.add(pse.getResolvedNewValue());
+			}
+		});
+
+		// the listener reads the value, so every change is reported again
+		second.setValue(3);
+		second.setValue(4);
+		assertEquals(Arrays.<Object>asList(3, 4), values);
+		assertEquals(2, unknown[0]);
+
+		// an exchanged object in the middle of the path is observed after the
+		// next access
+		values.clear();
+		Node replacement = new Node(5);
+		first.setChild(replacement);
+		second.setValue(6);
+		replacement.setValue(7);
+		assertEquals(Arrays.<Object>asList(5, 7), values);
+		assertEquals(0, second.listeners());
+
+		// a path which can't be resolved is reported as unreadable
+		values.clear();
+		first.setChild(null);
+		assertEquals(Arrays.<Object>asList(PropertyStateEvent.UNREADABLE), values);
+		assertFalse(property.isReadable(root));
+
+		// writing resolves the path first
+		first.setChild(second);
+		unknown[0] = 0;
+		property.setValue(root, 8);
+		assertEquals(0, unknown[0]);
+		assertEquals(8, second.getValue());
+		assertEquals(Integer.valueOf(8), property.getValue(root));
+	}
+
+	@Test
+	public void testLazyPropertyReportsWriteabilityWhenResolved() {
+		Node child = new Node(1);
+		Node root = new Node(0);
+		root.setChild(child);
+
+		BeanProperty<Node, Integer> property = BeanProperty.createLazy("child.value");
+		final List<PropertyStateEvent> events = new ArrayList<PropertyStateEvent>();
+		property.addPropertyStateListener(root, new PropertyStateListener() {
+			public void propertyStateChanged(PropertyStateEvent pse) {
+				events.add(pse);
+			}
+		});
+
+		root.setChild(null);
+		assertEquals(1, events.size());
+		assertFalse(events.get(0).getWriteableChanged());
+
+		// resolving the path finds that the property isn't writeable anymore
+		assertFalse(property.isReadable(root));
+		assertEquals(2, events.size());
+		assertFalse(events.get(1).getValueChanged());
+		assertTrue(events.get(1).getWriteableChanged());
+		assertFalse(events.get(1).isWriteable());
+	}
+
+	@Test
+	public void testLazyPropertyUpdatesListBinding() {
+		Holder holder = new Holder();
+		holder.setItems(Arrays.asList("a", "b"));
+		JList list = new JList();
+
+		JListBinding<String, Holder, JList> binding = SwingBindings.createJListBinding(AutoBinding.UpdateStrategy.READ,
+				holder, BeanProperty.<Holder, List<String>> createLazy("items"), list);
+		binding.bind();
+		assertEquals(2, list.getModel().getSize());
+
+		holder.setItems(Arrays.asList("c", "d", "e"));
+		assertEquals(3, list.getModel().getSize());
+		assertEquals("c", list.getModel().getElementAt(0));
+
+		binding.unbind();
+	}
+
+	public static class Holder {
+		private final PropertyChangeSupport changeSupport = new PropertyChangeSupport(this);
+		private List<String> items;
+
+		public List<String> getItems() {
+			return items;
+		}
+
+		public void setItems(List<String> items) {
+			List<String> old = this.items;
+			this.items = items;
+			changeSupport.firePropertyChange("items", old, items);
+		}
+
+		public void addPropertyChangeListener(PropertyChangeListener listener) {
+			changeSupport.addPropertyChangeListener(listener);
+		}
+
+		public void removePropertyChangeListener(PropertyChangeListener listener) {
+			changeSupport.removePropertyChangeListener(listener);
+		}
+	}
+}
@@ -0,0 +1,286 @@
+package org.jdesktop.beansbinding;
+
+import static org.junit.Assert.*;
+
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jdesktop.xbindings.XBindingOptions;
+import org.junit.Test;
+
+public class ELPropertyTest {
+
+	@Test
+	public void testConcurrentEvaluation() throws Exception {
+		final ELProperty<Item, Object> property = ELProperty.create("${name} ${number + 1}");
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+
+		try {
+			List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+			for (int t = 0; t < 4; t++) {
+				final int thread = t;
+				results.add(executor.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() {
+						for (int i = 0; i < 5000; i++) {
+							Item item = new Item("t" + thread, i);
+							if (!("t" + thread + " " + (i + 1)).equals(property.getValue(item)))
+								return false;
+						}
+						return true;
+					}
+				}));
+			}
+
+			for (Future<Boolean> result : results)
+				assertTrue(result.get());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testNestedEvaluation() {
+		final ELProperty<Item, Object> property = ELProperty.create("${name}/${number}");
+		Item inner = new Item("inner", 0);
+		Item outer = new Item("outer", 7) {
+			@Override
+			public String getName() {
+				// evaluates the same expression for another source while this one is being evaluated
+				return property.getValue(inner) + "-" + super.getName();
+			}
+		};
+
+		assertEquals("inner/0-outer/7", property.getValue(outer));
+	}
+
+	@Test
+	public void testDependenciesAreUpdatedInPlace() {
+		Node first = new Node(1);
+		Node second = new Node(2);
+		Node root = new Node(0);
+		root.setChild(first);
+
+		ELProperty<Node, Object> property = ELProperty.create("${child.value + child.value * value}");
+		final List<Object> values = new ArrayList<Object>();
+		PropertyStateListener listener = new PropertyStateListener() {
+			public void propertyStateChanged(PropertyStateEvent pse) {
+				values.add(pse.getNewValue());
+			}
+		};
+		property.addPropertyStateListener(root, listener);
+
+		// a single listener per bean, however many of its properties are used
+		assertEquals(1, root.listeners());
+		assertEquals(1, first.listeners());
+
+		root.setValue(3);
+		first.setValue(2);
+		assertEquals(1, root.listeners());
+		assertEquals(1, first.listeners());
+
+		root.setChild(second);
+		assertEquals(0, first.listeners());
+		assertEquals(1, second.listeners());
+
+		first.setValue(5);
+		second.setValue(1);
+		assertEquals(Arrays.<Object>asList(4L, 8L, 4L), values);
+
+		property.removePropertyStateListener(root, listener);
+		assertEquals(0, root.listeners());
+		assertEquals(0, second.listeners());
+	}
+
+	@Test
+	public void testCompiledEvaluationMatchesInterpretation() {
+		Node root = new Node(3);
+		root.setChild(new Node(4));
+		Map<String, Object> map = new HashMap<String, Object>();
+		map.put("node", root);
+		map.put("key", "node");
+
+		String[] expressions = { "${value * 2 + child.value}", "${child.value / value}", "${child.child}",
+				"${child.child.value}", "value: ${child.value}, ${missing}", "${node.child['value'] mod 3}",
+				"${map[key].value}", "${node[key]}", "${'literal' }", "text", "${value > 2}" };
+
+		for (String expression : expressions) {
+			ELProperty<Object, Object> property = ELProperty.create(expression);
+			for (Object source : new Object[] { root, map }) {
+				// without listeners the compiled form is used where possible,
+				// with listeners the expression is always interpreted
+				Object compiled = valueOf(property, source);
+				PropertyStateListener listener = new PropertyStateListener() {
+					public void propertyStateChanged(PropertyStateEvent pse) {
+					}
+				};
+				property.addPropertyStateListener(source, listener);
+				assertEquals(expression, valueOf(property, source), compiled);
+				property.removePropertyStateListener(source, listener);
+			}
+		}
+
+		assertNotNull(CompiledExpression.compile("${child.value + value}"));
+		assertNull(CompiledExpression.compile("${value > 2}"));
+	}
+
+	@Test
+	public void testLazyPropertiesDeferEvaluation() {
+		for (boolean el : new boolean[] { false, true }) {
+			Node first = new Node(2);
+			Node root = new Node(0);
+			root.setChild(first);
+
+			Property<Node, Object> property = el ? ELProperty.<Node, Object> createLazy("${child.value * 2}")
+					: BeanProperty.<Node, Object> createLazy("child.value");
+			final List<Object> values = new ArrayList<Object>();
+			property.addPropertyStateListener(root, new PropertyStateListener() {
+				public void propertyStateChanged(PropertyStateEvent pse) {
+					values.add(pse.getOldValue());
+					values.add(pse.getNewValue());
+				}
+			});
+
+			// only the first change is reported until the value is read again
+			first.setValue(3);
+			first.setValue(4);
+			assertEquals(Arrays.<Object>asList(el ? (Object) 4L : 2, PropertyStateEvent.UNKNOWN), values);
+			assertEquals(el ? (Object) 8L : 4, property.getValue(root));
+
+			values.clear();
+			Node second = new Node(7);
+			root.setChild(second);
+			first.setValue(5);
+			assertEquals(Arrays.<Object>asList(el ? (Object) 8L : 4, PropertyStateEvent.UNKNOWN), values);
+			assertEquals(el ? (Object) 14L : 7, property.getValue(root));
+			assertEquals(0, first.listeners());
+
+			values.clear();
+			first.setValue(6);
+			assertTrue(values.isEmpty());
+			second.setValue(8);
+			assertEquals(2, values.size());
+		}
+	}
+
+	@Test
+	public void testAbandonedListenersAreReclaimed() throws Exception {
+		Node model = new Node(1);
+		model.setChild(new Node(2));
+		PropertyHelper<Node, Object> beanProperty;
+		PropertyHelper<Node, Object> elProperty;
+		PropertyStateListener listener = new PropertyStateListener() {
+			public void propertyStateChanged(PropertyStateEvent pse) {
+			}
+		};
+
+		XBindingOptions.getActive().setWeakListenersEnabled(true);
+		try {
+			beanProperty = BeanProperty.create("child.value");
+			elProperty = ELProperty.create("${child.value + value}");
+		} finally {
+			XBindingOptions.getActive().setWeakListenersEnabled(false);
+		}
+
+		beanProperty.addPropertyStateListener(model, listener);
+		elProperty.addPropertyStateListener(model, listener);
+		assertEquals(2, model.listeners());
+		assertEquals(2, model.getChild().listeners());
+		assertArrayEquals(new PropertyStateListener[] { listener }, beanProperty.getPropertyStateListeners(model));
+
+		WeakReference<PropertyStateListener> reference = new WeakReference<PropertyStateListener>(listener);
+		listener = null;
+		for (int i = 0; (i < 100) && (reference.get() != null); i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertNull(reference.get());
+
+		// using any other property drains the collected listeners
+		BeanProperty.create("value").isListening(new Node(4));
+		assertEquals(0, model.listeners());
+		assertEquals(0, model.getChild().listeners());
+		assertFalse(beanProperty.isListening(model));
+		assertFalse(elProperty.isListening(model));
+		assertEquals(0, model.listeners());
+		assertEquals(0, model.getChild().listeners());
+	}
+
+	private static Object valueOf(ELProperty<Object, Object> property, Object source) {
+		try {
+			return property.getValue(source);
+		} catch (UnsupportedOperationException e) {
+			return "unreadable";
+		}
+	}
+
+	public static class Node {
+		private final PropertyChangeSupport changeSupport = new PropertyChangeSupport(this);
+		private Node child;
+		private int value;
+
+		public Node(int value) {
+			this.value = value;
+		}
+
+		public Node getChild() {
+			return child;
+		}
+
+		public void setChild(Node child) {
+			Node old = this.child;
+			this.child = child;
+			changeSupport.firePropertyChange("child", old, child);
+		}
+
+		public int getValue() {
+			return value;
+		}
+
+		public void setValue(int value) {
+			int old = this.value;
+			this.value = value;
+			changeSupport.firePropertyChange("value", old, value);
+		}
+
+		int listeners() {
+			return changeSupport.getPropertyChangeListeners().length;
+		}
+
+		public void addPropertyChangeListener(PropertyChangeListener listener) {
+			changeSupport.addPropertyChangeListener(listener);
+		}
+
+		public void removePropertyChangeListener(PropertyChangeListener listener) {
+			changeSupport.removePropertyChangeListener(listener);
+		}
+	}
+
+	public static class Item {
+		private final String name;
+		private final int number;
+
+		public Item(String name, int number) {
+			this.name = name;
+			this.number = number;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public int getNumber() {
+			return number;
+		}
+	}
+}
@@ -0,0 +1,293 @@
+package org.jdesktop.el.impl.util;
+
+import static org.junit.Assert.*;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+
+import org.jdesktop.beansbinding.BeanProperty;
+import org.jdesktop.beansbinding.ELProperty;
+import org.jdesktop.beansbinding.PropertyResolutionException;
+import org.jdesktop.beansbinding.PropertyStateEvent;
+import org.jdesktop.beansbinding.PropertyStateListener;
+import org.jdesktop.el.BeanELResolver;
+import org.jdesktop.xbindings.PropertyChangeSupportBase;
+import org.junit.Test;
+
+public class BeanAccessorsTest {
+
+	@Test
+	public void testAccessorsAreResolvedOncePerClass() throws Exception {
+		BeanAccessors accessors = BeanAccessors.forClass(HiddenBean.class);
+		assertSame(accessors, BeanAccessors.forClass(HiddenBean.class));
+
+		// the methods of the non-public class are invoked through the public interface
+		BeanAccessors.Accessor count = accessors.getAccessor("count");
+		assertEquals(Named.class, count.getReadMethod().getDeclaringClass());
+		assertFalse(count.isWritable());
+
+		HiddenBean bean = new HiddenBean();
+		bean.setName("a");
+		assertEquals("a", accessors.getAccessor("name").get(bean));
+		assertFalse(accessors.getAccessor("name").isWritable());
+		assertNull(accessors.getAccessor("missing"));
+
+		try {
+			accessors.getAccessor("failing").get(bean);
+			fail("exceptions of the getter must be wrapped");
+		} catch (InvocationTargetException e) {
+			assertTrue(e.getCause() instanceof UnsupportedOperationException);
+		}
+
+		BeanAccessors.Accessor size = BeanAccessors.forClass(PublicBean.class).getAccessor("size");
+		try {
+			size.set(new PublicBean(), null);
+			fail("null must not be passed to a primitive setter");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+
+		try {
+			size.set(new PublicBean(), "1");
+			fail("a value of the wrong type must not be passed to a primitive setter");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+
+		// widening conversions are applied as by Method.invoke
+		PublicBean widened = new PublicBean();
+		size.set(widened, Short.valueOf((short) 3));
+		assertEquals(3, size.get(widened));
+	}
+
+	@Test
+	public void testResolverPropertiesCanBeCreatedFromDescriptors() throws Exception {
+		ResolverAccess.assertSizeProperty(new PropertyDescriptor("size", PublicBean.class));
+	}
+
+	@Test
+	public void testPropertiesUseCachedAccessors() {
+		PublicBean bean = new PublicBean();
+		BeanProperty<PublicBean, Integer> size = BeanProperty.create("size");
+		ELProperty<PublicBean, Object> doubled = ELProperty.create("${size * 2}");
+		final int[] notifications = new int[1];
+		doubled.addPropertyStateListener(bean, new PropertyStateListener() {
+			public void propertyStateChanged(PropertyStateEvent pse) {
+				notifications[0]++;
+			}
+		});
+
+		size.setValue(bean, 21);
+		assertEquals(Integer.valueOf(21), size.getValue(bean));
+		assertEquals(42L, doubled.getValue(bean));
+		assertEquals(1, notifications[0]);
+		assertEquals(int.class, size.getWriteType(bean));
+
+		try {
+			size.setValue(bean, null);
+			fail("null must not be passed to a primitive setter");
+		} catch (PropertyResolutionException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testNotifyingBeansAreRegisteredDirectly() {
+		CountingBean bean = new CountingBean();
+		PropertyStateListener listener = new PropertyStateListener() {
+			public void propertyStateChanged(PropertyStateEvent pse) {
+			}
+		};
+
+		BeanProperty<CountingBean, Integer> beanProperty = BeanProperty.create("value");
+		ELProperty<CountingBean, Object> elProperty = ELProperty.create("${value + 1}");
+		beanProperty.addPropertyStateListener(bean, listener);
+		elProperty.addPropertyStateListener(bean, listener);
+		assertEquals(2, bean.listeners);
+
+		bean.setValue(1);
+		assertEquals(Integer.valueOf(1), beanProperty.getValue(bean));
+		assertEquals(2L, elProperty.getValue(bean));
+
+		beanProperty.removePropertyStateListener(bean, listener);
+		elProperty.removePropertyStateListener(bean, listener);
+		assertEquals(0, bean.listeners);
+	}
+
+	@Test
+	public void testListenersAreRegisteredPerProperty() {
+		PublicBean bean = new PublicBean();
+		final int[] notifications = new int[1];
+		PropertyStateListener listener = new PropertyStateListener() {
+			public void propertyStateChanged(PropertyStateEvent pse) {
+				notifications[0]++;
+			}
+		};
+
+		// beans which don't implement XNotifyPropertyChanged are registered
+		// for all properties, PropertyChangeSupport would not send changes of
+		// all properties to named listeners
+		BeanProperty<PublicBean, Integer> size = BeanProperty.create("size");
+		size.addPropertyStateListener(bean, listener);
+		assertEquals(0, bean.changeSupport.getPropertyChangeListeners("size").length);
+		assertEquals(1, bean.changeSupport.getPropertyChangeListeners().length);
+		bean.fireAllChanged();
+		assertEquals(1, notifications[0]);
+		size.removePropertyStateListener(bean, listener);
+		assertEquals(0, bean.changeSupport.getPropertyChangeListeners().length);
+
+		// a change of all properties still reaches listeners of single properties
+		CountingBean counting = new CountingBean();
+		BeanProperty<CountingBean, Integer> value = BeanProperty.create("value");
+		value.addPropertyStateListener(counting, listener);
+		counting.setValue(1);
+		counting.fireAllChanged();
+		assertEquals(3, notifications[0]);
+	}
+
+	@Test
+	public void testChangesOfAllPropertiesReachEachListenerOnce() {
+		CountingBean bean = new CountingBean();
+		final int[] notifications = new int[1];
+		PropertyChangeListener listener = new PropertyChangeListener() {
+			public void propertyChange(PropertyChangeEvent evt) {
+				assertNull(evt.getPropertyName());
+				notifications[0]++;
+			}
+		};
+		bean.addPropertyChangeListener("value", listener);
+		bean.addPropertyChangeListener("other", listener);
+		bean.addPropertyChangeListener(listener);
+
+		bean.fireAllChanged();
+		assertEquals(1, notifications[0]);
+
+		// equal values are no change
+		bean.fireAllChanged("a", "a");
+		assertEquals(1, notifications[0]);
+	}
+
+	public interface Named {
+		String getName();
+
+		int getCount();
+
+		String getFailing();
+	}
+
+	static class ResolverAccess extends BeanELResolver {
+		static void assertSizeProperty(PropertyDescriptor descriptor) throws Exception {
+			BeanProperty size = new BeanProperty(PublicBean.class, descriptor);
+			assertEquals(int.class, size.getPropertyType());
+			assertEquals(PublicBean.class.getMethod("getSize"), size.getReadMethod());
+			assertFalse(size.isReadOnly());
+		}
+	}
+
+	static class HiddenBean implements Named {
+		private String name;
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public int getCount() {
+			return 1;
+		}
+
+		public String getFailing() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	public static class CountingBean extends PropertyChangeSupportBase {
+		int listeners;
+		private int value;
+
+		public int getValue() {
+			return value;
+		}
+
+		public void setValue(int value) {
+			int old = this.value;
+			this.value = value;
+			firePropertyChanged("value", old, value);
+		}
+
+		void fireAllChanged() {
+			value++;
+			firePropertyChanged(null, null, null);
+		}
+
+		void fireAllChanged(Object oldValue, Object newValue) {
+			firePropertyChanged(null, oldValue, newValue);
+		}
+
+		@Override
+		public void addPropertyChangeListener(String propertyName, PropertyChangeListener listener) {
+			listeners++;
+			super.addPropertyChangeListener(propertyName, listener);
+		}
+
+		@Override
+		public void removePropertyChangeListener(String propertyName, PropertyChangeListener listener) {
+			listeners--;
+			super.removePropertyChangeListener(propertyName, listener);
+		}
+
+		@Override
+		public void addPropertyChangeListener(PropertyChangeListener listener) {
+			listeners++;
+			super.addPropertyChangeListener(listener);
+		}
+
+		@Override
+		public void removePropertyChangeListener(PropertyChangeListener listener) {
+			listeners--;
+			super.removePropertyChangeListener(listener);
+		}
+	}
+
+	public static class PublicBean {
+		final PropertyChangeSupport changeSupport = new PropertyChangeSupport(this);
+		private int size;
+
+		public int getSize() {
+			return size;
+		}
+
+		public void setSize(int size) {
+			int old = this.size;
+			this.size = size;
+			changeSupport.firePropertyChange("size", old, size);
+		}
+
+		void fireAllChanged() {
+			size++;
+			changeSupport.firePropertyChange(null, null, null);
+		}
+
+		public void addPropertyChangeListener(PropertyChangeListener listener) {
+			changeSupport.addPropertyChangeListener(listener);
+		}
+
+		public void removePropertyChangeListener(PropertyChangeListener listener) {
+			changeSupport.removePropertyChangeListener(listener);
+		}
+
+		public void addPropertyChangeListener(String propertyName, PropertyChangeListener listener) {
+			changeSupport.addPropertyChangeListener(propertyName, listener);
+		}
+
+		public void removePropertyChangeListener(String propertyName, PropertyChangeListener listener) {
+			changeSupport.removePropertyChangeListener(propertyName, listener);
+		}
+	}
+}
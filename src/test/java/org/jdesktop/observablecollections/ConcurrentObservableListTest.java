@@ -0,0 +1,254 @@
+package org.jdesktop.observablecollections;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ConcurrentObservableListTest {
+
+    @Test
+    public void testConcurrentWritersDeliverChangesInOrder() throws Exception {
+        ExecutorService events = Executors.newSingleThreadExecutor();
+        final ConcurrentObservableList<Integer> list = ObservableCollections.concurrentObservableList(events);
+        MirroringListener mirror = new MirroringListener();
+        list.addObservableListListener(mirror);
+
+        int threads = 4;
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            final int offset = t * 1000;
+            new Thread(new Runnable() {
+                public void run() {
+                    for (int i = 0; i < 500; i++) {
+                        list.add(offset + i);
+                        if (i % 3 == 0) {
+                            list.remove(list.size() / 2);
+                        }
+                        if (i % 50 == 0) {
+                            list.addAll(0, Arrays.asList(-1, -2));
+                        }
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        events.shutdown();
+        assertTrue(events.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(list.snapshot(), mirror.copy);
+    }
+
+    @Test
+    public void testChangesAreMergedUntilDelivered() {
+        QueuedExecutor events = new QueuedExecutor();
+        ConcurrentObservableList<String> list = new ConcurrentObservableList<String>(events);
+        MirroringListener mirror = new MirroringListener();
+        list.addObservableListListener(mirror);
+
+        list.add("a");
+        list.add("b");
+        list.add("c");
+        list.set(1, "B");
+        assertEquals(1, events.tasks.size());
+
+        events.runAll();
+        assertEquals(1, mirror.notifications);
+        assertEquals(Arrays.asList("a", "B", "c"), mirror.copy);
+
+        list.sort(null);
+        list.removeIf(s -> s.equals("a"));
+        events.runAll();
+        assertEquals(2, mirror.notifications);
+        assertEquals(Arrays.asList("B", "c"), mirror.copy);
+    }
+
+    @Test
+    public void testListenersReceiveTheListAndTheDeliveredState() {
+        QueuedExecutor events = new QueuedExecutor();
+        final ConcurrentObservableList<String> list = new ConcurrentObservableList<String>(events);
+        final List<Object> snapshots = new ArrayList<Object>();
+        list.addObservableListListener(new ObservableListBatchListener() {
+            public void listChanged(ObservableList source, ListChangeSet changes) {
+                assertSame(list, source);
+                snapshots.add(new ArrayList<Object>(changes.getSnapshot()));
+                // unregistering uses the list passed with the event
+                source.removeObservableListListener(this);
+            }
+
+            public void listElementsAdded(ObservableList source, int index, int length) {
+            }
+
+            public void listElementsRemoved(ObservableList source, int index, List oldElements) {
+            }
+
+            public void listElementReplaced(ObservableList source, int index, Object oldElement) {
+            }
+
+            public void listElementPropertyChanged(ObservableList source, int index) {
+            }
+        });
+
+        list.setAll(Arrays.asList("a", "b", "c"));
+        list.add("d");
+        // the list changes again before the listener is notified
+        events.runAll();
+        list.clear();
+        events.runAll();
+
+        assertEquals(Arrays.<Object>asList(Arrays.asList("a", "b", "c", "d")), snapshots);
+    }
+
+    @Test
+    public void testLegacyListenersAreReplayedFromTheSnapshot() {
+        QueuedExecutor events = new QueuedExecutor();
+        final ConcurrentObservableList<String> list = new ConcurrentObservableList<String>(events);
+        list.setAll(Arrays.asList("c", "a", "b"));
+
+        // changes the list while the sort is delivered
+        list.addObservableListListener(new MirroringListener() {
+            public void listChanged(ObservableList source, ListChangeSet changes) {
+                if (notifications++ == 0) {
+                    list.add(0, "late");
+                }
+            }
+        });
+        final List<Object> removed = new ArrayList<Object>();
+        list.addObservableListListener(new ObservableListListener() {
+            public void listElementsAdded(ObservableList source, int index, int length) {
+            }
+
+            public void listElementsRemoved(ObservableList source, int index, List oldElements) {
+                removed.add(new ArrayList<Object>(oldElements));
+            }
+
+            public void listElementReplaced(ObservableList source, int index, Object oldElement) {
+            }
+
+            public void listElementPropertyChanged(ObservableList source, int index) {
+            }
+        });
+
+        list.sort(null);
+        events.runAll();
+
+        // the order before the sort is restored from the snapshot, not from
+        // the list which already contains the later element
+        assertEquals(Arrays.<Object>asList(Arrays.asList("c", "a", "b")), removed);
+        assertEquals(Arrays.asList("late", "a", "b", "c"), new ArrayList<String>(list));
+    }
+
+    @Test
+    public void testSnapshotIsNotAffectedByChanges() {
+        ConcurrentObservableList<String> list = new ConcurrentObservableList<String>();
+        list.addAll(Arrays.asList("a", "b", "c"));
+
+        List<String> snapshot = list.snapshot();
+        list.remove(0);
+        list.add("d");
+
+        assertEquals(Arrays.asList("a", "b", "c"), snapshot);
+        assertEquals(Arrays.asList("b", "c", "d"), new ArrayList<String>(list));
+        try {
+            snapshot.add("e");
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testViewsAndBulkWritesNotifyListeners() {
+        QueuedExecutor events = new QueuedExecutor();
+        ConcurrentObservableList<String> list = new ConcurrentObservableList<String>(events);
+        MirroringListener mirror = new MirroringListener();
+        list.addObservableListListener(mirror);
+
+        list.addAll(Arrays.asList("a", "b", "c", "d", "e"));
+        assertTrue(list.remove("b"));
+        assertFalse(list.remove("x"));
+        list.replaceAll(String::toUpperCase);
+        list.subList(1, 3).clear();
+        list.subList(0, 2).set(1, "x");
+        events.runAll();
+
+        assertEquals(Arrays.asList("A", "x"), new ArrayList<String>(list));
+        assertEquals(Arrays.asList("A", "x"), mirror.copy);
+    }
+
+    private static class QueuedExecutor implements java.util.concurrent.Executor {
+        final Queue<Runnable> tasks = new LinkedList<Runnable>();
+
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+
+    private static class MirroringListener implements ObservableListBatchListener {
+        final List<Object> copy = new ArrayList<Object>();
+        int notifications;
+
+        public void listChanged(ObservableList list, ListChangeSet changes) {
+            notifications++;
+            for (ListChangeSet.Change change : changes.getChanges()) {
+                int index = change.getIndex();
+                switch (change.getType()) {
+                    case ADDED:
+                        copy.addAll(index, change.getNewElements());
+                        break;
+                    case REMOVED:
+                        copy.subList(index, index + change.getOldElements().size()).clear();
+                        break;
+                    case REPLACED:
+                        for (int i = 0; i < change.getLength(); i++) {
+                            copy.set(index + i, change.getNewElements().get(i));
+                        }
+                        break;
+                    case PERMUTED:
+                        List<Object> range = copy.subList(index, index + change.getLength());
+                        List<Object> before = new ArrayList<Object>(range);
+                        int[] permutation = change.getPermutation();
+                        for (int i = 0; i < permutation.length; i++) {
+                            range.set(permutation[i], before.get(i));
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+
+        public void listElementsAdded(ObservableList list, int index, int length) {
+            throw new AssertionError();
+        }
+
+        public void listElementsRemoved(ObservableList list, int index, List oldElements) {
+            throw new AssertionError();
+        }
+
+        public void listElementReplaced(ObservableList list, int index, Object oldElement) {
+            throw new AssertionError();
+        }
+
+        public void listElementPropertyChanged(ObservableList list, int index) {
+        }
+    }
+}
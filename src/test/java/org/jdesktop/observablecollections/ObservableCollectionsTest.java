@@ -0,0 +1,672 @@
+package org.jdesktop.observablecollections;
+
+import static org.junit.Assert.*;
+
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.jdesktop.beansbinding.BeanProperty;
+import org.jdesktop.beansbinding.ELProperty;
+import org.jdesktop.beansbinding.PropertyStateEvent;
+import org.jdesktop.beansbinding.PropertyStateListener;
+import org.jdesktop.observablecollections.ListChangeSet.ChangeType;
+import org.jdesktop.xbindings.XNotifyPropertyChanged;
+import org.junit.Test;
+
+public class ObservableCollectionsTest {
+
+	@Test
+	public void testBatchMergesConsecutiveChanges() {
+		final ObservableList<Integer> list = ObservableCollections.observableList(new ArrayList<Integer>());
+		for (int i = 0; i < 1000; i++)
+			list.add(i);
+
+		RecordingBatchListener recorder = new RecordingBatchListener();
+		list.addObservableListListener(recorder);
+
+		list.batch(new Runnable() {
+			@Override
+			public void run() {
+				for (int i = 0; i < 1000; i++)
+					list.set(i, i * 2);
+			}
+		});
+
+		assertEquals(1, recorder.changeSets.size());
+		List<ListChangeSet.Change> changes = recorder.changeSets.get(0).getChanges();
+		assertEquals(1, changes.size());
+		assertEquals(ChangeType.REPLACED, changes.get(0).getType());
+		assertEquals(0, changes.get(0).getIndex());
+		assertEquals(1000, changes.get(0).getLength());
+		assertEquals(Integer.valueOf(999), changes.get(0).getOldElements().get(999));
+		assertEquals(Integer.valueOf(1998), changes.get(0).getNewElements().get(999));
+
+		// elements which are added and removed again in the same batch cancel out
+		recorder.changeSets.clear();
+		list.beginBatch();
+		list.add(5, -1);
+		list.add(6, -2);
+		list.remove(5);
+		list.remove(5);
+		list.endBatch();
+		assertTrue(recorder.changeSets.isEmpty());
+
+		// removing from the back merges into one range
+		list.beginBatch();
+		for (int i = 999; i >= 500; i--)
+			list.remove(i);
+		list.endBatch();
+		assertEquals(1, recorder.changeSets.size());
+		changes = recorder.changeSets.get(0).getChanges();
+		assertEquals(1, changes.size());
+		assertEquals(ChangeType.REMOVED, changes.get(0).getType());
+		assertEquals(500, changes.get(0).getIndex());
+		assertEquals(500, changes.get(0).getLength());
+		assertEquals(Integer.valueOf(1000), changes.get(0).getOldElements().get(0));
+	}
+
+	@Test
+	public void testNestedBatches() {
+		ObservableList<String> list = ObservableCollections.observableList(new ArrayList<String>());
+		RecordingBatchListener recorder = new RecordingBatchListener();
+		list.addObservableListListener(recorder);
+
+		list.beginBatch();
+		list.add("a");
+		list.beginBatch();
+		list.add("b");
+		list.endBatch();
+		assertTrue(list.isBatching());
+		assertTrue(recorder.changeSets.isEmpty());
+		list.add("c");
+		list.endBatch();
+
+		assertFalse(list.isBatching());
+		assertEquals(1, recorder.changeSets.size());
+		assertEquals(Arrays.asList("a", "b", "c"), recorder.changeSets.get(0).getChanges().get(0).getNewElements());
+
+		try {
+			list.endBatch();
+			fail("endBatch() without beginBatch() must fail");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testBatchIsReplayedToLegacyListeners() {
+		ObservableList<String> list = ObservableCollections.observableList(new ArrayList<String>());
+		list.addAll(Arrays.asList("a", "b", "c", "d"));
+
+		MirroringListener mirror = new MirroringListener(list);
+		list.addObservableListListener(mirror);
+
+		// changes in ascending order can be replayed one by one
+		list.beginBatch();
+		list.set(0, "A");
+		list.set(1, "B");
+		list.add("e");
+		list.add("f");
+		list.endBatch();
+		assertEquals(new ArrayList<String>(list), mirror.copy);
+		assertEquals(3, mirror.notifications);
+
+		// a later change moves the elements of an earlier one
+		mirror.notifications = 0;
+		list.beginBatch();
+		list.add(4, "x");
+		list.remove(0);
+		list.set(0, "y");
+		list.endBatch();
+		assertEquals(new ArrayList<String>(list), mirror.copy);
+		assertEquals(2, mirror.notifications);
+	}
+
+	@Test
+	public void testSortIsReportedAsPermutation() {
+		ObservableList<Integer> list = ObservableCollections.observableList(new ArrayList<Integer>());
+		list.addAll(Arrays.asList(0, 5, 1, 2, 3, 4, 9));
+
+		RecordingBatchListener recorder = new RecordingBatchListener();
+		list.addObservableListListener(recorder);
+		MirroringListener mirror = new MirroringListener(list);
+		list.addObservableListListener(mirror);
+
+		list.sort(null);
+		assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 9), new ArrayList<Integer>(list));
+
+		// only the moved range is reported
+		assertEquals(1, recorder.changeSets.size());
+		ListChangeSet.Change change = recorder.changeSets.get(0).getChanges().get(0);
+		assertEquals(ChangeType.PERMUTED, change.getType());
+		assertEquals(1, change.getIndex());
+		assertEquals(5, change.getLength());
+		assertArrayEquals(new int[] { 4, 0, 1, 2, 3 }, change.getPermutation());
+
+		// plain listeners see the range removed and added again
+		assertEquals(new ArrayList<Integer>(list), mirror.copy);
+		assertEquals(2, mirror.notifications);
+
+		// sorting a sorted list changes nothing
+		list.sort(null);
+		assertEquals(1, recorder.changeSets.size());
+	}
+
+	@Test
+	public void testChangeListenerReceivesEveryChange() {
+		ObservableList<String> list = ObservableCollections.observableList(new ArrayList<String>());
+		final List<ListChangeSet> received = new ArrayList<ListChangeSet>();
+		ObservableListChangeListener listener = new ObservableListChangeListener() {
+			@Override
+			public void listChanged(ObservableList list, ListChangeSet changes) {
+				received.add(changes);
+			}
+		};
+
+		list.addObservableListChangeListener(listener);
+		list.add("a");
+		list.add("b");
+		list.set(0, "c");
+		assertEquals(3, received.size());
+		assertEquals(ChangeType.ADDED, received.get(1).getChanges().get(0).getType());
+		assertEquals(Arrays.asList("b"), received.get(1).getChanges().get(0).getNewElements());
+		assertEquals(Arrays.asList("a"), received.get(2).getChanges().get(0).getOldElements());
+		assertEquals(Arrays.asList("c"), received.get(2).getChanges().get(0).getNewElements());
+
+		list.batch(() -> {
+			list.remove(0);
+			list.remove(0);
+		});
+		assertEquals(4, received.size());
+		assertEquals(Arrays.asList("c", "b"), received.get(3).getChanges().get(0).getOldElements());
+
+		list.removeObservableListChangeListener(listener);
+		list.add("d");
+		assertEquals(4, received.size());
+	}
+
+	@Test
+	public void testMapChangeListenerReceivesEveryChange() {
+		ObservableMap<String, Integer> map = ObservableCollections.observableMap(new HashMap<String, Integer>());
+		final List<MapChangeSet> received = new ArrayList<MapChangeSet>();
+		ObservableMapChangeListener listener = new ObservableMapChangeListener() {
+			@Override
+			public void mapChanged(ObservableMap map, MapChangeSet changes) {
+				received.add(changes);
+			}
+		};
+
+		map.addObservableMapChangeListener(listener);
+		map.put("a", 1);
+		map.put("a", 2);
+		map.remove("a");
+		assertEquals(3, received.size());
+		assertEquals(MapChangeSet.ChangeType.ADDED, received.get(0).getChangeType("a"));
+		assertEquals(MapChangeSet.ChangeType.CHANGED, received.get(1).getChangeType("a"));
+		assertEquals(1, received.get(1).getOldValue("a"));
+		assertEquals(MapChangeSet.ChangeType.REMOVED, received.get(2).getChangeType("a"));
+		assertEquals(2, received.get(2).getOldValue("a"));
+
+		map.batch(() -> {
+			map.put("b", 1);
+			map.put("c", 1);
+		});
+		assertEquals(4, received.size());
+		assertEquals(2, received.get(3).size());
+
+		map.removeObservableMapChangeListener(listener);
+		map.put("d", 1);
+		assertEquals(4, received.size());
+	}
+
+	@Test
+	public void testClear() {
+		for (ObservableList<String> list : Arrays.asList(
+				ObservableCollections.observableArrayList(Arrays.asList("a", "b", "c")),
+				ObservableCollections.observableList(new ArrayList<String>(Arrays.asList("a", "b", "c"))))) {
+
+			// without listeners
+			list.clear();
+			assertTrue(list.isEmpty());
+
+			list.addAll(Arrays.asList("a", "b", "c"));
+			MirroringListener mirror = new MirroringListener(list);
+			list.addObservableListListener(mirror);
+
+			list.clear();
+			assertTrue(list.isEmpty());
+			assertTrue(mirror.copy.isEmpty());
+			assertEquals(1, mirror.notifications);
+
+			// the list is usable after its storage has been replaced
+			list.add("d");
+			assertEquals(Arrays.asList("d"), mirror.copy);
+		}
+	}
+
+	@Test
+	public void testBulkOperationsNotifyOnce() {
+		for (ObservableList<Integer> list : Arrays.asList(
+				ObservableCollections.observableList(new ArrayList<Integer>()),
+				ObservableCollections.<Integer>observableArrayList())) {
+			for (int i = 0; i < 1000; i++)
+				list.add(i);
+
+			RecordingBatchListener recorder = new RecordingBatchListener();
+			list.addObservableListListener(recorder);
+			MirroringListener mirror = new MirroringListener(list);
+			list.addObservableListListener(mirror);
+
+			// removeRange
+			list.subList(100, 200).clear();
+			assertEquals(900, list.size());
+			assertEquals(Integer.valueOf(200), list.get(100));
+			assertEquals(1, mirror.notifications);
+
+			// removeIf: one change set with one range per run of removed elements
+			assertTrue(list.removeIf(i -> i >= 500 && i < 600 || i >= 800 && i < 900));
+			assertFalse(list.removeIf(i -> i < 0));
+			assertEquals(700, list.size());
+			assertEquals(2, recorder.changeSets.size());
+			assertEquals(2, recorder.changeSets.get(1).getChanges().size());
+			assertEquals(ListChangeSet.ChangeType.REMOVED, recorder.changeSets.get(1).getChanges().get(1).getType());
+			assertEquals(400, recorder.changeSets.get(1).getChanges().get(0).getIndex());
+			assertEquals(600, recorder.changeSets.get(1).getChanges().get(1).getIndex());
+			assertEquals(new ArrayList<Integer>(list), mirror.copy);
+			assertEquals(3, mirror.notifications);
+
+			// setAll: one replaced run and the added rest
+			List<Integer> newContent = new ArrayList<Integer>();
+			for (int i = 0; i < 2000; i++)
+				newContent.add(-i);
+			mirror.notifications = 0;
+			assertTrue(list.setAll(newContent));
+			assertEquals(newContent, new ArrayList<Integer>(list));
+			assertEquals(3, recorder.changeSets.size());
+			List<ListChangeSet.Change> changes = recorder.changeSets.get(2).getChanges();
+			assertEquals(2, changes.size());
+			assertEquals(ListChangeSet.ChangeType.REPLACED, changes.get(0).getType());
+			assertEquals(700, changes.get(0).getLength());
+			assertEquals(ListChangeSet.ChangeType.ADDED, changes.get(1).getType());
+			assertEquals(1300, changes.get(1).getLength());
+			assertEquals(newContent, mirror.copy);
+			assertEquals(3, mirror.notifications);
+
+			// replaceRange which shrinks the range
+			list.replaceRange(10, 20, Arrays.asList(1, 2, 3));
+			assertEquals(1993, list.size());
+			assertEquals(Integer.valueOf(3), list.get(12));
+			assertEquals(Integer.valueOf(-20), list.get(13));
+			assertEquals(new ArrayList<Integer>(list), mirror.copy);
+		}
+	}
+
+	@Test
+	public void testObservedElements() {
+		Bean a = new Bean();
+		Bean b = new Bean();
+		ObservableList<Object> list = ObservableCollections.observableList(new ArrayList<Object>(), true);
+		assertTrue(list.supportsElementPropertyChanged());
+		list.addAll(Arrays.asList(a, "no bean", b));
+
+		List<Integer> changed = new ArrayList<Integer>();
+		list.addObservableListListener(new MirroringListener(list) {
+			@Override
+			public void listElementPropertyChanged(ObservableList list, int index) {
+				changed.add(index);
+			}
+		});
+
+		b.setValue(1);
+		assertEquals(Arrays.asList(2), changed);
+
+		// positions follow structural changes
+		list.add(0, "first");
+		b.setValue(2);
+		assertEquals(Arrays.asList(2, 3), changed);
+
+		// an element contained twice is observed once and reported for both positions
+		changed.clear();
+		list.add(a);
+		assertEquals(1, a.changeSupport.getPropertyChangeListeners().length);
+		a.setValue(1);
+		assertEquals(Arrays.asList(1, 4), changed);
+
+		// removed elements are not observed anymore
+		changed.clear();
+		list.remove(4);
+		assertEquals(1, a.changeSupport.getPropertyChangeListeners().length);
+		list.remove(a);
+		assertEquals(0, a.changeSupport.getPropertyChangeListeners().length);
+		a.setValue(2);
+		assertTrue(changed.isEmpty());
+
+		list.clear();
+		assertEquals(0, b.changeSupport.getPropertyChangeListeners().length);
+	}
+
+	@Test
+	public void testObservedElementPositionsFollowChanges() {
+		Random rnd = new Random(7);
+		Bean[] pool = new Bean[20];
+		for (int i = 0; i < pool.length; i++)
+			pool[i] = new Bean();
+
+		ObservableList<Object> list = ObservableCollections.observableList(new ArrayList<Object>(), true);
+		List<Object> expected = new ArrayList<Object>();
+		List<Integer> changed = new ArrayList<Integer>();
+		list.addObservableListListener(new MirroringListener(list) {
+			@Override
+			public void listElementPropertyChanged(ObservableList list, int index) {
+				changed.add(index);
+			}
+		});
+
+		for (int step = 0; step < 3000; step++) {
+			Bean element = pool[rnd.nextInt(pool.length)];
+			int index = expected.isEmpty() ? 0 : rnd.nextInt(expected.size());
+
+			switch (rnd.nextInt(6)) {
+				case 0:
+				case 1:
+					list.add(index, element);
+					expected.add(index, element);
+					break;
+				case 2:
+					if (!expected.isEmpty()) {
+						list.remove(index);
+						expected.remove(index);
+					}
+					break;
+				case 3:
+					if (!expected.isEmpty()) {
+						list.set(index, element);
+						expected.set(index, element);
+					}
+					break;
+				case 4:
+					// several changes delivered as one change set
+					list.batch(() -> {
+						list.add(0, element);
+						list.remove(list.size() - 1);
+					});
+					expected.add(0, element);
+					expected.remove(expected.size() - 1);
+					break;
+				default:
+					if (step % 50 == 0) {
+						list.sort((a, b) -> Integer.compare(System.identityHashCode(a), System.identityHashCode(b)));
+						expected.sort((a, b) -> Integer.compare(System.identityHashCode(a), System.identityHashCode(b)));
+					}
+			}
+
+			changed.clear();
+			element.setValue(step);
+			List<Integer> positions = new ArrayList<Integer>();
+			for (int i = 0; i < expected.size(); i++) {
+				if (expected.get(i) == element)
+					positions.add(i);
+			}
+			assertEquals(positions, changed);
+		}
+	}
+
+	@Test
+	public void testIndexedListFindsElementsByIdentity() {
+		Random rnd = new Random(42);
+		Object[] pool = new Object[50];
+		for (int i = 0; i < pool.length; i++)
+			pool[i] = new Object();
+
+		ObservableList<Object> list = ObservableCollections.indexedObservableList();
+		List<Object> expected = new ArrayList<Object>();
+		for (int step = 0; step < 5000; step++) {
+			Object element = pool[rnd.nextInt(pool.length)];
+			int index = expected.isEmpty() ? 0 : rnd.nextInt(expected.size());
+
+			switch (rnd.nextInt(6)) {
+				case 0:
+					list.add(index, element);
+					expected.add(index, element);
+					break;
+				case 1:
+					List<Object> added = Arrays.asList(element, pool[rnd.nextInt(pool.length)]);
+					list.addAll(index, added);
+					expected.addAll(index, added);
+					break;
+				case 2:
+					if (!expected.isEmpty()) {
+						list.set(index, element);
+						expected.set(index, element);
+					}
+					break;
+				case 3:
+					assertEquals(expected.remove(element), list.remove(element));
+					break;
+				case 4:
+					if (!expected.isEmpty()) {
+						assertSame(expected.remove(index), list.remove(index));
+					}
+					break;
+				default:
+					int to = Math.min(expected.size(), index + rnd.nextInt(5));
+					list.subList(index, to).clear();
+					expected.subList(index, to).clear();
+			}
+
+			Object probe = pool[rnd.nextInt(pool.length)];
+			assertEquals(expected.indexOf(probe), list.indexOf(probe));
+			assertEquals(expected.lastIndexOf(probe), list.lastIndexOf(probe));
+			assertEquals(expected.contains(probe), list.contains(probe));
+		}
+		assertEquals(expected, new ArrayList<Object>(list));
+
+		// equal but not identical elements are not found
+		list.clear();
+		list.add(new String("a"));
+		assertFalse(list.contains(new String("a")));
+	}
+
+	@Test
+	public void testMapBulkChangesNotifyOnce() {
+		ObservableMap<String, Integer> map = ObservableCollections.observableMap(new HashMap<String, Integer>());
+		final List<MapChangeSet> batches = new ArrayList<MapChangeSet>();
+		final List<String> single = new ArrayList<String>();
+		map.addObservableMapListener(new ObservableMapBatchListener() {
+			public void mapChanged(ObservableMap map, MapChangeSet changes) {
+				batches.add(changes);
+			}
+
+			public void mapKeyValueChanged(ObservableMap map, Object key, Object lastValue) {
+				single.add("changed " + key);
+			}
+
+			public void mapKeyAdded(ObservableMap map, Object key) {
+				single.add("added " + key);
+			}
+
+			public void mapKeyRemoved(ObservableMap map, Object key, Object value) {
+				single.add("removed " + key);
+			}
+		});
+		final Map<String, Integer> mirror = new HashMap<String, Integer>();
+		map.addObservableMapListener(new ObservableMapListener() {
+			public void mapKeyValueChanged(ObservableMap map, Object key, Object lastValue) {
+				mirror.put((String) key, (Integer) map.get(key));
+			}
+
+			public void mapKeyAdded(ObservableMap map, Object key) {
+				mirror.put((String) key, (Integer) map.get(key));
+			}
+
+			public void mapKeyRemoved(ObservableMap map, Object key, Object value) {
+				mirror.remove(key);
+			}
+		});
+
+		Map<String, Integer> reload = new HashMap<String, Integer>();
+		for (int i = 0; i < 10000; i++)
+			reload.put("key" + i, i);
+		map.putAll(reload);
+		assertEquals(1, batches.size());
+		assertEquals(10000, batches.get(0).size());
+		assertTrue(single.isEmpty());
+		assertEquals(map, mirror);
+
+		// changes of a key are coalesced
+		batches.clear();
+		map.batch(() -> {
+			map.put("key1", -1);
+			map.put("key1", -2);
+			map.remove("key2");
+			map.put("key2", 2);
+			map.put("new", 0);
+			map.remove("new");
+			map.remove("key3");
+		});
+		assertEquals(1, batches.size());
+		MapChangeSet changes = batches.get(0);
+		assertEquals(3, changes.size());
+		assertEquals(MapChangeSet.ChangeType.CHANGED, changes.getChangeType("key1"));
+		assertEquals(Integer.valueOf(1), changes.getOldValue("key1"));
+		assertEquals(MapChangeSet.ChangeType.CHANGED, changes.getChangeType("key2"));
+		assertEquals(MapChangeSet.ChangeType.REMOVED, changes.getChangeType("key3"));
+		assertFalse(changes.containsKey("new"));
+		assertEquals(map, mirror);
+
+		// single changes outside of a batch are sent as before
+		map.put("key4", 0);
+		assertEquals(Arrays.asList("changed key4"), single);
+
+		batches.clear();
+		map.clear();
+		assertEquals(1, batches.size());
+		assertEquals(9999, batches.get(0).size());
+		assertTrue(mirror.isEmpty());
+	}
+
+	@Test
+	public void testMapBatchEvaluatesBindingsOnce() {
+		ObservableMap<String, Object> map = ObservableCollections.observableMap(new HashMap<String, Object>());
+		map.put("value", 0);
+		final int[] notifications = new int[2];
+
+		BeanProperty<ObservableMap<String, Object>, Object> beanProperty = BeanProperty.create("value");
+		beanProperty.addPropertyStateListener(map, new PropertyStateListener() {
+			public void propertyStateChanged(PropertyStateEvent pse) {
+				notifications[0]++;
+			}
+		});
+		ELProperty<ObservableMap<String, Object>, Object> elProperty = ELProperty.create("${value}");
+		elProperty.addPropertyStateListener(map, new PropertyStateListener() {
+			public void propertyStateChanged(PropertyStateEvent pse) {
+				notifications[1]++;
+			}
+		});
+
+		Map<String, Object> reload = new HashMap<String, Object>();
+		for (int i = 0; i < 1000; i++)
+			reload.put("other" + i, i);
+		reload.put("value", 1);
+		map.putAll(reload);
+
+		assertEquals(1, notifications[0]);
+		assertEquals(1, notifications[1]);
+		assertEquals(1, beanProperty.getValue(map));
+		assertEquals(1, elProperty.getValue(map));
+	}
+
+	public static class Bean implements XNotifyPropertyChanged {
+		PropertyChangeSupport changeSupport = new PropertyChangeSupport(this);
+		int value;
+
+		public int getValue() {
+			return value;
+		}
+
+		public void setValue(int newValue) {
+			int oldValue = value;
+			value = newValue;
+			changeSupport.firePropertyChange("value", oldValue, newValue);
+		}
+
+		@Override
+		public void addPropertyChangeListener(PropertyChangeListener listener) {
+			changeSupport.addPropertyChangeListener(listener);
+		}
+
+		@Override
+		public void removePropertyChangeListener(PropertyChangeListener listener) {
+			changeSupport.removePropertyChangeListener(listener);
+		}
+	}
+
+	private static class RecordingBatchListener implements ObservableListBatchListener {
+		List<ListChangeSet> changeSets = new ArrayList<ListChangeSet>();
+
+		@Override
+		public void listChanged(ObservableList list, ListChangeSet changes) {
+			changeSets.add(changes);
+		}
+
+		@Override
+		public void listElementsAdded(ObservableList list, int index, int length) {
+		}
+
+		@Override
+		public void listElementsRemoved(ObservableList list, int index, List oldElements) {
+		}
+
+		@Override
+		public void listElementReplaced(ObservableList list, int index, Object oldElement) {
+		}
+
+		@Override
+		public void listElementPropertyChanged(ObservableList list, int index) {
+		}
+	}
+
+	/**
+	 * Keeps a copy of the list like the bindings do,
+	 * reading added elements from the list when notified
+	 */
+	private static class MirroringListener implements ObservableListListener {
+		List<Object> copy;
+		int notifications = 0;
+
+		MirroringListener(List<?> list) {
+			copy = new ArrayList<Object>(list);
+		}
+
+		@Override
+		public void listElementsAdded(ObservableList list, int index, int length) {
+			copy.addAll(index, list.subList(index, index + length));
+			notifications++;
+		}
+
+		@Override
+		public void listElementsRemoved(ObservableList list, int index, List oldElements) {
+			assertEquals(oldElements, copy.subList(index, index + oldElements.size()));
+			copy.subList(index, index + oldElements.size()).clear();
+			notifications++;
+		}
+
+		@Override
+		public void listElementReplaced(ObservableList list, int index, Object oldElement) {
+			assertEquals(oldElement, copy.get(index));
+			copy.set(index, list.get(index));
+			notifications++;
+		}
+
+		@Override
+		public void listElementPropertyChanged(ObservableList list, int index) {
+			notifications++;
+		}
+	}
+}
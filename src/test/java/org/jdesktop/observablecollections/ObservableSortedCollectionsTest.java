@@ -0,0 +1,191 @@
+package org.jdesktop.observablecollections;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+public class ObservableSortedCollectionsTest {
+
+	@Test
+	public void testSortedSetBehavesLikeTreeSet() {
+		Random rnd = new Random(42);
+		TreeSet<Integer> expected = new TreeSet<Integer>(Collections.reverseOrder());
+		ObservableSortedSet<Integer> actual = ObservableCollections.observableSortedSet(Collections.reverseOrder());
+		ListMirror mirror = new ListMirror();
+		actual.asList().addObservableListListener(mirror);
+
+		for (int step = 0; step < 3000; step++) {
+			int value = rnd.nextInt(500);
+			switch (rnd.nextInt(6)) {
+				case 0:
+				case 1:
+					assertEquals(expected.add(value), actual.add(value));
+					break;
+				case 2:
+					assertEquals(expected.remove(value), actual.remove(value));
+					break;
+				case 3:
+					assertEquals(expected.pollFirst(), actual.pollFirst());
+					break;
+				case 4:
+					List<Integer> values = Arrays.asList(value, value + 1, value + 7);
+					assertEquals(expected.addAll(values), actual.addAll(values));
+					break;
+				default:
+					// changes through views are reported as well
+					int to = value + rnd.nextInt(20);
+					expected.subSet(to, false, value, true).clear();
+					actual.subSet(to, false, value, true).clear();
+			}
+
+			int probe = rnd.nextInt(500);
+			assertEquals(expected.ceiling(probe), actual.ceiling(probe));
+			assertEquals(expected.floor(probe), actual.floor(probe));
+			assertEquals(expected.higher(probe), actual.higher(probe));
+			assertEquals(expected.lower(probe), actual.lower(probe));
+			assertEquals(expected.headSet(probe).size(), actual.headSet(probe).size());
+			assertEquals(expected.size(), actual.size());
+		}
+
+		List<Integer> sorted = new ArrayList<Integer>(expected);
+		assertEquals(sorted, new ArrayList<Integer>(actual));
+		assertEquals(sorted, mirror.copy);
+		for (int i = 0; i < sorted.size(); i++) {
+			assertEquals(sorted.get(i), actual.get(i));
+			assertEquals(i, actual.indexOf(sorted.get(i)));
+		}
+		assertEquals(-1, actual.indexOf(1000));
+	}
+
+	@Test
+	public void testSortedSetViews() {
+		ObservableSortedSet<Integer> set = ObservableCollections.observableSortedSet(null);
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+		for (int i = 0; i < 100; i += 2) {
+			set.add(i);
+			expected.add(i);
+		}
+
+		NavigableSet<Integer> view = set.subSet(10, true, 30, false).descendingSet();
+		NavigableSet<Integer> expectedView = expected.subSet(10, true, 30, false).descendingSet();
+		assertEquals(new ArrayList<Integer>(expectedView), new ArrayList<Integer>(view));
+		assertEquals(expectedView.first(), view.first());
+		assertEquals(expectedView.ceiling(15), view.ceiling(15));
+		assertEquals(expectedView.higher(28), view.higher(28));
+		assertEquals(new ArrayList<Integer>(expectedView.headSet(20, true)),
+				new ArrayList<Integer>(view.headSet(20, true)));
+
+		// views are live and check their range
+		set.add(15);
+		assertTrue(view.contains(15));
+		try {
+			view.add(40);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+			view.subSet(40, 0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+
+		Iterator<Integer> it = view.iterator();
+		while (it.hasNext()) {
+			if (it.next() % 4 == 0)
+				it.remove();
+		}
+		assertEquals(Arrays.asList(26, 22, 18, 15, 14, 10), new ArrayList<Integer>(view));
+		assertTrue(set.contains(30));
+	}
+
+	@Test
+	public void testNavigableMapBehavesLikeTreeMap() {
+		Random rnd = new Random(7);
+		TreeMap<String, Integer> expected = new TreeMap<String, Integer>();
+		ObservableNavigableMap<String, Integer> actual = ObservableCollections.observableNavigableMap(null);
+		ListMirror mirror = new ListMirror();
+		actual.entryList().addObservableListListener(mirror);
+		final List<String> events = new ArrayList<String>();
+		actual.addObservableMapListener(new ObservableMapListener() {
+			public void mapKeyValueChanged(ObservableMap map, Object key, Object lastValue) {
+				events.add("changed " + key);
+			}
+
+			public void mapKeyAdded(ObservableMap map, Object key) {
+				events.add("added " + key);
+			}
+
+			public void mapKeyRemoved(ObservableMap map, Object key, Object value) {
+				events.add("removed " + key);
+			}
+		});
+
+		for (int step = 0; step < 2000; step++) {
+			String key = "k" + rnd.nextInt(300);
+			switch (rnd.nextInt(4)) {
+				case 0:
+				case 1:
+					assertEquals(expected.put(key, step), actual.put(key, step));
+					break;
+				case 2:
+					assertEquals(expected.remove(key), actual.remove(key));
+					break;
+				default:
+					assertEquals(expected.pollLastEntry(), actual.pollLastEntry());
+			}
+
+			assertEquals(expected.ceilingEntry(key), actual.ceilingEntry(key));
+			assertEquals(expected.lowerKey(key), actual.lowerKey(key));
+			assertEquals(expected.headMap(key, true), actual.headMap(key, true));
+			assertEquals(expected.size(), actual.size());
+		}
+
+		assertEquals(expected, actual);
+		assertEquals(new ArrayList<Map.Entry<String, Integer>>(expected.entrySet()), mirror.copy);
+		assertEquals(expected.descendingMap().firstKey(), actual.descendingMap().firstKey());
+
+		NavigableMap<String, Integer> tail = actual.tailMap("k5", true);
+		assertEquals(expected.tailMap("k5", true), tail);
+		assertEquals(expected.firstKey(), actual.entryList().get(0).getKey());
+		assertEquals(0, actual.indexOfKey(expected.firstKey()));
+
+		events.clear();
+		actual.put("a", -1);
+		actual.put("a", -2);
+		actual.remove("a");
+		assertEquals(Arrays.asList("added a", "changed a", "removed a"), events);
+	}
+
+	private static class ListMirror implements ObservableListListener {
+		final List<Object> copy = new ArrayList<Object>();
+
+		public void listElementsAdded(ObservableList list, int index, int length) {
+			copy.addAll(index, list.subList(index, index + length));
+		}
+
+		public void listElementsRemoved(ObservableList list, int index, List oldElements) {
+			copy.subList(index, index + oldElements.size()).clear();
+		}
+
+		public void listElementReplaced(ObservableList list, int index, Object oldElement) {
+			copy.set(index, list.get(index));
+		}
+
+		public void listElementPropertyChanged(ObservableList list, int index) {
+		}
+	}
+}
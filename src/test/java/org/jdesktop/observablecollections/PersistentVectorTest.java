@@ -0,0 +1,126 @@
+package org.jdesktop.observablecollections;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PersistentVectorTest {
+
+    @Test
+    public void testBehavesLikeArrayList() {
+        Random rnd = new Random(42);
+        List<Integer> expected = new ArrayList<Integer>();
+        PersistentVector<Integer> actual = PersistentVector.empty();
+
+        for (int step = 0; step < 3000; step++) {
+            int size = expected.size();
+            int index = size == 0 ? 0 : rnd.nextInt(size);
+
+            switch (rnd.nextInt(6)) {
+                case 0:
+                case 1:
+                    // grow in chunks to get a trie with several levels
+                    List<Integer> added = new ArrayList<Integer>();
+                    for (int i = rnd.nextInt(100); i > 0; i--) {
+                        added.add(rnd.nextInt());
+                    }
+                    expected.addAll(added);
+                    actual = actual.plusAll(added);
+                    break;
+                case 2:
+                    int value = rnd.nextInt();
+                    expected.add(value);
+                    actual = actual.plus(value);
+                    break;
+                case 3:
+                    if (size > 0) {
+                        expected.set(index, step);
+                        actual = actual.with(index, step);
+                    }
+                    break;
+                case 4:
+                    expected.addAll(index, Arrays.asList(-step, step));
+                    actual = actual.insertAll(index, Arrays.asList(-step, step));
+                    break;
+                default:
+                    int to = Math.min(size, index + rnd.nextInt(40));
+                    expected.subList(index, to).clear();
+                    actual = actual.withoutRange(index, to);
+            }
+
+            assertEquals(expected.size(), actual.size());
+            if (step % 100 == 0) {
+                assertEquals(expected, actual);
+            }
+        }
+        assertEquals(expected, actual);
+
+        // several levels, truncated back to a single leaf
+        List<Integer> large = new ArrayList<Integer>();
+        for (int i = 0; i < 40000; i++) {
+            large.add(i);
+        }
+        PersistentVector<Integer> vector = PersistentVector.of(large);
+        assertEquals(large, vector);
+        assertEquals(large.subList(0, 33000), vector.truncate(33000));
+        assertEquals(large.subList(0, 1025), vector.truncate(1025));
+        assertEquals(large.subList(0, 20), vector.truncate(20).plusAll(large.subList(20, 20)));
+        assertEquals(large.subList(0, 1100), vector.truncate(1024).plusAll(large.subList(1024, 1100)));
+    }
+
+    @Test
+    public void testVersionsAreIndependent() {
+        PersistentVector<String> first = PersistentVector.of(Arrays.asList("a", "b", "c"));
+        PersistentVector<String> second = first.with(1, "B").plus("d");
+
+        assertEquals(Arrays.asList("a", "b", "c"), first);
+        assertEquals(Arrays.asList("a", "B", "c", "d"), second);
+        try {
+            first.add("e");
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testObservableListSnapshots() {
+        ObservableList<String> list = ObservableCollections.persistentObservableList();
+        final List<List<?>> removed = new ArrayList<List<?>>();
+        list.addObservableListListener(new ObservableListListener() {
+            public void listElementsAdded(ObservableList list, int index, int length) {
+            }
+
+            public void listElementsRemoved(ObservableList list, int index, List oldElements) {
+                removed.add(oldElements);
+            }
+
+            public void listElementReplaced(ObservableList list, int index, Object oldElement) {
+            }
+
+            public void listElementPropertyChanged(ObservableList list, int index) {
+            }
+        });
+
+        list.addAll(Arrays.asList("c", "a", "b"));
+        List<String> snapshot = ObservableCollections.snapshot(list);
+        assertTrue(snapshot instanceof PersistentVector);
+
+        list.sort(null);
+        list.add(0, "x");
+        list.subList(1, 3).clear();
+        assertEquals(Arrays.asList("c", "a", "b"), snapshot);
+        assertEquals(Arrays.asList("x", "c"), new ArrayList<String>(list));
+
+        // clear hands out the old version instead of copying it
+        List<String> beforeClear = ObservableCollections.snapshot(list);
+        list.clear();
+        assertEquals(beforeClear, removed.get(removed.size() - 1));
+        assertTrue(list.isEmpty());
+    }
+}
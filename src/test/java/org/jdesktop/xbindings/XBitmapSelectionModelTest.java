@@ -0,0 +1,182 @@
+package org.jdesktop.xbindings;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.swing.DefaultListSelectionModel;
+import javax.swing.JTable;
+import javax.swing.ListSelectionModel;
+
+import org.jdesktop.observablecollections.ObservableCollections;
+import org.jdesktop.observablecollections.ObservableList;
+import org.junit.Test;
+
+public class XBitmapSelectionModelTest {
+
+	@Test
+	public void testRunsAndCardinality() {
+		XBitmapSelectionModel model = new XBitmapSelectionModel();
+
+		model.addSelectionInterval(10, 19);
+		model.addSelectionInterval(30, 39);
+		model.addSelectionInterval(1000000, 1000009);
+		assertEquals(3, model.getSelectedRunCount());
+		assertEquals(30, model.getSelectedItemsCount());
+		assertEquals(10, model.getMinSelectionIndex());
+		assertEquals(1000009, model.getMaxSelectionIndex());
+
+		// joining two runs
+		model.addSelectionInterval(20, 29);
+		assertEquals(2, model.getSelectedRunCount());
+		assertEquals(40, model.getSelectedItemsCount());
+
+		// splitting a run
+		model.removeSelectionInterval(15, 15);
+		assertEquals(3, model.getSelectedRunCount());
+		assertFalse(model.isSelectedIndex(15));
+		assertTrue(model.isSelectedIndex(16));
+
+		// inserting rows shifts the selection behind them
+		model.insertIndexInterval(0, 5, true);
+		assertTrue(model.isSelectedIndex(15));
+		assertFalse(model.isSelectedIndex(20));
+		assertTrue(model.isSelectedIndex(1000014));
+
+		// removing rows shifts the selection back
+		model.removeIndexInterval(0, 4);
+		assertEquals(10, model.getMinSelectionIndex());
+		assertEquals(1000009, model.getMaxSelectionIndex());
+		assertEquals(39, model.getSelectedItemsCount());
+	}
+
+	@Test
+	public void testBehavesLikeDefaultListSelectionModel() {
+		Random rnd = new Random(42);
+
+		for (int mode : new int[] { ListSelectionModel.SINGLE_SELECTION, ListSelectionModel.SINGLE_INTERVAL_SELECTION,
+				ListSelectionModel.MULTIPLE_INTERVAL_SELECTION }) {
+			DefaultListSelectionModel expected = new DefaultListSelectionModel();
+			XBitmapSelectionModel actual = new XBitmapSelectionModel();
+			expected.setSelectionMode(mode);
+			actual.setSelectionMode(mode);
+
+			for (int step = 0; step < 2000; step++) {
+				int index0 = rnd.nextInt(60);
+				int index1 = rnd.nextInt(60);
+
+				switch (rnd.nextInt(8)) {
+					case 0:
+						expected.setSelectionInterval(index0, index1);
+						actual.setSelectionInterval(index0, index1);
+						break;
+					case 1:
+					case 2:
+						expected.addSelectionInterval(index0, index1);
+						actual.addSelectionInterval(index0, index1);
+						break;
+					case 3:
+						expected.removeSelectionInterval(index0, index1);
+						actual.removeSelectionInterval(index0, index1);
+						break;
+					case 4:
+						boolean before = rnd.nextBoolean();
+						expected.insertIndexInterval(index0, 1 + index1 % 5, before);
+						actual.insertIndexInterval(index0, 1 + index1 % 5, before);
+						break;
+					case 5:
+						expected.removeIndexInterval(index0, index0 + index1 % 5);
+						actual.removeIndexInterval(index0, index0 + index1 % 5);
+						break;
+					case 6:
+						expected.setLeadSelectionIndex(index0);
+						actual.setLeadSelectionIndex(index0);
+						break;
+					default:
+						expected.clearSelection();
+						actual.clearSelection();
+				}
+
+				assertSameSelection(expected, actual);
+			}
+		}
+	}
+
+	@Test
+	public void testMultiSelectionBindingWithBitmapSelectionModel() {
+		ObservableList<String> items = ObservableCollections.observableList(new ArrayList<String>());
+		for (int i = 0; i < 100; i++)
+			items.add("Item" + i);
+		ObservableList<String> selectedItems = ObservableCollections.observableList(new ArrayList<String>());
+
+		JTable table = new JTable();
+		table.setSelectionModel(new XBitmapSelectionModel());
+		XTableBinding tableBinding = XTableBinding.createJTableBinding(items, table);
+		tableBinding.addColumnBinding("Column1");
+		tableBinding.bindMultiSelection(selectedItems);
+
+		table.getSelectionModel().addSelectionInterval(10, 19);
+		table.getSelectionModel().addSelectionInterval(50, 50);
+		assertEquals(11, selectedItems.size());
+		assertTrue(selectedItems.contains("Item50"));
+
+		table.getSelectionModel().removeSelectionInterval(10, 14);
+		assertEquals(6, selectedItems.size());
+		assertFalse(selectedItems.contains("Item10"));
+
+		selectedItems.add("Item99");
+		assertTrue(table.isRowSelected(99));
+	}
+
+	@Test
+	public void testMultiSelectionBindingFollowsRandomIntervals() {
+		ObservableList<String> items = ObservableCollections.observableList(new ArrayList<String>());
+		for (int i = 0; i < 200; i++)
+			items.add("Item" + i);
+		ObservableList<String> selectedItems = ObservableCollections.observableList(new ArrayList<String>());
+
+		JTable table = new JTable();
+		table.setSelectionModel(new XBitmapSelectionModel());
+		XTableBinding tableBinding = XTableBinding.createJTableBinding(items, table);
+		tableBinding.addColumnBinding("Column1");
+		tableBinding.bindMultiSelection(selectedItems);
+
+		Random rnd = new Random(7);
+		ListSelectionModel model = table.getSelectionModel();
+		for (int step = 0; step < 500; step++) {
+			int index0 = rnd.nextInt(200);
+			int index1 = Math.min(199, index0 + rnd.nextInt(20));
+			if (rnd.nextBoolean())
+				model.addSelectionInterval(index0, index1);
+			else
+				model.removeSelectionInterval(index0, index1);
+
+			List<String> expected = new ArrayList<String>();
+			for (int row : table.getSelectedRows())
+				expected.add(items.get(row));
+			assertEquals(expected.size(), selectedItems.size());
+			assertTrue(selectedItems.containsAll(expected));
+		}
+	}
+
+	private void assertSameSelection(DefaultListSelectionModel expected, XBitmapSelectionModel actual) {
+		assertEquals(expected.getMinSelectionIndex(), actual.getMinSelectionIndex());
+		assertEquals(expected.getMaxSelectionIndex(), actual.getMaxSelectionIndex());
+		assertEquals(expected.getAnchorSelectionIndex(), actual.getAnchorSelectionIndex());
+		assertEquals(expected.getLeadSelectionIndex(), actual.getLeadSelectionIndex());
+
+		List<Integer> expectedIndices = new ArrayList<Integer>();
+		for (int i = 0; i <= expected.getMaxSelectionIndex(); i++)
+			if (expected.isSelectedIndex(i))
+				expectedIndices.add(i);
+
+		List<Integer> actualIndices = new ArrayList<Integer>();
+		for (int i : actual.getSelectedIndices())
+			actualIndices.add(i);
+
+		assertEquals(expectedIndices, actualIndices);
+		assertEquals(expectedIndices.size(), actual.getSelectedItemsCount());
+	}
+}
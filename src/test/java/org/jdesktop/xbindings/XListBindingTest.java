@@ -2,9 +2,18 @@ package org.jdesktop.xbindings;
 
 import static org.junit.Assert.*;
 
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
+import javax.swing.DefaultListCellRenderer;
 import javax.swing.JList;
+import javax.swing.SwingUtilities;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
 
 import org.jdesktop.observablecollections.ObservableCollections;
 import org.jdesktop.observablecollections.ObservableList;
@@ -43,4 +52,242 @@ public class XListBindingTest {
 		assertEquals(4, list.getModel().getSize());			
 	}
 
+	@Test
+	public void testSharedJListBinding() {
+		ObservableList<String> items = ObservableCollections.observableList(new ArrayList<String>());
+		items.addAll(Arrays.asList("Item1", "Item2", "Item3"));
+
+		JList<String> list = new JList<String>();
+		XListBinding bnd = XListBinding.createJListBinding(items, list, true);
+
+		RecordingListDataListener recorder = new RecordingListDataListener();
+		list.getModel().addListDataListener(recorder);
+
+		assertEquals(3, list.getModel().getSize());
+
+		items.add(1, "A");
+		assertEquals("A", list.getModel().getElementAt(1));
+		assertEquals("1:1-1", recorder.events.get(0));
+
+		items.remove("Item3");
+		assertEquals(3, list.getModel().getSize());
+		assertEquals("2:3-3", recorder.events.get(1));
+
+		items.set(0, "B");
+		assertEquals("B", list.getModel().getElementAt(0));
+		assertEquals("0:0-0", recorder.events.get(2));
+
+		// the model is a read-only view of the source list
+		try {
+			((java.util.List) list.getModel()).add("C");
+			fail("Shared list model must not be modifiable");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+
+		// after unbinding the list keeps its last state
+		bnd.unbind();
+		items.add("Item4");
+		assertEquals(3, list.getModel().getSize());
+		assertEquals(Arrays.asList("B", "A", "Item2"), new ArrayList<Object>((java.util.List) list.getModel()));
+	}
+
+	@Test
+	public void testSharedJListBindingReusesUnchangedModel() {
+		ObservableList<String> items = ObservableCollections.observableList(new ArrayList<String>());
+		items.addAll(Arrays.asList("Item1", "Item2", "Item3"));
+
+		JList<String> list = new JList<String>();
+		XListBinding bnd = XListBinding.createJListBinding(items, list, true);
+		PerfBoundListModel model = (PerfBoundListModel) list.getModel();
+
+		// the model still shares the unchanged source list after unbinding
+		bnd.unbind();
+		assertTrue(model.isShared());
+		bnd.bind();
+		assertSame(model, list.getModel());
+		items.add("Item4");
+		assertEquals(4, model.getSize());
+
+		// a change after unbinding makes the model keep the elements before it
+		bnd.unbind();
+		items.beginBatch();
+		items.remove(0);
+		items.add("Item5");
+		items.endBatch();
+		assertFalse(model.isShared());
+		assertEquals(Arrays.asList("Item1", "Item2", "Item3", "Item4"), new ArrayList<Object>(model));
+
+		bnd.bind();
+		assertNotSame(model, list.getModel());
+		assertEquals(4, list.getModel().getSize());
+		assertEquals("Item2", list.getModel().getElementAt(0));
+	}
+
+	@Test
+	public void testJListBindingRangeEvents() {
+		ObservableList<String> items = ObservableCollections.observableList(new ArrayList<String>());
+		items.addAll(Arrays.asList("Item1", "Item2", "Item3"));
+
+		JList<String> list = new JList<String>();
+		XListBinding.createJListBinding(items, list);
+
+		RecordingListDataListener recorder = new RecordingListDataListener();
+		list.getModel().addListDataListener(recorder);
+
+		// insert in the middle of the list
+		items.addAll(1, Arrays.asList("A", "B"));
+		assertEquals(5, list.getModel().getSize());
+		assertEquals("A", list.getModel().getElementAt(1));
+		assertEquals("B", list.getModel().getElementAt(2));
+		assertEquals("Item2", list.getModel().getElementAt(3));
+		assertEquals("1:1-2", recorder.events.get(0));
+
+		// removal has to be reported as removal
+		items.remove(1);
+		assertEquals("2:1-1", recorder.events.get(1));
+		assertEquals("B", list.getModel().getElementAt(1));
+
+		// replaced elements are reflected by the model
+		items.set(0, "C");
+		assertEquals("C", list.getModel().getElementAt(0));
+		assertEquals("0:0-0", recorder.events.get(2));
+		assertEquals(3, recorder.events.size());
+	}
+
+	@Test
+	public void testJListBindingCoalescesBursts() {
+		ObservableList<String> items = ObservableCollections.observableList(new ArrayList<String>());
+		items.addAll(Arrays.asList("Item1", "Item2", "Item3", "Item4"));
+
+		JList<String> list = new JList<String>();
+		XListBinding bnd = XListBinding.createJListBinding(items, list);
+
+		RecordingListDataListener recorder = new RecordingListDataListener();
+		list.getModel().addListDataListener(recorder);
+
+		bnd.beginUpdate();
+		items.add(2, "A");
+		items.add(3, "B");
+		items.add(2, "C");
+		assertTrue(recorder.events.isEmpty());
+		bnd.endUpdate();
+
+		assertEquals(Arrays.asList("1:2-4"), recorder.events);
+		assertEquals("C", list.getModel().getElementAt(2));
+		assertEquals("A", list.getModel().getElementAt(3));
+		assertEquals("B", list.getModel().getElementAt(4));
+
+		recorder.events.clear();
+		bnd.beginUpdate();
+		items.remove(3);
+		items.remove(2);
+		items.remove(2);
+		bnd.endUpdate();
+
+		assertEquals(Arrays.asList("2:2-4"), recorder.events);
+		assertEquals(4, list.getModel().getSize());
+	}
+
+	@Test
+	public void testJListBindingCellSizeCache() throws Exception {
+		ObservableList<String> items = ObservableCollections.observableList(new ArrayList<String>());
+		items.addAll(Arrays.asList("Item1", "Item2", "Item3"));
+
+		JList<String> list = new JList<String>();
+		final List<Integer> renderedRows = new ArrayList<Integer>();
+		list.setCellRenderer(new DefaultListCellRenderer() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+				renderedRows.add(index);
+				return super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+			}
+		});
+		XListBinding bnd = XListBinding.createJListBinding(items, list);
+		XListCellSizeCache cache = bnd.enableCellSizeCache();
+		assertSame(cache, list.getCellRenderer());
+		assertEquals(3, cache.getRowCount());
+
+		// measure all rows
+		list.getUI().getCellBounds(list, 0, 2);
+		assertTrue(cache.isCached(0));
+		assertTrue(cache.isCached(2));
+
+		// only the inserted row has to be measured again
+		items.add(1, "A");
+		assertEquals(4, cache.getRowCount());
+		assertTrue(cache.isCached(0));
+		assertTrue(cache.isCached(2));
+		assertTrue(cache.isCached(3));
+		renderedRows.clear();
+		list.getUI().getCellBounds(list, 0, 3);
+		assertEquals(Arrays.asList(1), renderedRows);
+
+		// cached rows are rendered when they are painted
+		list.setSize(list.getPreferredSize());
+		// the new width invalidates all rows once the resize event has been delivered
+		SwingUtilities.invokeAndWait(() -> {});
+		assertFalse(cache.isCached(0));
+		list.getUI().getCellBounds(list, 0, 3);
+		renderedRows.clear();
+		BufferedImage image = new BufferedImage(list.getWidth(), list.getHeight(), BufferedImage.TYPE_INT_ARGB);
+		Graphics g = image.getGraphics();
+		list.paint(g);
+		g.dispose();
+		assertEquals(Arrays.asList(0, 1, 2, 3), renderedRows);
+
+		// a replaced element invalidates its row only
+		list.getUI().getCellBounds(list, 0, 3);
+		items.set(3, "Replaced");
+		assertTrue(cache.isCached(2));
+		assertFalse(cache.isCached(3));
+
+		items.remove(0);
+		assertEquals(3, cache.getRowCount());
+
+		// the font and the fixed cell width change the size of all rows
+		list.getUI().getCellBounds(list, 0, 2);
+		list.setFont(list.getFont().deriveFont(30f));
+		assertFalse(cache.isCached(0));
+		assertFalse(cache.isCached(2));
+		list.getUI().getCellBounds(list, 0, 2);
+		list.setFixedCellWidth(200);
+		assertFalse(cache.isCached(1));
+
+		list.getUI().getCellBounds(list, 0, 2);
+		bnd.disableCellSizeCache();
+		assertNotSame(cache, list.getCellRenderer());
+		list.setFont(list.getFont().deriveFont(12f));
+		assertTrue(cache.isCached(0));
+	}
+
+	/**
+	 * Records the received ListDataEvents as type:index0-index1
+	 */
+	static class RecordingListDataListener implements ListDataListener {
+
+		List<String> events = new ArrayList<String>();
+
+		private void record(ListDataEvent e) {
+			events.add(e.getType() + ":" + e.getIndex0() + "-" + e.getIndex1());
+		}
+
+		@Override
+		public void intervalAdded(ListDataEvent e) {
+			record(e);
+		}
+
+		@Override
+		public void intervalRemoved(ListDataEvent e) {
+			record(e);
+		}
+
+		@Override
+		public void contentsChanged(ListDataEvent e) {
+			record(e);
+		}
+	}
+
 }
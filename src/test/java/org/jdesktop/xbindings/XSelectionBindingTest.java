@@ -12,11 +12,13 @@ import javax.swing.JList;
 import javax.swing.JTable;
 import javax.swing.ListSelectionModel;
 import javax.swing.RowSorter;
+import javax.swing.SwingUtilities;
 import javax.swing.table.TableRowSorter;
 
 import org.jdesktop.observablecollections.ObservableCollections;
 import org.jdesktop.observablecollections.ObservableCollections.ObservableListHelper;
 import org.jdesktop.observablecollections.ObservableList;
+import org.jdesktop.observablecollections.ObservableListListener;
 import org.junit.Test;
 
 public class XSelectionBindingTest {
@@ -288,6 +290,233 @@ public class XSelectionBindingTest {
 		assertEquals(0, vm.getSelectedItems().size());
 	}	
 	
+	@Test
+	public void testMultiSelectionBindingBatchesChanges() {
+		TestViewModel vm = new TestViewModel();
+		for (int i = 4; i <= 1000; i++)
+			vm.getItems().add("Item" + i);
+
+		JList<String> targetList = new JList<String>();
+		XListBinding.createJListBinding(vm.getItems(), targetList);
+		XSelectionBinding.bindMultiSelection(vm.getItems(), vm.getSelectedItems(), targetList);
+
+		int[] sourceEvents = new int[1];
+		vm.getSelectedItems().addObservableListListener(new CountingListListener(sourceEvents));
+		int[] targetEvents = new int[1];
+		targetList.getSelectionModel().addListSelectionListener(e -> { if (!e.getValueIsAdjusting()) targetEvents[0]++; });
+
+		// select all at the target: one change of the selected items list
+		targetList.getSelectionModel().setSelectionInterval(0, 999);
+		assertEquals(1000, vm.getSelectedItems().size());
+		assertEquals(1, sourceEvents[0]);
+
+		// deselecting a block only removes the deselected items
+		sourceEvents[0] = 0;
+		targetList.getSelectionModel().removeSelectionInterval(10, 19);
+		assertEquals(990, vm.getSelectedItems().size());
+		assertFalse(vm.getSelectedItems().contains("Item11"));
+		assertEquals("Item1", vm.getSelectedItems().get(0));
+
+		// adding many items at the source fires a single (final) selection event
+		vm.getSelectedItems().clear();
+		targetEvents[0] = 0;
+		vm.getSelectedItems().addAll(vm.getItems().subList(100, 200));
+		assertEquals(100, targetList.getSelectedIndices().length);
+		assertEquals(1, targetEvents[0]);
+		assertTrue(targetList.isSelectedIndex(100));
+		assertTrue(targetList.isSelectedIndex(199));
+	}
+
+	@Test
+	public void testMultiSelectionBindingTracksSourceListChanges() {
+		ObservableList<CountingItem> items = ObservableCollections.observableList(new ArrayList<CountingItem>());
+		for (int i = 0; i < 100; i++)
+			items.add(new CountingItem());
+		ObservableList<CountingItem> selectedItems = ObservableCollections.observableList(new ArrayList<CountingItem>());
+
+		JList<CountingItem> targetList = new JList<CountingItem>();
+		XListBinding.createJListBinding(items, targetList);
+		XSelectionBinding.bindMultiSelection(items, selectedItems, targetList);
+
+		targetList.setSelectedIndices(new int[] {10, 20, 30});
+		assertEquals(3, selectedItems.size());
+
+		// only the changed interval is compared, the elements are not searched
+		CountingItem.equalsCalls = 0;
+		targetList.getSelectionModel().addSelectionInterval(40, 41);
+		targetList.getSelectionModel().removeSelectionInterval(10, 10);
+		assertEquals(0, CountingItem.equalsCalls);
+		assertEquals(4, selectedItems.size());
+		assertFalse(selectedItems.contains(items.get(10)));
+		assertTrue(selectedItems.contains(items.get(41)));
+
+		// removing a selected element from the source drops it from the selection
+		CountingItem removed = items.remove(20);
+		assertEquals(3, selectedItems.size());
+		assertFalse(selectedItems.contains(removed));
+
+		// replacing a selected element selects the new one
+		CountingItem replacement = new CountingItem();
+		CountingItem replaced = items.set(29, replacement);
+		assertEquals(3, selectedItems.size());
+		assertFalse(selectedItems.contains(replaced));
+		assertTrue(selectedItems.contains(replacement));
+		assertTrue(targetList.isSelectedIndex(29));
+
+		// further selection changes keep the tracked items
+		targetList.getSelectionModel().addSelectionInterval(0, 0);
+		assertEquals(4, selectedItems.size());
+		assertTrue(selectedItems.contains(items.get(0)));
+		assertTrue(selectedItems.contains(replacement));
+	}
+
+	@Test
+	public void testSelectionFollowsSortedElements() throws Exception {
+		ObservableList<CountingItem> items = ObservableCollections.observableList(new ArrayList<CountingItem>());
+		for (int i = 0; i < 10; i++)
+			items.add(new CountingItem());
+		ObservableList<CountingItem> selectedItems = ObservableCollections.observableList(new ArrayList<CountingItem>());
+
+		JList<CountingItem> targetList = new JList<CountingItem>();
+		XListBinding.createJListBinding(items, targetList);
+		XSelectionBinding.bindMultiSelection(items, selectedItems, targetList);
+
+		SelectedItemHolder holder = new SelectedItemHolder();
+		JTable targetTable = new JTable();
+		XTableBinding tableBinding = XTableBinding.createJTableBinding(items, targetTable);
+		tableBinding.addColumnBinding("Column1");
+		tableBinding.bindSingleSelection(holder, "selectedItem");
+		// the multi selection binding sets its initial selection on the EDT
+		SwingUtilities.invokeAndWait(() -> {});
+
+		CountingItem first = items.get(1);
+		CountingItem second = items.get(2);
+		targetList.setSelectedIndices(new int[] {1, 2});
+		holder.setSelectedItem(first);
+
+		// reverse the order of the elements
+		int[] selectedItemsEvents = new int[1];
+		selectedItems.addObservableListListener(new CountingListListener(selectedItemsEvents));
+		items.sort((a, b) -> Integer.compare(items.indexOf(b), items.indexOf(a)));
+		assertSame(first, items.get(8));
+
+		assertArrayEquals(new int[] {7, 8}, targetList.getSelectedIndices());
+		assertEquals(0, selectedItemsEvents[0]);
+		assertTrue(selectedItems.contains(first));
+		assertTrue(selectedItems.contains(second));
+
+		assertEquals(8, targetTable.getSelectedRow());
+		assertSame(first, holder.getSelectedItem());
+	}
+
+	@Test
+	public void testSingleSelectionTracksIndexOnListChanges() {
+		ObservableList<CountingItem> items = ObservableCollections.observableList(new ArrayList<CountingItem>());
+		for (int i = 0; i < 100; i++)
+			items.add(new CountingItem());
+
+		SelectedItemHolder holder = new SelectedItemHolder();
+		JTable targetTable = new JTable();
+		XTableBinding tableBinding = XTableBinding.createJTableBinding(items, targetTable);
+		tableBinding.addColumnBinding("Column1");
+		tableBinding.bindSingleSelection(holder, "selectedItem");
+
+		CountingItem selected = items.get(50);
+		holder.setSelectedItem(selected);
+		assertEquals(50, targetTable.getSelectedRow());
+
+		// insert and remove elements above the selection
+		CountingItem.equalsCalls = 0;
+		items.add(0, new CountingItem());
+		items.add(10, new CountingItem());
+		items.remove(5);
+		assertEquals(51, targetTable.getSelectedRow());
+		assertSame(selected, holder.getSelectedItem());
+
+		// re-selecting the same element does not search the list
+		holder.setSelectedItem(null);
+		holder.setSelectedItem(selected);
+		assertEquals(51, targetTable.getSelectedRow());
+		assertEquals(0, CountingItem.equalsCalls);
+
+		// replacing the selected element itself requires a lookup
+		CountingItem replacement = new CountingItem();
+		items.set(51, replacement);
+		items.add(52, selected);
+		holder.setSelectedItem(items.get(0));
+		holder.setSelectedItem(selected);
+		assertEquals(52, targetTable.getSelectedRow());
+	}
+
+	/**
+	 * Element which counts how often it is compared using equals()
+	 */
+	public static class CountingItem {
+
+		static int equalsCalls = 0;
+
+		@Override
+		public boolean equals(Object obj) {
+			equalsCalls++;
+			return super.equals(obj);
+		}
+
+		@Override
+		public int hashCode() {
+			return super.hashCode();
+		}
+	}
+
+	/**
+	 * Bean with a single bound property selectedItem
+	 */
+	public static class SelectedItemHolder extends PropertyChangeSupportBase {
+
+		Object selectedItem;
+
+		public Object getSelectedItem() {
+			return selectedItem;
+		}
+
+		public void setSelectedItem(Object selectedItem) {
+			Object oldValue = this.selectedItem;
+			this.selectedItem = selectedItem;
+			firePropertyChanged("selectedItem", oldValue, selectedItem);
+		}
+	}
+
+	/**
+	 * Counts the notifications of an ObservableList
+	 */
+	static class CountingListListener implements ObservableListListener {
+
+		int[] counter;
+
+		CountingListListener(int[] counter) {
+			this.counter = counter;
+		}
+
+		@Override
+		public void listElementsAdded(ObservableList list, int index, int length) {
+			counter[0]++;
+		}
+
+		@Override
+		public void listElementsRemoved(ObservableList list, int index, java.util.List oldElements) {
+			counter[0]++;
+		}
+
+		@Override
+		public void listElementReplaced(ObservableList list, int index, Object oldElement) {
+			counter[0]++;
+		}
+
+		@Override
+		public void listElementPropertyChanged(ObservableList list, int index) {
+			counter[0]++;
+		}
+	}
+
 	/**
 	 * ViewModel used for the tests in this test class
 	 * @author berre
@@ -5,9 +5,11 @@ import static org.junit.Assert.*;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.util.ArrayList;
+import java.util.List;
 
 import javax.swing.JList;
 import javax.swing.JTable;
+import javax.swing.event.TableModelEvent;
 
 import org.jdesktop.beansbinding.BeanProperty;
 import org.jdesktop.beansbinding.Converter;
@@ -65,6 +67,61 @@ public class XTableBindingTest {
 		assertEquals("The number is 2", table.getValueAt(1, 1));				
 	}
 
+	@Test
+	public void testBatchedChangesUpdateTableInRanges() {
+		ObservableList<TestViewModel> items = ObservableCollections.observableList(new ArrayList<TestViewModel>());
+		for (int i = 0; i < 100; i++)
+			items.add(new TestViewModel("Item" + i, i));
+
+		JTable table = new JTable();
+		XTableBinding bnd = XTableBinding.createJTableBinding(items, table);
+		bnd.addColumnBinding("Column1", "strValue");
+
+		List<TableModelEvent> events = new ArrayList<TableModelEvent>();
+		table.getModel().addTableModelListener(e -> events.add(e));
+
+		items.batch(() -> {
+			for (int i = 0; i < 100; i++)
+				items.set(i, new TestViewModel("New" + i, i));
+		});
+		assertEquals(1, events.size());
+		assertEquals(TableModelEvent.UPDATE, events.get(0).getType());
+		assertEquals(0, events.get(0).getFirstRow());
+		assertEquals(99, events.get(0).getLastRow());
+		assertEquals("New42", table.getValueAt(42, 0));
+
+		// sorting the source list reorders the rows with a single update
+		events.clear();
+		items.sort((a, b) -> Integer.compare(b.getIntValue(), a.getIntValue()));
+		assertEquals(1, events.size());
+		assertEquals(TableModelEvent.UPDATE, events.get(0).getType());
+		assertEquals(100, table.getRowCount());
+		assertEquals("New99", table.getValueAt(0, 0));
+		assertEquals("New0", table.getValueAt(99, 0));
+	}
+
+	@Test
+	public void testElementChangesReportedBySourceList() {
+		TestViewModel item = new TestViewModel("Item1", 1);
+		ObservableList<TestViewModel> items = ObservableCollections.observableList(new ArrayList<TestViewModel>(), true);
+		items.add(new TestViewModel("Item0", 0));
+		items.add(item);
+
+		JTable table = new JTable();
+		XTableBinding bnd = XTableBinding.createJTableBinding(items, table);
+		bnd.addColumnBinding("Column1", "strValue");
+
+		// the table model relies on the source list instead of observing the items itself
+		assertEquals(1, item.changeSupport.getPropertyChangeListeners().length);
+
+		List<TableModelEvent> events = new ArrayList<TableModelEvent>();
+		table.getModel().addTableModelListener(e -> events.add(e));
+		item.setStrValue("Changed");
+		assertEquals(1, events.size());
+		assertEquals(1, events.get(0).getFirstRow());
+		assertEquals("Changed", table.getValueAt(1, 0));
+	}
+
 	/**
 	 * ViewModel used for the tests in this test class
 	 * @author berre
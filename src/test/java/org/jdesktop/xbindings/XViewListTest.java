@@ -9,6 +9,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 
+import org.jdesktop.observablecollections.ListChangeSet;
 import org.jdesktop.observablecollections.ObservableCollections;
 import org.jdesktop.observablecollections.ObservableList;
 import org.junit.Rule;
@@ -116,6 +117,26 @@ public class XViewListTest {
 		assertSequenceEquals(view, 8, 2, 4, 1, 5, 3, 2, 1);
 	}
 	
+	@Test
+	public void test_sortFiresSinglePermutation() {
+		ObservableList<Integer> sourceList = ObservableCollections.observableList(new ArrayList<Integer>());
+		sourceList.addAll(Arrays.asList(2, 4, 1, 5));
+		XViewList<Integer> view = new XViewList<>(sourceList);
+
+		List<ListChangeSet> changes = new ArrayList<>();
+		view.addObservableListChangeListener((list, changeSet) -> changes.add(changeSet));
+
+		view.sort(Comparator.naturalOrder());
+		assertSequenceEquals(view, 1, 2, 4, 5);
+		assertEquals(1, changes.size());
+		assertEquals(1, changes.get(0).getChanges().size());
+		assertEquals(ListChangeSet.ChangeType.PERMUTED, changes.get(0).getChanges().get(0).getType());
+
+		// refreshing without any change does not notify at all
+		view.refreshView();
+		assertEquals(1, changes.size());
+	}
+
 	// used to test for exceptions
 	@Rule public ExpectedException thrown= ExpectedException.none();
 	